@@ -9,6 +9,7 @@ import com.tramchester.config.AppConfiguration;
 import com.tramchester.config.TfgmTramLiveDataConfig;
 import com.tramchester.config.TramchesterConfig;
 import com.tramchester.domain.presentation.Version;
+import com.tramchester.graph.search.SearchDeadlines;
 import com.tramchester.healthchecks.LiveDataJobHealthCheck;
 import com.tramchester.livedata.cloud.CountsUploadedLiveData;
 import com.tramchester.livedata.tfgm.LiveDataFetcher;
@@ -224,6 +225,9 @@ public class App extends Application<AppConfiguration>  {
 
         // api end points registration
         registerAPIResources(environment.jersey(), configuration);
+        if (configuration.getPlanningEnabled()) {
+            registersMetricsWithDropwizard.registerMetricsFor(container.get(SearchDeadlines.class));
+        }
 
         // TODO Check this still needed
         logger.info("Set samesite cookie attribute");
@@ -0,0 +1,123 @@
+package com.tramchester.caching;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/***
+ * File layout for BinaryCachesData:
+ * header: magic, format version, length of type name, type name (UTF-8)
+ * payload: as written by BinaryCachesData.writeTo
+ * trailer: payload length, CRC32 of payload
+ * Loaded by memory mapping the file, header and checksum are checked before the payload is handed over.
+ * Written to a temporary file that is then moved into place, so a partly written file is never seen at path.
+ */
+public class BinaryCacheFile {
+    private static final Logger logger = LoggerFactory.getLogger(BinaryCacheFile.class);
+
+    static final int MAGIC = 0x54434348; // TCCH
+    // 2: word counts for route interconnects written as int
+    static final int VERSION = 2;
+    private static final int TRAILER_SIZE = 2 * Long.BYTES;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    public static void write(final Path path, final BinaryCachesData<?> cachesData) throws IOException {
+        final ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(payloadBytes)) {
+            cachesData.writeTo(output);
+        }
+        final byte[] payload = payloadBytes.toByteArray();
+        final byte[] typeName = typeNameFor(cachesData);
+
+        final CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        final ByteBuffer header = ByteBuffer.allocate((3 * Integer.BYTES) + typeName.length);
+        header.putInt(MAGIC).putInt(VERSION).putInt(typeName.length).put(typeName).flip();
+        final ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+        trailer.putLong(payload.length).putLong(crc.getValue()).flip();
+
+        final Path temporary = path.resolveSibling(path.getFileName() + TEMP_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                final ByteBuffer[] buffers = {header, ByteBuffer.wrap(payload), trailer};
+                while (header.hasRemaining() || buffers[1].hasRemaining() || trailer.hasRemaining()) {
+                    channel.write(buffers);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        logger.info("Wrote " + payload.length + " bytes for " + cachesData.getDataType().getSimpleName() + " to " + path);
+    }
+
+    public static void read(final Path path, final BinaryCachesData<?> cachesData) throws IOException, FileDataCache.CacheLoadException {
+        final ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Cache file too large to map " + path + " size " + size);
+            }
+            // mapping remains valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        final int size = buffer.limit();
+        if (size < (3 * Integer.BYTES) + TRAILER_SIZE) {
+            throw new IOException("Cache file truncated " + path + " size " + size);
+        }
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a binary cache file " + path);
+        }
+        final int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Cache file version mismatch for " + path + ", got " + version + " expected " + VERSION);
+        }
+        final int typeNameLength = buffer.getInt();
+        final byte[] expectedTypeName = typeNameFor(cachesData);
+        if (typeNameLength != expectedTypeName.length || typeNameLength > buffer.remaining()) {
+            throw new IOException("Cache file " + path + " is not for " + cachesData.getDataType().getSimpleName());
+        }
+        final byte[] typeName = new byte[typeNameLength];
+        buffer.get(typeName);
+        if (!Arrays.equals(typeName, expectedTypeName)) {
+            throw new IOException("Cache file " + path + " is for " + new String(typeName, StandardCharsets.UTF_8) +
+                    " not " + cachesData.getDataType().getSimpleName());
+        }
+
+        final int payloadStart = buffer.position();
+        final int trailerStart = size - TRAILER_SIZE;
+        final long payloadLength = buffer.getLong(trailerStart);
+        if (payloadStart + payloadLength != trailerStart) {
+            throw new IOException("Payload length mismatch for " + path + ", got " + payloadLength);
+        }
+        final ByteBuffer payload = buffer.slice(payloadStart, (int) payloadLength);
+
+        final CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if (crc.getValue() != buffer.getLong(trailerStart + Long.BYTES)) {
+            throw new IOException("Checksum mismatch for cache file " + path);
+        }
+
+        cachesData.readFrom(payload);
+    }
+
+    private static byte[] typeNameFor(final BinaryCachesData<?> cachesData) {
+        return cachesData.getDataType().getSimpleName().getBytes(StandardCharsets.UTF_8);
+    }
+}
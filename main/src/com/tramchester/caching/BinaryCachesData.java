@@ -0,0 +1,21 @@
+package com.tramchester.caching;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/***
+ * CachesData that FileDataCache saves as a single binary file, see BinaryCacheFile, instead of a record per row, so
+ * loading is a read of bitmaps rather than parsing text. The record based cacheTo and loadFrom remain for other
+ * DataCache implementations.
+ * @param <T> type of the records, also used to register dependencies with the DataCache
+ */
+public interface BinaryCachesData<T extends CachableData> extends FileDataCache.CachesData<T> {
+
+    void writeTo(DataOutput output) throws IOException;
+
+    /***
+     * @param payload the bytes written by writeTo, checksum already verified
+     */
+    void readFrom(ByteBuffer payload) throws FileDataCache.CacheLoadException;
+}
@@ -23,12 +23,19 @@ public class ComponentThatCaches<DATA extends CachableData, CACHES extends FileD
         return dataCache.has(cachesData);
     }
 
+    /***
+     * @return false if no cache present, or if it was invalid and so removed, in which case cachesData may have been
+     * partly loaded and needs to be reset before being rebuilt
+     */
     protected boolean loadFromCache(final CACHES cachesData) {
         final String filename = cachesData.getFilename();
         if (cachePresent(cachesData)) {
             logger.info(format("Loading data from %s of type %s", filename, itemType.getSimpleName()));
-            dataCache.loadInto(cachesData, itemType);
-            return true;
+            if (dataCache.loadInto(cachesData, itemType)) {
+                return true;
+            }
+            logger.warn(format("Cache %s was invalid and has been removed, not loaded", filename));
+            return false;
         }
 
         logger.info(format("Cache %s not present, not loading", filename));
@@ -10,7 +10,10 @@ import java.nio.file.Path;
 public interface DataCache {
     <CACHETYPE extends CachableData, T extends FileDataCache.CachesData<CACHETYPE>> boolean has(T cachesData);
     <CACHETYPE extends CachableData, T extends FileDataCache.CachesData<CACHETYPE>> void save(T cachesData, Class<CACHETYPE> theClass);
-    <CACHETYPE extends CachableData, T extends FileDataCache.CachesData<CACHETYPE>> void loadInto(T cachesData, Class<CACHETYPE> theClass);
+    /***
+     * @return false if the cached data was found to be invalid and was discarded, cachesData may then be partly loaded
+     */
+    <CACHETYPE extends CachableData, T extends FileDataCache.CachesData<CACHETYPE>> boolean loadInto(T cachesData, Class<CACHETYPE> theClass);
     <CACHETYPE extends CachableData, T extends FileDataCache.CachesData<CACHETYPE>> Path getPathFor(T cachesData);
     <CACHETYPE extends CachableData> void register(Class<CACHETYPE> itemType, ImmutableEnumSet<DataSourceID> dependsOn);
 }
@@ -120,6 +120,10 @@ public class FileDataCache implements DataCache {
 
         if (ready) {
             logger.info("Saving " + theClass.getSimpleName() + " to " + path);
+            if (data instanceof BinaryCachesData<?> binaryData) {
+                saveBinary(path, binaryData);
+                return;
+            }
             HasDataSaver<CACHETYPE> hasDataSaver = loaderSaverFactory.getSaverFor(theClass, path);
             data.cacheTo(hasDataSaver);
         } else {
@@ -209,13 +213,17 @@ public class FileDataCache implements DataCache {
     }
 
     @Override
-    public <CACHETYPE extends CachableData, T extends CachesData<CACHETYPE>> void loadInto(T cachesData, Class<CACHETYPE> theClass)  {
+    public <CACHETYPE extends CachableData, T extends CachesData<CACHETYPE>> boolean loadInto(T cachesData, Class<CACHETYPE> theClass)  {
         guardCorrectState();
 
         if (ready) {
             final Path cacheFile = getPathFor(cachesData);
             logger.info("Loading " + cacheFile.toAbsolutePath()  + " to " + theClass.getSimpleName());
 
+            if (cachesData instanceof BinaryCachesData<?> binaryData) {
+                return loadBinary(cacheFile, binaryData);
+            }
+
             final TransportDataFromFile<CACHETYPE> loader = loaderSaverFactory.getDataLoaderFor(theClass, cacheFile);
 
             final Stream<CACHETYPE> data = loader.load();
@@ -228,12 +236,38 @@ public class FileDataCache implements DataCache {
                 throw new RuntimeException(message, exception);
             }
             data.close();
+            return true;
         } else {
             throw new RuntimeException("Attempt to load from " + cachesData.getFilename() + " for " + theClass.getSimpleName()
                     + " when not ready");
         }
     }
 
+    private void saveBinary(final Path path, final BinaryCachesData<?> binaryData) {
+        try {
+            BinaryCacheFile.write(path, binaryData);
+        } catch (IOException exception) {
+            logger.error("Unable to save binary cache file " + path, exception);
+        }
+    }
+
+    /***
+     * A binary cache file from an older version, for a different type, or corrupted, is removed so it is rebuilt
+     * and saved again, rather than failing start up
+     * @return false if the file was invalid and removed
+     */
+    private boolean loadBinary(final Path cacheFile, final BinaryCachesData<?> binaryData) {
+        try {
+            BinaryCacheFile.read(cacheFile, binaryData);
+            return true;
+        } catch (IOException | CacheLoadException exception) {
+            logger.warn(format("Invalid binary cache file %s for %s, removing", cacheFile, binaryData.getDataType().getSimpleName()),
+                    exception);
+            deleteFor(binaryData);
+            return false;
+        }
+    }
+
     private void guardCorrectState() {
         if (cachingDisabled) {
             String msg = "Caching is disabled";
@@ -122,6 +122,20 @@ public class AppConfiguration extends TramchesterConfig {
 
     private Boolean cachingDisabled;
 
+    private Integer searchThreads;
+
+    private Integer searchParallelism;
+
+    private Boolean aStarSearch;
+
+    private Boolean raptorSearch;
+
+    private Boolean paretoSearch;
+
+    private Boolean stationCostMatrix;
+
+    private Boolean searchDeadline;
+
     @NotNull
     private String environmentName;
 
@@ -211,6 +225,60 @@ public class AppConfiguration extends TramchesterConfig {
         return cachingDisabled;
     }
 
+    @JsonProperty("searchThreads")
+    @Override
+    public int getSearchThreads() {
+        if (searchThreads==null) {
+            return 0;
+        }
+        return searchThreads;
+    }
+
+    @JsonProperty("searchParallelism")
+    @Override
+    public int getSearchParallelism() {
+        if (searchParallelism==null) {
+            return 1;
+        }
+        return searchParallelism;
+    }
+
+    @JsonProperty("aStarSearch")
+    @Override
+    public boolean getAStarSearch() {
+        if (aStarSearch==null) {
+            return false;
+        }
+        return aStarSearch;
+    }
+
+    @JsonProperty("raptorSearch")
+    @Override
+    public boolean getRaptorSearch() {
+        if (raptorSearch==null) {
+            return false;
+        }
+        return raptorSearch;
+    }
+
+    @JsonProperty("paretoSearch")
+    @Override
+    public boolean getParetoSearch() {
+        if (paretoSearch==null) {
+            return false;
+        }
+        return paretoSearch;
+    }
+
+    @JsonProperty("stationCostMatrix")
+    @Override
+    public boolean getStationCostMatrix() {
+        if (stationCostMatrix==null) {
+            return false;
+        }
+        return stationCostMatrix;
+    }
+
     @JsonProperty("inMemoryGraph")
     @Override
     public boolean getInMemoryGraph() {
@@ -371,6 +439,15 @@ public class AppConfiguration extends TramchesterConfig {
         return calcTimeoutMillis;
     }
 
+    @JsonProperty("searchDeadline")
+    @Override
+    public boolean getSearchDeadline() {
+        if (searchDeadline==null) {
+            return false;
+        }
+        return searchDeadline;
+    }
+
     @JsonProperty("cloudWatchMetricsFrequencyMinutes")
     @Override
     public long getCloudWatchMetricsFrequencyMinutes() {
@@ -14,11 +14,17 @@ public class GraphDBAppConfig extends Configuration implements GraphDBConfig {
     // TODO Make a path, rename config name
     private final String graphName;
     private final Boolean enableDiagnostics;
+    private final Boolean enableCompactGraph;
+    private final Boolean enableMappedGraph;
 
     public GraphDBAppConfig(@JsonProperty(value = "graphName", required = true) String graphName,
-                            @JsonProperty(value = "enableDiagnostics", required = false, defaultValue = "false") Boolean enableDiagnostics) {
+                            @JsonProperty(value = "enableDiagnostics", required = false, defaultValue = "false") Boolean enableDiagnostics,
+                            @JsonProperty(value = "enableCompactGraph", required = false, defaultValue = "false") Boolean enableCompactGraph,
+                            @JsonProperty(value = "enableMappedGraph", required = false, defaultValue = "false") Boolean enableMappedGraph) {
         this.graphName = graphName;
         this.enableDiagnostics = enableDiagnostics;
+        this.enableCompactGraph = enableCompactGraph;
+        this.enableMappedGraph = enableMappedGraph;
     }
 
     @Override
@@ -34,11 +40,29 @@ public class GraphDBAppConfig extends Configuration implements GraphDBConfig {
         return enableDiagnostics;
     }
 
+    @Override
+    public Boolean enableCompactGraph() {
+        if (enableCompactGraph==null) {
+            return false;
+        }
+        return enableCompactGraph;
+    }
+
+    @Override
+    public Boolean enableMappedGraph() {
+        if (enableMappedGraph==null) {
+            return false;
+        }
+        return enableMappedGraph;
+    }
+
     @Override
     public String toString() {
         return "GraphDBAppConfig{" +
                 "graphName='" + graphName + '\'' +
                 ", enableDiagnostics=" + enableDiagnostics +
+                ", enableCompactGraph=" + enableCompactGraph +
+                ", enableMappedGraph=" + enableMappedGraph +
                 "} " + super.toString();
     }
 }
@@ -12,4 +12,12 @@ public interface GraphDBConfig {
 
     Boolean enableDiagnostics();
 
+    // opt in, defaults to false: once the graph is built, serve immutable transactions from a compact read only copy
+    // so reads are lock free. When off, immutable transactions read the GraphCore, synchronising on its nodes and edges.
+    // Not yet on by default as FrozenGraphReadScalingTest has not been run against the current CompactGraph
+    Boolean enableCompactGraph();
+
+    // serve immutable transactions direct from the memory mapped snapshot when loading a saved graph
+    Boolean enableMappedGraph();
+
 }
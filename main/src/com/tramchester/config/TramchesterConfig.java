@@ -190,6 +190,9 @@ public abstract class TramchesterConfig extends Configuration implements HasRemo
 
     public abstract long getCalcTimeoutMillis();
 
+    // stop journey searches after calcTimeoutMillis, returning the journeys found so far, off unless set
+    public abstract boolean getSearchDeadline();
+
     public abstract long getCloudWatchMetricsFrequencyMinutes();
 
     public abstract boolean getPlanningEnabled();
@@ -204,6 +207,24 @@ public abstract class TramchesterConfig extends Configuration implements HasRemo
 
     public abstract boolean getInMemoryGraph();
 
+    // size of the pool shared by all requests for running journey searches in parallel, 0 to disable
+    public abstract int getSearchThreads();
+
+    // max number of searches run at once for a single journey request
+    public abstract int getSearchParallelism();
+
+    // order the in memory search by cost so far plus a lower bound on the cost to the destination
+    public abstract boolean getAStarSearch();
+
+    // use the round based timetable search for station to station journeys, can be overridden per request
+    public abstract boolean getRaptorSearch();
+
+    // single search keeping journeys that trade off time against changes and walks, instead of a search per number of changes
+    public abstract boolean getParetoSearch();
+
+    // precompute station to station in vehicle costs at startup, size grows with square of stations so tram or tram+train
+    public abstract boolean getStationCostMatrix();
+
     public boolean hasRailConfig() {
         return getRail()!=null;
     }
@@ -0,0 +1,47 @@
+package com.tramchester.dataimport.data;
+
+import com.tramchester.caching.CachableData;
+
+import java.util.List;
+import java.util.Objects;
+
+public class StationCostsData implements CachableData {
+    private String dayType;
+    private int stationIndex;
+    private List<Integer> costs;
+
+    public StationCostsData() {
+        // deserialisation
+    }
+
+    public StationCostsData(String dayType, int stationIndex, List<Integer> costs) {
+        this.dayType = dayType;
+        this.stationIndex = stationIndex;
+        this.costs = costs;
+    }
+
+    public String getDayType() {
+        return dayType;
+    }
+
+    public int getStationIndex() {
+        return stationIndex;
+    }
+
+    public List<Integer> getCosts() {
+        return costs;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StationCostsData that = (StationCostsData) o;
+        return stationIndex == that.stationIndex && dayType.equals(that.dayType) && costs.equals(that.costs);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(dayType, stationIndex, costs);
+    }
+}
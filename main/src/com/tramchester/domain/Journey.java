@@ -129,6 +129,16 @@ public class Journey implements Iterable<TransportStage<?,?>> {
         return requestedNumberChanges;
     }
 
+    /***
+     * @return number of times changed from one vehicle to another, walks and connections are not counted
+     */
+    public int getNumberChanges() {
+        final long vehicleStages = stages.stream().
+                filter(stage -> stage.getMode() != Walk && stage.getMode() != TransportMode.Connect).
+                count();
+        return (int) Math.max(0, vehicleStages - 1);
+    }
+
     public List<ChangeLocation<?>> getChangeStations() {
         // count any change of transport mode as a change station
         if (isDirect()) {
@@ -28,8 +28,10 @@ public class JourneyRequest {
     private boolean diagRequested;
     private boolean warnIfNoResults;
     private boolean cachingDisabled;
+    private Boolean raptorRequested; // null means use config
 
     private final AtomicBoolean diagnosticsReceived;
+    private final AtomicBoolean cutShort;
     private JourneyDiagnostics journeyDiagnostics;
 
     public JourneyRequest(TramDate date, TramTime originalQueryTime, boolean arriveBy, int maxChanges,
@@ -57,6 +59,7 @@ public class JourneyRequest {
         cachingDisabled = false;
         warnIfNoResults = true;
         diagnosticsReceived = new AtomicBoolean(false);
+        cutShort = new AtomicBoolean(false);
 
         final TramDate end = TramchesterConfig.getSummer2026Closures().getEndDate().plusWeeks(1);
         if (date.isAfter(end)) {
@@ -73,6 +76,7 @@ public class JourneyRequest {
                 originalRequest.maxJourneyDuration, originalRequest.maxNumberOfJourneys, originalRequest.requestedModes);
         diagRequested = originalRequest.diagRequested;
         warnIfNoResults = originalRequest.warnIfNoResults;
+        raptorRequested = originalRequest.raptorRequested;
     }
 
     public TramDate getDate() {
@@ -119,6 +123,21 @@ public class JourneyRequest {
         this.cachingDisabled = flag;
     }
 
+    /***
+     * Override the config for this request, see TramchesterConfig getRaptorSearch
+     * @param flag use the round based timetable search instead of the graph
+     */
+    public void setRaptor(boolean flag) {
+        raptorRequested = flag;
+    }
+
+    public boolean useRaptor(final TramchesterConfig config) {
+        if (raptorRequested==null) {
+            return config.getRaptorSearch();
+        }
+        return raptorRequested;
+    }
+
     public TramDuration getMaxJourneyDuration() {
         return maxJourneyDuration;
     }
@@ -175,6 +194,17 @@ public class JourneyRequest {
         return journeyDiagnostics;
     }
 
+    /***
+     * Search stopped by the deadline, see SearchDeadlines, so journeys found are partial
+     */
+    public void setCutShort() {
+        cutShort.set(true);
+    }
+
+    public boolean wasCutShort() {
+        return cutShort.get();
+    }
+
     public boolean getCachingDisabled() {
         return cachingDisabled;
     }
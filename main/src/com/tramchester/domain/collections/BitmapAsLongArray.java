@@ -0,0 +1,398 @@
+package com.tramchester.domain.collections;
+
+import org.roaringbitmap.BatchIterator;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/***
+ * SimpleBitmap backed by a long[], for dense bitmaps where roaring containers cost more than a plain bitset.
+ * Operations between two of these are simple loops over the words, which the JIT unrolls and vectorises, with a
+ * BitmapAsRoaringBitmap they visit the bits set in the roaring bitmap word by word without converting either.
+ * @see SimpleBitmap#create(int, long)
+ */
+public class BitmapAsLongArray implements SimpleBitmap {
+    private static final int BUFFER_SIZE = 256;
+
+    private final long[] words;
+    private final int size;
+
+    public BitmapAsLongArray(final int size) {
+        this(new long[wordsFor(size)], size);
+    }
+
+    private BitmapAsLongArray(final long[] words, final int size) {
+        this.words = words;
+        this.size = size;
+    }
+
+    private static int wordsFor(final int size) {
+        return (size + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    @Override
+    public BitmapAsLongArray createCopy() {
+        return new BitmapAsLongArray(words.clone(), size);
+    }
+
+    /***
+     * for the word by word operations in BitmapAsRoaringBitmap, not to be updated
+     */
+    long[] getWords() {
+        return words;
+    }
+
+    @Override
+    public boolean get(final int position) {
+        if (position >= size) {
+            return false;
+        }
+        return (words[position >>> 6] & (1L << position)) != 0;
+    }
+
+    @Override
+    public void set(final int position) {
+        checkPosition(position);
+        words[position >>> 6] |= (1L << position);
+    }
+
+    @Override
+    public void set(final int[] positionsToSet) {
+        for (final int position : positionsToSet) {
+            set(position);
+        }
+    }
+
+    @Override
+    public void set(final int position, final boolean value) {
+        if (value) {
+            set(position);
+        } else {
+            checkPosition(position);
+            words[position >>> 6] &= ~(1L << position);
+        }
+    }
+
+    @Override
+    public void setAll(final int start, final int end) {
+        setAll(start, end, true);
+    }
+
+    @Override
+    public void setAll(final int start, final int end, final boolean value) {
+        // end is exclusive, as for roaring bitmap
+        if (start >= end) {
+            return;
+        }
+        checkPosition(end - 1);
+        final int firstWord = start >>> 6;
+        final int lastWord = (end - 1) >>> 6;
+        final long firstMask = -1L << start;
+        final long lastMask = -1L >>> -end;
+        if (firstWord == lastWord) {
+            apply(firstWord, firstMask & lastMask, value);
+            return;
+        }
+        apply(firstWord, firstMask, value);
+        Arrays.fill(words, firstWord + 1, lastWord, value ? -1L : 0L);
+        apply(lastWord, lastMask, value);
+    }
+
+    private void apply(final int word, final long mask, final boolean value) {
+        if (value) {
+            words[word] |= mask;
+        } else {
+            words[word] &= ~mask;
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(words, 0L);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (final long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long cardinality() {
+        long result = 0;
+        for (final long word : words) {
+            result = result + Long.bitCount(word);
+        }
+        return result;
+    }
+
+    @Override
+    public BitmapAsLongArray getSubmap(final int start, final int end) {
+        // end is inclusive, as for BitmapAsRoaringBitmap
+        final int submapSize = (end - start) + 1;
+        final BitmapAsLongArray result = new BitmapAsLongArray(submapSize);
+        for (int i = 0; i < result.words.length; i++) {
+            result.words[i] = wordAt(start + (i * Long.SIZE));
+        }
+        result.clearBeyondSize();
+        return result;
+    }
+
+    /***
+     * 64 bits starting at any position, bits beyond the end are zero
+     */
+    private long wordAt(final int position) {
+        final int index = position >>> 6;
+        final int shift = position & 63;
+        if (index >= words.length) {
+            return 0L;
+        }
+        final long low = words[index] >>> shift;
+        if (shift == 0 || index + 1 >= words.length) {
+            return low;
+        }
+        return low | (words[index + 1] << (Long.SIZE - shift));
+    }
+
+    private void clearBeyondSize() {
+        final int remainder = size & 63;
+        if (remainder != 0) {
+            words[words.length - 1] &= -1L >>> (Long.SIZE - remainder);
+        }
+    }
+
+    @Override
+    public Stream<Short> getBitIndexes() {
+        return stream().mapToObj(position -> (short) position);
+    }
+
+    @Override
+    public int[] toArray() {
+        return stream().toArray();
+    }
+
+    private IntStream stream() {
+        return IntStream.range(0, words.length).
+                flatMap(index -> {
+                    long word = words[index];
+                    final int[] positions = new int[Long.bitCount(word)];
+                    for (int i = 0; i < positions.length; i++) {
+                        positions[i] = (index * Long.SIZE) + Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                    }
+                    return IntStream.of(positions);
+                });
+    }
+
+    @Override
+    public void or(final SimpleImmutableBitmap other) {
+        if (other instanceof BitmapAsRoaringBitmap roaring) {
+            final BatchIterator iterator = roaring.getBatchIterator();
+            final int[] buffer = new int[BUFFER_SIZE];
+            while (iterator.hasNext()) {
+                final int read = iterator.nextBatch(buffer);
+                for (int i = 0; i < read && buffer[i] < size; i++) {
+                    words[buffer[i] >>> 6] |= (1L << buffer[i]);
+                }
+            }
+            return;
+        }
+        final long[] otherWords = wordsOf(other);
+        final int length = Math.min(words.length, otherWords.length);
+        for (int i = 0; i < length; i++) {
+            words[i] |= otherWords[i];
+        }
+        clearBeyondSize();
+    }
+
+    @Override
+    public void and(final SimpleImmutableBitmap other) {
+        if (other instanceof BitmapAsRoaringBitmap roaring) {
+            andWith(roaring.getBatchIterator());
+            return;
+        }
+        final long[] otherWords = wordsOf(other);
+        final int length = Math.min(words.length, otherWords.length);
+        for (int i = 0; i < length; i++) {
+            words[i] &= otherWords[i];
+        }
+        Arrays.fill(words, length, words.length, 0L);
+    }
+
+    /***
+     * bits set in the roaring bitmap are gathered into a mask for each word in turn, as they are visited in order
+     */
+    private void andWith(final BatchIterator iterator) {
+        final int[] buffer = new int[BUFFER_SIZE];
+        int current = 0;
+        long mask = 0L;
+        boolean beyondEnd = false;
+        while (!beyondEnd && iterator.hasNext()) {
+            final int read = iterator.nextBatch(buffer);
+            for (int i = 0; i < read; i++) {
+                final int index = buffer[i] >>> 6;
+                if (index >= words.length) {
+                    beyondEnd = true;
+                    break;
+                }
+                while (current < index) {
+                    words[current++] &= mask;
+                    mask = 0L;
+                }
+                mask |= (1L << buffer[i]);
+            }
+        }
+        if (current < words.length) {
+            words[current++] &= mask;
+        }
+        Arrays.fill(words, current, words.length, 0L);
+    }
+
+    @Override
+    public void andNot(final SimpleImmutableBitmap other) {
+        if (other instanceof BitmapAsRoaringBitmap roaring) {
+            final BatchIterator iterator = roaring.getBatchIterator();
+            final int[] buffer = new int[BUFFER_SIZE];
+            while (iterator.hasNext()) {
+                final int read = iterator.nextBatch(buffer);
+                for (int i = 0; i < read && buffer[i] < size; i++) {
+                    words[buffer[i] >>> 6] &= ~(1L << buffer[i]);
+                }
+            }
+            return;
+        }
+        final long[] otherWords = wordsOf(other);
+        final int length = Math.min(words.length, otherWords.length);
+        for (int i = 0; i < length; i++) {
+            words[i] &= ~otherWords[i];
+        }
+    }
+
+    /***
+     * words for the other bitmap, converting if it is neither implementation
+     */
+    private static long[] wordsOf(final SimpleImmutableBitmap other) {
+        if (other instanceof BitmapAsLongArray otherLongArray) {
+            return otherLongArray.words;
+        }
+        final BitmapAsLongArray converted = new BitmapAsLongArray(other.size());
+        other.getBitIndexes().forEach(position -> converted.set(Short.toUnsignedInt(position)));
+        return converted.words;
+    }
+
+    @Override
+    public void orAtOffset(final int offset, final SimpleBitmap other) {
+        if (other instanceof BitmapAsLongArray otherLongArray) {
+            orWordsAt(offset, otherLongArray.words);
+            return;
+        }
+        if (other instanceof BitmapAsRoaringBitmap roaring) {
+            final BatchIterator iterator = roaring.getBatchIterator();
+            final int[] buffer = new int[BUFFER_SIZE];
+            while (iterator.hasNext()) {
+                final int read = iterator.nextBatch(buffer);
+                for (int i = 0; i < read; i++) {
+                    set(offset + buffer[i]);
+                }
+            }
+            return;
+        }
+        final int[] positions = other.toArray();
+        for (final int position : positions) {
+            set(offset + position);
+        }
+    }
+
+    /***
+     * or in words at any bit offset, each word of other spans at most two words here
+     */
+    private void orWordsAt(final int offset, final long[] otherWords) {
+        final int shift = offset & 63;
+        int index = offset >>> 6;
+        for (int i = 0; i < otherWords.length && index < words.length; i++, index++) {
+            final long word = otherWords[i];
+            words[index] |= word << shift;
+            if (shift != 0 && index + 1 < words.length) {
+                words[index + 1] |= word >>> (Long.SIZE - shift);
+            }
+        }
+        clearBeyondSize();
+    }
+
+    @Override
+    public SimpleBitmap copyRowAndColumn(final int row, final int column, final int totalRows, final int totalColumns) {
+        // result holds a single row and column so is sparse
+        final BitmapAsRoaringBitmap result = new BitmapAsRoaringBitmap(size);
+        final int rowStart = row * totalColumns;
+        result.orAtOffset(rowStart, getSubmap(rowStart, rowStart + totalColumns - 1));
+        for (int rowIndex = 0; rowIndex < totalRows; rowIndex++) {
+            final int position = (rowIndex * totalColumns) + column;
+            if (get(position)) {
+                result.set(position);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void writeTo(final DataOutput output) throws IOException {
+        final BitmapAsRoaringBitmap asRoaring = new BitmapAsRoaringBitmap(size);
+        asRoaring.or(this);
+        asRoaring.writeTo(output);
+    }
+
+    @Override
+    public void readFrom(final ByteBuffer buffer) throws IOException {
+        final BitmapAsRoaringBitmap asRoaring = new BitmapAsRoaringBitmap(size);
+        asRoaring.readFrom(buffer);
+        clear();
+        or(asRoaring);
+    }
+
+    @Override
+    public void insert(final int offset, final SimpleBitmap other) {
+        // zero the region where insert will take place
+        setAll(offset, offset + other.size(), false);
+        orAtOffset(offset, other);
+    }
+
+    private void checkPosition(final int position) {
+        if (position < 0 || position >= size) {
+            throw new RuntimeException("Position " + position + " is out of bounds for size " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BitmapAsLongArray{" +
+                "cardinality=" + cardinality() +
+                ", size=" + size +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        BitmapAsLongArray that = (BitmapAsLongArray) o;
+        return size == that.size && Arrays.equals(words, that.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(words) + size;
+    }
+}
@@ -4,10 +4,15 @@ import org.roaringbitmap.BatchIterator;
 import org.roaringbitmap.RoaringBatchIterator;
 import org.roaringbitmap.RoaringBitmap;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.stream.Stream;
 
 public class BitmapAsRoaringBitmap implements SimpleBitmap {
+    private static final int BUFFER_SIZE = 256;
+
     private final RoaringBitmap bitmap;
     private final int size;
 
@@ -20,6 +25,7 @@ public class BitmapAsRoaringBitmap implements SimpleBitmap {
         this.size = size;
     }
 
+    @Override
     public BitmapAsRoaringBitmap createCopy() {
         return new BitmapAsRoaringBitmap(bitmap.clone(), size);
     }
@@ -39,6 +45,7 @@ public class BitmapAsRoaringBitmap implements SimpleBitmap {
         bitmap.clear();
     }
 
+    @Override
     public BitmapAsRoaringBitmap copyRowAndColumn(final int row, final int column, final int totalRows, final int totalColumns) {
         final RoaringBitmap result = new RoaringBitmap();
         extractRow(result, row, totalColumns);
@@ -100,7 +107,7 @@ public class BitmapAsRoaringBitmap implements SimpleBitmap {
     }
 
     @Override
-    public SimpleImmutableBitmap getSubmap(final int submapStart, final int submapEnd) {
+    public BitmapAsRoaringBitmap getSubmap(final int submapStart, final int submapEnd) {
         final int bufferSize = 128;
         final int[] readBuffer = new int[bufferSize];
         final int[] writeBuffer = new int[bufferSize];
@@ -173,14 +180,80 @@ public class BitmapAsRoaringBitmap implements SimpleBitmap {
 
     @Override
     public void or(final SimpleImmutableBitmap other) {
-        final BitmapAsRoaringBitmap otherBitmap = (BitmapAsRoaringBitmap) other;
-        bitmap.or(otherBitmap.bitmap);
+        if (other instanceof BitmapAsLongArray otherLongArray) {
+            orWords(0, otherLongArray.getWords());
+        } else {
+            bitmap.or(roaringFor(other));
+        }
     }
 
     @Override
     public void and(final SimpleImmutableBitmap other) {
-        final BitmapAsRoaringBitmap otherBitmap = (BitmapAsRoaringBitmap) other;
-        bitmap.and(otherBitmap.bitmap);
+        if (other instanceof BitmapAsLongArray otherLongArray) {
+            retain(otherLongArray, true);
+        } else {
+            bitmap.and(roaringFor(other));
+        }
+    }
+
+    /***
+     * roaring bitmap for the other bitmap, BitmapAsLongArray is handled word by word by the callers instead
+     */
+    private static RoaringBitmap roaringFor(final SimpleImmutableBitmap other) {
+        if (other instanceof BitmapAsRoaringBitmap otherBitmap) {
+            return otherBitmap.bitmap;
+        }
+        final RoaringBitmap result = new RoaringBitmap();
+        other.getBitIndexes().forEach(position -> result.add(Short.toUnsignedInt(position)));
+        return result;
+    }
+
+    /***
+     * set the bits from the words of a BitmapAsLongArray, starting at offset
+     */
+    private void orWords(final int offset, final long[] words) {
+        final int[] buffer = new int[Long.SIZE];
+        for (int index = 0; index < words.length; index++) {
+            long word = words[index];
+            int count = 0;
+            while (word != 0) {
+                buffer[count++] = offset + (index * Long.SIZE) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+            bitmap.addN(buffer, 0, count);
+        }
+    }
+
+    /***
+     * keep only the bits that are, or are not, set in other. Visits the bits set here rather than the words of
+     * other, as this is the sparse one
+     */
+    private void retain(final BitmapAsLongArray other, final boolean whenSetInOther) {
+        final int[] readBuffer = new int[BUFFER_SIZE];
+        final int[] writeBuffer = new int[BUFFER_SIZE];
+        final RoaringBitmap kept = new RoaringBitmap();
+
+        final BatchIterator iterator = bitmap.getBatchIterator();
+        while (iterator.hasNext()) {
+            final int read = iterator.nextBatch(readBuffer);
+            int index = 0;
+            for (int i = 0; i < read; i++) {
+                final int position = readBuffer[i];
+                if (other.get(position) == whenSetInOther) {
+                    writeBuffer[index++] = position;
+                }
+            }
+            kept.addN(writeBuffer, 0, index);
+        }
+        // kept is a subset, so this leaves exactly those bits
+        bitmap.and(kept);
+    }
+
+    /***
+     * for the word by word operations in BitmapAsLongArray
+     */
+    BatchIterator getBatchIterator() {
+        return bitmap.getBatchIterator();
     }
 
     public static BitmapAsRoaringBitmap and(final BitmapAsRoaringBitmap bitmapA, final BitmapAsRoaringBitmap bitmapB) {
@@ -193,8 +266,11 @@ public class BitmapAsRoaringBitmap implements SimpleBitmap {
 
     @Override
     public void andNot(final SimpleImmutableBitmap other) {
-        final BitmapAsRoaringBitmap otherBitmap = (BitmapAsRoaringBitmap) other;
-        bitmap.andNot(otherBitmap.bitmap);
+        if (other instanceof BitmapAsLongArray otherLongArray) {
+            retain(otherLongArray, false);
+        } else {
+            bitmap.andNot(roaringFor(other));
+        }
     }
 
     @Override
@@ -230,6 +306,15 @@ public class BitmapAsRoaringBitmap implements SimpleBitmap {
 
     @Override
     public void orAtOffset(final int offset, final SimpleBitmap other) {
+        if (other instanceof BitmapAsLongArray otherLongArray) {
+            orWords(offset, otherLongArray.getWords());
+            return;
+        }
+        if (other instanceof BitmapAsRoaringBitmap otherBitmap) {
+            bitmap.or(RoaringBitmap.addOffset(otherBitmap.bitmap, offset));
+            return;
+        }
+
         final RoaringBitmap mask = new RoaringBitmap();
         final int[] array = other.toArray();
 
@@ -249,6 +334,30 @@ public class BitmapAsRoaringBitmap implements SimpleBitmap {
 //        }
     }
 
+    /***
+     * Roaring serialised form, prefixed by its length. Run optimised on a copy as the bitmap may be read concurrently
+     */
+    @Override
+    public void writeTo(final DataOutput output) throws IOException {
+        final RoaringBitmap optimised = bitmap.clone();
+        optimised.runOptimize();
+        output.writeInt(optimised.serializedSizeInBytes());
+        optimised.serialize(output);
+    }
+
+    @Override
+    public void readFrom(final ByteBuffer buffer) throws IOException {
+        final int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Invalid serialised bitmap length " + length + " with " + buffer.remaining() + " remaining");
+        }
+        bitmap.deserialize(buffer.slice(buffer.position(), length));
+        buffer.position(buffer.position() + length);
+        if (!bitmap.isEmpty() && bitmap.last() >= size) {
+            throw new IOException("Bit " + bitmap.last() + " set beyond size " + size);
+        }
+    }
+
     @Override
     public int[] toArray() {
         return bitmap.toArray();
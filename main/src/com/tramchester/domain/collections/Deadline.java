@@ -0,0 +1,53 @@
+package com.tramchester.domain.collections;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/***
+ * Stops running once the given time has elapsed, calling onExpired exactly once when first seen to have expired.
+ * Safe to share between threads.
+ */
+public class Deadline implements Running {
+    private final LongSupplier nanoClock;
+    private final long expiresAtNanos;
+    private final Runnable onExpired;
+    private final AtomicBoolean expired;
+
+    public Deadline(final long timeoutMillis, final LongSupplier nanoClock, final Runnable onExpired) {
+        this.nanoClock = nanoClock;
+        this.expiresAtNanos = nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.onExpired = onExpired;
+        this.expired = new AtomicBoolean(false);
+    }
+
+    public static Deadline startingNow(final long timeoutMillis, final Runnable onExpired) {
+        return new Deadline(timeoutMillis, System::nanoTime, onExpired);
+    }
+
+    @Override
+    public boolean isRunning() {
+        if (expired.get()) {
+            return false;
+        }
+        // difference rather than compare, nanoTime may overflow
+        if (nanoClock.getAsLong() - expiresAtNanos < 0) {
+            return true;
+        }
+        if (!expired.getAndSet(true)) {
+            onExpired.run();
+        }
+        return false;
+    }
+
+    public boolean hasExpired() {
+        return expired.get();
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{" +
+                "expired=" + expired +
+                '}';
+    }
+}
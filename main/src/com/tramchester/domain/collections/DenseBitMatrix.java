@@ -0,0 +1,208 @@
+package com.tramchester.domain.collections;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/***
+ * Dense rows*columns bit matrix, each row held as whole longs so row operations work a word at a time and rows
+ * can be written from different threads. Used for the boolean matrix products when building route costs,
+ * IndexedBitSet remains the representation that is kept and cached.
+ */
+public class DenseBitMatrix {
+    // rows per task for the product, small enough to spread work, large enough to amortise task overhead
+    private static final int ROWS_PER_BLOCK = 64;
+
+    private final int rows;
+    private final int columns;
+    private final int wordsPerRow;
+    private final long[] words;
+
+    public DenseBitMatrix(final int rows, final int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.wordsPerRow = (columns + Long.SIZE - 1) / Long.SIZE;
+        this.words = new long[rows * wordsPerRow];
+    }
+
+    public static DenseBitMatrix from(final ImmutableIndexedBitSet source, final int rows, final int columns) {
+        final DenseBitMatrix result = new DenseBitMatrix(rows, columns);
+        for (int row = 0; row < rows; row++) {
+            result.setRow(row, source.getBitSetForRow(row));
+        }
+        return result;
+    }
+
+    public void set(final int row, final int column) {
+        checkBounds(row, column);
+        words[offsetFor(row) + (column >>> 6)] |= (1L << column);
+    }
+
+    public boolean isSet(final int row, final int column) {
+        checkBounds(row, column);
+        return (words[offsetFor(row) + (column >>> 6)] & (1L << column)) != 0;
+    }
+
+    /***
+     * Replace the bits for a row
+     * @param row row to update
+     * @param bitmap bits to use, position 0 is column 0
+     */
+    public void setRow(final int row, final SimpleImmutableBitmap bitmap) {
+        final int offset = offsetFor(row);
+        Arrays.fill(words, offset, offset + wordsPerRow, 0L);
+        bitmap.getBitIndexes().forEach(column -> words[offset + (column >>> 6)] |= (1L << column));
+    }
+
+    /***
+     * @param row row to fetch
+     * @return the row as a SimpleBitmap of size columns
+     */
+    public SimpleBitmap getRowAsBitmap(final int row) {
+        final int offset = offsetFor(row);
+        final SimpleBitmap result = SimpleBitmap.create(columns);
+        for (int word = 0; word < wordsPerRow; word++) {
+            long bits = words[offset + word];
+            while (bits != 0) {
+                final int bit = Long.numberOfTrailingZeros(bits);
+                result.set((word * Long.SIZE) + bit);
+                bits &= bits - 1;
+            }
+        }
+        return result;
+    }
+
+    /***
+     * this = this and other, row by row
+     */
+    public void and(final DenseBitMatrix other) {
+        checkSameShape(other);
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= other.words[i];
+        }
+    }
+
+    /***
+     * this = this and not other, row by row
+     */
+    public void andNot(final DenseBitMatrix other) {
+        checkSameShape(other);
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= ~other.words[i];
+        }
+    }
+
+    /***
+     * this = this or other, row by row
+     */
+    public void or(final DenseBitMatrix other) {
+        checkSameShape(other);
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    /***
+     * Boolean matrix product, row i of the result is the 'or' of the rows of other selected by the bits set in row i
+     * of this. Blocks of rows are computed in parallel on the common fork join pool.
+     * @param other right hand side, must have as many rows as this has columns
+     * @return new matrix of this.rows by other.columns
+     */
+    public DenseBitMatrix multiply(final DenseBitMatrix other) {
+        if (columns != other.rows) {
+            throw new RuntimeException("Cannot multiply " + rows + "x" + columns + " by " + other.rows + "x" + other.columns);
+        }
+        final DenseBitMatrix result = new DenseBitMatrix(rows, other.columns);
+        ForkJoinPool.commonPool().invoke(new MultiplyRows(this, other, result, 0, rows));
+        return result;
+    }
+
+    public long cardinality() {
+        long result = 0;
+        for (final long word : words) {
+            result = result + Long.bitCount(word);
+        }
+        return result;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    private void multiplyRow(final int row, final DenseBitMatrix other, final DenseBitMatrix result) {
+        final int offset = offsetFor(row);
+        final int resultOffset = result.offsetFor(row);
+        for (int word = 0; word < wordsPerRow; word++) {
+            long bits = words[offset + word];
+            while (bits != 0) {
+                final int column = (word * Long.SIZE) + Long.numberOfTrailingZeros(bits);
+                final int otherOffset = other.offsetFor(column);
+                for (int i = 0; i < other.wordsPerRow; i++) {
+                    result.words[resultOffset + i] |= other.words[otherOffset + i];
+                }
+                bits &= bits - 1;
+            }
+        }
+    }
+
+    private int offsetFor(final int row) {
+        return row * wordsPerRow;
+    }
+
+    private void checkBounds(final int row, final int column) {
+        if (row >= rows) {
+            throw new RuntimeException("Row " + row + " is out of bounds, more than " + rows);
+        }
+        if (column >= columns) {
+            throw new RuntimeException("Column " + column + " is out of bounds, more than " + columns);
+        }
+    }
+
+    private void checkSameShape(final DenseBitMatrix other) {
+        if (rows != other.rows || columns != other.columns) {
+            throw new RuntimeException("Mismatch on size, " + rows + "x" + columns + " and " + other.rows + "x" + other.columns);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DenseBitMatrix{" +
+                "rows=" + rows +
+                ", columns=" + columns +
+                ", cardinality=" + cardinality() +
+                '}';
+    }
+
+    private static class MultiplyRows extends RecursiveAction {
+        private final DenseBitMatrix left;
+        private final DenseBitMatrix right;
+        private final DenseBitMatrix result;
+        private final int firstRow;
+        private final int endRow;
+
+        private MultiplyRows(DenseBitMatrix left, DenseBitMatrix right, DenseBitMatrix result, int firstRow, int endRow) {
+            this.left = left;
+            this.right = right;
+            this.result = result;
+            this.firstRow = firstRow;
+            this.endRow = endRow;
+        }
+
+        @Override
+        protected void compute() {
+            if (endRow - firstRow <= ROWS_PER_BLOCK) {
+                for (int row = firstRow; row < endRow; row++) {
+                    left.multiplyRow(row, right, result);
+                }
+            } else {
+                final int middle = (firstRow + endRow) >>> 1;
+                invokeAll(new MultiplyRows(left, right, result, firstRow, middle),
+                        new MultiplyRows(left, right, result, middle, endRow));
+            }
+        }
+    }
+}
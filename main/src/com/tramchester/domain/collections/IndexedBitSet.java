@@ -2,6 +2,9 @@ package com.tramchester.domain.collections;
 
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Objects;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -10,18 +13,24 @@ import static java.lang.String.format;
 
 /***
  * Index-able bit map - set of N*M bits [....][....][....]
+ * Backed by a roaring bitmap, or by a long[] when the expected number of bits set is given and is dense,
+ * see SimpleBitmap.create
  */
 public class IndexedBitSet implements ImmutableIndexedBitSet {
     private final int rows;
     private final int columns;
-    private final BitmapAsRoaringBitmap bitmap;
+    private final SimpleBitmap bitmap;
     private final int totalSize;
 
     public static IndexedBitSet Square(int size) {
         return new IndexedBitSet(size, size);
     }
 
-    private IndexedBitSet(int rows, int columns, BitmapAsRoaringBitmap bitmap) {
+    public static IndexedBitSet Square(int size, long expectedBitsSet) {
+        return new IndexedBitSet(size, size, expectedBitsSet);
+    }
+
+    private IndexedBitSet(int rows, int columns, SimpleBitmap bitmap) {
         this.rows = rows;
         this.columns = columns;
         totalSize = rows * columns;
@@ -29,7 +38,11 @@ public class IndexedBitSet implements ImmutableIndexedBitSet {
     }
 
     public IndexedBitSet(int rows, int columns) {
-        this(rows, columns, new BitmapAsRoaringBitmap(rows*columns));
+        this(rows, columns, SimpleBitmap.create(rows*columns));
+    }
+
+    public IndexedBitSet(int rows, int columns, long expectedBitsSet) {
+        this(rows, columns, SimpleBitmap.create(rows*columns, expectedBitsSet));
     }
 
     public static IndexedBitSet getIdentity(int rows, int columns) {
@@ -102,6 +115,22 @@ public class IndexedBitSet implements ImmutableIndexedBitSet {
         bitmap.clear();
     }
 
+    /***
+     * Write bits in binary form, for caching, dimensions are not included
+     * @param output destination
+     */
+    public void writeTo(final DataOutput output) throws IOException {
+        bitmap.writeTo(output);
+    }
+
+    /***
+     * Replace bits from the form written by writeTo
+     * @param buffer source, advanced past the bits read
+     */
+    public void readFrom(final ByteBuffer buffer) throws IOException {
+        bitmap.readFrom(buffer);
+    }
+
     /***
      * Apply a bitmask to one specific row via 'and'
      * @param row the row to apply the bitmask to
@@ -110,12 +139,9 @@ public class IndexedBitSet implements ImmutableIndexedBitSet {
     public void applyAndToRow(final int row, final SimpleImmutableBitmap mask) {
         final int startPosition = getPositionFor(row, 0);
 
-        // TODO more efficient ways to do this via a mask?
-        for (int column = 0; column < columns; column++) {
-            final int bitIndex = startPosition + column;
-            final boolean andValue = bitmap.get(bitIndex) && mask.get(column);
-            bitmap.set(bitIndex, andValue);
-        }
+        final SimpleBitmap forRow = bitmap.getSubmap(startPosition, startPosition + columns - 1);
+        forRow.and(mask);
+        bitmap.insert(startPosition, forRow);
     }
 
     /***
@@ -158,7 +184,7 @@ public class IndexedBitSet implements ImmutableIndexedBitSet {
      */
     @Override
     public IndexedBitSet getCopyOfRowAndColumn(final int row, final int column) {
-        final BitmapAsRoaringBitmap result = bitmap.copyRowAndColumn(row, column, rows, columns);
+        final SimpleBitmap result = bitmap.copyRowAndColumn(row, column, rows, columns);
         return new IndexedBitSet(rows, columns, result);
     }
 
@@ -171,7 +197,10 @@ public class IndexedBitSet implements ImmutableIndexedBitSet {
         if (bitSetA.columns != bitSetB.columns) {
             throw new RuntimeException(format("Mismatch on matrix column size this %s other %s", bitSetA.columns, bitSetB.columns));
         }
-        final BitmapAsRoaringBitmap and = BitmapAsRoaringBitmap.and(bitSetA.bitmap, bitSetB.bitmap);
+        // result has no more bits set than either, so copy the sparser one
+        final boolean aIsSparser = bitSetA.bitmap.cardinality() <= bitSetB.bitmap.cardinality();
+        final SimpleBitmap and = aIsSparser ? bitSetA.bitmap.createCopy() : bitSetB.bitmap.createCopy();
+        and.and(aIsSparser ? bitSetB.bitmap : bitSetA.bitmap);
         return new IndexedBitSet(bitSetA.rows, bitSetA.columns, and);
     }
 
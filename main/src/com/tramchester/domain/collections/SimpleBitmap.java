@@ -1,7 +1,14 @@
 package com.tramchester.domain.collections;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 public interface SimpleBitmap extends SimpleImmutableBitmap {
 
+    // see create(int, long)
+    int DENSE_FRACTION = 16;
+
     void clear();
 
     void set(int position);
@@ -22,6 +29,26 @@ public interface SimpleBitmap extends SimpleImmutableBitmap {
 
     void andNot(SimpleImmutableBitmap other);
 
+    SimpleBitmap createCopy();
+
+    @Override
+    SimpleBitmap getSubmap(int start, int end);
+
+    /***
+     * @return new bitmap with only the bits set in the given row and column, treating this as totalRows*totalColumns
+     */
+    SimpleBitmap copyRowAndColumn(int row, int column, int totalRows, int totalColumns);
+
+    /***
+     * Roaring serialised form, whatever the implementation, so cached data does not depend on the one chosen
+     */
+    void writeTo(DataOutput output) throws IOException;
+
+    /***
+     * Replace contents from the form written by writeTo, advances buffer past it
+     */
+    void readFrom(ByteBuffer buffer) throws IOException;
+
     /***
      * factory method, so can swap bitmap impl's quickly
      * @param size size of the bit
@@ -31,6 +58,20 @@ public interface SimpleBitmap extends SimpleImmutableBitmap {
         return new BitmapAsRoaringBitmap(size);
     }
 
+    /***
+     * factory method, picks a plain long[] bitmap when at least 1 in DENSE_FRACTION bits are expected to be set, as
+     * roaring then uses as much memory (16 bits per set bit) and is slower for and/or over whole bitmaps
+     * @param size size of the bit
+     * @param expectedBitsSet expected cardinality
+     * @return an implementation of SimpleBitmap
+     */
+    static SimpleBitmap create(int size, long expectedBitsSet) {
+        if (expectedBitsSet * DENSE_FRACTION >= size) {
+            return new BitmapAsLongArray(size);
+        }
+        return new BitmapAsRoaringBitmap(size);
+    }
+
     void orAtOffset(int offset, SimpleBitmap other);
 
     int[] toArray();
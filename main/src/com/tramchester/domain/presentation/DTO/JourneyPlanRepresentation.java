@@ -8,6 +8,7 @@ public class JourneyPlanRepresentation {
 
     private Set<JourneyDTO> journeys;
     private JourneyDiagnostics diagnostics;
+    private boolean partial;
 
     @SuppressWarnings("unused")
     public JourneyPlanRepresentation() {
@@ -30,4 +31,15 @@ public class JourneyPlanRepresentation {
     public JourneyDiagnostics getDiagnostics() {
         return diagnostics;
     }
+
+    /***
+     * @return true if the search was stopped by its deadline, so more journeys may exist
+     */
+    public boolean getPartial() {
+        return partial;
+    }
+
+    public void setPartial(boolean partial) {
+        this.partial = partial;
+    }
 }
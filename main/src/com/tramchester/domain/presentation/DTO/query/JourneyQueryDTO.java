@@ -56,6 +56,10 @@ public class JourneyQueryDTO  {
     @JsonProperty("diagnostics")
     private Boolean diagnostics;
 
+    @JsonSetter(nulls = Nulls.SKIP)
+    @JsonProperty("raptor")
+    private Boolean raptor;
+
     public JourneyQueryDTO() {
         modes = Collections.emptySet();
         // deserialisation
@@ -127,6 +131,9 @@ public class JourneyQueryDTO  {
         if (dto.diagnostics!=null) {
             journeyRequest.setDiag(dto.diagnostics);
         }
+        if (dto.raptor!=null) {
+            journeyRequest.setRaptor(dto.raptor);
+        }
         return journeyRequest;
     }
 
@@ -144,6 +151,7 @@ public class JourneyQueryDTO  {
                 ", maxNumResults= " + maxNumResults +
                 ", modes=" + modes +
                 ", diagnostics=" + diagnostics +
+                ", raptor=" + raptor +
                 '}';
     }
 
@@ -209,6 +217,14 @@ public class JourneyQueryDTO  {
         return diagnostics;
     }
 
+    public Boolean getRaptor() {
+        return raptor;
+    }
+
+    public void setRaptor(Boolean raptor) {
+        this.raptor = raptor;
+    }
+
     public void setMaxNumResults(int value) {
         maxNumResults = value;
     }
@@ -75,6 +75,7 @@ public class TimeRangeAllDay implements TimeRange {
 
     @Override
     public int hashCode() {
-        return super.hashCode();
+        // all instances are equal
+        return TimeRangeAllDay.class.hashCode();
     }
 }
@@ -163,7 +163,7 @@ public class AddDiversionsForClosedGraphBuilder extends CreateNodesAndRelationsh
     private boolean hasDBFlag(final GTFSSourceConfig sourceConfig) {
         logger.info("Checking DB if walks added for " + sourceConfig.getName() +  " closed stations");
         final boolean flag;
-        try (final MutableGraphTransaction txn = graphDatabase.beginTxMutable()) {
+        try (final GraphTransaction txn = graphDatabase.beginTx()) {
             final String value = sourceConfig.getName();
 
             flag = txn.hasAnyMatching(GraphLabel.WALK_FOR_CLOSED_ENABLED, SOURCE_NAME_PROP, value);
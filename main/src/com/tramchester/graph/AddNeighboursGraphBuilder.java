@@ -8,6 +8,7 @@ import com.tramchester.domain.places.Station;
 import com.tramchester.domain.time.TramDuration;
 import com.tramchester.graph.core.GraphDatabase;
 import com.tramchester.graph.core.MutableGraphNode;
+import com.tramchester.graph.core.GraphTransaction;
 import com.tramchester.graph.core.MutableGraphTransaction;
 import com.tramchester.graph.databaseManagement.GraphDatabaseMetaInfo;
 import com.tramchester.graph.filters.GraphFilter;
@@ -102,7 +103,8 @@ public class AddNeighboursGraphBuilder extends CreateNodesAndRelationships {
 
     private boolean hasDBFlag() {
         boolean flag;
-        try (MutableGraphTransaction txn = graphDatabase.beginTxMutable()) {
+        // read only, so served from a frozen or mapped graph without loading the graph core
+        try (GraphTransaction txn = graphDatabase.beginTx()) {
             flag = databaseMetaInfo.isNeighboursEnabled(txn);
         }
         return flag;
@@ -143,7 +143,7 @@ public class AddTemporaryStationWalksGraphBuilder extends CreateNodesAndRelation
     private boolean hasDBFlag(final GTFSSourceConfig sourceConfig) {
         logger.info("Checking DB if temp walks added for " + sourceConfig.getName());
         final boolean flag;
-        try (final MutableGraphTransaction txn = graphDatabase.beginTxMutable()) {
+        try (final GraphTransaction txn = graphDatabase.beginTx()) {
             final String value = sourceConfig.getName();
 
             flag = txn.hasAnyMatching(GraphLabel.TEMP_WALKS_ADDED, SOURCE_NAME_PROP, value);
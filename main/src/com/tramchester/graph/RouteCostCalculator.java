@@ -39,4 +39,11 @@ public interface RouteCostCalculator {
 
     TramDuration getAverageCostBetween(GraphTransaction txn, Location<?> startStation, Location<?> endStation,
                                        TramDate date, ImmutableEnumSet<TransportMode> modes) throws InvalidDurationException;
+
+    /***
+     * Lower bound on the cost, which can be from costs precomputed per type of day, see StationCostMatrix, so does not
+     * allow for routes not running or stations closed on the date itself, otherwise as getAverageCostBetween
+     */
+    TramDuration getLeastCostBetween(GraphTransaction txn, Location<?> startStation, Location<?> endStation,
+                                     TramDate date, ImmutableEnumSet<TransportMode> modes) throws InvalidDurationException;
 }
@@ -0,0 +1,131 @@
+package com.tramchester.graph.caches;
+
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.domain.time.TramTime;
+import com.tramchester.graph.search.ArrivalHandler;
+import com.tramchester.graph.search.ImmutableJourneyState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/***
+ * Multi criteria version of LowestCostSeenForTime, for each first boarding time holds the set of arrivals not bettered
+ * on all of duration, number of changes and number of walks by another arrival. A single search with the max changes
+ * then finds journeys trading off time against changes and walking, instead of one search per number of changes.
+ * Created per path request, synchronised so it stays safe if ever shared.
+ */
+public class ParetoArrivals implements ArrivalHandler {
+    private static final Logger logger = LoggerFactory.getLogger(ParetoArrivals.class);
+
+    private final Map<TramTime, List<Label>> labelsForBoardTime;
+    private final Map<TramTime, Integer> boardingTimes;
+    private final int arrivalsLimit; // for a specific time
+
+    public ParetoArrivals(final int arrivalsLimit) {
+        this.arrivalsLimit = arrivalsLimit;
+        labelsForBoardTime = new HashMap<>();
+        boardingTimes = new HashMap<>();
+    }
+
+    @Override
+    public int getArrivalsLimit() {
+        return arrivalsLimit;
+    }
+
+    @Override
+    public synchronized void recordArrival(final ImmutableJourneyState journeyState) {
+        boardingTimes.merge(journeyState.getFirstBoardTime(), 1, Integer::sum);
+    }
+
+    @Override
+    public synchronized boolean overArrivalsLimit(final ImmutableJourneyState journeyState) {
+        final TramTime earliestBoard = journeyState.getFirstBoardTime();
+        // each arrival kept is on the front, so allow one per label as well as the limit
+        final int labels = labelsForBoardTime.containsKey(earliestBoard) ? labelsForBoardTime.get(earliestBoard).size() : 0;
+        return boardingTimes.getOrDefault(earliestBoard, 0) >= arrivalsLimit + labels;
+    }
+
+    @Override
+    public synchronized Outcome checkDuration(final ImmutableJourneyState journeyState) {
+        final Label label = Label.from(journeyState);
+        final List<Label> labels = labelsForBoardTime.get(journeyState.getFirstBoardTime());
+        if (labels == null) {
+            return Outcome.Better;
+        }
+        for (final Label existing : labels) {
+            if (existing.equals(label)) {
+                return Outcome.Same;
+            }
+            if (existing.dominates(label)) {
+                return Outcome.Worse;
+            }
+        }
+        return Outcome.Better;
+    }
+
+    @Override
+    public Outcome checkChanges(final ImmutableJourneyState journeyState, final int numberChanges) {
+        // only reached when the same on all criteria, see checkDuration
+        return Outcome.Same;
+    }
+
+    @Override
+    public synchronized void setLowestCost(final ImmutableJourneyState journeyState) {
+        final Label label = Label.from(journeyState);
+        final List<Label> labels = labelsForBoardTime.computeIfAbsent(journeyState.getFirstBoardTime(), k -> new ArrayList<>());
+        labels.removeIf(label::dominates);
+        labels.add(label);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Front for " + journeyState.getFirstBoardTime() + " is now " + labels);
+        }
+    }
+
+    /***
+     * Cost, changes and walks only grow as the journey continues, so once any of the front is as good on all of them
+     * nothing further along can join the front
+     */
+    @Override
+    public synchronized boolean alreadyLonger(final ImmutableJourneyState journeyState) {
+        final List<Label> labels = labelsForBoardTime.get(journeyState.getFirstBoardTime());
+        if (labels == null) {
+            return false;
+        }
+        final Label label = Label.from(journeyState);
+        return labels.stream().anyMatch(existing -> existing.noWorseThan(label));
+    }
+
+    @Override
+    public boolean alreadyMoreChanges(final ImmutableJourneyState journeyState, final int numberChanges) {
+        // changes are part of the front, see alreadyLonger
+        return false;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ParetoArrivals{" +
+                "labelsForBoardTime=" + labelsForBoardTime +
+                ", boardingTimes=" + boardingTimes +
+                ", arrivalsLimit=" + arrivalsLimit +
+                '}';
+    }
+
+    private record Label(TramDuration duration, int changes, int walks) {
+
+        static Label from(final ImmutableJourneyState journeyState) {
+            return new Label(journeyState.getTotalDurationSoFar(), journeyState.getNumberChanges(),
+                    journeyState.getNumberWalkingConnections() + journeyState.getNumberNeighbourConnections());
+        }
+
+        boolean noWorseThan(final Label other) {
+            return !other.duration.lessThan(duration) && changes <= other.changes && walks <= other.walks;
+        }
+
+        boolean dominates(final Label other) {
+            return noWorseThan(other) && !equals(other);
+        }
+    }
+}
@@ -25,9 +25,15 @@ public interface GraphDatabase {
 
     MutableGraphTransaction beginTimedTxMutable(Logger logger, String text);
 
+    // changes are visible only within the transaction, never committed and discarded on close
+    MutableGraphTransaction beginTxOverlay();
+
     boolean isAvailable(long timeoutMillis);
 
     void waitForIndexes();
 
     void createIndexes();
+
+    // graph building has finished, no further updates expected
+    void buildComplete();
 }
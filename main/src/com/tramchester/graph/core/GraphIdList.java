@@ -1,5 +1,7 @@
 package com.tramchester.graph.core;
 
+/***
+ * Ids of the entities along a path, only equality and hash are required
+ */
 public interface GraphIdList {
-    void add(GraphId id);
 }
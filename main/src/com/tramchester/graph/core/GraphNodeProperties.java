@@ -156,11 +156,13 @@ public abstract class GraphNodeProperties<T extends GraphEntityProperties.GraphP
     @Override
     public void set(final Trip trip) {
         set(trip, graphProps);
+        invalidateCache();
     }
 
     @Override
     public void setStartDate(final TramDate date) {
         graphProps.setProperty(START_DATE, date);
+        invalidateCache();
     }
 
     ///// GET //////////////////////////////////////////////////
@@ -20,7 +20,6 @@ import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -33,6 +32,7 @@ public abstract class TramRouteEvaluator {
     protected final PreviousVisits previousVisits;
     protected final ArrivalHandler bestResultSoFar;
     protected final boolean diagEnabled;
+    protected final HeuristicsReasonFactory reasonFactory;
     protected final int maxWaitMins;
     protected final int maxInitialWaitMins;
     protected final GraphNodeId startNodeId;
@@ -55,6 +55,7 @@ public abstract class TramRouteEvaluator {
         this.previousVisits = previousVisits;
         this.bestResultSoFar = bestResultSoFar;
         this.diagEnabled = reasons.getDiagnosticsEnabled();
+        this.reasonFactory = reasons.getReasonFactory();
         this.maxWaitMins = config.getMaxWait();
         this.maxInitialWaitMins = Math.toIntExact(maxInitialWait.toMinutes());
         this.startNodeId = startNodeId;
@@ -72,17 +73,10 @@ public abstract class TramRouteEvaluator {
         // reuse these, label operations on nodes are expensive
         final GraphLabels labels = nextNode.getLabels();
 
-        final List<PropertyDTO> endNodeProps;
-        if (serviceHeuristics.isDiagnostics()) {
-            endNodeProps = nextNode.getAllProperties().entrySet().stream().
-                    map(PropertyDTO::fromMapEntry).
-                    toList();
-        } else {
-            endNodeProps= Collections.emptyList();
-        }
+        final GraphNodeId nextNodeId = nextNode.getId();
 
-        final GraphNodeId previousNodeId = graphPath.getPreviousNodeId(txn);
-        final HowIGotHere howIGotHere = new HowIGotHere(journeyState, nextNode.getId(), previousNodeId, endNodeProps);
+        // only needed for diagnostics, otherwise null and reasonFactory gives shared instances holding just the code
+        final HowIGotHere howIGotHere = diagEnabled ? createHowIGotHere(graphPath, journeyState, nextNode) : null;
 
         // TODO WIP Spike
 //        if (journeyState.alreadyVisited(nextNode, labels)) {
@@ -94,20 +88,20 @@ public abstract class TramRouteEvaluator {
 
         if (!running.isRunning()) {
             logger.debug("Requested to stop");
-            reasons.recordReason(HeuristicsReasons.SearchStopped(howIGotHere));
+            reasons.recordReason(reasonFactory.SearchStopped(howIGotHere));
             return GraphEvaluationAction.EXCLUDE_AND_PRUNE;
         }
 
         // NOTE: This makes a significant impact on performance, without it algo explore the same
         // path again and again for the same time in the case where it is a valid time.
-        final HeuristicsReason previousResult = previousVisits.getPreviousResult(journeyState, labels, howIGotHere);
+        final HeuristicsReason previousResult = previousVisits.getPreviousResult(journeyState, labels, nextNodeId, howIGotHere);
         final boolean cacheHit = (previousResult.getReasonCode() != ReasonCode.PreviousCacheMiss);
         if (cacheHit) {
-            reasons.recordReason(HeuristicsReasons.Cached(previousResult, howIGotHere));
+            reasons.recordReason(reasonFactory.Cached(previousResult, howIGotHere));
             return GraphEvaluationAction.EXCLUDE_AND_PRUNE;
         }
 
-        reasons.recordReason(HeuristicsReasons.CacheMiss(howIGotHere));
+        reasons.recordReason(reasonFactory.CacheMiss(howIGotHere));
 
         final HeuristicsReason heuristicsReason = doEvaluate(graphPath, journeyState, nextNode, labels, howIGotHere);
 
@@ -116,6 +110,16 @@ public abstract class TramRouteEvaluator {
         return heuristicsReason.getEvaluationAction();
     }
 
+    private HowIGotHere createHowIGotHere(final GraphPath graphPath, final ImmutableJourneyState journeyState, final GraphNode nextNode) {
+        // only called when diagnostics are enabled
+        final List<PropertyDTO> endNodeProps = nextNode.getAllProperties().entrySet().stream().
+                map(PropertyDTO::fromMapEntry).
+                toList();
+
+        final GraphNodeId previousNodeId = graphPath.getPreviousNodeId(txn);
+        return new HowIGotHere(journeyState, nextNode.getId(), previousNodeId, endNodeProps);
+    }
+
     private HeuristicsReason doEvaluate(final GraphPath thePath, final ImmutableJourneyState journeyState,
                                         final GraphNode nextNode,
                                         final GraphLabels nodeLabels, final HowIGotHere howIGotHere) {
@@ -129,11 +133,11 @@ public abstract class TramRouteEvaluator {
             return processArrivalAtDest(journeyState, howIGotHere, numberChanges, totalCostSoFar);
         } else {
             if (bestResultSoFar.alreadyLonger(journeyState)) {
-                return reasons.recordReason(HeuristicsReasons.HigherCost(howIGotHere, totalCostSoFar));
+                return reasons.recordReason(reasonFactory.HigherCost(howIGotHere, totalCostSoFar));
             } else if (bestResultSoFar.alreadyMoreChanges(journeyState, numberChanges)) {
-                return reasons.recordReason(HeuristicsReasons.MoreChanges(howIGotHere, numberChanges));
+                return reasons.recordReason(reasonFactory.MoreChanges(howIGotHere, numberChanges));
             } else if (bestResultSoFar.overArrivalsLimit(journeyState)) {
-                return reasons.recordReason(HeuristicsReasons.ArrivalsLimit(howIGotHere, bestResultSoFar.getArrivalsLimit()));
+                return reasons.recordReason(reasonFactory.ArrivalsLimit(howIGotHere, bestResultSoFar.getArrivalsLimit()));
             }
         }
 
@@ -142,7 +146,7 @@ public abstract class TramRouteEvaluator {
         if (diagEnabled) {
             if (nodeLabels.contains(GraphLabel.GROUPED)) {
                 final IdFor<NPTGLocality> areaId = nextNode.getAreaId();
-                reasons.recordReason(HeuristicReasonsOK.SeenGroup(ReasonCode.SeenGroup, howIGotHere, areaId));
+                reasons.recordReason(reasonFactory.SeenGroup(ReasonCode.SeenGroup, howIGotHere, areaId));
             }
         }
 
@@ -151,7 +155,7 @@ public abstract class TramRouteEvaluator {
         if (journeyState.justBoarded()) {
             if (journeyState.duplicatedBoardingSeen()) {
                 //logger.warn("Already saw boarding at " + nextNodeId);
-                return reasons.recordReason(HeuristicsReasons.AlreadyBoardedAt(howIGotHere));
+                return reasons.recordReason(reasonFactory.AlreadyBoardedAt(howIGotHere));
             }
         }
 
@@ -161,7 +165,7 @@ public abstract class TramRouteEvaluator {
                 logger.warn("Hit max path length");
             }
 
-            return reasons.recordReason(HeuristicsReasons.PathToLong(howIGotHere));
+            return reasons.recordReason(reasonFactory.PathToLong(howIGotHere));
         }
 
         // number of changes?
@@ -191,7 +195,7 @@ public abstract class TramRouteEvaluator {
 
         // returned to the start?
         if ((thePath.length() > 1) && nextNodeId.equals(startNodeId)) {
-            return reasons.recordReason(HeuristicsReasons.ReturnedToStart(howIGotHere));
+            return reasons.recordReason(reasonFactory.ReturnedToStart(howIGotHere));
         }
 
         final TramTime visitingTime = journeyState.getJourneyClock();
@@ -278,11 +282,11 @@ public abstract class TramRouteEvaluator {
 //        if (inboundRelationship != null) {
 //            // for walking routes we do want to include them all even if at same time
 //            if (inboundRelationship.isType(WALKS_TO_STATION)) {
-//                return reasons.recordReason(HeuristicReasonsOK.IsValid(ReasonCode.WalkOk, howIGotHere));
+//                return reasons.recordReason(reasonFactory.IsValid(ReasonCode.WalkOk, howIGotHere));
 //            }
 //        }
 
-        return reasons.recordReason(HeuristicReasonsOK.Continue(howIGotHere));
+        return reasons.recordReason(reasonFactory.Continue(howIGotHere));
     }
 
     @NotNull
@@ -297,20 +301,20 @@ public abstract class TramRouteEvaluator {
         if (timingOutcome == ArrivalHandler.Outcome.Better) {
             // found a better route than seen so far
             bestResultSoFar.setLowestCost(journeyState);
-            return reasons.recordReason(HeuristicReasonsOK.Arrived(howIGotHere, totalCostSoFar, numberChanges));
+            return reasons.recordReason(reasonFactory.Arrived(howIGotHere, totalCostSoFar, numberChanges));
         }
 
         if (timingOutcome == ArrivalHandler.Outcome.Worse) {
-            return reasons.recordReason(HeuristicsReasons.ArrivedLater(howIGotHere, totalCostSoFar, numberChanges));
+            return reasons.recordReason(reasonFactory.ArrivedLater(howIGotHere, totalCostSoFar, numberChanges));
         } // else
         // Same on timings, so look at Changes
 
         final ArrivalHandler.Outcome changesOutcome = bestResultSoFar.checkChanges(journeyState, numberChanges);
 
         return switch (changesOutcome) {
-            case Better -> reasons.recordReason(HeuristicReasonsOK.Arrived(howIGotHere, totalCostSoFar, numberChanges));
-            case Same -> reasons.recordReason(HeuristicsReasons.ArrivedSameChanges(howIGotHere, numberChanges, totalCostSoFar));
-            case Worse -> reasons.recordReason(HeuristicsReasons.ArrivedMoreChanges(howIGotHere, numberChanges, totalCostSoFar));
+            case Better -> reasons.recordReason(reasonFactory.Arrived(howIGotHere, totalCostSoFar, numberChanges));
+            case Same -> reasons.recordReason(reasonFactory.ArrivedSameChanges(howIGotHere, numberChanges, totalCostSoFar));
+            case Worse -> reasons.recordReason(reasonFactory.ArrivedMoreChanges(howIGotHere, numberChanges, totalCostSoFar));
         };
 
     }
@@ -0,0 +1,61 @@
+package com.tramchester.graph.core.inMemory;
+
+import com.tramchester.domain.collections.ImmutableEnumSet;
+import com.tramchester.graph.reference.TransportRelationshipTypes;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/***
+ * Compressed sparse row adjacency, relationships for node n are in entries[offsets[n]] to entries[offsets[n+1]-1],
+ * ordered by type and then by index, with the type ordinal held alongside to allow filtering without a lookup
+ */
+class AdjacencyIndex {
+    private static final TransportRelationshipTypes[] TYPES = TransportRelationshipTypes.values();
+
+    private final int[] offsets;
+    private final int[] entries;
+    private final short[] types;
+
+    /***
+     * @param numberOfNodes number of nodes, dense index
+     * @param nodeForRelationship relationship index -> node index, the start or end node depending on direction
+     * @param typeForRelationship relationship index -> TransportRelationshipTypes ordinal
+     */
+    AdjacencyIndex(final int numberOfNodes, final int[] nodeForRelationship, final short[] typeForRelationship) {
+        offsets = new int[numberOfNodes + 1];
+        for (final int node : nodeForRelationship) {
+            offsets[node + 1]++;
+        }
+        for (int i = 0; i < numberOfNodes; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+
+        final int numberOfRelationships = nodeForRelationship.length;
+
+        // stable sort by type keeps relationship indexes in order within each type
+        final Integer[] byType = IntStream.range(0, numberOfRelationships).boxed().
+                sorted(Comparator.comparingInt(rel -> typeForRelationship[rel])).
+                toArray(Integer[]::new);
+
+        entries = new int[numberOfRelationships];
+        types = new short[numberOfRelationships];
+        final int[] positions = Arrays.copyOf(offsets, numberOfNodes);
+        for (final int rel : byType) {
+            final int position = positions[nodeForRelationship[rel]]++;
+            entries[position] = rel;
+            types[position] = typeForRelationship[rel];
+        }
+    }
+
+    IntStream all(final int node) {
+        return Arrays.stream(entries, offsets[node], offsets[node + 1]);
+    }
+
+    IntStream matching(final int node, final ImmutableEnumSet<TransportRelationshipTypes> wanted) {
+        return IntStream.range(offsets[node], offsets[node + 1]).
+                filter(position -> wanted.contains(TYPES[types[position]])).
+                map(position -> entries[position]);
+    }
+}
@@ -0,0 +1,203 @@
+package com.tramchester.graph.core.inMemory;
+
+import com.tramchester.domain.collections.ImmutableEnumSet;
+import com.tramchester.domain.presentation.DTO.graph.PropertyDTO;
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.graph.GraphPropertyKey;
+import com.tramchester.graph.core.inMemory.persist.GraphSnapshot;
+import com.tramchester.graph.reference.GraphLabel;
+import com.tramchester.graph.reference.GraphLabelsFactory;
+import com.tramchester.graph.reference.TransportRelationshipTypes;
+import com.tramchester.metrics.Timing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.tramchester.graph.GraphPropertyKey.COST;
+
+/***
+ * Read only copy of a GraphCore, built once graph building has completed, the TransactionManager releases the
+ * GraphCore once this is built. Ids, labels, types, end points and costs are held in primitive columns indexed by
+ * position, the remaining properties as encoded blocks in a single byte array, see GraphSnapshot. Nodes and
+ * relationships are decoded from these on access, see ReadOnlyGraph, so no instances from the GraphCore are kept.
+ */
+public class CompactGraph extends ReadOnlyGraph {
+    private static final Logger logger = LoggerFactory.getLogger(CompactGraph.class);
+
+    private static final TransportRelationshipTypes[] TYPES = TransportRelationshipTypes.values();
+    private static final GraphPropertyKey[] KEYS = GraphPropertyKey.values();
+    private static final int NO_COST = -1;
+
+    private final Columns columns;
+    private final ByteBuffer properties;
+    private final GraphLabelsFactory graphLabelsFactory;
+
+    private CompactGraph(final Columns columns, final GraphLabelsFactory graphLabelsFactory) {
+        super(columns.nodeIds(), columns.nodeLabels(), columns.relationshipIds(), columns.relationshipTypes(),
+                columns.startIds(), columns.endIds());
+        this.columns = columns;
+        this.graphLabelsFactory = graphLabelsFactory;
+        properties = ByteBuffer.wrap(columns.properties()).asReadOnlyBuffer();
+    }
+
+    public static CompactGraph createFrom(final GraphCore graphCore, final GraphLabelsFactory graphLabelsFactory) {
+        try (Timing ignored = new Timing(logger, "create compact graph")) {
+            final NodesAndEdges nodesAndEdges = graphCore.getNodesAndEdges();
+
+            // order by id so positions follow creation order
+            final List<GraphNodeInMemory> nodes = nodesAndEdges.getNodes().stream().
+                    sorted(Comparator.comparing(GraphNodeInMemory::getId)).
+                    toList();
+            final List<GraphRelationshipInMemory> relationships = nodesAndEdges.getRelationships().stream().
+                    sorted(Comparator.comparing(GraphRelationshipInMemory::getId)).
+                    toList();
+
+            final CompactGraph compactGraph = new CompactGraph(Columns.from(nodes, relationships), graphLabelsFactory);
+            logger.info("Created " + compactGraph);
+            return compactGraph;
+        }
+    }
+
+    /***
+     * Rebuild a GraphCore, for when updates are needed once frozen. Every node and relationship is decoded afresh,
+     * so updates via the GraphCore are not seen by transactions still reading from this graph.
+     */
+    GraphCore createGraphCore(final GraphIdFactory idFactory, final GraphLabelsFactory graphLabelsFactory) {
+        try (Timing ignored = new Timing(logger, "create graph core from compact graph")) {
+            return GraphCore.createFrom(idFactory, graphLabelsFactory,
+                    IntStream.range(0, getNumberOfNodes()).mapToObj(this::decodeNode),
+                    IntStream.range(0, getNumberOfRelationships()).mapToObj(this::decodeRelationship));
+        }
+    }
+
+    @Override
+    protected GraphNodeInMemory decodeNode(final int index) {
+        final long labelBits = columns.nodeLabels()[index];
+        final EnumSet<GraphLabel> labels = EnumSet.noneOf(GraphLabel.class);
+        for (final GraphLabel label : GraphLabel.values()) {
+            if ((labelBits & (1L << label.ordinal())) != 0) {
+                labels.add(label);
+            }
+        }
+        return new GraphNodeInMemory(new NodeIdInMemory(columns.nodeIds()[index]),
+                graphLabelsFactory.getFor(ImmutableEnumSet.copyOf(labels)),
+                readProperties(columns.nodePropertyOffsets()[index]));
+    }
+
+    @Override
+    protected GraphRelationshipInMemory decodeRelationship(final int index) {
+        final List<PropertyDTO> decoded = readProperties(columns.relationshipPropertyOffsets()[index]);
+        final int cost = columns.costs()[index];
+        if (cost != NO_COST) {
+            decoded.add(new PropertyDTO(COST.getText(), TramDuration.ofSeconds(cost)));
+        }
+        return new GraphRelationshipInMemory(TYPES[columns.relationshipTypes()[index]],
+                new RelationshipIdInMemory(columns.relationshipIds()[index]),
+                new NodeIdInMemory(columns.startIds()[index]), new NodeIdInMemory(columns.endIds()[index]), decoded);
+    }
+
+    private List<PropertyDTO> readProperties(final int offset) {
+        // duplicate so concurrent decodes each have their own position
+        final ByteBuffer block = properties.duplicate().position(offset);
+        try {
+            return new ArrayList<>(GraphSnapshot.readProperties(block, KEYS));
+        } catch (IOException e) {
+            final String msg = "Unable to decode properties at " + offset + " for " + this;
+            logger.error(msg, e);
+            throw new UncheckedIOException(msg, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CompactGraph{" +
+                "nodes=" + getNumberOfNodes() +
+                ", relationships=" + getNumberOfRelationships() +
+                ", propertyBytes=" + columns.properties().length +
+                '}';
+    }
+
+    /***
+     * Primitive columns indexed by position, properties other than cost encoded into one array
+     * @param costs cost in seconds, NO_COST if the relationship has none
+     */
+    private record Columns(int[] nodeIds, long[] nodeLabels, int[] nodePropertyOffsets,
+                           int[] relationshipIds, short[] relationshipTypes, int[] startIds, int[] endIds,
+                           int[] costs, int[] relationshipPropertyOffsets, byte[] properties) {
+
+        static Columns from(final List<GraphNodeInMemory> nodes, final List<GraphRelationshipInMemory> relationships) {
+            final int[] nodeIds = new int[nodes.size()];
+            final long[] nodeLabels = new long[nodes.size()];
+            final int[] nodePropertyOffsets = new int[nodes.size()];
+
+            final int[] relationshipIds = new int[relationships.size()];
+            final short[] relationshipTypes = new short[relationships.size()];
+            final int[] startIds = new int[relationships.size()];
+            final int[] endIds = new int[relationships.size()];
+            final int[] costs = new int[relationships.size()];
+            final int[] relationshipPropertyOffsets = new int[relationships.size()];
+
+            final GraphSnapshot encoder = new GraphSnapshot();
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (final DataOutputStream output = new DataOutputStream(bytes)) {
+                for (int i = 0; i < nodes.size(); i++) {
+                    final GraphNodeInMemory node = nodes.get(i);
+                    nodeIds[i] = node.getId().getInternalId();
+                    long labelBits = 0L;
+                    for (final GraphLabel label : node.getLabels()) {
+                        labelBits = labelBits | (1L << label.ordinal());
+                    }
+                    nodeLabels[i] = labelBits;
+                    nodePropertyOffsets[i] = output.size();
+                    encoder.writeProperties(output, node.getProperties());
+                }
+                for (int i = 0; i < relationships.size(); i++) {
+                    final GraphRelationshipInMemory relationship = relationships.get(i);
+                    relationshipIds[i] = relationship.getId().getInternalId();
+                    relationshipTypes[i] = (short) relationship.getType().ordinal();
+                    startIds[i] = relationship.getStartId().getInternalId();
+                    endIds[i] = relationship.getEndId().getInternalId();
+                    costs[i] = NO_COST;
+
+                    final List<PropertyDTO> remaining = new ArrayList<>();
+                    for (final PropertyDTO property : relationship.getProperties()) {
+                        if (isCost(property)) {
+                            costs[i] = (int) ((TramDuration) property.getContainedValue()).toSeconds();
+                        } else {
+                            remaining.add(property);
+                        }
+                    }
+                    relationshipPropertyOffsets[i] = output.size();
+                    encoder.writeProperties(output, remaining);
+                }
+            } catch (IOException e) {
+                // writes to memory, so only for a property that cannot be encoded
+                final String msg = "Unable to encode properties for compact graph";
+                logger.error(msg, e);
+                throw new UncheckedIOException(msg, e);
+            }
+
+            return new Columns(nodeIds, nodeLabels, nodePropertyOffsets, relationshipIds, relationshipTypes, startIds,
+                    endIds, costs, relationshipPropertyOffsets, bytes.toByteArray());
+        }
+
+        private static boolean isCost(final PropertyDTO property) {
+            if (!COST.getText().equals(property.getKey())) {
+                return false;
+            }
+            // anything else stays in the property block, and so gives the same error on read as before
+            return property.getContainedValue() instanceof TramDuration duration && duration.isValid() &&
+                    duration.toSeconds() >= 0 && duration.toSeconds() <= Integer.MAX_VALUE;
+        }
+    }
+}
@@ -32,6 +32,8 @@ public class GraphCore implements Graph {
     private final NodesAndEdges nodesAndEdges;
 
     private final ConcurrentMap<GraphLabel, Set<NodeIdInMemory>> labelsToNodes;
+    // only maintained for global scope, nodes held update it as their labels or properties change
+    private final NodePropertyIndex propertyIndex;
 
     private final RelationshipsForNodes relationshipsForNodes;
     private final ConcurrentMap<NodeIdPair, ImmutableEnumSet<TransportRelationshipTypes>> relationshipTypesBetweenNodes;
@@ -55,6 +57,7 @@ public class GraphCore implements Graph {
 
         relationshipsForNodes = new RelationshipsForNodes();
         labelsToNodes = new ConcurrentHashMap<>();
+        propertyIndex = new NodePropertyIndex(true);
         relationshipTypeCounts = new RelationshipTypeCounts();
         relationshipTypesBetweenNodes = new ConcurrentHashMap<>();
 
@@ -111,6 +114,7 @@ public class GraphCore implements Graph {
             relationshipTypeCounts.reset();
 
             labelsToNodes.clear();
+            propertyIndex.clear();
         }
 
         level.log("stopped " + postfix);
@@ -150,12 +154,18 @@ public class GraphCore implements Graph {
             // update labels for the node
             final GraphLabels labels = node.getLabels();
             labels.forEach(label -> labelsToNodes.get(label).add(id));
+            addToIndex(node);
         });
         // using loaded id's so work out new next node id
         updateNextNodeId();
         logger.info("Loaded nodes");
     }
 
+    private void addToIndex(final GraphNodeInMemory node) {
+        propertyIndex.add(node);
+        node.indexIn(propertyIndex);
+    }
+
     private synchronized void updateNextNodeId() {
         nodesAndEdges.refreshNextNodeIdInto(idFactory);
     }
@@ -183,6 +193,16 @@ public class GraphCore implements Graph {
 
     synchronized GraphNodeInMemory insertNode(final GraphNodeInMemory nodeToInsert, final GraphLabels labels) {
         final NodeIdInMemory id = nodeToInsert.getId();
+        if (!local) {
+            // replacing an existing node on commit, index entries for it are replaced by those for the new version
+            if (nodesAndEdges.hasNode(id)) {
+                final GraphNodeInMemory existing = nodesAndEdges.getNode(id);
+                if (existing != nodeToInsert) {
+                    existing.indexIn(null);
+                }
+            }
+            addToIndex(nodeToInsert);
+        }
         nodesAndEdges.addNode(id, nodeToInsert);
         labels.forEach(label -> labelsToNodes.get(label).add(id));
         return nodeToInsert;
@@ -371,8 +391,14 @@ public class GraphCore implements Graph {
             // relationships
             relationshipsForNodes.remove(id);
             // label map
-            final GraphLabels labels = nodesAndEdges.getNode(id).getLabels();
+            final GraphNodeInMemory node = nodesAndEdges.getNode(id);
+            final GraphLabels labels = node.getLabels();
             labels.forEach(label -> labelsToNodes.get(label).remove(id));
+            // property index
+            if (!local) {
+                node.indexIn(null);
+                propertyIndex.remove(id);
+            }
             // the node
             nodesAndEdges.removeNode(id);
         }
@@ -429,6 +455,14 @@ public class GraphCore implements Graph {
 
     @Override
     public Stream<GraphNode> findNodesImmutable(final GraphLabel label, final GraphPropertyKey key, final String value) {
+        if (!local && NodePropertyIndex.covers(key)) {
+            synchronized (nodesAndEdges) {
+                final List<GraphNode> found = propertyIndex.find(label, key, value).stream().
+                        <GraphNode>map(nodesAndEdges::getNode).
+                        toList();
+                return found.stream();
+            }
+        }
         return findNodesMutable(label).
                 filter(node -> node.hasProperty(key)).
                 filter(node -> node.getProperty(key).equals(value)).
@@ -460,6 +494,10 @@ public class GraphCore implements Graph {
     public void addLabel(final NodeIdInMemory id, final GraphLabel label) {
         synchronized (nodesAndEdges) {
             labelsToNodes.get(label).add(id);
+            if (!local && nodesAndEdges.hasNode(id)) {
+                // node labels already updated, so replaces entries with those including the new label
+                propertyIndex.add(nodesAndEdges.getNode(id));
+            }
         }
     }
 
@@ -518,6 +556,7 @@ public class GraphCore implements Graph {
         return "Graph{" +
                 ", nodesAndEdges=" + nodesAndEdges +
                 ", labelsToNodes=" + labelsToNodes.size() +
+                ", propertyIndex=" + propertyIndex +
                 ", relationshipsForNodes=" + relationshipsForNodes.size() +
                 ", relationshipTypesBetweenNodes=" + relationshipTypesBetweenNodes.size() +
                 ", relationshipTypeCounts=" + relationshipTypeCounts +
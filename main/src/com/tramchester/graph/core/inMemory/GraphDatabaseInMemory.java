@@ -139,6 +139,12 @@ public class GraphDatabaseInMemory implements GraphDatabase {
         return transactionManager.createTimedTransaction(logger, text, false);
     }
 
+    @Override
+    public MutableGraphTransaction beginTxOverlay() {
+        guardForNotStarted();
+        return transactionManager.createOverlayTransaction();
+    }
+
     private MutableGraphTransaction beginTxInMemory(final Duration timeout, boolean immutable) {
         guardForNotStarted();
         //final TransactionManager transactionManager = serviceManager.getTransactionManager();
@@ -159,4 +165,14 @@ public class GraphDatabaseInMemory implements GraphDatabase {
     public void createIndexes() {
         // no-op
     }
+
+    @Override
+    public void buildComplete() {
+        if (config.getGraphDBConfig().enableCompactGraph()) {
+            guardForNotStarted();
+            transactionManager.freeze();
+        } else {
+            logger.info("Compact graph not enabled (opt in via enableCompactGraph), immutable transactions read the graph core");
+        }
+    }
 }
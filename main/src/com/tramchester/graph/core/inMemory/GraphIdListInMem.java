@@ -18,7 +18,6 @@ public class GraphIdListInMem implements GraphIdList {
         ids = new ArrayList<>();
     }
 
-    @Override
     public void add(final GraphId id) {
         final InternalGraphId internalGraphId = (InternalGraphId) id;
         ids.add(internalGraphId.getInternalId());
@@ -4,6 +4,7 @@ import com.netflix.governator.guice.lazy.LazySingleton;
 import com.tramchester.config.TramchesterConfig;
 import com.tramchester.graph.core.GraphTransaction;
 import com.tramchester.graph.core.inMemory.persist.GraphPersistence;
+import com.tramchester.graph.core.inMemory.persist.SnapshotFile;
 import com.tramchester.graph.databaseManagement.GraphDatabaseStoredVersions;
 import com.tramchester.graph.reference.GraphLabelsFactory;
 import com.tramchester.repository.DataSourceRepository;
@@ -15,6 +16,7 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Optional;
 
 @LazySingleton
 public class GraphInMemoryServiceManager {
@@ -26,10 +28,13 @@ public class GraphInMemoryServiceManager {
     private final GraphPersistence graphPersistence;
     private final GraphLabelsFactory graphLabelsFactory;
 
-    private GraphCore graphCore;
+    // owns the graph core, which may be loaded on demand or released once frozen
     private TransactionManager transactionManager;
     private boolean loadedFromDisc;
 
+    // set when serving from a mapped snapshot, the graph core is then only loaded from here if it is needed
+    private Path deferredLoadPath;
+
     @Inject
     public GraphInMemoryServiceManager(GraphIdFactory idFactory, GraphDatabaseStoredVersions storedVersions,
                                        TramchesterConfig config, GraphPersistence graphPersistence,
@@ -39,7 +44,8 @@ public class GraphInMemoryServiceManager {
         this.config = config;
         this.graphPersistence = graphPersistence;
         this.graphLabelsFactory = graphLabelsFactory;
-        graphCore = null;
+        transactionManager = null;
+        deferredLoadPath = null;
     }
 
     @PostConstruct
@@ -58,7 +64,7 @@ public class GraphInMemoryServiceManager {
     }
 
     public void startDatabase(DataSourceRepository dataSourceRepository, Path dbFolderPath, boolean folderExists) {
-        if (graphCore != null) {
+        if (isStarted()) {
             String message = "Already started";
             logger.error(message);
             throw new RuntimeException(message);
@@ -81,7 +87,8 @@ public class GraphInMemoryServiceManager {
             if (createEmptyDB) {
                 logger.warn("DB loaded, out of date " + dbFolderPath.toAbsolutePath());
                 transactionManager.stop();
-                graphCore.stop();
+                stopCore();
+                transactionManager = null;
             } else {
                 logger.info("DB loaded, up to date " + dbFolderPath.toAbsolutePath());
             }
@@ -93,7 +100,7 @@ public class GraphInMemoryServiceManager {
         if (createEmptyDB) {
             logger.warn("Creating clean DB");
             loadedFromDisc = false;
-            graphCore = new GraphCore(idFactory, graphLabelsFactory,false);
+            final GraphCore graphCore = new GraphCore(idFactory, graphLabelsFactory,false);
             graphCore.start();
             transactionManager = new TransactionManager(graphCore, idFactory, graphLabelsFactory);
         }
@@ -103,10 +110,12 @@ public class GraphInMemoryServiceManager {
 
     public void stopDatabase(final boolean saveGraph, final Path dbFolderPath) {
         logger.info("Stopping DB");
-        if (graphCore==null) {
+        if (!isStarted()) {
             logger.warn("Already stopped");
         } else {
-            if (saveGraph) {
+            if (saveGraph && deferredLoadPath!=null && !transactionManager.hasCommitted()) {
+                logger.info("No changes committed to graph loaded from " + deferredLoadPath.toAbsolutePath() + ", nothing to save");
+            } else if (saveGraph) {
                 logger.info("Saved DB to " + dbFolderPath.toAbsolutePath());
                 boolean result = graphPersistence.save(dbFolderPath, this);
                 if (result) {
@@ -118,14 +127,23 @@ public class GraphInMemoryServiceManager {
                 logger.info("Save not requested");
             }
             transactionManager.stop();
-            graphCore.stop();
-            graphCore = null;
+            stopCore();
+            transactionManager = null;
         }
         logger.info("Stopped DB");
     }
 
+    private void stopCore() {
+        transactionManager.stopCore();
+        deferredLoadPath = null;
+    }
+
+    private boolean isStarted() {
+        return transactionManager!=null;
+    }
+
     private void guardNotStarted() {
-        if (graphCore==null) {
+        if (!isStarted()) {
             String message = "Not started";
             logger.error(message);
             throw new RuntimeException(message);
@@ -134,7 +152,12 @@ public class GraphInMemoryServiceManager {
 
     public GraphCore getGraphCore() {
         guardNotStarted();
-        return graphCore;
+        return transactionManager.getGraphCore();
+    }
+
+    private GraphCore loadDeferredCore(final Path path) {
+        logger.info("Loading deferred graph core from " + path.toAbsolutePath());
+        return graphPersistence.loadDBFrom(path, idFactory, graphLabelsFactory);
     }
 
     public TransactionManager getTransactionManager() {
@@ -143,7 +166,7 @@ public class GraphInMemoryServiceManager {
     }
 
     private void loadFrom(final Path path) {
-        if (this.graphCore!=null) {
+        if (isStarted()) {
             String message = "Attempted to overwrite via load";
             logger.error(message);
             throw new RuntimeException(message);
@@ -155,8 +178,19 @@ public class GraphInMemoryServiceManager {
             throw new RuntimeException(message);
         }
 
+        if (config.getGraphDBConfig().enableMappedGraph()) {
+            final Optional<SnapshotFile> snapshot = graphPersistence.openSnapshot(path);
+            if (snapshot.isPresent()) {
+                final MappedGraph mappedGraph = MappedGraph.createFrom(snapshot.get(), graphLabelsFactory);
+                this.deferredLoadPath = path;
+                this.transactionManager = new TransactionManager(() -> loadDeferredCore(path), mappedGraph, idFactory,
+                        graphLabelsFactory);
+                return;
+            }
+            logger.warn("Mapped graph enabled but no usable snapshot in " + path.toAbsolutePath());
+        }
+
         final GraphCore core = graphPersistence.loadDBFrom(path, idFactory, graphLabelsFactory);
-        this.graphCore = core;
         this.transactionManager = new TransactionManager(core, idFactory, graphLabelsFactory);
     }
 
@@ -24,6 +24,8 @@ public class GraphNodeInMemory extends GraphNodeProperties<PropertyContainer> {
     private final AtomicInteger dirtyCount;
 
     private GraphLabels graphLabels;
+    // set while this node is held by the global GraphCore, so changes are reflected in its property index
+    private volatile NodePropertyIndex index;
 
     public GraphNodeInMemory(final NodeIdInMemory id, final GraphLabels graphLabels, final boolean diagnostics) {
         this(new PropertyContainer(diagnostics), id, graphLabels);
@@ -53,6 +55,17 @@ public class GraphNodeInMemory extends GraphNodeProperties<PropertyContainer> {
     @Override
     protected void invalidateCache() {
         dirtyCount.getAndIncrement();
+        final NodePropertyIndex current = index;
+        if (current != null) {
+            current.add(this);
+        }
+    }
+
+    /***
+     * @param index index to update when labels or properties change, null once no longer held by its owner
+     */
+    void indexIn(final NodePropertyIndex index) {
+        this.index = index;
     }
 
     @JsonIgnore
@@ -174,8 +187,8 @@ public class GraphNodeInMemory extends GraphNodeProperties<PropertyContainer> {
         final GraphTransactionInMemory inMemoryTxn = (GraphTransactionInMemory) txn;
         //labels.add(label);
         //labelsContainer.add(txn, label);
-        invalidateCache();
         graphLabels = txn.updateLabels(graphLabels, toAdd);
+        invalidateCache();
         // update labels to nodes mapping in GraphCore
         inMemoryTxn.addLabel(id, toAdd);
     }
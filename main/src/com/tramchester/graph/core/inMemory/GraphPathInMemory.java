@@ -6,64 +6,48 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.Iterator;
 import java.util.Objects;
-import java.util.Optional;
 
 public class GraphPathInMemory implements GraphPath {
 
-    private final EntityList entityList;
-    private GraphNode lastAddedNode;
-    private GraphRelationship lastAddedRelationship;
+    // immutable and shared between duplicates, so duplicating and extending a path are O(1)
+    private final PathEntities entities;
+    private final GraphNode lastAddedNode;
+    private final GraphRelationship lastAddedRelationship;
 
     public GraphPathInMemory() {
-        entityList = EntityList.Simple.create();
+        this(PathEntities.EMPTY, null, null);
     }
 
-    private GraphPathInMemory(final GraphPathInMemory original) {
-        entityList = original.entityList.branchFrom();
-        lastAddedNode = original.lastAddedNode;
-        lastAddedRelationship = original.lastAddedRelationship;
+    private GraphPathInMemory(final PathEntities entities, final GraphNode lastAddedNode,
+                              final GraphRelationship lastAddedRelationship) {
+        this.entities = entities;
+        this.lastAddedNode = lastAddedNode;
+        this.lastAddedRelationship = lastAddedRelationship;
     }
 
     public GraphPathInMemory duplicate() {
-        return new GraphPathInMemory(this);
+        return new GraphPathInMemory(entities, lastAddedNode, lastAddedRelationship);
     }
 
     public GraphPathInMemory duplicateWith(final GraphTransaction txn, final GraphRelationship graphRelationship) {
-        return duplicate().addRelationship(txn, graphRelationship);
+        if (lastAddedNode==null) {
+            throw new RuntimeException("No last added node for " + this + " trying to add " + graphRelationship);
+        }
+        if (!graphRelationship.getStartNodeId(txn).equals(lastAddedNode.getId())) {
+            throw new RuntimeException("Consistency check failure, last node was " + lastAddedNode +
+                    " but start does not match " + entities);
+        }
+        return new GraphPathInMemory(entities.append(graphRelationship), lastAddedNode, graphRelationship);
     }
 
     @Override
     public GraphPathInMemory duplicateWith(final GraphTransaction txn, final GraphNode currentNode) {
-        return duplicate().addNode(txn, currentNode);
-    }
-
-    private GraphPathInMemory addNode(final GraphTransaction txn, final GraphNode node) {
-        synchronized (entityList) {
-            lastAddedNode = node;
-            entityList.add(node);
-        }
-        return this;
-    }
-
-    private GraphPathInMemory addRelationship(final GraphTransaction txn, final GraphRelationship graphRelationship) {
-        synchronized (entityList) {
-            if (lastAddedNode==null) {
-                throw new RuntimeException("No last added node for " + this + " trying to add " + graphRelationship);
-            }
-            if (!graphRelationship.getStartNodeId(txn).equals(lastAddedNode.getId())) {
-                throw new RuntimeException("Consistency check failure, last node was " + lastAddedNode +
-                        " but start does not match " + entityList);
-            }
-
-            lastAddedRelationship = graphRelationship;
-            entityList.add(graphRelationship);
-        }
-        return this;
+        return new GraphPathInMemory(entities.append(currentNode), currentNode, lastAddedRelationship);
     }
 
     @Override
     public int length() {
-        return entityList.size();
+        return entities.size();
     }
 
     @Override
@@ -71,27 +55,23 @@ public class GraphPathInMemory implements GraphPath {
         return new Iterable<>() {
             @Override
             public @NotNull Iterator<GraphEntity<? extends GraphId>> iterator() {
-                return entityList.stream().iterator();
+                return entities.stream().iterator();
             }
         };
     }
 
     @Override
     public GraphNode getStartNode(final GraphTransaction txn) {
-        final Optional<GraphEntity<? extends GraphId>> found = entityList.stream().
-                filter(GraphEntity::isNode).
-                findFirst();
-        if (found.isEmpty()) {
+        final GraphNode found = entities.getFirstNode();
+        if (found==null) {
             throw new RuntimeException("Could not find a start node");
         }
-        return (GraphNode) found.get();
+        return found;
     }
 
     @Override
     public GraphNode getEndNode(final GraphTransaction txn) {
-        synchronized (entityList) {
-            return lastAddedNode;
-        }
+        return lastAddedNode;
     }
 
     @Override
@@ -99,7 +79,7 @@ public class GraphPathInMemory implements GraphPath {
         return new Iterable<>() {
             @Override
             public @NotNull Iterator<GraphNode> iterator() {
-                return entityList.stream().
+                return entities.stream().
                         filter(GraphEntity::isNode).
                         map(item -> (GraphNode)item).
                         iterator();
@@ -109,9 +89,7 @@ public class GraphPathInMemory implements GraphPath {
 
     @Override
     public GraphRelationship getLastRelationship(final GraphTransaction txn) {
-        synchronized (entityList) {
-            return lastAddedRelationship;
-        }
+        return lastAddedRelationship;
     }
 
     @Override
@@ -127,42 +105,35 @@ public class GraphPathInMemory implements GraphPath {
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) return false;
         GraphPathInMemory that = (GraphPathInMemory) o;
-        return Objects.equals(entityList, that.entityList);
+        return Objects.equals(entities, that.entities);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(entityList);
+        return Objects.hashCode(entities);
     }
 
     @Override
     public String toString() {
         return "GraphPathInMemory{" +
-                "entityList=" + entityList +
+                "entities=" + entities +
                 '}';
     }
 
     @Override
     public TramDuration getTotalCost() {
-        // todo accumulate cost as we go instead
-
-        final Optional<TramDuration> total = entityList.stream().
-                filter(GraphEntity::isRelationship).
-                map(item -> (GraphRelationship)item).
-                map(GraphRelationship::getCost).
-                reduce(TramDuration::plus);
-
-        return total.orElse(TramDuration.ofSeconds(Integer.MAX_VALUE));
+        if (!entities.hasRelationships()) {
+            return TramDuration.ofSeconds(Integer.MAX_VALUE);
+        }
+        return entities.getTotalCost();
     }
 
     public boolean isEmpty() {
-        return entityList.isEmpty();
+        return entities.isEmpty();
     }
 
     public GraphIdList getEntitiesIds() {
-        return entityList.getIds();
+        return entities;
     }
 
-
-
 }
@@ -44,7 +44,10 @@ public class GraphTransactionInMemory implements MutableGraphTransaction {
             }
             return this;
         } else {
-            logger.info("Wrap immutable");
+            // once per path request for overlay transactions
+            if (logger.isDebugEnabled()) {
+                logger.debug("Wrap immutable");
+            }
             final Graph immutableGraph = new ImmutableTransactionGraph(graph);
             final TransactionObserver observer = new TransactionObserver() {
                 @Override
@@ -0,0 +1,64 @@
+package com.tramchester.graph.core.inMemory;
+
+import com.tramchester.graph.core.inMemory.persist.SnapshotFile;
+import com.tramchester.graph.reference.GraphLabelsFactory;
+import com.tramchester.metrics.Timing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.stream.IntStream;
+
+/***
+ * Read only graph served direct from a memory mapped snapshot. Only the structure (ids, labels, adjacency) is held on
+ * heap, nodes and relationships are decoded from the mapping on first access, see ReadOnlyGraph.
+ */
+public class MappedGraph extends ReadOnlyGraph {
+    private static final Logger logger = LoggerFactory.getLogger(MappedGraph.class);
+
+    private final SnapshotFile snapshot;
+    private final GraphLabelsFactory graphLabelsFactory;
+
+    private MappedGraph(final SnapshotFile snapshot, final GraphLabelsFactory graphLabelsFactory) {
+        super(IntStream.range(0, snapshot.getNumberOfNodes()).map(snapshot::getNodeId).toArray(),
+                IntStream.range(0, snapshot.getNumberOfNodes()).mapToLong(snapshot::getNodeLabels).toArray(),
+                IntStream.range(0, snapshot.getNumberOfRelationships()).map(snapshot::getRelationshipId).toArray(),
+                relationshipTypesFor(snapshot),
+                IntStream.range(0, snapshot.getNumberOfRelationships()).map(snapshot::getStartId).toArray(),
+                IntStream.range(0, snapshot.getNumberOfRelationships()).map(snapshot::getEndId).toArray());
+        this.snapshot = snapshot;
+        this.graphLabelsFactory = graphLabelsFactory;
+    }
+
+    public static MappedGraph createFrom(final SnapshotFile snapshot, final GraphLabelsFactory graphLabelsFactory) {
+        try (Timing ignored = new Timing(logger, "create mapped graph")) {
+            final MappedGraph mappedGraph = new MappedGraph(snapshot, graphLabelsFactory);
+            logger.info("Created " + mappedGraph);
+            return mappedGraph;
+        }
+    }
+
+    private static short[] relationshipTypesFor(final SnapshotFile snapshot) {
+        final short[] types = new short[snapshot.getNumberOfRelationships()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = (short) snapshot.getRelationshipType(i).ordinal();
+        }
+        return types;
+    }
+
+    @Override
+    protected GraphNodeInMemory decodeNode(final int index) {
+        return snapshot.decodeNode(index, graphLabelsFactory);
+    }
+
+    @Override
+    protected GraphRelationshipInMemory decodeRelationship(final int index) {
+        return snapshot.decodeRelationship(index);
+    }
+
+    @Override
+    public String toString() {
+        return "MappedGraph{" +
+                "snapshot=" + snapshot +
+                '}';
+    }
+}
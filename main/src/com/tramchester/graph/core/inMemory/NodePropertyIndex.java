@@ -0,0 +1,118 @@
+package com.tramchester.graph.core.inMemory;
+
+import com.tramchester.graph.GraphPropertyKey;
+import com.tramchester.graph.reference.GraphLabel;
+import com.tramchester.graph.reference.GraphLabels;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.tramchester.graph.GraphPropertyKey.*;
+
+/***
+ * (label, key, value) -> node ids for the properties used to find nodes by domain id
+ * Only string values are indexed, since those are the values findNodesImmutable(label, key, value) can match
+ * An updatable index also records the entries made for each node, so when labels or properties of a node change the
+ * entries from the old values can be replaced, see GraphNodeInMemory.indexIn
+ */
+class NodePropertyIndex {
+
+    private static final EnumSet<GraphPropertyKey> INDEXED = EnumSet.of(STATION_ID, PLATFORM_ID, ROUTE_STATION_ID,
+            TRIP_ID, ROUTE_ID, SERVICE_ID, AREA_ID, STATION_GROUP_ID, WALK_ID, SOURCE_NAME_PROP);
+
+    private final ConcurrentMap<IndexKey, Set<NodeIdInMemory>> index;
+    // node id -> entries made for that node, only for an updatable index
+    private final ConcurrentMap<NodeIdInMemory, List<IndexKey>> entriesForNode;
+
+    /***
+     * @param updatable true if nodes can change once added, false for nodes that are never updated or removed
+     */
+    NodePropertyIndex(final boolean updatable) {
+        index = new ConcurrentHashMap<>();
+        entriesForNode = updatable ? new ConcurrentHashMap<>() : null;
+    }
+
+    static boolean covers(final GraphPropertyKey key) {
+        return INDEXED.contains(key);
+    }
+
+    /***
+     * Add entries for the current labels and properties of the node, for an updatable index these replace any
+     * entries made for the node previously
+     */
+    synchronized void add(final GraphNodeInMemory node) {
+        final NodeIdInMemory id = node.getId();
+        final List<IndexKey> entries = entriesFor(node);
+        if (entriesForNode != null) {
+            removeEntries(id, entriesForNode.getOrDefault(id, Collections.emptyList()));
+            if (entries.isEmpty()) {
+                entriesForNode.remove(id);
+            } else {
+                entriesForNode.put(id, entries);
+            }
+        }
+        entries.forEach(entry -> index.computeIfAbsent(entry, k -> ConcurrentHashMap.newKeySet(1)).add(id));
+    }
+
+    /***
+     * Only for an updatable index, removes the entries made for the node whatever its current properties
+     */
+    synchronized void remove(final NodeIdInMemory id) {
+        if (entriesForNode == null) {
+            throw new RuntimeException("Index is not updatable, cannot remove " + id);
+        }
+        final List<IndexKey> entries = entriesForNode.remove(id);
+        if (entries != null) {
+            removeEntries(id, entries);
+        }
+    }
+
+    private List<IndexKey> entriesFor(final GraphNodeInMemory node) {
+        final GraphLabels labels = node.getLabels();
+        final List<IndexKey> entries = new ArrayList<>();
+        for (final GraphPropertyKey key : INDEXED) {
+            if (node.hasProperty(key) && node.getProperty(key) instanceof String value) {
+                labels.forEach(label -> entries.add(new IndexKey(label, key, value)));
+            }
+        }
+        return entries;
+    }
+
+    private void removeEntries(final NodeIdInMemory id, final List<IndexKey> entries) {
+        entries.forEach(entry -> index.computeIfPresent(entry, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        }));
+    }
+
+    Set<NodeIdInMemory> find(final GraphLabel label, final GraphPropertyKey key, final String value) {
+        final Set<NodeIdInMemory> found = index.get(new IndexKey(label, key, value));
+        if (found==null) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(found);
+    }
+
+    synchronized void clear() {
+        index.clear();
+        if (entriesForNode != null) {
+            entriesForNode.clear();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NodePropertyIndex{" +
+                "size=" + index.size() +
+                '}';
+    }
+
+    private record IndexKey(GraphLabel label, GraphPropertyKey key, String value) {
+
+    }
+}
@@ -0,0 +1,302 @@
+package com.tramchester.graph.core.inMemory;
+
+import com.tramchester.domain.collections.ImmutableEnumSet;
+import com.tramchester.graph.GraphPropertyKey;
+import com.tramchester.graph.core.GraphDirection;
+import com.tramchester.graph.core.GraphNode;
+import com.tramchester.graph.core.GraphRelationship;
+import com.tramchester.graph.core.GraphTransaction;
+import com.tramchester.graph.reference.GraphLabel;
+import com.tramchester.graph.reference.GraphLabels;
+import com.tramchester.graph.reference.GraphLabelsFactory;
+import com.tramchester.graph.reference.TransportRelationshipTypes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/***
+ * Per request layer over an immutable graph, holds a handful of nodes and relationships (i.e. walks to and from
+ * a location) that are visible only via the owning transaction and are never committed. Ids for the overlay are
+ * negative so never clash with the underlying graph. Nodes from the underlying graph returned from findNodesMutable,
+ * so relationships can be created to them, are copies held by the overlay, so changes to them are also only visible
+ * via the owning transaction. Accepts creates so is not immutable, but never commits.
+ */
+public class OverlayGraph implements Graph {
+    private static final Logger logger = LoggerFactory.getLogger(OverlayGraph.class);
+
+    private final Graph underlying;
+    private final GraphLabelsFactory graphLabelsFactory;
+    private final AtomicInteger nextNodeId;
+    private final AtomicInteger nextRelationshipId;
+
+    private final ConcurrentMap<NodeIdInMemory, GraphNodeInMemory> nodes;
+    private final ConcurrentMap<RelationshipIdInMemory, GraphRelationshipInMemory> relationships;
+    // nodes from the underlying graph, copied on first mutable access
+    private final ConcurrentMap<NodeIdInMemory, GraphNodeInMemory> copied;
+    // nodes, from the overlay or underlying, with at least one overlay relationship
+    private final Set<NodeIdInMemory> hasRelationships;
+
+    OverlayGraph(final Graph underlying, final GraphLabelsFactory graphLabelsFactory) {
+        if (!underlying.isImmutable()) {
+            String message = "Underlying graph must be immutable";
+            logger.error(message);
+            throw new RuntimeException(message);
+        }
+        this.underlying = underlying;
+        this.graphLabelsFactory = graphLabelsFactory;
+        nextNodeId = new AtomicInteger(0);
+        nextRelationshipId = new AtomicInteger(0);
+        nodes = new ConcurrentHashMap<>();
+        relationships = new ConcurrentHashMap<>();
+        copied = new ConcurrentHashMap<>();
+        hasRelationships = ConcurrentHashMap.newKeySet();
+    }
+
+    private static boolean isOverlay(final InternalGraphId id) {
+        return id.getInternalId() < 0;
+    }
+
+    @Override
+    public void commit(final GraphTransaction owningTransaction) {
+        String message = "Overlay is never committed, got commit for " + owningTransaction;
+        logger.error(message);
+        throw new RuntimeException(message);
+    }
+
+    @Override
+    public void close(final GraphTransaction owningTransaction) {
+        if (!nodes.isEmpty() || !relationships.isEmpty()) {
+            logger.info("Discard " + nodes.size() + " nodes and " + relationships.size() + " relationships for " + owningTransaction);
+        }
+        nodes.clear();
+        relationships.clear();
+        copied.clear();
+        hasRelationships.clear();
+        underlying.close(owningTransaction);
+    }
+
+    @Override
+    public Stream<GraphNodeInMemory> getUpdatedNodes() {
+        return Stream.empty();
+    }
+
+    @Override
+    public Stream<GraphRelationshipInMemory> getUpdatedRelationships() {
+        return Stream.empty();
+    }
+
+    // overlay entities
+
+    @Override
+    public GraphNodeInMemory createNode(final ImmutableEnumSet<GraphLabel> labels) {
+        final GraphLabels graphLabels = graphLabelsFactory.getFor(labels);
+        final NodeIdInMemory id = new NodeIdInMemory(nextNodeId.decrementAndGet());
+        final GraphNodeInMemory node = new GraphNodeInMemory(id, graphLabels, false);
+        nodes.put(id, node);
+        return node;
+    }
+
+    @Override
+    public GraphRelationshipInMemory createRelationship(final TransportRelationshipTypes relationshipType,
+                                                        final GraphNodeInMemory begin, final GraphNodeInMemory end) {
+        final RelationshipIdInMemory id = new RelationshipIdInMemory(nextRelationshipId.decrementAndGet());
+        final GraphRelationshipInMemory relationship = new GraphRelationshipInMemory(relationshipType, id,
+                begin.getId(), end.getId(), false);
+        relationships.put(id, relationship);
+        hasRelationships.add(begin.getId());
+        hasRelationships.add(end.getId());
+        return relationship;
+    }
+
+    @Override
+    public void delete(final RelationshipIdInMemory id) {
+        if (relationships.remove(id) == null) {
+            throw new OverlayGraphException("Cannot delete relationship not created in overlay " + id);
+        }
+    }
+
+    @Override
+    public void delete(final NodeIdInMemory id) {
+        if (nodes.remove(id) == null) {
+            throw new OverlayGraphException("Cannot delete node not created in overlay " + id);
+        }
+    }
+
+    @Override
+    public void addLabel(final NodeIdInMemory id, final GraphLabel label) {
+        // labels are held on the node itself, nothing to index for the overlay
+        if (!nodes.containsKey(id)) {
+            throw new OverlayGraphException("Cannot add label to node not created in overlay " + id);
+        }
+    }
+
+    @Override
+    public GraphLabels updateLabels(final GraphLabels original, final GraphLabel addition) {
+        return graphLabelsFactory.appendTo(original, addition);
+    }
+
+    @Override
+    public GraphNodeInMemory getNodeMutable(final NodeIdInMemory nodeId) {
+        final GraphNodeInMemory node = nodes.get(nodeId);
+        if (node == null) {
+            throw new OverlayGraphException("Only nodes created in overlay are mutable, got " + nodeId);
+        }
+        return node;
+    }
+
+    @Override
+    public Stream<GraphNodeInMemory> findNodesMutable(final GraphLabel graphLabel) {
+        final Stream<GraphNodeInMemory> fromUnderlying = underlying.findNodesImmutable(graphLabel).
+                map(node -> copyOf((GraphNodeInMemory) node));
+        return Stream.concat(fromUnderlying, overlayNodesWith(graphLabel));
+    }
+
+    private GraphNodeInMemory copyOf(final GraphNodeInMemory node) {
+        return copied.computeIfAbsent(node.getId(), unused -> node.copy());
+    }
+
+    @Override
+    public Stream<GraphRelationshipInMemory> findRelationshipsMutableFor(final NodeIdInMemory id, final GraphDirection direction,
+                                                                        final ImmutableEnumSet<TransportRelationshipTypes> types) {
+        return overlayRelationshipsFor(id, direction).filter(relationship -> types.contains(relationship.getType()));
+    }
+
+    @Override
+    public GraphRelationshipInMemory getSingleRelationshipMutable(final NodeIdInMemory id, final GraphDirection direction,
+                                                                  final TransportRelationshipTypes transportRelationshipType) {
+        final var found = findRelationshipsMutableFor(id, direction, transportRelationshipType.singleton()).toList();
+        if (found.size() != 1) {
+            throw new OverlayGraphException("Wrong number of overlay relationships " + found.size() + " for " + id);
+        }
+        return found.getFirst();
+    }
+
+    @Override
+    public Stream<GraphRelationshipInMemory> findRelationshipsMutableFor(final NodeIdInMemory id, final GraphDirection direction) {
+        return overlayRelationshipsFor(id, direction);
+    }
+
+    @Override
+    public boolean isImmutable() {
+        // accepts creates, even though nothing reaches the underlying graph
+        return false;
+    }
+
+    // merged view
+
+    @Override
+    public Stream<GraphNode> findNodesImmutable(final GraphLabel graphLabel) {
+        return Stream.concat(withCopies(underlying.findNodesImmutable(graphLabel)), overlayNodesWith(graphLabel));
+    }
+
+    @Override
+    public Stream<GraphNode> findNodesImmutable(final GraphLabel label, final GraphPropertyKey key, final String value) {
+        final Stream<GraphNodeInMemory> fromOverlay = overlayNodesWith(label).
+                filter(node -> node.hasProperty(key)).
+                filter(node -> node.getProperty(key).equals(value));
+        return Stream.concat(withCopies(underlying.findNodesImmutable(label, key, value)), fromOverlay);
+    }
+
+    @Override
+    public GraphNode getNodeImmutable(final NodeIdInMemory nodeId) {
+        if (isOverlay(nodeId)) {
+            return nodes.get(nodeId);
+        }
+        final GraphNodeInMemory copy = copied.get(nodeId);
+        return copy == null ? underlying.getNodeImmutable(nodeId) : copy;
+    }
+
+    @Override
+    public Stream<GraphRelationship> findRelationships(final TransportRelationshipTypes type) {
+        final Stream<GraphRelationshipInMemory> fromOverlay = relationships.values().stream().
+                filter(relationship -> relationship.getType() == type);
+        return Stream.concat(underlying.findRelationships(type), fromOverlay);
+    }
+
+    @Override
+    public Stream<GraphRelationship> findRelationshipsImmutableFor(final NodeIdInMemory id, final GraphDirection direction) {
+        if (isOverlay(id)) {
+            return overlayRelationshipsFor(id, direction).map(relationship -> relationship);
+        }
+        if (!hasRelationships.contains(id)) {
+            return underlying.findRelationshipsImmutableFor(id, direction);
+        }
+        return Stream.concat(underlying.findRelationshipsImmutableFor(id, direction), overlayRelationshipsFor(id, direction));
+    }
+
+    @Override
+    public Stream<GraphRelationship> findRelationshipsImmutableFor(final NodeIdInMemory id, final GraphDirection direction,
+                                                                   final ImmutableEnumSet<TransportRelationshipTypes> types) {
+        if (isOverlay(id)) {
+            return findRelationshipsMutableFor(id, direction, types).map(relationship -> relationship);
+        }
+        if (!hasRelationships.contains(id)) {
+            return underlying.findRelationshipsImmutableFor(id, direction, types);
+        }
+        return Stream.concat(underlying.findRelationshipsImmutableFor(id, direction, types),
+                findRelationshipsMutableFor(id, direction, types));
+    }
+
+    @Override
+    public GraphRelationship getRelationship(final RelationshipIdInMemory graphRelationshipId) {
+        if (isOverlay(graphRelationshipId)) {
+            return relationships.get(graphRelationshipId);
+        }
+        return underlying.getRelationship(graphRelationshipId);
+    }
+
+    @Override
+    public long getNumberOf(final TransportRelationshipTypes relationshipType) {
+        final long inOverlay = relationships.values().stream().
+                filter(relationship -> relationship.getType() == relationshipType).
+                count();
+        return underlying.getNumberOf(relationshipType) + inOverlay;
+    }
+
+    @Override
+    public Stream<GraphNode> allNodes() {
+        return Stream.concat(withCopies(underlying.allNodes()), nodes.values().stream());
+    }
+
+    private Stream<GraphNode> withCopies(final Stream<GraphNode> fromUnderlying) {
+        if (copied.isEmpty()) {
+            return fromUnderlying;
+        }
+        return fromUnderlying.map(node -> {
+            final GraphNodeInMemory copy = copied.get((NodeIdInMemory) node.getId());
+            return copy == null ? node : copy;
+        });
+    }
+
+    private Stream<GraphNodeInMemory> overlayNodesWith(final GraphLabel graphLabel) {
+        return nodes.values().stream().filter(node -> node.hasLabel(graphLabel));
+    }
+
+    private Stream<GraphRelationshipInMemory> overlayRelationshipsFor(final NodeIdInMemory id, final GraphDirection direction) {
+        return relationships.values().stream().filter(relationship -> switch (direction) {
+            case Outgoing -> relationship.getStartId().equals(id);
+            case Incoming -> relationship.getEndId().equals(id);
+            case Both -> relationship.getStartId().equals(id) || relationship.getEndId().equals(id);
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "OverlayGraph{" +
+                "nodes=" + nodes.size() +
+                ", relationships=" + relationships.size() +
+                ", underlying=" + underlying +
+                '}';
+    }
+
+    private static class OverlayGraphException extends RuntimeException {
+        OverlayGraphException(final String message) {
+            super(message);
+        }
+    }
+}
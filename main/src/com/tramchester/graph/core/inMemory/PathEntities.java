@@ -0,0 +1,141 @@
+package com.tramchester.graph.core.inMemory;
+
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.graph.core.*;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.stream.Stream;
+
+/***
+ * Immutable list of the entities on a path, held as a chain of parent pointers so appending shares the existing
+ * path and is O(1). The hash follows List.hashCode over the internal ids so is computed incrementally, and the
+ * total cost is accumulated on first use and then held on each entry.
+ */
+final class PathEntities implements GraphIdList {
+    static final PathEntities EMPTY = new PathEntities();
+
+    private final PathEntities parent;
+    private final GraphEntity<? extends GraphId> entity;
+    private final int internalId;
+    private final int size;
+    private final int numberOfRelationships;
+    private final int hash;
+    private final GraphNode firstNode;
+
+    // lazily computed, entries are immutable so a race only results in the same value being computed twice
+    private TramDuration totalCost;
+
+    private PathEntities() {
+        parent = null;
+        entity = null;
+        internalId = -1;
+        size = 0;
+        numberOfRelationships = 0;
+        hash = 1;
+        firstNode = null;
+        totalCost = TramDuration.ZERO;
+    }
+
+    private PathEntities(final PathEntities parent, final GraphEntity<? extends GraphId> entity) {
+        this.parent = parent;
+        this.entity = entity;
+        this.internalId = ((InternalGraphId) entity.getId()).getInternalId();
+        this.size = parent.size + 1;
+        this.numberOfRelationships = parent.numberOfRelationships + (entity.isRelationship() ? 1 : 0);
+        this.hash = (31 * parent.hash) + Integer.hashCode(internalId);
+        this.firstNode = (parent.firstNode == null && entity.isNode()) ? (GraphNode) entity : parent.firstNode;
+        this.totalCost = null;
+    }
+
+    PathEntities append(final GraphEntity<? extends GraphId> graphEntity) {
+        return new PathEntities(this, graphEntity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    GraphNode getFirstNode() {
+        return firstNode;
+    }
+
+    boolean hasRelationships() {
+        return numberOfRelationships > 0;
+    }
+
+    TramDuration getTotalCost() {
+        if (totalCost != null) {
+            return totalCost;
+        }
+
+        // walk back to the nearest entry with a known cost, then accumulate forwards caching as we go
+        final Deque<PathEntities> pending = new ArrayDeque<>();
+        PathEntities current = this;
+        while (current.totalCost == null) {
+            pending.push(current);
+            current = current.parent;
+        }
+        TramDuration running = current.totalCost;
+        while (!pending.isEmpty()) {
+            final PathEntities next = pending.pop();
+            if (next.entity.isRelationship()) {
+                running = running.plus(((GraphRelationship) next.entity).getCost());
+            }
+            next.totalCost = running;
+        }
+        return running;
+    }
+
+    /***
+     * @return entities from start to end of the path
+     */
+    Stream<GraphEntity<? extends GraphId>> stream() {
+        @SuppressWarnings("unchecked")
+        final GraphEntity<? extends GraphId>[] entities = new GraphEntity[size];
+        PathEntities current = this;
+        for (int i = size - 1; i >= 0; i--) {
+            entities[i] = current.entity;
+            current = current.parent;
+        }
+        return Arrays.stream(entities);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PathEntities other)) return false;
+        if (size != other.size || hash != other.hash) {
+            return false;
+        }
+        PathEntities a = this;
+        PathEntities b = other;
+        // stop as soon as reach a shared parent
+        while (a != b) {
+            if (a.internalId != b.internalId) {
+                return false;
+            }
+            a = a.parent;
+            b = b.parent;
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "PathEntities{" +
+                "size=" + size +
+                ", entities=" + Arrays.toString(stream().toArray()) +
+                '}';
+    }
+}
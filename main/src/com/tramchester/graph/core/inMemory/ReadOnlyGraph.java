@@ -0,0 +1,367 @@
+package com.tramchester.graph.core.inMemory;
+
+import com.tramchester.domain.collections.ImmutableEnumSet;
+import com.tramchester.graph.GraphPropertyKey;
+import com.tramchester.graph.core.GraphDirection;
+import com.tramchester.graph.core.GraphNode;
+import com.tramchester.graph.core.GraphRelationship;
+import com.tramchester.graph.core.GraphTransaction;
+import com.tramchester.graph.reference.GraphLabel;
+import com.tramchester.graph.reference.GraphLabels;
+import com.tramchester.graph.reference.TransportRelationshipTypes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/***
+ * Shared base for the read only graphs, see CompactGraph and MappedGraph. The structure (ids, labels, types and
+ * adjacency) is held in primitive arrays indexed by position. Nodes and relationships are decoded by the subclass on
+ * first access and held via soft references, so they can be reclaimed under memory pressure and decoded again when
+ * next needed. All updates are rejected.
+ */
+public abstract class ReadOnlyGraph implements Graph {
+    private static final Logger logger = LoggerFactory.getLogger(ReadOnlyGraph.class);
+
+    private static final TransportRelationshipTypes[] TYPES = TransportRelationshipTypes.values();
+    static final int NOT_PRESENT = -1;
+
+    private final int numberOfNodes;
+
+    // internal id -> position
+    private final int[] nodeIndexForId;
+    private final int[] relationshipIndexForId;
+
+    private final short[] relationshipTypes;
+    private final AdjacencyIndex outbound;
+    private final AdjacencyIndex inbound;
+
+    // label ordinal -> node positions
+    private final int[][] nodesForLabel;
+    private final int[] relationshipTypeCounts;
+
+    private final AtomicReferenceArray<SoftReference<GraphNodeInMemory>> decodedNodes;
+    private final AtomicReferenceArray<SoftReference<GraphRelationshipInMemory>> decodedRelationships;
+
+    // built per label on first use, needs the properties so would otherwise decode every node up front
+    private final ConcurrentMap<GraphLabel, NodePropertyIndex> propertyIndexes;
+
+    /***
+     * @param nodeIds position -> internal node id
+     * @param nodeLabels position -> bitset of labels by GraphLabel ordinal
+     * @param relationshipIds position -> internal relationship id
+     * @param relationshipTypes position -> TransportRelationshipTypes ordinal
+     * @param startIds position -> internal id of the start node
+     * @param endIds position -> internal id of the end node
+     */
+    protected ReadOnlyGraph(final int[] nodeIds, final long[] nodeLabels, final int[] relationshipIds,
+                            final short[] relationshipTypes, final int[] startIds, final int[] endIds) {
+        this.numberOfNodes = nodeIds.length;
+        this.relationshipTypes = relationshipTypes;
+
+        nodeIndexForId = createIndexFor(nodeIds.length, index -> nodeIds[index]);
+        relationshipIndexForId = createIndexFor(relationshipIds.length, index -> relationshipIds[index]);
+
+        final int numberOfRelationships = relationshipIds.length;
+        final int[] starts = new int[numberOfRelationships];
+        final int[] ends = new int[numberOfRelationships];
+        relationshipTypeCounts = new int[TYPES.length];
+        for (int i = 0; i < numberOfRelationships; i++) {
+            starts[i] = nodeIndexForId[startIds[i]];
+            ends[i] = nodeIndexForId[endIds[i]];
+            relationshipTypeCounts[relationshipTypes[i]]++;
+        }
+
+        outbound = new AdjacencyIndex(numberOfNodes, starts, relationshipTypes);
+        inbound = new AdjacencyIndex(numberOfNodes, ends, relationshipTypes);
+
+        nodesForLabel = createLabelIndex(nodeLabels);
+
+        decodedNodes = new AtomicReferenceArray<>(numberOfNodes);
+        decodedRelationships = new AtomicReferenceArray<>(numberOfRelationships);
+        propertyIndexes = new ConcurrentHashMap<>();
+    }
+
+    /***
+     * @param index position of the node
+     * @return a new instance for the node at the position
+     */
+    protected abstract GraphNodeInMemory decodeNode(int index);
+
+    /***
+     * @param index position of the relationship
+     * @return a new instance for the relationship at the position
+     */
+    protected abstract GraphRelationshipInMemory decodeRelationship(int index);
+
+    private static int[] createIndexFor(final int size, final IntUnaryOperator internalIdFor) {
+        final int maxId = IntStream.range(0, size).map(internalIdFor).max().orElse(0);
+        final int[] index = new int[maxId + 1];
+        Arrays.fill(index, NOT_PRESENT);
+        for (int i = 0; i < size; i++) {
+            index[internalIdFor.applyAsInt(i)] = i;
+        }
+        return index;
+    }
+
+    private static int[][] createLabelIndex(final long[] labelsForNode) {
+        final GraphLabel[] labels = GraphLabel.values();
+        final int[] counts = new int[labels.length];
+        for (final long labelBits : labelsForNode) {
+            for (int ordinal = 0; ordinal < labels.length; ordinal++) {
+                if ((labelBits & (1L << ordinal)) != 0) {
+                    counts[ordinal]++;
+                }
+            }
+        }
+        final int[][] result = new int[labels.length][];
+        for (int ordinal = 0; ordinal < labels.length; ordinal++) {
+            result[ordinal] = new int[counts[ordinal]];
+        }
+        final int[] positions = new int[labels.length];
+        for (int i = 0; i < labelsForNode.length; i++) {
+            for (int ordinal = 0; ordinal < labels.length; ordinal++) {
+                if ((labelsForNode[i] & (1L << ordinal)) != 0) {
+                    result[ordinal][positions[ordinal]++] = i;
+                }
+            }
+        }
+        return result;
+    }
+
+    private GraphNodeInMemory node(final int index) {
+        final SoftReference<GraphNodeInMemory> reference = decodedNodes.get(index);
+        final GraphNodeInMemory existing = reference == null ? null : reference.get();
+        if (existing != null) {
+            return existing;
+        }
+        // concurrent first access may decode twice, which is harmless as nodes are read only here
+        final GraphNodeInMemory decoded = decodeNode(index);
+        decodedNodes.set(index, new SoftReference<>(decoded));
+        return decoded;
+    }
+
+    private GraphRelationshipInMemory relationship(final int index) {
+        final SoftReference<GraphRelationshipInMemory> reference = decodedRelationships.get(index);
+        final GraphRelationshipInMemory existing = reference == null ? null : reference.get();
+        if (existing != null) {
+            return existing;
+        }
+        final GraphRelationshipInMemory decoded = decodeRelationship(index);
+        decodedRelationships.set(index, new SoftReference<>(decoded));
+        return decoded;
+    }
+
+    private int nodeIndexFor(final NodeIdInMemory id) {
+        final int internalId = id.getInternalId();
+        if (internalId < 0 || internalId >= nodeIndexForId.length) {
+            return NOT_PRESENT;
+        }
+        return nodeIndexForId[internalId];
+    }
+
+    private int relationshipIndexFor(final RelationshipIdInMemory id) {
+        final int internalId = id.getInternalId();
+        if (internalId < 0 || internalId >= relationshipIndexForId.length) {
+            return NOT_PRESENT;
+        }
+        return relationshipIndexForId[internalId];
+    }
+
+    private NodePropertyIndex propertyIndexFor(final GraphLabel label) {
+        return propertyIndexes.computeIfAbsent(label, unused -> {
+            final NodePropertyIndex index = new NodePropertyIndex(false);
+            Arrays.stream(nodesForLabel[label.ordinal()]).mapToObj(this::node).forEach(index::add);
+            return index;
+        });
+    }
+
+    @Override
+    public Stream<GraphNode> findNodesImmutable(final GraphLabel graphLabel) {
+        return Arrays.stream(nodesForLabel[graphLabel.ordinal()]).mapToObj(this::node);
+    }
+
+    @Override
+    public Stream<GraphNode> findNodesImmutable(final GraphLabel label, final GraphPropertyKey key, final String value) {
+        if (NodePropertyIndex.covers(key)) {
+            return propertyIndexFor(label).find(label, key, value).stream().map(this::getNodeImmutable);
+        }
+        return Arrays.stream(nodesForLabel[label.ordinal()]).
+                mapToObj(this::node).
+                filter(node -> node.hasProperty(key)).
+                filter(node -> node.getProperty(key).equals(value)).
+                map(item -> item);
+    }
+
+    @Override
+    public GraphNode getNodeImmutable(final NodeIdInMemory nodeId) {
+        final int index = nodeIndexFor(nodeId);
+        if (index == NOT_PRESENT) {
+            return null;
+        }
+        return node(index);
+    }
+
+    @Override
+    public Stream<GraphRelationship> findRelationships(final TransportRelationshipTypes type) {
+        final short wanted = (short) type.ordinal();
+        return IntStream.range(0, relationshipTypes.length).
+                filter(index -> relationshipTypes[index] == wanted).
+                mapToObj(this::relationship);
+    }
+
+    @Override
+    public Stream<GraphRelationship> findRelationshipsImmutableFor(final NodeIdInMemory id, final GraphDirection direction) {
+        final int index = nodeIndexFor(id);
+        if (index == NOT_PRESENT) {
+            return Stream.empty();
+        }
+        return switch (direction) {
+            case Outgoing -> outbound.all(index).mapToObj(this::relationship);
+            case Incoming -> inbound.all(index).mapToObj(this::relationship);
+            case Both -> IntStream.concat(outbound.all(index), inbound.all(index)).mapToObj(this::relationship);
+        };
+    }
+
+    @Override
+    public Stream<GraphRelationship> findRelationshipsImmutableFor(final NodeIdInMemory id, final GraphDirection direction,
+                                                                   final ImmutableEnumSet<TransportRelationshipTypes> types) {
+        final int index = nodeIndexFor(id);
+        if (index == NOT_PRESENT) {
+            return Stream.empty();
+        }
+        return switch (direction) {
+            case Outgoing -> outbound.matching(index, types).mapToObj(this::relationship);
+            case Incoming -> inbound.matching(index, types).mapToObj(this::relationship);
+            case Both -> IntStream.concat(outbound.matching(index, types), inbound.matching(index, types)).
+                    mapToObj(this::relationship);
+        };
+    }
+
+    @Override
+    public GraphRelationship getRelationship(final RelationshipIdInMemory graphRelationshipId) {
+        final int index = relationshipIndexFor(graphRelationshipId);
+        if (index == NOT_PRESENT) {
+            String msg = "No such relationship " + graphRelationshipId;
+            logger.error(msg);
+            throw new GraphException(msg);
+        }
+        return relationship(index);
+    }
+
+    @Override
+    public long getNumberOf(final TransportRelationshipTypes relationshipType) {
+        return relationshipTypeCounts[relationshipType.ordinal()];
+    }
+
+    @Override
+    public Stream<GraphNode> allNodes() {
+        return IntStream.range(0, numberOfNodes).mapToObj(this::node);
+    }
+
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+
+    public int getNumberOfNodes() {
+        return numberOfNodes;
+    }
+
+    public int getNumberOfRelationships() {
+        return relationshipTypes.length;
+    }
+
+    // mutations not supported
+
+    @Override
+    public void commit(final GraphTransaction owningTransaction) {
+        throw new RuntimeException("Unexpected commit for " + owningTransaction);
+    }
+
+    @Override
+    public void close(final GraphTransaction owningTransaction) {
+        throw new RuntimeException("Unexpected close for " + owningTransaction);
+    }
+
+    @Override
+    public Stream<GraphNodeInMemory> getUpdatedNodes() {
+        return Stream.empty();
+    }
+
+    @Override
+    public Stream<GraphRelationshipInMemory> getUpdatedRelationships() {
+        return Stream.empty();
+    }
+
+    @Override
+    public GraphNodeInMemory createNode(final ImmutableEnumSet<GraphLabel> labels) {
+        throw new ReadOnlyGraphException(this);
+    }
+
+    @Override
+    public GraphRelationshipInMemory createRelationship(final TransportRelationshipTypes relationshipType,
+                                                        final GraphNodeInMemory begin, final GraphNodeInMemory end) {
+        throw new ReadOnlyGraphException(this);
+    }
+
+    @Override
+    public void delete(final RelationshipIdInMemory id) {
+        throw new ReadOnlyGraphException(this);
+    }
+
+    @Override
+    public void delete(final NodeIdInMemory id) {
+        throw new ReadOnlyGraphException(this);
+    }
+
+    @Override
+    public void addLabel(final NodeIdInMemory id, final GraphLabel label) {
+        throw new ReadOnlyGraphException(this);
+    }
+
+    @Override
+    public GraphNodeInMemory getNodeMutable(final NodeIdInMemory nodeId) {
+        throw new ReadOnlyGraphException(this);
+    }
+
+    @Override
+    public Stream<GraphRelationshipInMemory> findRelationshipsMutableFor(final NodeIdInMemory id, final GraphDirection direction,
+                                                                         final ImmutableEnumSet<TransportRelationshipTypes> types) {
+        throw new ReadOnlyGraphException(this);
+    }
+
+    @Override
+    public GraphRelationshipInMemory getSingleRelationshipMutable(final NodeIdInMemory id, final GraphDirection direction,
+                                                                  final TransportRelationshipTypes transportRelationshipType) {
+        throw new ReadOnlyGraphException(this);
+    }
+
+    @Override
+    public Stream<GraphRelationshipInMemory> findRelationshipsMutableFor(final NodeIdInMemory id, final GraphDirection direction) {
+        throw new ReadOnlyGraphException(this);
+    }
+
+    @Override
+    public Stream<GraphNodeInMemory> findNodesMutable(final GraphLabel graphLabel) {
+        throw new ReadOnlyGraphException(this);
+    }
+
+    @Override
+    public GraphLabels updateLabels(final GraphLabels original, final GraphLabel addition) {
+        throw new ReadOnlyGraphException(this);
+    }
+
+    private static class ReadOnlyGraphException extends RuntimeException {
+        ReadOnlyGraphException(final ReadOnlyGraph graph) {
+            super("Not implemented for " + graph.getClass().getSimpleName());
+        }
+    }
+}
@@ -9,27 +9,56 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.PreDestroy;
 import java.time.Duration;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 public class TransactionManager implements TransactionObserver {
     private static final Logger logger = LoggerFactory.getLogger(TransactionManager.class);
 
     private final AtomicInteger transactionSequenceNumber;
-    private final GraphCore graphCore;
+    private final Supplier<GraphCore> coreLoader;
     private final GraphIdFactory idFactory;
     private final Set<Integer> openTransactions;
+    private final Set<Integer> openMutableTransactions;
     private final Set<Integer> committedTransactions;
     private final GraphLabelsFactory graphLabelsFactory;
 
+    // null until loaded, or while released in favour of a compact graph it can be rebuilt from
+    private volatile GraphCore graphCore;
+
+    // read only copy of the graph, compact or mapped from a snapshot, present once frozen and until next commit
+    private volatile Graph frozenGraph;
+
+    // a compact graph was discarded by a commit, rebuilt on the next immutable transaction
+    private volatile boolean refreezeNeeded;
+
     TransactionManager(final GraphCore graphCore, final GraphIdFactory idFactory, GraphLabelsFactory graphLabelsFactory) {
+        this(null, graphCore, null, idFactory, graphLabelsFactory);
+    }
+
+    /***
+     * @param coreLoader source of the graph core, only called when needed for a mutable transaction or to freeze
+     * @param frozenGraph read only graph to use for immutable transactions until the next commit, or null
+     */
+    TransactionManager(final Supplier<GraphCore> coreLoader, final Graph frozenGraph, final GraphIdFactory idFactory,
+                       final GraphLabelsFactory graphLabelsFactory) {
+        this(coreLoader, null, frozenGraph, idFactory, graphLabelsFactory);
+    }
+
+    private TransactionManager(final Supplier<GraphCore> coreLoader, final GraphCore graphCore, final Graph frozenGraph,
+                               final GraphIdFactory idFactory, final GraphLabelsFactory graphLabelsFactory) {
+        this.coreLoader = coreLoader;
         this.graphCore = graphCore;
+        this.frozenGraph = frozenGraph;
         this.idFactory = idFactory;
         this.graphLabelsFactory = graphLabelsFactory;
-        openTransactions = new HashSet<>();
-        committedTransactions = new HashSet<>();
+        openTransactions = ConcurrentHashMap.newKeySet();
+        openMutableTransactions = ConcurrentHashMap.newKeySet();
+        committedTransactions = ConcurrentHashMap.newKeySet();
         transactionSequenceNumber = new AtomicInteger(1);
+        refreezeNeeded = false;
     }
 
     @PreDestroy
@@ -41,36 +70,172 @@ public class TransactionManager implements TransactionObserver {
         logger.info("Stopped");
     }
 
-    public synchronized MutableGraphTransaction createTransaction(final Duration timeout, boolean immutable) {
+    synchronized void stopCore() {
+        if (graphCore!=null) {
+            graphCore.stop();
+        }
+        graphCore = null;
+        frozenGraph = null;
+        refreezeNeeded = false;
+    }
+
+    /***
+     * @return the graph core, loaded, or rebuilt from the compact graph, if not currently held
+     */
+    public GraphCore getGraphCore() {
+        final GraphCore current = graphCore;
+        if (current!=null) {
+            return current;
+        }
+        return loadCore();
+    }
+
+    private synchronized GraphCore loadCore() {
+        if (graphCore==null) {
+            if (frozenGraph instanceof CompactGraph compactGraph) {
+                logger.info("Rebuild graph core from " + compactGraph);
+                graphCore = compactGraph.createGraphCore(idFactory, graphLabelsFactory);
+            } else if (coreLoader!=null) {
+                graphCore = coreLoader.get();
+            } else {
+                String msg = "No graph core and no way to load it";
+                logger.error(msg);
+                throw new RuntimeException(msg);
+            }
+        }
+        return graphCore;
+    }
+
+    public boolean hasCommitted() {
+        return !committedTransactions.isEmpty();
+    }
+
+    public MutableGraphTransaction createTransaction(final Duration timeout, boolean immutable) {
+        if (immutable) {
+            return createImmutableTransaction();
+        }
+        return createMutableTransaction();
+    }
+
+    /***
+     * Does not take the lock, once frozen reads via the returned transaction are also lock free
+     */
+    private MutableGraphTransaction createImmutableTransaction() {
         final int index = transactionSequenceNumber.getAndIncrement();
         openTransactions.add(index);
-        final Graph graph = wrapGraph(immutable);
+        final Graph graph = wrapGraph(true);
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("create immutable for id " + index);
+        }
+        return new GraphTransactionInMemory(index, this, graph, true);
+    }
+
+    private synchronized MutableGraphTransaction createMutableTransaction() {
+        final int index = transactionSequenceNumber.getAndIncrement();
+        openTransactions.add(index);
+        openMutableTransactions.add(index);
+        final Graph graph = wrapGraph(false);
 
         logger.info("create mutable for id " + index);
-        return new GraphTransactionInMemory(index, this, graph, immutable);
+        return new GraphTransactionInMemory(index, this, graph, false);
     }
 
     public synchronized MutableGraphTransaction createTimedTransaction(Logger logger, String text, boolean immutable) {
         final int index = transactionSequenceNumber.getAndIncrement();
         openTransactions.add(index);
+        if (!immutable) {
+            openMutableTransactions.add(index);
+        }
         final Graph graph = wrapGraph(immutable);
 
         logger.info("create timed for id " + index);
         return new TimedTransactionInMemory(index, this, graph, logger, text, immutable);
     }
 
+    /***
+     * Transaction over a per transaction overlay of the immutable graph, nodes and relationships can be created and
+     * deleted but are only visible within the transaction and discarded on close. Does not take the lock so requests
+     * needing a few extra nodes, such as walks, do not contend with each other. Not immutable, use asImmutable for a
+     * read only view including the overlay, but commit always fails.
+     */
+    public MutableGraphTransaction createOverlayTransaction() {
+        final int index = transactionSequenceNumber.getAndIncrement();
+        openTransactions.add(index);
+        final Graph graph = new OverlayGraph(wrapGraph(true), graphLabelsFactory);
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("create overlay for id " + index);
+        }
+        return new GraphTransactionInMemory(index, this, graph, false);
+    }
+
+    /***
+     * Create compact read only copy of the graph, used for all subsequent immutable transactions. The graph core
+     * is then released, and rebuilt from the compact copy if a mutable transaction needs it. After a commit the compact
+     * copy is rebuilt on the next immutable transaction.
+     */
+    public synchronized void freeze() {
+        if (frozenGraph!=null) {
+            logger.info("Already frozen " + frozenGraph);
+            return;
+        }
+        logger.info("Freeze graph");
+        frozenGraph = CompactGraph.createFrom(getGraphCore(), graphLabelsFactory);
+        refreezeNeeded = false;
+        releaseCore();
+    }
+
+    private void releaseCore() {
+        if (openMutableTransactions.isEmpty()) {
+            graphCore = null;
+            logger.info("Released graph core, using " + frozenGraph);
+        } else {
+            // open transactions hold the core, their changes must be committed to it
+            logger.info("Graph core retained for open mutable transactions " + openMutableTransactions);
+        }
+    }
+
+    public boolean isFrozen() {
+        return frozenGraph!=null;
+    }
+
     private Graph wrapGraph(final boolean immutable) {
         if (immutable) {
-            return new ImmutableTransactionGraph(graphCore);
+            final Graph frozen = getFrozenGraph();
+            if (frozen!=null) {
+                return new ImmutableTransactionGraph(frozen);
+            }
+            return new ImmutableTransactionGraph(getGraphCore());
         } else {
-            return new MutableTransactionGraph(graphCore, idFactory, graphLabelsFactory);
+            return new MutableTransactionGraph(getGraphCore(), idFactory, graphLabelsFactory);
         }
     }
 
+    private Graph getFrozenGraph() {
+        // single read, may be discarded by a concurrent commit
+        final Graph frozen = frozenGraph;
+        if (frozen==null && refreezeNeeded) {
+            return refreeze();
+        }
+        return frozen;
+    }
+
+    private synchronized Graph refreeze() {
+        if (frozenGraph==null && refreezeNeeded && openMutableTransactions.isEmpty()) {
+            logger.info("Rebuild compact graph after commit");
+            freeze();
+        }
+        return frozenGraph;
+    }
+
     @Override
-    public synchronized void onClose(final GraphTransaction graphTransaction) {
-        logger.info("close " + graphTransaction);
+    public void onClose(final GraphTransaction graphTransaction) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("close " + graphTransaction);
+        }
         openTransactions.remove(graphTransaction.getTransactionId());
+        openMutableTransactions.remove(graphTransaction.getTransactionId());
     }
 
     @Override
@@ -79,6 +244,11 @@ public class TransactionManager implements TransactionObserver {
             throw new RuntimeException("Not open " + graphTransaction);
         }
         committedTransactions.add(graphTransaction.getTransactionId());
+        if (frozenGraph!=null) {
+            logger.warn("Commit after freeze, " + frozenGraph + " discarded for " + graphTransaction);
+            refreezeNeeded = frozenGraph instanceof CompactGraph;
+            frozenGraph = null;
+        }
     }
 
 }
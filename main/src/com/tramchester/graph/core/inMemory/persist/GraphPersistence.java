@@ -31,17 +31,20 @@ import java.time.ZonedDateTime;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 @LazySingleton
 public class GraphPersistence {
     public static final Path RELATIONSHIPS_FILENAME = Path.of("graph_relationships.json");
     public static final Path NODES_FILENAME = Path.of("graph_nodes.json");
+    public static final Path SNAPSHOT_FILENAME = Path.of("graph.snapshot");
     private static final Logger logger = LoggerFactory.getLogger(GraphPersistence.class);
 
     private final JsonMapper mapper;
     private final GetsFileModTime getsFileModTimeModTime;
     private final ProvidesLocalNow providesLocalNow;
+    private final GraphSnapshot snapshot;
 
     @Inject
     public GraphPersistence(final GetsFileModTime getsFileModTimeModTime, final ProvidesLocalNow providesLocalNow,
@@ -49,6 +52,7 @@ public class GraphPersistence {
         this.getsFileModTimeModTime = getsFileModTimeModTime;
         this.providesLocalNow = providesLocalNow;
         this.mapper = createMapper(graphLabelsFactory);
+        this.snapshot = new GraphSnapshot();
     }
 
     public static JsonMapper createMapper(GraphLabelsFactory graphLabelsFactory) {
@@ -68,6 +72,26 @@ public class GraphPersistence {
     public GraphCore loadDBFrom(final Path graphFilename, final GraphIdFactory graphIdFactory, final GraphLabelsFactory graphLabelsFactory) {
         logger.info("Load DB from folder " + graphFilename.toAbsolutePath());
 
+        final Path snapshotFile = graphFilename.resolve(SNAPSHOT_FILENAME);
+        if (Files.exists(snapshotFile)) {
+            try {
+                return snapshot.load(snapshotFile, graphIdFactory, graphLabelsFactory);
+            } catch (IOException e) {
+                if (!jsonFilesExistIn(graphFilename)) {
+                    String msg = "Unable to load snapshot " + snapshotFile.toAbsolutePath() + " and no json fallback";
+                    logger.error(msg, e);
+                    throw new RuntimeException(msg, e);
+                }
+                logger.error("Unable to load snapshot " + snapshotFile.toAbsolutePath() + " falling back to json", e);
+            }
+        }
+
+        return loadJsonFrom(graphFilename, graphIdFactory, graphLabelsFactory);
+    }
+
+    private GraphCore loadJsonFrom(final Path graphFilename, final GraphIdFactory graphIdFactory, final GraphLabelsFactory graphLabelsFactory) {
+        logger.info("Load DB from json in " + graphFilename.toAbsolutePath());
+
         final JsonMapper jsonMapper = createMapper(graphLabelsFactory);
 
         final Path relationshipsFile = graphFilename.resolve(RELATIONSHIPS_FILENAME);
@@ -84,7 +108,30 @@ public class GraphPersistence {
         return GraphCore.createFrom(graphIdFactory, graphLabelsFactory, nodes, relationships);
     }
 
+    /***
+     * Open the snapshot, if present, without decoding it
+     * @param dbPath folder containing the saved graph
+     * @return the snapshot or empty if missing or unusable
+     */
+    public Optional<SnapshotFile> openSnapshot(final Path dbPath) {
+        final Path snapshotFile = dbPath.resolve(SNAPSHOT_FILENAME);
+        if (!Files.exists(snapshotFile)) {
+            logger.info("No snapshot at " + snapshotFile.toAbsolutePath());
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(SnapshotFile.open(snapshotFile));
+        } catch (IOException e) {
+            logger.error("Unable to open snapshot " + snapshotFile.toAbsolutePath(), e);
+            return Optional.empty();
+        }
+    }
+
     public boolean filesExistIn(final Path dbPath) {
+        return Files.exists(dbPath.resolve(SNAPSHOT_FILENAME)) || jsonFilesExistIn(dbPath);
+    }
+
+    private boolean jsonFilesExistIn(final Path dbPath) {
         return Files.exists(dbPath.resolve(RELATIONSHIPS_FILENAME)) && Files.exists(dbPath.resolve(NODES_FILENAME));
     }
 
@@ -131,6 +178,22 @@ public class GraphPersistence {
 
         logger.info("Save graph to dir " + graphPath.toAbsolutePath());
 
+        final Path snapshotFile = graphPath.resolve(SNAPSHOT_FILENAME);
+        try {
+            snapshot.save(snapshotFile, nodesAndEdges);
+        } catch (IOException e) {
+            logger.error("Unable to save snapshot to " + snapshotFile.toAbsolutePath() + ", json only", e);
+            // must not leave an out of date snapshot, it would be loaded in preference to the json
+            try {
+                Files.deleteIfExists(snapshotFile);
+            } catch (IOException deleteFailed) {
+                logger.error("Unable to remove snapshot " + snapshotFile.toAbsolutePath(), deleteFailed);
+                return false;
+            }
+        }
+
+        // json is the fallback if the snapshot cannot be used, and a human readable export
+
         final Path relationshipsFile = graphPath.resolve(RELATIONSHIPS_FILENAME);
         logger.info("Saving relationships to " + relationshipsFile.toAbsolutePath());
         try (final FileWriter output = new FileWriter(relationshipsFile.toFile())) {
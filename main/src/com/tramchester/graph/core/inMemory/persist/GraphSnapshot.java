@@ -0,0 +1,365 @@
+package com.tramchester.graph.core.inMemory.persist;
+
+import com.tramchester.domain.dates.TramDate;
+import com.tramchester.domain.id.IdFor;
+import com.tramchester.domain.id.TripIdSet;
+import com.tramchester.domain.presentation.DTO.graph.PropertyDTO;
+import com.tramchester.domain.reference.TransportMode;
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.domain.time.TramTime;
+import com.tramchester.graph.GraphPropertyKey;
+import com.tramchester.graph.core.inMemory.*;
+import com.tramchester.graph.reference.GraphLabel;
+import com.tramchester.graph.reference.GraphLabelsFactory;
+import com.tramchester.graph.reference.TransportRelationshipTypes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/***
+ * Binary snapshot of the in memory graph, much faster to load than the json equivalent
+ * Layout: magic, version, property blocks, index, trailer
+ * Index: label, relationship type and property key name tables, then count prefixed columns for node ids, label
+ * bitsets and property offsets, followed by relationship ids, types, start and end ids and property offsets.
+ * Trailer: length of the property blocks, CRC32 of the property blocks, CRC32 of the index
+ * Names are stored rather than ordinals so reordering an enum does not silently corrupt a load. Keeping the fixed
+ * width columns apart from the property blocks means the structure can be read without decoding any properties,
+ * see SnapshotFile
+ */
+public class GraphSnapshot {
+    private static final Logger logger = LoggerFactory.getLogger(GraphSnapshot.class);
+
+    static final int MAGIC = 0x54524753; // TRGS
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = Integer.BYTES * 2;
+    static final int TRAILER_SIZE = Long.BYTES * 3;
+
+    // value tags
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte TRAM_TIME = 4;
+    private static final byte TRAM_DATE = 5;
+    private static final byte DURATION = 6;
+    private static final byte TRANSPORT_MODE = 7;
+    private static final byte TRANSPORT_MODES = 8;
+    private static final byte TRIP_ID_SET = 9;
+    private static final byte BOOLEAN = 10;
+
+    // tram time flags
+    private static final byte SAME_DAY = 0;
+    private static final byte NEXT_DAY = 1;
+    private static final byte INVALID = 2;
+
+    private final GraphLabel[] labels;
+    private final TransportRelationshipTypes[] relationshipTypes;
+    private final GraphPropertyKey[] propertyKeys;
+
+    public GraphSnapshot() {
+        labels = GraphLabel.values();
+        relationshipTypes = TransportRelationshipTypes.values();
+        propertyKeys = GraphPropertyKey.values();
+        if (labels.length > Long.SIZE) {
+            throw new RuntimeException("Too many labels to fit label bitset " + labels.length);
+        }
+    }
+
+    public void save(final Path file, final NodesAndEdges nodesAndEdges) throws IOException {
+        logger.info("Saving snapshot to " + file.toAbsolutePath());
+
+        final List<GraphNodeInMemory> nodes = nodesAndEdges.getNodes().stream().
+                sorted(Comparator.comparing(GraphNodeInMemory::getId)).toList();
+        final List<GraphRelationshipInMemory> relationships = nodesAndEdges.getRelationships().stream().
+                sorted(Comparator.comparing(GraphRelationshipInMemory::getId)).toList();
+
+        // write alongside and then move into place, the existing snapshot may be memory mapped, see SnapshotFile,
+        // and truncating a mapped file faults any process reading from it
+        final Path folder = file.toAbsolutePath().getParent();
+        final Path temp = Files.createTempFile(folder, file.getFileName().toString(), ".tmp");
+        try {
+            write(temp, nodes, relationships);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        logger.info("Saved snapshot with " + nodes.size() + " nodes and " + relationships.size() + " relationships");
+    }
+
+    private void write(final Path file, final List<GraphNodeInMemory> nodes,
+                       final List<GraphRelationshipInMemory> relationships) throws IOException {
+        try (final BufferedOutputStream buffered = new BufferedOutputStream(Files.newOutputStream(file))) {
+            final DataOutputStream header = new DataOutputStream(buffered);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.flush();
+
+            // property blocks first, so offsets are known by the time the index is written
+            final CRC32 propertiesCrc = new CRC32();
+            final DataOutputStream properties = new DataOutputStream(new CheckedOutputStream(buffered, propertiesCrc));
+
+            final int[] nodePropertyOffsets = new int[nodes.size()];
+            for (int i = 0; i < nodes.size(); i++) {
+                nodePropertyOffsets[i] = properties.size();
+                writeProperties(properties, nodes.get(i).getProperties());
+            }
+            final int[] relationshipPropertyOffsets = new int[relationships.size()];
+            for (int i = 0; i < relationships.size(); i++) {
+                relationshipPropertyOffsets[i] = properties.size();
+                writeProperties(properties, relationships.get(i).getProperties());
+            }
+            properties.flush();
+            final int propertiesLength = properties.size();
+            if (propertiesLength < 0) {
+                throw new IOException("Property blocks too large for snapshot");
+            }
+
+            final CRC32 indexCrc = new CRC32();
+            final DataOutputStream index = new DataOutputStream(new CheckedOutputStream(buffered, indexCrc));
+
+            writeNames(index, labels);
+            writeNames(index, relationshipTypes);
+            writeNames(index, propertyKeys);
+
+            index.writeInt(nodes.size());
+            for (final GraphNodeInMemory node : nodes) {
+                index.writeInt(node.getId().getIdForSave());
+            }
+            for (final GraphNodeInMemory node : nodes) {
+                long labelBits = 0L;
+                for (final GraphLabel label : node.getLabels()) {
+                    labelBits = labelBits | (1L << label.ordinal());
+                }
+                index.writeLong(labelBits);
+            }
+            for (final int offset : nodePropertyOffsets) {
+                index.writeInt(offset);
+            }
+
+            index.writeInt(relationships.size());
+            for (final GraphRelationshipInMemory relationship : relationships) {
+                index.writeInt(relationship.getId().getIdForSave());
+            }
+            for (final GraphRelationshipInMemory relationship : relationships) {
+                index.writeShort(relationship.getType().ordinal());
+            }
+            for (final GraphRelationshipInMemory relationship : relationships) {
+                index.writeInt(relationship.getStartId().getIdForSave());
+            }
+            for (final GraphRelationshipInMemory relationship : relationships) {
+                index.writeInt(relationship.getEndId().getIdForSave());
+            }
+            for (final int offset : relationshipPropertyOffsets) {
+                index.writeInt(offset);
+            }
+            index.flush();
+
+            final DataOutputStream trailer = new DataOutputStream(buffered);
+            trailer.writeLong(propertiesLength);
+            trailer.writeLong(propertiesCrc.getValue());
+            trailer.writeLong(indexCrc.getValue());
+            trailer.flush();
+        }
+    }
+
+    /***
+     * Fully decode the snapshot into a GraphCore
+     */
+    public GraphCore load(final Path file, final GraphIdFactory graphIdFactory, final GraphLabelsFactory graphLabelsFactory) throws IOException {
+        logger.info("Loading snapshot from " + file.toAbsolutePath());
+
+        final SnapshotFile snapshotFile = SnapshotFile.open(file);
+        snapshotFile.verifyProperties();
+
+        final int numberOfNodes = snapshotFile.getNumberOfNodes();
+        final List<GraphNodeInMemory> nodes = new ArrayList<>(numberOfNodes);
+        for (int i = 0; i < numberOfNodes; i++) {
+            nodes.add(snapshotFile.decodeNode(i, graphLabelsFactory));
+        }
+
+        final int numberOfRelationships = snapshotFile.getNumberOfRelationships();
+        final List<GraphRelationshipInMemory> relationships = new ArrayList<>(numberOfRelationships);
+        for (int i = 0; i < numberOfRelationships; i++) {
+            relationships.add(snapshotFile.decodeRelationship(i));
+        }
+
+        logger.info("Loaded snapshot with " + numberOfNodes + " nodes and " + numberOfRelationships + " relationships");
+
+        return GraphCore.createFrom(graphIdFactory, graphLabelsFactory, nodes.stream(), relationships.stream());
+    }
+
+    /***
+     * Property block in the snapshot format, also used for the on heap property blocks of CompactGraph
+     */
+    public void writeProperties(final DataOutputStream out, final List<PropertyDTO> properties) throws IOException {
+        out.writeShort(properties.size());
+        for (final PropertyDTO property : properties) {
+            out.writeShort(GraphPropertyKey.parse(property.getKey()).ordinal());
+            writeValue(out, property.getKey(), property.getContainedValue());
+        }
+    }
+
+    /***
+     * @param in positioned at the start of a property block
+     * @param savedKeys property keys in the order they were written, GraphPropertyKey.values() unless read from a file
+     * @return the properties
+     */
+    public static List<PropertyDTO> readProperties(final ByteBuffer in, final GraphPropertyKey[] savedKeys) throws IOException {
+        final int count = in.getShort();
+        final List<PropertyDTO> properties = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final GraphPropertyKey key = savedKeys[in.getShort()];
+            properties.add(new PropertyDTO(key.getText(), readValue(in, key)));
+        }
+        return properties;
+    }
+
+    private void writeValue(final DataOutputStream out, final String key, final Object value) throws IOException {
+        if (value instanceof String text) {
+            out.writeByte(STRING);
+            writeString(out, text);
+        } else if (value instanceof Integer number) {
+            out.writeByte(INTEGER);
+            out.writeInt(number);
+        } else if (value instanceof Double number) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(number);
+        } else if (value instanceof Boolean flag) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(flag);
+        } else if (value instanceof TramTime tramTime) {
+            out.writeByte(TRAM_TIME);
+            if (tramTime.isValid()) {
+                out.writeByte(tramTime.isNextDay() ? NEXT_DAY : SAME_DAY);
+                out.writeByte(tramTime.getHourOfDay());
+                out.writeByte(tramTime.getMinuteOfHour());
+            } else {
+                out.writeByte(INVALID);
+            }
+        } else if (value instanceof TramDate tramDate) {
+            out.writeByte(TRAM_DATE);
+            out.writeLong(tramDate.toEpochDay());
+        } else if (value instanceof TramDuration duration) {
+            out.writeByte(DURATION);
+            out.writeLong(duration.toSeconds());
+        } else if (value instanceof TransportMode transportMode) {
+            out.writeByte(TRANSPORT_MODE);
+            writeString(out, transportMode.name());
+        } else if (value instanceof TripIdSet tripIdSet) {
+            out.writeByte(TRIP_ID_SET);
+            out.writeInt(tripIdSet.size());
+            for (final IdFor<?> tripId : tripIdSet) {
+                writeString(out, tripId.getGraphId());
+            }
+        } else if (value instanceof EnumSet<?> enumSet && isTransportModes(enumSet)) {
+            out.writeByte(TRANSPORT_MODES);
+            out.writeShort(enumSet.size());
+            for (final Enum<?> item : enumSet) {
+                writeString(out, item.name());
+            }
+        } else {
+            throw new IOException("Unsupported property type for " + key + " value " + value +
+                    " of type " + value.getClass().getSimpleName());
+        }
+    }
+
+    private static Object readValue(final ByteBuffer in, final GraphPropertyKey key) throws IOException {
+        final byte tag = in.get();
+        return switch (tag) {
+            case STRING -> readString(in);
+            case INTEGER -> in.getInt();
+            case DOUBLE -> in.getDouble();
+            case BOOLEAN -> in.get() != 0;
+            case TRAM_TIME -> readTramTime(in);
+            case TRAM_DATE -> TramDate.of(in.getLong());
+            case DURATION -> TramDuration.ofSeconds(in.getLong());
+            case TRANSPORT_MODE -> readEnum(TransportMode.class, readString(in));
+            case TRIP_ID_SET -> {
+                final int size = in.getInt();
+                final Set<String> ids = new HashSet<>(size);
+                for (int i = 0; i < size; i++) {
+                    ids.add(readString(in));
+                }
+                yield TripIdSet.Factory.deserialize(ids);
+            }
+            case TRANSPORT_MODES -> {
+                final int size = in.getShort();
+                final EnumSet<TransportMode> modes = EnumSet.noneOf(TransportMode.class);
+                for (int i = 0; i < size; i++) {
+                    modes.add(readEnum(TransportMode.class, readString(in)));
+                }
+                yield modes;
+            }
+            default -> throw new IOException("Unexpected value tag " + tag + " for " + key);
+        };
+    }
+
+    private static TramTime readTramTime(final ByteBuffer in) throws IOException {
+        final byte flag = in.get();
+        if (flag == INVALID) {
+            return TramTime.invalid();
+        }
+        final int hour = in.get();
+        final int minute = in.get();
+        return switch (flag) {
+            case SAME_DAY -> TramTime.of(hour, minute);
+            case NEXT_DAY -> TramTime.nextDay(hour, minute);
+            default -> throw new IOException("Unexpected tram time flag " + flag);
+        };
+    }
+
+    private static boolean isTransportModes(final EnumSet<?> enumSet) {
+        return enumSet.stream().allMatch(item -> item instanceof TransportMode);
+    }
+
+    private static <T extends Enum<T>> void writeNames(final DataOutputStream out, final T[] values) throws IOException {
+        out.writeShort(values.length);
+        for (final T value : values) {
+            writeString(out, value.name());
+        }
+    }
+
+    static <T extends Enum<T>> T[] readNames(final ByteBuffer in, final Class<T> theClass) throws IOException {
+        final int count = in.getShort();
+        @SuppressWarnings("unchecked")
+        final T[] result = (T[]) Array.newInstance(theClass, count);
+        for (int i = 0; i < count; i++) {
+            result[i] = readEnum(theClass, readString(in));
+        }
+        return result;
+    }
+
+    /***
+     * Name saved by an earlier build may since have been renamed or removed, reported as IOException so callers
+     * treat the snapshot as unusable
+     */
+    private static <T extends Enum<T>> T readEnum(final Class<T> theClass, final String name) throws IOException {
+        try {
+            return Enum.valueOf(theClass, name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown " + theClass.getSimpleName() + " '" + name + "' in snapshot", e);
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String text) throws IOException {
+        final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer in) {
+        final int length = in.getInt();
+        final byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,220 @@
+package com.tramchester.graph.core.inMemory.persist;
+
+import com.tramchester.domain.collections.ImmutableEnumSet;
+import com.tramchester.domain.presentation.DTO.graph.PropertyDTO;
+import com.tramchester.graph.GraphPropertyKey;
+import com.tramchester.graph.core.inMemory.GraphNodeInMemory;
+import com.tramchester.graph.core.inMemory.GraphRelationshipInMemory;
+import com.tramchester.graph.core.inMemory.NodeIdInMemory;
+import com.tramchester.graph.core.inMemory.RelationshipIdInMemory;
+import com.tramchester.graph.reference.GraphLabel;
+import com.tramchester.graph.reference.GraphLabelsFactory;
+import com.tramchester.graph.reference.TransportRelationshipTypes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static com.tramchester.graph.core.inMemory.persist.GraphSnapshot.*;
+
+/***
+ * Read only view of a memory mapped snapshot written by GraphSnapshot. Only the index (ids, labels, types and end
+ * points) is checked on open, property blocks are decoded on demand so pages holding them are not touched until
+ * needed. The mapping is shared via the OS page cache between processes reading the same file.
+ */
+public class SnapshotFile {
+    private static final Logger logger = LoggerFactory.getLogger(SnapshotFile.class);
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int propertiesLength;
+    private final long propertiesCrc;
+
+    private final GraphLabel[] savedLabels;
+    private final TransportRelationshipTypes[] savedTypes;
+    private final GraphPropertyKey[] savedKeys;
+
+    private final int numberOfNodes;
+    private final int nodeIdsStart;
+    private final int nodeLabelsStart;
+    private final int nodePropertiesStart;
+
+    private final int numberOfRelationships;
+    private final int relationshipIdsStart;
+    private final int relationshipTypesStart;
+    private final int relationshipStartIdsStart;
+    private final int relationshipEndIdsStart;
+    private final int relationshipPropertiesStart;
+
+    private SnapshotFile(final Path file, final ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+
+        final int size = buffer.limit();
+        if (size < HEADER_SIZE + TRAILER_SIZE) {
+            throw new IOException("Snapshot truncated " + file.toAbsolutePath() + " size " + size);
+        }
+        final int magic = buffer.getInt(0);
+        if (magic != MAGIC) {
+            throw new IOException("Not a graph snapshot " + file.toAbsolutePath());
+        }
+        final int version = buffer.getInt(Integer.BYTES);
+        if (version != VERSION) {
+            throw new IOException("Snapshot version mismatch, got " + version + " expected " + VERSION);
+        }
+
+        final int trailerStart = size - TRAILER_SIZE;
+        final long savedPropertiesLength = buffer.getLong(trailerStart);
+        if (savedPropertiesLength < 0 || HEADER_SIZE + savedPropertiesLength > trailerStart) {
+            throw new IOException("Invalid property length " + savedPropertiesLength + " for " + file.toAbsolutePath());
+        }
+        propertiesLength = (int) savedPropertiesLength;
+        propertiesCrc = buffer.getLong(trailerStart + Long.BYTES);
+        final long indexCrc = buffer.getLong(trailerStart + (2 * Long.BYTES));
+
+        final int indexStart = HEADER_SIZE + propertiesLength;
+        final ByteBuffer index = buffer.slice(indexStart, trailerStart - indexStart);
+        if (checksum(index) != indexCrc) {
+            throw new IOException("Index checksum mismatch for snapshot " + file.toAbsolutePath());
+        }
+
+        savedLabels = readNames(index, GraphLabel.class);
+        savedTypes = readNames(index, TransportRelationshipTypes.class);
+        savedKeys = readNames(index, GraphPropertyKey.class);
+
+        numberOfNodes = index.getInt();
+        nodeIdsStart = indexStart + index.position();
+        nodeLabelsStart = nodeIdsStart + (numberOfNodes * Integer.BYTES);
+        nodePropertiesStart = nodeLabelsStart + (numberOfNodes * Long.BYTES);
+
+        index.position(nodePropertiesStart + (numberOfNodes * Integer.BYTES) - indexStart);
+        numberOfRelationships = index.getInt();
+        relationshipIdsStart = indexStart + index.position();
+        relationshipTypesStart = relationshipIdsStart + (numberOfRelationships * Integer.BYTES);
+        relationshipStartIdsStart = relationshipTypesStart + (numberOfRelationships * Short.BYTES);
+        relationshipEndIdsStart = relationshipStartIdsStart + (numberOfRelationships * Integer.BYTES);
+        relationshipPropertiesStart = relationshipEndIdsStart + (numberOfRelationships * Integer.BYTES);
+
+        if (relationshipPropertiesStart + (numberOfRelationships * Integer.BYTES) != trailerStart) {
+            throw new IOException("Index size mismatch for snapshot " + file.toAbsolutePath());
+        }
+    }
+
+    public static SnapshotFile open(final Path file) throws IOException {
+        logger.info("Open snapshot " + file.toAbsolutePath());
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map " + file.toAbsolutePath() + " size " + size);
+            }
+            // mapping remains valid after the channel is closed
+            return new SnapshotFile(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    /***
+     * Check the property blocks, touches every page so only used when fully loading
+     */
+    public void verifyProperties() throws IOException {
+        if (checksum(buffer.slice(HEADER_SIZE, propertiesLength)) != propertiesCrc) {
+            throw new IOException("Property checksum mismatch for snapshot " + file.toAbsolutePath());
+        }
+    }
+
+    private static long checksum(final ByteBuffer section) {
+        final CRC32 crc = new CRC32();
+        crc.update(section.duplicate());
+        return crc.getValue();
+    }
+
+    public int getNumberOfNodes() {
+        return numberOfNodes;
+    }
+
+    public int getNumberOfRelationships() {
+        return numberOfRelationships;
+    }
+
+    public int getNodeId(final int index) {
+        return buffer.getInt(nodeIdsStart + (index * Integer.BYTES));
+    }
+
+    /***
+     * @param index position of node in the snapshot
+     * @return bitset of labels by GraphLabel ordinal
+     */
+    public long getNodeLabels(final int index) {
+        final long savedBits = buffer.getLong(nodeLabelsStart + (index * Long.BYTES));
+        long result = 0L;
+        for (int i = 0; i < savedLabels.length; i++) {
+            if ((savedBits & (1L << i)) != 0) {
+                result = result | (1L << savedLabels[i].ordinal());
+            }
+        }
+        return result;
+    }
+
+    public int getRelationshipId(final int index) {
+        return buffer.getInt(relationshipIdsStart + (index * Integer.BYTES));
+    }
+
+    public TransportRelationshipTypes getRelationshipType(final int index) {
+        return savedTypes[buffer.getShort(relationshipTypesStart + (index * Short.BYTES))];
+    }
+
+    public int getStartId(final int index) {
+        return buffer.getInt(relationshipStartIdsStart + (index * Integer.BYTES));
+    }
+
+    public int getEndId(final int index) {
+        return buffer.getInt(relationshipEndIdsStart + (index * Integer.BYTES));
+    }
+
+    public GraphNodeInMemory decodeNode(final int index, final GraphLabelsFactory graphLabelsFactory) {
+        final long labelBits = getNodeLabels(index);
+        final EnumSet<GraphLabel> labels = EnumSet.noneOf(GraphLabel.class);
+        for (final GraphLabel label : GraphLabel.values()) {
+            if ((labelBits & (1L << label.ordinal())) != 0) {
+                labels.add(label);
+            }
+        }
+        final List<PropertyDTO> properties = decodeProperties(buffer.getInt(nodePropertiesStart + (index * Integer.BYTES)));
+        return new GraphNodeInMemory(new NodeIdInMemory(getNodeId(index)), graphLabelsFactory.getFor(ImmutableEnumSet.copyOf(labels)),
+                properties);
+    }
+
+    public GraphRelationshipInMemory decodeRelationship(final int index) {
+        final List<PropertyDTO> properties = decodeProperties(buffer.getInt(relationshipPropertiesStart + (index * Integer.BYTES)));
+        return new GraphRelationshipInMemory(getRelationshipType(index), new RelationshipIdInMemory(getRelationshipId(index)),
+                new NodeIdInMemory(getStartId(index)), new NodeIdInMemory(getEndId(index)), properties);
+    }
+
+    private List<PropertyDTO> decodeProperties(final int offset) {
+        // duplicate so concurrent decodes each have their own position
+        final ByteBuffer block = buffer.duplicate().position(HEADER_SIZE + offset);
+        try {
+            return readProperties(block, savedKeys);
+        } catch (IOException e) {
+            final String msg = "Unable to decode properties at " + offset + " in " + file.toAbsolutePath();
+            logger.error(msg, e);
+            throw new UncheckedIOException(msg, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotFile{" +
+                "file=" + file +
+                ", numberOfNodes=" + numberOfNodes +
+                ", numberOfRelationships=" + numberOfRelationships +
+                '}';
+    }
+}
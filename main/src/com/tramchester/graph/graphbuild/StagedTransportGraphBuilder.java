@@ -112,6 +112,7 @@ public class StagedTransportGraphBuilder extends GraphBuilder {
             logger.info("No rebuild of graph");
             graphDatabase.waitForIndexes();
         }
+        graphDatabase.buildComplete();
         logger.info("started");
     }
 
@@ -72,7 +72,7 @@ public class StationGroupsGraphBuilder extends CreateNodesAndRelationships {
             logger.warn("Disabled, StationGroupsRepository is not enabled");
             return;
         }
-        try(MutableGraphTransaction txn = graphDatabase.beginTxMutable()) {
+        try(GraphTransaction txn = graphDatabase.beginTx()) {
             if (hasDBFlag(txn)) {
                 logger.info("Already present in DB");
                 return;
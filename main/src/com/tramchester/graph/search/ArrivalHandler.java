@@ -1,6 +1,7 @@
 package com.tramchester.graph.search;
 
 import com.tramchester.graph.caches.LowestCostSeenForTime;
+import com.tramchester.graph.caches.ParetoArrivals;
 
 public interface ArrivalHandler {
 
@@ -16,6 +17,10 @@ public interface ArrivalHandler {
         return new LowestCostSeenForTime(2);
     }
 
+    static ArrivalHandler pareto() {
+        return new ParetoArrivals(2);
+    }
+
     Outcome checkDuration(ImmutableJourneyState journeyState);
     Outcome checkChanges(ImmutableJourneyState journeyState, int numberChanges);
 
@@ -0,0 +1,152 @@
+package com.tramchester.graph.search;
+
+import com.netflix.governator.guice.lazy.LazySingleton;
+import com.tramchester.config.TramchesterConfig;
+import com.tramchester.domain.collections.Running;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/***
+ * Runs the independent searches that make up a single journey request (one per query time and number of changes)
+ * on a pool shared by all requests. The pool size caps the total number of searches running at once, the parallelism
+ * caps how many a single request may have in flight.
+ */
+@LazySingleton
+public class JourneySearchExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(JourneySearchExecutor.class);
+
+    private final int threads;
+    private final int parallelism;
+    private ExecutorService executorService;
+
+    @Inject
+    public JourneySearchExecutor(TramchesterConfig config) {
+        this.threads = config.getSearchThreads();
+        this.parallelism = config.getSearchParallelism();
+    }
+
+    @PostConstruct
+    public void start() {
+        logger.info("starting");
+        if (threads > 0 && parallelism > 1) {
+            final AtomicInteger count = new AtomicInteger(0);
+            executorService = Executors.newFixedThreadPool(threads, runnable -> {
+                final Thread thread = new Thread(runnable, "journeySearch-" + count.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+            logger.info("Parallel search enabled with " + threads + " threads and parallelism " + parallelism);
+        } else {
+            logger.info("Parallel search is disabled");
+        }
+        logger.info("started");
+    }
+
+    @PreDestroy
+    public void stop() {
+        logger.info("Stopping");
+        if (executorService != null) {
+            executorService.shutdownNow();
+            executorService = null;
+        }
+        logger.info("Stopped");
+    }
+
+    public boolean isEnabled() {
+        return executorService != null;
+    }
+
+    /***
+     * Submit the searches, keeping at most parallelism of them in flight
+     * @param searches each search is passed a Running that also stops when the returned stream is closed
+     * @param running overall running state for the request
+     * @return results of each search in the order the searches complete
+     */
+    public <T> Stream<List<T>> inCompletionOrder(final Stream<Function<Running, List<T>>> searches, final Running running) {
+        if (executorService == null) {
+            String message = "Parallel search is not enabled";
+            logger.error(message);
+            throw new RuntimeException(message);
+        }
+        final Batches<T> batches = new Batches<>(executorService, searches.iterator(), running, parallelism);
+        return StreamSupport.stream(batches, false).onClose(batches::cancel);
+    }
+
+    private static class Batches<T> extends Spliterators.AbstractSpliterator<List<T>> {
+        private final CompletionService<List<T>> completionService;
+        private final Iterator<Function<Running, List<T>>> pending;
+        private final Set<Future<List<T>>> inFlight;
+        private final int parallelism;
+        private final AtomicBoolean cancelled;
+        private final Running running;
+
+        private Batches(final ExecutorService executorService, final Iterator<Function<Running, List<T>>> pending,
+                        final Running running, final int parallelism) {
+            super(Long.MAX_VALUE, Spliterator.NONNULL);
+            this.completionService = new ExecutorCompletionService<>(executorService);
+            this.pending = pending;
+            this.parallelism = parallelism;
+            this.inFlight = ConcurrentHashMap.newKeySet();
+            this.cancelled = new AtomicBoolean(false);
+            this.running = () -> !cancelled.get() && running.isRunning();
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super List<T>> action) {
+            while (inFlight.size() < parallelism && pending.hasNext() && running.isRunning()) {
+                final Function<Running, List<T>> search = pending.next();
+                inFlight.add(completionService.submit(() -> search.apply(running)));
+            }
+            if (inFlight.isEmpty()) {
+                return false;
+            }
+
+            final Future<List<T>> completed;
+            try {
+                completed = completionService.take();
+            } catch (InterruptedException e) {
+                logger.warn("Interrupted waiting for search to complete");
+                cancel();
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            inFlight.remove(completed);
+            if (completed.isCancelled()) {
+                return false;
+            }
+
+            try {
+                action.accept(completed.get());
+            } catch (InterruptedException | ExecutionException e) {
+                cancel();
+                String message = "Search failed";
+                logger.error(message, e);
+                throw new RuntimeException(message, e);
+            }
+            return true;
+        }
+
+        private void cancel() {
+            if (cancelled.getAndSet(true)) {
+                return;
+            }
+            if (!inFlight.isEmpty()) {
+                logger.info("Cancelling " + inFlight.size() + " searches still in flight");
+            }
+            inFlight.forEach(future -> future.cancel(true));
+            inFlight.clear();
+        }
+    }
+}
@@ -33,9 +33,10 @@ public class JourneyState implements ImmutableJourneyState, JourneyStateUpdate {
     private TramDuration journeyOffset;
     private TramTime boardingTime;
     private ImmutableTraversalState traversalState;
-    private final IdSet<Trip> tripsDone;
+    private IdSet<Trip> tripsDone;
     private IdFor<Trip> currentTrip;
-    private final IdSet<Station> passedStations;
+    // tripsDone and passedStations are shared by reference between states, so are replaced rather than updated
+    private IdSet<Station> passedStations;
 
     public JourneyState(final TramTime queryTime, final TraversalState traversalState) {
         coreState = new CoreState(queryTime);
@@ -52,14 +53,15 @@ public class JourneyState implements ImmutableJourneyState, JourneyStateUpdate {
     }
 
     // Copy cons
-    // NOTE: vital to copy any collections here, otherwise different search branches interfere with each other
+    // NOTE: vital collections are never updated in place, otherwise different search branches interfere with each other,
+    // so they are shared with the previous state and copied on write, most states are never updated once created
     private JourneyState(final JourneyState previousState) {
         this.coreState = new CoreState(previousState.coreState);
 
         this.journeyOffset = previousState.journeyOffset;
         this.traversalState = previousState.traversalState;
-        this.tripsDone = IdSet.copy(previousState.tripsDone);
-        this.passedStations = IdSet.copy(previousState.passedStations);
+        this.tripsDone = previousState.tripsDone;
+        this.passedStations = previousState.passedStations;
         this.currentTrip = previousState.currentTrip;
         if (coreState.onBoard()) {
             this.boardingTime = previousState.boardingTime;
@@ -94,7 +96,9 @@ public class JourneyState implements ImmutableJourneyState, JourneyStateUpdate {
     @Override
     public void recordRouteStation(final GraphNode node) {
         final IdFor<Station> stationsId = node.getStationId();
-        passedStations.add(stationsId);
+        final IdSet<Station> updated = IdSet.copy(passedStations);
+        updated.add(stationsId);
+        passedStations = updated;
         coreState.seenRouteStation(stationsId);
     }
 
@@ -167,7 +171,9 @@ public class JourneyState implements ImmutableJourneyState, JourneyStateUpdate {
             throw new TramchesterException("Not currently on " +mode+ " was " + coreState.currentMode);
         }
         leave(totalDuration);
-        tripsDone.add(currentTrip);
+        final IdSet<Trip> updated = IdSet.copy(tripsDone);
+        updated.add(currentTrip);
+        tripsDone = updated;
         coreState.leaveVehicle();
 
         currentTrip = Trip.InvalidId();
@@ -333,7 +339,8 @@ public class JourneyState implements ImmutableJourneyState, JourneyStateUpdate {
         private LocationId<?> lastSeenStation;
 
         private final TramTime queryTime;
-        private final List<LocationId<?>> boardingLocations;
+        private List<LocationId<?>> boardingLocations;
+        // copy on write as for JourneyState
         private boolean duplicatedBoardingSeen;
 
         public CoreState(final TramTime queryTime) {
@@ -344,12 +351,12 @@ public class JourneyState implements ImmutableJourneyState, JourneyStateUpdate {
         }
 
         // COPY cons
-        // NOTE: Don't pass by Ref, create duplicates for collections etc
+        // NOTE: collections are shared by ref until updated, see board
         public CoreState(final CoreState previous) {
             this(previous.queryTime, previous.journeyClock, previous.hasBegun, previous.numberOfBoardings, previous.currentMode, previous.numberOfWalkingConnections,
                     previous.numberNeighbourConnections,
                     previous.currentlyOnDiversion, previous.numberOfDiversionsTaken, previous.lastSeenStation.copy(),
-                    new ArrayList<>(previous.boardingLocations),
+                    previous.boardingLocations,
                     //false);
                     previous.duplicatedBoardingSeen, previous.firstBoardTime);
         }
@@ -394,7 +401,9 @@ public class JourneyState implements ImmutableJourneyState, JourneyStateUpdate {
                     }
                 }
             } else {
-                boardingLocations.add(lastSeenStation);
+                final List<LocationId<?>> updated = new ArrayList<>(boardingLocations);
+                updated.add(lastSeenStation);
+                boardingLocations = updated;
             }
             currentMode = mode;
             if (!hasBegun) {
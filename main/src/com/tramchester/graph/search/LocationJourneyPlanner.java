@@ -21,6 +21,7 @@ import com.tramchester.geo.StationLocationsRepository;
 import com.tramchester.graph.core.MutableGraphNode;
 import com.tramchester.graph.core.MutableGraphTransaction;
 import com.tramchester.graph.filters.GraphFilter;
+import com.tramchester.graph.search.raptor.RouteCalculatorRaptor;
 import com.tramchester.graph.search.routes.RouteToRouteCosts;
 import com.tramchester.mappers.Geography;
 import org.slf4j.Logger;
@@ -43,24 +44,29 @@ public class LocationJourneyPlanner {
     private final TramchesterConfig config;
     private final TramRouteCalculator routeCalculator;
     private final RouteCalculatorArriveBy routeCalculatorArriveBy;
+    private final RouteCalculatorRaptor routeCalculatorRaptor;
     private final MarginInMeters margin;
     private final BetweenRoutesCostRepository routeToRouteCosts;
     private final Geography geography;
+    private final SearchDeadlines searchDeadlines;
 
     @Inject
     public LocationJourneyPlanner(StationLocations stationLocations, TramchesterConfig config, TramRouteCalculator routeCalculator,
                                   RouteCalculatorArriveBy routeCalculatorArriveBy, GraphFilter graphFilter,
-                                  RouteToRouteCosts routeToRouteCosts, Geography geography) {
+                                  RouteToRouteCosts routeToRouteCosts, Geography geography, SearchDeadlines searchDeadlines,
+                                  RouteCalculatorRaptor routeCalculatorRaptor) {
         logger.info("created");
 
         this.geography = geography;
         this.config = config;
         this.routeCalculator = routeCalculator;
         this.routeCalculatorArriveBy = routeCalculatorArriveBy;
+        this.routeCalculatorRaptor = routeCalculatorRaptor;
         this.stationLocations = stationLocations;
         this.graphFilter = graphFilter;
         this.margin = config.getWalkingDistanceRange();
         this.routeToRouteCosts = routeToRouteCosts;
+        this.searchDeadlines = searchDeadlines;
     }
 
     public Stream<Journey> quickestRouteForLocation(final MutableGraphTransaction txn, final Location<?> start, final Location<?> destination,
@@ -82,7 +88,12 @@ public class LocationJourneyPlanner {
         }
 
         // station => station
-        final Running running = () -> true;
+        final Running running = searchDeadlines.start(journeyRequest);
+        if (journeyRequest.useRaptor(config)) {
+            return journeyRequest.getArriveBy() ?
+                    routeCalculatorRaptor.calculateRouteArriveBy(txn, start, destination, journeyRequest, running) :
+                    routeCalculatorRaptor.calculateRoute(txn, start, destination, journeyRequest, running);
+        }
         return calculator.calculateRoute(txn, start, destination, journeyRequest, running);
     }
 
@@ -111,7 +122,7 @@ public class LocationJourneyPlanner {
 
         final int numberOfChanges = findNumberChangesWalkAtStart(walksToStart, destination, journeyRequest, timeRange);
         final Stream<Journey> journeys;
-        Running running = () -> true;
+        Running running = searchDeadlines.start(journeyRequest);
         journeys = calculator.calculateRouteWalkAtStart(txn, walksToStart, startOfWalkNode, destination, journeyRequest, numberOfChanges, running);
 
         //noinspection ResultOfMethodCallIgnored
@@ -155,7 +166,7 @@ public class LocationJourneyPlanner {
         final int numberOfChanges = findNumberChangesWalkAtEnd(start, walksToDest, journeyRequest, timeRange);
 
         final Stream<Journey> journeys;
-        final Running running = () -> true;
+        final Running running = searchDeadlines.start(journeyRequest);
         journeys = calculator.calculateRouteWalkAtEnd(txn, start, endWalk, destinationStations, journeyRequest, numberOfChanges, running);
 
         //noinspection ResultOfMethodCallIgnored
@@ -191,7 +202,7 @@ public class LocationJourneyPlanner {
 
         /// CALC
         Stream<Journey> journeys;
-        Running running = () -> true;
+        Running running = searchDeadlines.start(journeyRequest);
 
         journeys = calculator.calculateRouteWalkAtStartAndEnd(txn, walksAtStart, startNode, endWalk, destinationStations,
                 journeyRequest, numberOfChanges, running);
@@ -8,8 +8,9 @@ import com.tramchester.graph.core.GraphNode;
 import com.tramchester.graph.core.GraphNodeId;
 import com.tramchester.graph.reference.GraphLabel;
 import com.tramchester.graph.reference.GraphLabels;
+import com.tramchester.graph.search.diagnostics.CodeOnlyHeuristicReason;
 import com.tramchester.graph.search.diagnostics.HeuristicsReason;
-import com.tramchester.graph.search.diagnostics.HeuristicsReasons;
+import com.tramchester.graph.search.diagnostics.HeuristicsReasonFactory;
 import com.tramchester.graph.search.diagnostics.HowIGotHere;
 import com.tramchester.graph.search.diagnostics.ReasonCode;
 import com.tramchester.repository.ReportsCacheStats;
@@ -24,7 +25,12 @@ import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
 import static com.tramchester.graph.search.diagnostics.ReasonCode.NotOnQueryDate;
+import static com.tramchester.graph.search.diagnostics.ReasonCode.RouteNotOnQueryDate;
 
+/***
+ * Results of previous visits to nodes for a single PathRequest. Verdicts that only depend on the query date and modes
+ * are held in the process wide SharedPreviousVisits instead, so they are reused by later requests.
+ */
 public class PreviousVisits implements ReportsCacheStats {
     private static final Logger logger = LoggerFactory.getLogger(PreviousVisits.class);
 
@@ -33,16 +39,19 @@ public class PreviousVisits implements ReportsCacheStats {
     private final Cache<GraphNodeId, HeuristicsReason> timeNodePrevious;
     private final Cache<NodeIdKeyWith<TramTime>, HeuristicsReason> hourNodePrevious;
     private final Cache<NodeIdKeyWith<TramTime>, HeuristicsReason> routeStationPrevious;
-    private final Cache<GraphNodeId, HeuristicsReason> servicePrevious;
+    private final SharedPreviousVisits.ForDateAndModes sharedPrevious;
     private final boolean cachingDisabled;
+    private final HeuristicsReasonFactory reasonFactory;
 
-    public PreviousVisits(boolean cachingDisabled, NumberOfNodesAndRelationshipsRepository countsNodes) {
+    public PreviousVisits(boolean cachingDisabled, NumberOfNodesAndRelationshipsRepository countsNodes,
+                          SharedPreviousVisits.ForDateAndModes sharedPrevious, HeuristicsReasonFactory reasonFactory) {
         this.cachingDisabled = cachingDisabled;
+        this.reasonFactory = reasonFactory;
+        this.sharedPrevious = sharedPrevious;
         long numberMinuteNodes = countsNodes.numberOf(GraphLabel.MINUTE);
         timeNodePrevious = createCache(numberMinuteNodes);
         hourNodePrevious = createCache(countsNodes.numberOf(GraphLabel.HOUR));
         routeStationPrevious = createCache(countsNodes.numberOf(GraphLabel.ROUTE_STATION));
-        servicePrevious = createCache(countsNodes.numberOf(GraphLabel.SERVICE));
     }
 
     @NotNull
@@ -82,31 +91,37 @@ public class PreviousVisits implements ReportsCacheStats {
         if (labels.contains(GraphLabel.ROUTE_STATION)) {
             final TramTime journeyClock = journeyState.getJourneyClock();
 
+            if (reasonCode == RouteNotOnQueryDate && !journeyClock.isNextDay()) {
+                // the route is unavailable for the query date, whatever the origin of the query
+                sharedPrevious.put(id, reasonCode);
+            }
+
             routeStationPrevious.put(new NodeIdKeyWith<>(id, journeyClock), reason);
             return;
         }
 
         if (labels.contains(GraphLabel.SERVICE)) {
             if (reasonCode == NotOnQueryDate) {
-                // the service is unavailable for the query date
+                // the service is unavailable for the query date, whatever the origin of the query
                 final TramTime journeyClock = journeyState.getJourneyClock();
                 final boolean isNextDay = journeyClock.isNextDay();
                 if (!isNextDay) {
-                    servicePrevious.put(id, reason);
+                    sharedPrevious.put(id, reasonCode);
                 }
             }
         }
     }
 
-    public HeuristicsReason getPreviousResult(final ImmutableJourneyState journeyState,
-                                              final GraphLabels labels, final HowIGotHere howIGotHere) {
+    /***
+     * @param howIGotHere null unless diagnostics are enabled
+     */
+    public HeuristicsReason getPreviousResult(final ImmutableJourneyState journeyState, final GraphLabels labels,
+                                              final GraphNodeId nodeId, final HowIGotHere howIGotHere) {
 
         if (cachingDisabled) {
-            return HeuristicsReasons.CacheMiss(howIGotHere);
+            return reasonFactory.CacheMiss(howIGotHere);
         }
 
-        final GraphNodeId nodeId = howIGotHere.getEndNodeId();
-
         if (labels.contains(GraphLabel.MINUTE)) {
             // time node has by definition a unique time and can only arrive at the "same time" as previous visits
             final HeuristicsReason timeFoundReason = timeNodePrevious.getIfPresent(nodeId);
@@ -124,20 +139,36 @@ public class PreviousVisits implements ReportsCacheStats {
         }
 
         if (labels.contains(GraphLabel.ROUTE_STATION)) {
+            final HeuristicsReason sharedReason = getSharedResult(journeyState, nodeId);
+            if (sharedReason != null) {
+                return sharedReason;
+            }
             final HeuristicsReason routeStationReason = routeStationPrevious.getIfPresent(new NodeIdKeyWith<>(nodeId, journeyState.getJourneyClock()));
             if (routeStationReason != null) {
-                return HeuristicsReasons.AlreadySeenRouteStation(howIGotHere);
+                return reasonFactory.AlreadySeenRouteStation(howIGotHere);
             }
         }
 
         if (labels.contains(GraphLabel.SERVICE)) {
-            final HeuristicsReason serviceReason = servicePrevious.getIfPresent(nodeId);
+            final HeuristicsReason serviceReason = getSharedResult(journeyState, nodeId);
             if (serviceReason != null) {
                 return serviceReason;
             }
         }
 
-        return HeuristicsReasons.CacheMiss(howIGotHere);
+        return reasonFactory.CacheMiss(howIGotHere);
+    }
+
+    private HeuristicsReason getSharedResult(final ImmutableJourneyState journeyState, final GraphNodeId nodeId) {
+        // shared verdicts are for the query date only
+        if (journeyState.getJourneyClock().isNextDay()) {
+            return null;
+        }
+        final ReasonCode sharedCode = sharedPrevious.getIfPresent(nodeId);
+        if (sharedCode == null) {
+            return null;
+        }
+        return CodeOnlyHeuristicReason.of(sharedCode, false);
     }
 
     @Override
@@ -146,7 +177,6 @@ public class PreviousVisits implements ReportsCacheStats {
         results.add(Pair.of("timeNodePrevious", timeNodePrevious.stats()));
         results.add(Pair.of("hourNodePrevious", hourNodePrevious.stats()));
         results.add(Pair.of("routeStationPrevious", routeStationPrevious.stats()));
-        results.add(Pair.of("servicePrevious", servicePrevious.stats()));
 
         return results;
     }
@@ -42,7 +42,8 @@ public class RouteCalculatorArriveBy implements TramRouteCalculator {
     public Stream<Journey> calculateRoute(GraphTransaction txn, Location<?> start, Location<?> destination, JourneyRequest journeyRequest,
                                           Running running) {
         try {
-            final TramDuration costToDest = costCalculator.getAverageCostBetween(txn, start, destination, journeyRequest.getDate(),
+            // a lower bound, so the estimated depart time errs late, calcDepartTime allows for some wait on top
+            final TramDuration costToDest = costCalculator.getLeastCostBetween(txn, start, destination, journeyRequest.getDate(),
                     journeyRequest.getRequestedModes());
             logger.info("Arrive by requested, cost to destination " + destination.getId() + " is " + costToDest);
             final TramDuration maxInitialWait = TramchesterConfig.getMaxInitialWaitFor(start, config);
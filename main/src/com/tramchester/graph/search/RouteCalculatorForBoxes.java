@@ -56,12 +56,13 @@ public abstract class RouteCalculatorForBoxes extends RouteCalculatorSupport {
                                    RunningRoutesAndServices runningRoutesAndService, @SuppressWarnings("unused") RouteCostCalculator routeCostCalculator,
                                    StationAvailabilityRepository stationAvailabilityRepository, CreateJourneyDiagnostics failedJourneyDiagnostics,
                                    NumberOfNodesAndRelationshipsRepository countsNodes, InterchangeRepository interchangeRepository,
-                                   CacheMetrics cacheMetrics, CreateQueryTimes createQueryTimes) {
+                                   CacheMetrics cacheMetrics, CreateQueryTimes createQueryTimes, JourneySearchExecutor searchExecutor,
+                                   SharedPreviousVisits sharedPreviousVisits) {
         super(pathToStages, graphDatabaseService,
                 providesNow, mapPathToLocations,
                 transportData, config, routeToRouteCosts, failedJourneyDiagnostics,
                 stationAvailabilityRepository, countsNodes, closedStationsRepository, cacheMetrics,
-                interchangeRepository, createQueryTimes, runningRoutesAndService);
+                interchangeRepository, createQueryTimes, runningRoutesAndService, searchExecutor, sharedPreviousVisits);
         this.config = config;
         this.graphDatabaseService = graphDatabaseService;
         this.closedStationsRepository = closedStationsRepository;
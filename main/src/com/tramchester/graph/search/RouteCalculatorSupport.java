@@ -19,6 +19,7 @@ import com.tramchester.geo.BoundingBoxWithStations;
 import com.tramchester.geo.StationsBoxSimpleGrid;
 import com.tramchester.graph.core.*;
 import com.tramchester.graph.search.diagnostics.CreateJourneyDiagnostics;
+import com.tramchester.graph.search.diagnostics.HeuristicsReasonFactory;
 import com.tramchester.graph.search.diagnostics.ServiceReasons;
 import com.tramchester.graph.search.stateMachine.TowardsDestination;
 import com.tramchester.metrics.CacheMetrics;
@@ -30,6 +31,8 @@ import org.slf4j.LoggerFactory;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -55,6 +58,8 @@ public abstract class RouteCalculatorSupport {
     private final StationAvailabilityRepository stationAvailabilityRepository;
     private final boolean fullLogging; // turn down logging for grid searches
     private final NumberOfNodesAndRelationshipsRepository countsNodes;
+    private final JourneySearchExecutor searchExecutor;
+    private final SharedPreviousVisits sharedPreviousVisits;
 
     protected RouteCalculatorSupport(PathToStages pathToStages,
                                      GraphDatabase graphDatabaseService,
@@ -63,7 +68,8 @@ public abstract class RouteCalculatorSupport {
                                      BetweenRoutesCostRepository routeToRouteCosts,
                                      CreateJourneyDiagnostics failedJourneyDiagnostics, StationAvailabilityRepository stationAvailabilityRepository,
                                      NumberOfNodesAndRelationshipsRepository countsNodes, ClosedStationsRepository closedStationsRepository,
-                                     CacheMetrics cacheMetrics, InterchangeRepository interchangeRepository, CreateQueryTimes createQueryTimes, RunningRoutesAndServices runningRoutesAndServices) {
+                                     CacheMetrics cacheMetrics, InterchangeRepository interchangeRepository, CreateQueryTimes createQueryTimes, RunningRoutesAndServices runningRoutesAndServices,
+                                     JourneySearchExecutor searchExecutor, SharedPreviousVisits sharedPreviousVisits) {
         this.pathToStages = pathToStages;
         this.graphDatabaseService = graphDatabaseService;
         this.providesNow = providesNow;
@@ -80,6 +86,8 @@ public abstract class RouteCalculatorSupport {
         this.interchangeRepository = interchangeRepository;
         this.createQueryTimes = createQueryTimes;
         this.runningRoutesAndServices = runningRoutesAndServices;
+        this.searchExecutor = searchExecutor;
+        this.sharedPreviousVisits = sharedPreviousVisits;
     }
 
 
@@ -198,7 +206,10 @@ public abstract class RouteCalculatorSupport {
         if (cacheDisabled) {
             logger.warn("Caching is disabled");
         }
-        return new PreviousVisits(cacheDisabled, countsNodes);
+        final SharedPreviousVisits.ForDateAndModes sharedPrevious = sharedPreviousVisits.getFor(journeyRequest.getDate(),
+                journeyRequest.getRequestedModes());
+        return new PreviousVisits(cacheDisabled, countsNodes, sharedPrevious,
+                HeuristicsReasonFactory.forDiagnostics(journeyRequest.getDiagnosticsEnabled()));
     }
 
     @NotNull
@@ -285,8 +296,12 @@ public abstract class RouteCalculatorSupport {
         logger.info("Journey Constraints: " + journeyConstraints);
         logger.info("Query times: " + queryTimes);
 
+        final boolean paretoSearch = config.getParetoSearch();
+
         // TODO Handling arrive by
-        final ArrivalHandler arrivalHandler = ArrivalHandler.get();
+        // one per path request, a shared handler would prune each search depending on which others had finished first,
+        // so results would depend on the order searches complete in when run in parallel
+        final Supplier<ArrivalHandler> arrivalHandlers = paretoSearch ? ArrivalHandler::pareto : ArrivalHandler::get;
 
         final AtomicInteger journeyIndex = new AtomicInteger(0);
 
@@ -294,25 +309,106 @@ public abstract class RouteCalculatorSupport {
 
         final TramNetworkTraverserFactory traverserFactory = getTraverserFactory(destinations, destinationNodeIds);
 
-        final Stream<Journey> results = numChangesRange(journeyRequest, possibleMinNumChanges).
+        // pareto search keeps journeys with fewer changes as it goes, so one search with the max changes is enough
+        final Stream<Integer> numChanges = paretoSearch ? Stream.of(journeyRequest.getMaxChanges().get()) :
+                numChangesRange(journeyRequest, possibleMinNumChanges);
+
+        // a pareto search runs until the handler prunes everything, stopping after a number of journeys would cut the front short
+        final long maxNumberJourneys = paretoSearch ? Long.MAX_VALUE : journeyRequest.getMaxNumberOfJourneys();
+
+        final Stream<PathRequest> pathRequests = numChanges.
                 flatMap(numChanges ->
                         queryTimes.stream().map(queryTime -> createPathRequest(startNode, tramDate, queryTime, requestedModes, numChanges,
                                 journeyConstraints, maxInitialWait, journeyRequest.getDiagnosticsEnabled(),
-                                journeyRequest.getMaxNumberOfJourneys()))).
-                        flatMap(pathRequest -> findShortestPath(txn.asImmutable(),
-                                createServiceReasons(journeyRequest, pathRequest),
-                                pathRequest,
-                                createPreviousVisits(journeyRequest),
-                                arrivalHandler, running, traverserFactory, towardsDestination)).
-                        map(path -> createJourney(journeyRequest, path, towardsDestination, journeyIndex, txn));
+                                maxNumberJourneys)));
+
+        final Stream<Journey> found;
+        if (searchExecutor.isEnabled()) {
+            // path requests are independent, so search in parallel and map each result to journeys as it completes
+            final Stream<Function<Running, List<TimedPath>>> searches = pathRequests.
+                    map(pathRequest -> searchRunning -> findShortestPath(txn.asImmutable(),
+                            createServiceReasons(journeyRequest, pathRequest),
+                            pathRequest,
+                            createPreviousVisits(journeyRequest),
+                            arrivalHandlers.get(), searchRunning, traverserFactory, towardsDestination).toList());
+
+            found = searchExecutor.inCompletionOrder(searches, running).
+                    flatMap(paths -> paretoFilter(paths.stream().
+                            map(path -> createJourney(journeyRequest, path, towardsDestination, journeyIndex, txn)), paretoSearch).
+                            sorted(Comparator.comparing(Journey::getArrivalTime)));
+        } else {
+            // once stopped, i.e. timed out, return results so far and skip remaining searches
+            found = pathRequests.
+                    takeWhile(pathRequest -> running.isRunning()).
+                    flatMap(pathRequest -> paretoFilter(findShortestPath(txn.asImmutable(),
+                            createServiceReasons(journeyRequest, pathRequest),
+                            pathRequest,
+                            createPreviousVisits(journeyRequest),
+                            arrivalHandlers.get(), running, traverserFactory, towardsDestination).
+                            map(path -> createJourney(journeyRequest, path, towardsDestination, journeyIndex, txn)), paretoSearch));
+        }
 
         //noinspection ResultOfMethodCallIgnored
-        results.onClose(() -> {
+        found.onClose(() -> {
             cacheMetrics.report();
             logger.info("Journey stream closed");
         });
 
-        return results;
+        return found;
+    }
+
+    /***
+     * Limit to the requested number of journeys, except for a pareto search where the front is already small and a
+     * cutoff on count would drop journeys that are better on changes or time walking
+     */
+    private Stream<Journey> limitJourneys(final Stream<Journey> journeys, final JourneyRequest journeyRequest) {
+        if (config.getParetoSearch()) {
+            return journeys;
+        }
+        return journeys.limit(journeyRequest.getMaxNumberOfJourneys());
+    }
+
+    /***
+     * Arrivals found before a better one was seen are not pruned during a pareto search, so drop any journey from the
+     * same path request that is no better on arrival, number of changes and time walking than another. Applied per path
+     * request, each one a single query time, so results from earlier requests are still returned as soon as they are found
+     */
+    private Stream<Journey> paretoFilter(final Stream<Journey> journeys, final boolean paretoSearch) {
+        if (!paretoSearch) {
+            return journeys;
+        }
+        final List<Journey> all;
+        try (journeys) {
+            all = journeys.toList();
+        }
+        final List<Journey> front = all.stream().
+                filter(journey -> all.stream().noneMatch(other -> dominates(other, journey))).
+                toList();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Pareto front has " + front.size() + " of " + all.size() + " journeys");
+        }
+        return front.stream();
+    }
+
+    private static boolean dominates(final Journey other, final Journey journey) {
+        if (other == journey || !other.getQueryTime().equals(journey.getQueryTime())) {
+            return false;
+        }
+        final int arrival = other.getArrivalTime().compareTo(journey.getArrivalTime());
+        final int changes = Integer.compare(other.getNumberChanges(), journey.getNumberChanges());
+        final int walking = timeWalking(other).compareTo(timeWalking(journey));
+        if (arrival > 0 || changes > 0 || walking > 0) {
+            return false;
+        }
+        // for identical journeys keep the first found
+        return arrival < 0 || changes < 0 || walking < 0 || other.getJourneyIndex() < journey.getJourneyIndex();
+    }
+
+    private static TramDuration timeWalking(final Journey journey) {
+        return journey.getStages().stream().
+                filter(stage -> stage.getMode() == TransportMode.Walk || stage.getMode() == TransportMode.Connect).
+                map(TransportStage::getDuration).
+                reduce(TramDuration.ZERO, TramDuration::plus);
     }
 
     protected Stream<Journey> getSingleJourneyStream(final GraphTransaction txn, final GraphNode startNode, final GraphNode endNode,
@@ -391,9 +487,8 @@ public abstract class RouteCalculatorSupport {
             return getSingleJourneyStream(txn, startNode, endNode, journeyRequest, routesAndServicesFilter, destinations, maxInitialWait, running).
                     limit(journeyRequest.getMaxNumberOfJourneys());
         } else {
-            return getJourneyStream(txn, startNode, endNode, destinations, journeyRequest, queryTimes, routesAndServicesFilter,
-                    numberOfChanges, maxInitialWait, running).
-                    limit(journeyRequest.getMaxNumberOfJourneys());
+            return limitJourneys(getJourneyStream(txn, startNode, endNode, destinations, journeyRequest, queryTimes,
+                    routesAndServicesFilter, numberOfChanges, maxInitialWait, running), journeyRequest);
         }
     }
 
@@ -422,8 +517,8 @@ public abstract class RouteCalculatorSupport {
 
         final TramDuration maxInitialWait = TramchesterConfig.getMaxInitialWaitFor(start, config);
 
-        return getJourneyStream(txn, startNode, endOfWalk, destinations, journeyRequest, queryTimes, routesAndServicesFilter, numberOfChanges, maxInitialWait, running).
-                limit(journeyRequest.getMaxNumberOfJourneys());
+        return limitJourneys(getJourneyStream(txn, startNode, endOfWalk, destinations, journeyRequest, queryTimes,
+                routesAndServicesFilter, numberOfChanges, maxInitialWait, running), journeyRequest);
     }
 
     public Stream<Journey> calculateRouteWalkAtStart(GraphTransaction txn, Set<StationWalk> stationWalks, GraphNode startOfWalkNode,
@@ -441,8 +536,8 @@ public abstract class RouteCalculatorSupport {
 
         final LocationCollection destinations = LocationCollectionSingleton.of(destination);
 
-        return getJourneyStream(txn, startOfWalkNode, endNode, destinations, journeyRequest, queryTimes, routesAndServicesFilter, numberOfChanges, maxInitialWait, running).
-                limit(journeyRequest.getMaxNumberOfJourneys()).
+        return limitJourneys(getJourneyStream(txn, startOfWalkNode, endNode, destinations, journeyRequest, queryTimes,
+                routesAndServicesFilter, numberOfChanges, maxInitialWait, running), journeyRequest).
                 takeWhile(finished::notDoneYet);
     }
 
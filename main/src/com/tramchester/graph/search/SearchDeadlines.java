@@ -0,0 +1,71 @@
+package com.tramchester.graph.search;
+
+import com.netflix.governator.guice.lazy.LazySingleton;
+import com.tramchester.config.TramchesterConfig;
+import com.tramchester.domain.JourneyRequest;
+import com.tramchester.domain.collections.Deadline;
+import com.tramchester.domain.collections.Running;
+import com.tramchester.metrics.HasMetrics;
+import com.tramchester.metrics.RegistersMetrics;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/***
+ * Creates the Running passed into the route calculators so a journey search stops after calcTimeoutMillis, journeys
+ * found before the deadline are still returned and the request is marked as cut short. Only applies when enabled via
+ * searchDeadline in the config, otherwise searches always run to completion. Counts searches that time out.
+ */
+@LazySingleton
+public class SearchDeadlines implements HasMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(SearchDeadlines.class);
+
+    private final long timeoutMillis;
+    private final AtomicInteger started;
+    private final AtomicInteger timedOut;
+
+    @Inject
+    public SearchDeadlines(TramchesterConfig config) {
+        this.timeoutMillis = config.getSearchDeadline() ? config.getCalcTimeoutMillis() : 0;
+        if (timeoutMillis > 0) {
+            logger.info("Journey searches will stop after " + timeoutMillis + " ms");
+        }
+        started = new AtomicInteger(0);
+        timedOut = new AtomicInteger(0);
+    }
+
+    public Running start(final JourneyRequest journeyRequest) {
+        started.incrementAndGet();
+        if (timeoutMillis <= 0) {
+            return () -> true;
+        }
+        return Deadline.startingNow(timeoutMillis, () -> recordTimeout(journeyRequest));
+    }
+
+    private void recordTimeout(final JourneyRequest journeyRequest) {
+        timedOut.incrementAndGet();
+        journeyRequest.setCutShort();
+        logger.warn("Journey search exceeded " + timeoutMillis + " ms, results will be partial for " + journeyRequest);
+    }
+
+    public Integer getStarted() {
+        return started.get();
+    }
+
+    public Integer getTimedOut() {
+        return timedOut.get();
+    }
+
+    @Override
+    public void registerMetrics(RegistersMetrics registersMetrics) {
+        registersMetrics.add(this, "search", "started", this::getStarted);
+        registersMetrics.add(this, "search", "timedOut", this::getTimedOut);
+    }
+
+    @Override
+    public boolean areMetricsEnabled() {
+        return true;
+    }
+}
@@ -52,11 +52,11 @@ public class ServiceHeuristics {
         final IdFor<Service> nodeServiceId = node.getServiceId();
 
         if (!journeyConstraints.isRunningOnDate(nodeServiceId, visitTime)) {
-            return reasons.recordReason(HeuristicsReasons.DoesNotRunOnQueryDate(howIGotHere, nodeServiceId));
+            return reasons.recordReason(reasons.getReasonFactory().DoesNotRunOnQueryDate(howIGotHere, nodeServiceId));
         }
 
         if (!journeyConstraints.isRunningAtTime(nodeServiceId, visitTime, maxWait)) {
-            return reasons.recordReason(HeuristicsReasons.ServiceNotRunningAtTime(howIGotHere, nodeServiceId, visitTime));
+            return reasons.recordReason(reasons.getReasonFactory().ServiceNotRunningAtTime(howIGotHere, nodeServiceId, visitTime));
         }
 
         return valid(ReasonCode.ServiceDateOk, howIGotHere, reasons);
@@ -66,16 +66,16 @@ public class ServiceHeuristics {
        reasons.incrementTotalChecked();
 
        if (currentNumChanges > currentChangesLimit) {
-         return reasons.recordReason(HeuristicsReasons.TooManyChanges(howIGotHere, currentNumChanges));
+         return reasons.recordReason(reasons.getReasonFactory().TooManyChanges(howIGotHere, currentNumChanges));
        }
-       return reasons.recordReason(HeuristicReasonsOK.NumChangesOK(ReasonCode.NumChangesOK, howIGotHere, currentNumChanges));
+       return reasons.recordReason(reasons.getReasonFactory().NumChangesOK(ReasonCode.NumChangesOK, howIGotHere, currentNumChanges));
     }
 
     public HeuristicsReason checkNumberNeighbourConnections(final int currentNumberConnections, final HowIGotHere howIGotHere, final ServiceReasons reasons) {
         reasons.incrementTotalChecked();
 
         if (currentNumberConnections > journeyConstraints.getMaxWalkingConnections()) {
-            return reasons.recordReason(HeuristicsReasons.TooManyNeighbourConnections(howIGotHere, currentNumberConnections));
+            return reasons.recordReason(reasons.getReasonFactory().TooManyNeighbourConnections(howIGotHere, currentNumberConnections));
         }
         return valid(ReasonCode.NeighbourConnectionsOk, howIGotHere, reasons);
     }
@@ -85,7 +85,7 @@ public class ServiceHeuristics {
         reasons.incrementTotalChecked();
 
         if (currentNumConnections > journeyConstraints.getMaxWalkingConnections()) {
-            return reasons.recordReason(HeuristicsReasons.TooManyWalkingConnections(howIGotHere, currentNumConnections));
+            return reasons.recordReason(reasons.getReasonFactory().TooManyWalkingConnections(howIGotHere, currentNumConnections));
         }
         return valid(ReasonCode.NumWalkingConnectionsOk, howIGotHere, reasons);
     }
@@ -96,17 +96,17 @@ public class ServiceHeuristics {
 
         final TramTime nodeTime = node.getTime();
         if (currentTime.isAfter(nodeTime)) { // already departed
-            return reasons.recordReason(HeuristicsReasons.AlreadyDeparted(currentTime, howIGotHere));
+            return reasons.recordReason(reasons.getReasonFactory().AlreadyDeparted(currentTime, howIGotHere));
         }
 
         // Wait to get the service?
         final TimeRange window = TimeRangePartial.of(nodeTime, TramDuration.ofMinutes(maxWait), TramDuration.ZERO);
 
         if (window.contains(currentTime)) {
-            return reasons.recordReason(HeuristicReasonsOK.TimeOK(ReasonCode.TimeOk, howIGotHere, currentTime));
+            return reasons.recordReason(reasons.getReasonFactory().TimeOK(ReasonCode.TimeOk, howIGotHere, currentTime));
         }
 
-        return reasons.recordReason(HeuristicsReasons.DoesNotOperateOnTime(currentTime, howIGotHere));
+        return reasons.recordReason(reasons.getReasonFactory().DoesNotOperateOnTime(currentTime, howIGotHere));
     }
 
     public HeuristicsReason interestedInHour(final HowIGotHere howIGotHere, final TramTime currentTime,
@@ -121,15 +121,15 @@ public class ServiceHeuristics {
 
         final TimeRange hourRangeToday = TimeRange.of(TramTime.of(hourAtNode, 0), TramTime.of(hourAtNode, 59));
         if (travelTimes.anyOverlap(hourRangeToday)) {
-            return reasons.recordReason(HeuristicReasonsOK.HourOk(ReasonCode.HourOk, howIGotHere, currentTime, hourAtNode));
+            return reasons.recordReason(reasons.getReasonFactory().HourOk(ReasonCode.HourOk, howIGotHere, currentTime, hourAtNode));
         }
 
         final TimeRange hourRangeTomorrow = TimeRange.of(TramTime.nextDay(hourAtNode, 0), TramTime.nextDay(hourAtNode, 59));
         if (travelTimes.anyOverlap(hourRangeTomorrow)) {
-            return reasons.recordReason(HeuristicReasonsOK.HourOk(ReasonCode.HourOk, howIGotHere, currentTime, hourAtNode));
+            return reasons.recordReason(reasons.getReasonFactory().HourOk(ReasonCode.HourOk, howIGotHere, currentTime, hourAtNode));
         }
 
-        return reasons.recordReason(HeuristicsReasons.DoesNotOperateAtHour(currentTime, howIGotHere, hourAtNode));
+        return reasons.recordReason(reasons.getReasonFactory().DoesNotOperateAtHour(currentTime, howIGotHere, hourAtNode));
 
     }
 
@@ -142,7 +142,7 @@ public class ServiceHeuristics {
         final IdFor<Station> associatedStationId = routeStation.getStationId();
 
         if (journeyConstraints.isClosed(associatedStationId)) {
-           return reasons.recordReason(HeuristicsReasons.StationClosed(howIGotHere, associatedStationId));
+           return reasons.recordReason(reasons.getReasonFactory().StationClosed(howIGotHere, associatedStationId));
         }
 
         return valid(ReasonCode.StationOpen, howIGotHere, reasons);
@@ -152,7 +152,7 @@ public class ServiceHeuristics {
     public HeuristicsReason checkModes(final GraphLabels modelLabels, final ImmutableEnumSet<GraphLabel> requestedModeLabels,
                                        final HowIGotHere howIGotHere, final ServiceReasons reasons) {
         if (!modelLabels.anyIntersectionWith(requestedModeLabels)) {
-            return reasons.recordReason(HeuristicsReasons.TransportModeWrong(howIGotHere));
+            return reasons.recordReason(reasons.getReasonFactory().TransportModeWrong(howIGotHere));
         }
         return valid(ReasonCode.TransportModeOk, howIGotHere, reasons);
     }
@@ -164,7 +164,7 @@ public class ServiceHeuristics {
         // TODO potential optimisation where only one mode is configured, in which case this check does nothing
         if (currentNumberOfChanges==penultimateChange) {
             if (!nodeLabels.anyIntersectionWith(destinationLabels)) {
-                return reasons.recordReason(HeuristicsReasons.StationNotReachable(howIGotHere, ReasonCode.TransportModeWrong));
+                return reasons.recordReason(reasons.getReasonFactory().StationNotReachable(howIGotHere, ReasonCode.TransportModeWrong));
             }
         }
         return valid(ReasonCode.NumChangesOK, howIGotHere, reasons);
@@ -186,18 +186,18 @@ public class ServiceHeuristics {
         final Route currentRoute = routeStation.getRoute();
 
         if (journeyConstraints.isUnavailable(currentRoute, currentElapsed)) {
-            return reasons.recordReason(HeuristicsReasons.RouteNotToday(howIGotHere, currentRoute.getId()));
+            return reasons.recordReason(reasons.getReasonFactory().RouteNotToday(howIGotHere, currentRoute.getId()));
         }
 
         // this is expensive but does produce better overall performance
         final int fewestChanges = lowestCostsForDestRoutes.getFewestChanges(currentRoute);
 
         if (fewestChanges > currentChangesLimit) {
-            return reasons.recordReason(HeuristicsReasons.StationNotReachable(howIGotHere, ReasonCode.TooManyRouteChangesRequired));
+            return reasons.recordReason(reasons.getReasonFactory().StationNotReachable(howIGotHere, ReasonCode.TooManyRouteChangesRequired));
         }
 
         if ((fewestChanges+currentNumberOfChanges) > currentChangesLimit) {
-            return reasons.recordReason(HeuristicsReasons.StationNotReachable(howIGotHere, ReasonCode.TooManyInterchangesRequired));
+            return reasons.recordReason(reasons.getReasonFactory().StationNotReachable(howIGotHere, ReasonCode.TooManyInterchangesRequired));
         }
 
         return valid(ReasonCode.Reachable, howIGotHere, reasons);
@@ -222,13 +222,13 @@ public class ServiceHeuristics {
         reasons.incrementTotalChecked();
 
         if (Durations.greaterThan(totalDuration, journeyConstraints.getMaxJourneyDuration())) {
-            return reasons.recordReason(HeuristicsReasons.TookTooLong(actualQueryTime.plusRounded(totalDuration), howIGotHere));
+            return reasons.recordReason(reasons.getReasonFactory().TookTooLong(actualQueryTime.plusRounded(totalDuration), howIGotHere));
         }
         return valid(ReasonCode.DurationOk, howIGotHere, reasons);
     }
 
     private HeuristicsReason valid(final ReasonCode code, final HowIGotHere howIGotHere, final ServiceReasons reasons) {
-        return reasons.recordReason(HeuristicReasonsOK.IsValid(code, howIGotHere));
+        return reasons.recordReason(reasons.getReasonFactory().IsValid(code, howIGotHere));
     }
 
     public int getMaxPathLength() {
@@ -242,7 +242,7 @@ public class ServiceHeuristics {
 
         final IdFor<Trip> tripId = minuteNode.getTripId();
         if (journeyState.alreadyDeparted(tripId)) {
-            return reasons.recordReason(HeuristicsReasons.SameTrip(tripId, howIGotHere));
+            return reasons.recordReason(reasons.getReasonFactory().SameTrip(tripId, howIGotHere));
         }
         return valid(ReasonCode.Continue, howIGotHere, reasons);
     }
@@ -0,0 +1,160 @@
+package com.tramchester.graph.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.netflix.governator.guice.lazy.LazySingleton;
+import com.tramchester.domain.collections.ImmutableEnumSet;
+import com.tramchester.domain.dates.TramDate;
+import com.tramchester.domain.reference.TransportMode;
+import com.tramchester.domain.time.ProvidesNow;
+import com.tramchester.graph.core.GraphNodeId;
+import com.tramchester.graph.reference.GraphLabel;
+import com.tramchester.graph.search.diagnostics.ReasonCode;
+import com.tramchester.metrics.CacheMetrics;
+import com.tramchester.repository.ReportsCacheStats;
+import jakarta.inject.Inject;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/***
+ * Process wide tier for PreviousVisits, holds only verdicts that depend on the query date and requested modes and
+ * not on the origin or time of a query, i.e. a service or route that does not run on the date. Lets repeated queries
+ * for the same date skip those parts of the graph without finding them again. Entries for dates before today are
+ * evicted at day rollover.
+ */
+@LazySingleton
+public class SharedPreviousVisits implements ReportsCacheStats {
+    private static final Logger logger = LoggerFactory.getLogger(SharedPreviousVisits.class);
+
+    // number of distinct query dates to size for, most queries are for today or the next few days
+    private static final int NUMBER_OF_DATES = 7;
+
+    private final NumberOfNodesAndRelationshipsRepository countsNodes;
+    private final ProvidesNow providesNow;
+    private final CacheMetrics cacheMetrics;
+
+    private Cache<Key, ReasonCode> verdicts;
+    private volatile TramDate currentDay;
+
+    @Inject
+    public SharedPreviousVisits(NumberOfNodesAndRelationshipsRepository countsNodes, ProvidesNow providesNow,
+                                CacheMetrics cacheMetrics) {
+        this.countsNodes = countsNodes;
+        this.providesNow = providesNow;
+        this.cacheMetrics = cacheMetrics;
+    }
+
+    @PostConstruct
+    public void start() {
+        logger.info("starting");
+        final long numberOfNodes = countsNodes.numberOf(GraphLabel.SERVICE) + countsNodes.numberOf(GraphLabel.ROUTE_STATION);
+        verdicts = Caffeine.newBuilder().
+                maximumSize(numberOfNodes * NUMBER_OF_DATES).
+                recordStats().build();
+        currentDay = providesNow.getTramDate();
+        cacheMetrics.register(this);
+        logger.info("started");
+    }
+
+    @PreDestroy
+    public void stop() {
+        logger.info("stopping");
+        verdicts.invalidateAll();
+        logger.info("stopped");
+    }
+
+    public ForDateAndModes getFor(final TramDate date, final ImmutableEnumSet<TransportMode> modes) {
+        evictIfDayRolledOver();
+        return new ForDateAndModes(date, modes);
+    }
+
+    private void evictIfDayRolledOver() {
+        final TramDate today = providesNow.getTramDate();
+        if (today.equals(currentDay)) {
+            return;
+        }
+        synchronized (this) {
+            if (today.equals(currentDay)) {
+                return;
+            }
+            final long before = verdicts.estimatedSize();
+            verdicts.asMap().keySet().removeIf(key -> key.date.isBefore(today));
+            logger.info("Day changed from " + currentDay + " to " + today + ", entries reduced from " + before +
+                    " to " + verdicts.estimatedSize());
+            currentDay = today;
+        }
+    }
+
+    public long size() {
+        return verdicts.estimatedSize();
+    }
+
+    @Override
+    public List<Pair<String, CacheStats>> stats() {
+        return Collections.singletonList(Pair.of("sharedVerdicts", verdicts.stats()));
+    }
+
+    /***
+     * Verdicts scoped to one query date and set of requested modes
+     */
+    public class ForDateAndModes {
+        private final TramDate date;
+        private final ImmutableEnumSet<TransportMode> modes;
+
+        private ForDateAndModes(final TramDate date, final ImmutableEnumSet<TransportMode> modes) {
+            this.date = date;
+            this.modes = modes;
+        }
+
+        public ReasonCode getIfPresent(final GraphNodeId nodeId) {
+            return verdicts.getIfPresent(new Key(date, modes, nodeId));
+        }
+
+        public void put(final GraphNodeId nodeId, final ReasonCode reasonCode) {
+            verdicts.put(new Key(date, modes, nodeId), reasonCode);
+        }
+
+        @Override
+        public String toString() {
+            return "ForDateAndModes{" +
+                    "date=" + date +
+                    ", modes=" + modes +
+                    '}';
+        }
+    }
+
+    private static class Key {
+        private final TramDate date;
+        private final ImmutableEnumSet<TransportMode> modes;
+        private final GraphNodeId nodeId;
+        private final int hashCode;
+
+        private Key(final TramDate date, final ImmutableEnumSet<TransportMode> modes, final GraphNodeId nodeId) {
+            this.date = date;
+            this.modes = modes;
+            this.nodeId = nodeId;
+            hashCode = Objects.hash(date, modes, nodeId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return Objects.equals(nodeId, key.nodeId) && Objects.equals(date, key.date) && Objects.equals(modes, key.modes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
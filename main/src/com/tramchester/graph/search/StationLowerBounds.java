@@ -0,0 +1,257 @@
+package com.tramchester.graph.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.netflix.governator.guice.lazy.LazySingleton;
+import com.tramchester.config.GTFSSourceConfig;
+import com.tramchester.config.TramchesterConfig;
+import com.tramchester.domain.LocationCollection;
+import com.tramchester.domain.StationPair;
+import com.tramchester.domain.StationToStationConnection;
+import com.tramchester.domain.TemporaryStationWalk;
+import com.tramchester.domain.closures.ClosedStation;
+import com.tramchester.domain.id.IdFor;
+import com.tramchester.domain.id.IdSet;
+import com.tramchester.domain.input.StopCalls;
+import com.tramchester.domain.places.Location;
+import com.tramchester.domain.places.Station;
+import com.tramchester.graph.filters.GraphFilterActive;
+import com.tramchester.metrics.CacheMetrics;
+import com.tramchester.repository.ClosedStationsRepository;
+import com.tramchester.repository.NeighboursRepository;
+import com.tramchester.repository.ReportsCacheStats;
+import com.tramchester.repository.TemporaryStationWalksRepository;
+import com.tramchester.repository.TripRepository;
+import jakarta.inject.Inject;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.*;
+
+/***
+ * Admissible lower bounds, in seconds, on the travel time from each station to a set of destination stations. Built
+ * from a reverse sweep (Dijkstra) over the minimum leg time seen on any trip between adjacent stations, plus neighbour
+ * walking links, plus diversions for closures and temporary walks at zero cost since those only apply on some dates,
+ * so a bound never exceeds the cost of a real journey. Used to order the in memory search as A*, see
+ * TramchesterConfig getAStarSearch
+ */
+@LazySingleton
+public class StationLowerBounds implements ReportsCacheStats {
+    private static final Logger logger = LoggerFactory.getLogger(StationLowerBounds.class);
+
+    public static final long UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final ForDestinations Disabled = new ForDestinations(Collections.emptyMap(), false);
+
+    private final TramchesterConfig config;
+    private final TripRepository tripRepository;
+    private final NeighboursRepository neighboursRepository;
+    private final ClosedStationsRepository closedStationsRepository;
+    private final TemporaryStationWalksRepository temporaryStationWalksRepository;
+    private final GraphFilterActive graphFilter;
+    private final CacheMetrics cacheMetrics;
+
+    // station -> stations with a direct link to it -> min cost in seconds of that link
+    private final Map<IdFor<Station>, Map<IdFor<Station>, Long>> reverseLinks;
+    private Cache<IdSet<Station>, ForDestinations> cache;
+
+    @Inject
+    public StationLowerBounds(TramchesterConfig config, TripRepository tripRepository, NeighboursRepository neighboursRepository,
+                              ClosedStationsRepository closedStationsRepository,
+                              TemporaryStationWalksRepository temporaryStationWalksRepository,
+                              GraphFilterActive graphFilter, CacheMetrics cacheMetrics) {
+        this.config = config;
+        this.tripRepository = tripRepository;
+        this.neighboursRepository = neighboursRepository;
+        this.closedStationsRepository = closedStationsRepository;
+        this.temporaryStationWalksRepository = temporaryStationWalksRepository;
+        this.graphFilter = graphFilter;
+        this.cacheMetrics = cacheMetrics;
+        reverseLinks = new HashMap<>();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.getAStarSearch()) {
+            logger.info("A* search is disabled, not creating lower bounds");
+            return;
+        }
+
+        logger.info("starting");
+
+        final boolean filtered = graphFilter.isActive();
+        tripRepository.getTrips().stream().
+                flatMap(trip -> trip.getStopCalls().getLegs(filtered).stream()).
+                forEach(this::addLeg);
+
+        if (neighboursRepository.isEnabled()) {
+            neighboursRepository.getAll().forEach(this::addNeighbour);
+        }
+
+        config.getGtfsSourceConfig().forEach(this::addDiversions);
+
+        cache = Caffeine.newBuilder().maximumSize(1000).expireAfterAccess(Duration.ofMinutes(10)).
+                recordStats().build();
+        cacheMetrics.register(this);
+
+        logger.info("started, links to " + reverseLinks.size() + " stations");
+    }
+
+    @PreDestroy
+    public void stop() {
+        logger.info("stopping");
+        if (cache!=null) {
+            cache.invalidateAll();
+        }
+        reverseLinks.clear();
+        logger.info("stopped");
+    }
+
+    private void addLeg(final StopCalls.StopLeg leg) {
+        addLink(leg.getFirstStation().getId(), leg.getSecondStation().getId(), leg.getCost().toSeconds());
+    }
+
+    private void addNeighbour(final StationToStationConnection connection) {
+        addLink(connection.getBegin().getId(), connection.getEnd().getId(), connection.getConnectionTime().toSeconds());
+    }
+
+    private void addDiversions(final GTFSSourceConfig source) {
+        closedStationsRepository.getClosedStationsFor(source.getDataSourceId()).forEach(this::addDiversions);
+        temporaryStationWalksRepository.getTemporaryWalksFor(source.getDataSourceId()).stream().
+                map(TemporaryStationWalk::getStationPair).
+                forEach(this::addDiversion);
+    }
+
+    private void addDiversions(final ClosedStation closedStation) {
+        final Station closed = closedStation.getStation();
+        closedStation.getDiversionToFromClosure().forEach(other -> addDiversion(closed, other));
+
+        final Set<Station> around = closedStation.getDiversionAroundClosure();
+        around.forEach(first -> around.forEach(second -> {
+            if (!first.equals(second)) {
+                addDiversion(first, second);
+            }
+        }));
+    }
+
+    private void addDiversion(final StationPair pair) {
+        addDiversion(pair.getBegin(), pair.getEnd());
+    }
+
+    // diversion costs depend on the walk created during the graph build, zero keeps the bound admissible
+    private void addDiversion(final Station first, final Station second) {
+        addLink(first.getId(), second.getId(), 0);
+        addLink(second.getId(), first.getId(), 0);
+    }
+
+    private void addLink(final IdFor<Station> from, final IdFor<Station> to, final long seconds) {
+        final long cost = Math.max(0, seconds);
+        reverseLinks.computeIfAbsent(to, k -> new HashMap<>()).merge(from, cost, Math::min);
+    }
+
+    /***
+     * @param destinations the destinations for a journey
+     * @return lower bounds towards the destinations, disabled if A* search is off or any destination is not made of
+     * stations, i.e. a walk to a postcode or location
+     */
+    public ForDestinations getFor(final LocationCollection destinations) {
+        if (cache==null) {
+            return Disabled;
+        }
+
+        final IdSet<Station> destinationIds = new IdSet<>();
+        for (final Location<?> location : destinations.locationStream().toList()) {
+            switch (location.getLocationType()) {
+                case Station -> destinationIds.add(((Station) location).getId());
+                case StationGroup -> location.getAllContained().stream().
+                        map(Station::getId).
+                        forEach(destinationIds::add);
+                default -> {
+                    return Disabled;
+                }
+            }
+        }
+
+        return cache.get(destinationIds, this::createFor);
+    }
+
+    private ForDestinations createFor(final IdSet<Station> destinationIds) {
+        final Map<IdFor<Station>, Long> costs = new HashMap<>();
+        final PriorityQueue<Pair<IdFor<Station>, Long>> queue = new PriorityQueue<>(Comparator.comparingLong(Pair::getRight));
+
+        destinationIds.forEach(destinationId -> {
+            costs.put(destinationId, 0L);
+            queue.add(Pair.of(destinationId, 0L));
+        });
+
+        while (!queue.isEmpty()) {
+            final Pair<IdFor<Station>, Long> current = queue.poll();
+            final IdFor<Station> stationId = current.getKey();
+            final long costToDest = current.getValue();
+            if (costToDest > costs.get(stationId)) {
+                // stale entry
+                continue;
+            }
+            final Map<IdFor<Station>, Long> linked = reverseLinks.getOrDefault(stationId, Collections.emptyMap());
+            linked.forEach((previousId, linkCost) -> {
+                final long viaCurrent = costToDest + linkCost;
+                if (viaCurrent < costs.getOrDefault(previousId, UNREACHABLE)) {
+                    costs.put(previousId, viaCurrent);
+                    queue.add(Pair.of(previousId, viaCurrent));
+                }
+            });
+        }
+
+        logger.info("Created lower bounds for " + costs.size() + " stations to " + destinationIds);
+        return new ForDestinations(costs, true);
+    }
+
+    @Override
+    public List<Pair<String, CacheStats>> stats() {
+        if (cache==null) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(Pair.of("stationLowerBounds", cache.stats()));
+    }
+
+    /***
+     * Lower bounds towards one set of destinations, immutable so shared between searches
+     */
+    public static class ForDestinations {
+        private final Map<IdFor<Station>, Long> costs;
+        private final boolean enabled;
+
+        private ForDestinations(final Map<IdFor<Station>, Long> costs, final boolean enabled) {
+            this.costs = costs;
+            this.enabled = enabled;
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /***
+         * @param stationId station
+         * @return min seconds from station to the destinations, UNREACHABLE if no link found, 0 when disabled
+         */
+        public long getSeconds(final IdFor<Station> stationId) {
+            if (!enabled) {
+                return 0;
+            }
+            return costs.getOrDefault(stationId, UNREACHABLE);
+        }
+
+        @Override
+        public String toString() {
+            return "ForDestinations{" +
+                    "stations=" + costs.size() +
+                    ", enabled=" + enabled +
+                    '}';
+        }
+    }
+}
@@ -33,7 +33,7 @@ public class CachedHeuristicReason extends HeuristicReasonWithValidity {
         return Objects.hash(super.hashCode(), wasCached);
     }
 
-    private static ReasonCode getReasonCodeForCached(final ReasonCode code) {
+    static ReasonCode getReasonCodeForCached(final ReasonCode code) {
         return switch (code) {
             case NotAtHour -> ReasonCode.CachedNotAtHour;
             case DoesNotOperateOnTime -> ReasonCode.CachedDoesNotOperateOnTime;
@@ -0,0 +1,78 @@
+package com.tramchester.graph.search.diagnostics;
+
+import com.tramchester.graph.core.GraphNodeId;
+
+/***
+ * Shared reason holding only the code and validity, used when diagnostics are disabled so evaluating a node
+ * does not allocate. There is no HowIGotHere, see HeuristicsReasonFactory
+ */
+public class CodeOnlyHeuristicReason implements HeuristicsReason {
+
+    private static final CodeOnlyHeuristicReason[] VALID = createFor(true);
+    private static final CodeOnlyHeuristicReason[] INVALID = createFor(false);
+
+    private final ReasonCode code;
+    private final boolean validity;
+
+    private CodeOnlyHeuristicReason(final ReasonCode code, final boolean validity) {
+        this.code = code;
+        this.validity = validity;
+    }
+
+    public static HeuristicsReason of(final ReasonCode code, final boolean validity) {
+        return validity ? VALID[code.ordinal()] : INVALID[code.ordinal()];
+    }
+
+    private static CodeOnlyHeuristicReason[] createFor(final boolean validity) {
+        final ReasonCode[] codes = ReasonCode.values();
+        final CodeOnlyHeuristicReason[] results = new CodeOnlyHeuristicReason[codes.length];
+        for (final ReasonCode code : codes) {
+            results[code.ordinal()] = new CodeOnlyHeuristicReason(code, validity);
+        }
+        return results;
+    }
+
+    @Override
+    public boolean isValid() {
+        return validity;
+    }
+
+    @Override
+    public String textForGraph() {
+        return code.name();
+    }
+
+    /***
+     * @return null, not recorded as diagnostics are disabled
+     */
+    @Override
+    public HowIGotHere getHowIGotHere() {
+        return null;
+    }
+
+    @Override
+    public ReasonCode getReasonCode() {
+        return code;
+    }
+
+    /***
+     * @return null, not recorded as diagnostics are disabled
+     */
+    @Override
+    public GraphNodeId getNodeId() {
+        return null;
+    }
+
+    @Override
+    public GraphEvaluationAction getEvaluationAction() {
+        return code.getEvaluationAction();
+    }
+
+    @Override
+    public String toString() {
+        return "CodeOnlyHeuristicReason{" +
+                "code=" + code +
+                ", validity=" + validity +
+                '}';
+    }
+}
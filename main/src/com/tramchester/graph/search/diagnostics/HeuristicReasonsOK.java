@@ -5,6 +5,9 @@ import com.tramchester.domain.places.NPTGLocality;
 import com.tramchester.domain.time.TramDuration;
 import com.tramchester.domain.time.TramTime;
 
+/***
+ * As for HeuristicsReasons, for when diagnostics are enabled, see HeuristicsReasonFactory
+ */
 public class HeuristicReasonsOK {
 
     public static HeuristicsReason IsValid(final ReasonCode code, final HowIGotHere path) {
@@ -0,0 +1,420 @@
+package com.tramchester.graph.search.diagnostics;
+
+import com.tramchester.domain.Route;
+import com.tramchester.domain.Service;
+import com.tramchester.domain.id.IdFor;
+import com.tramchester.domain.input.Trip;
+import com.tramchester.domain.places.NPTGLocality;
+import com.tramchester.domain.places.Station;
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.domain.time.TramTime;
+
+/***
+ * Creates the reasons recorded while evaluating nodes, chosen once per request via ServiceReasons. With diagnostics
+ * the reasons from HeuristicsReasons and HeuristicReasonsOK are created, otherwise shared CodeOnlyHeuristicReason
+ * instances are returned so evaluating a node does not allocate, howIGotHere is then null and ignored
+ */
+public abstract class HeuristicsReasonFactory {
+
+    private static final HeuristicsReasonFactory withDiagnostics = new WithDiagnostics();
+    private static final HeuristicsReasonFactory codeOnly = new CodeOnly();
+
+    public static HeuristicsReasonFactory forDiagnostics(final boolean diagnosticsEnabled) {
+        return diagnosticsEnabled ? withDiagnostics : codeOnly;
+    }
+
+    // invalid
+
+    public abstract HeuristicsReason AlreadySeenRouteStation(HowIGotHere howIGotHere);
+    public abstract HeuristicsReason AlreadyBoardedAt(HowIGotHere howIGotHere);
+    public abstract HeuristicsReason SearchStopped(HowIGotHere howIGotHere);
+    public abstract HeuristicsReason DoesNotRunOnQueryDate(HowIGotHere howIGotHere, IdFor<Service> nodeServiceId);
+    public abstract HeuristicsReason ServiceNotRunningAtTime(HowIGotHere howIGotHere, IdFor<Service> serviceId, TramTime time);
+    public abstract HeuristicsReason StationNotReachable(HowIGotHere howIGotHere, ReasonCode code);
+    public abstract HeuristicsReason DoesNotOperateOnTime(TramTime currentElapsed, HowIGotHere howIGotHere);
+    public abstract HeuristicsReason TooManyChanges(HowIGotHere howIGotHere, int number);
+    public abstract HeuristicsReason TooManyWalkingConnections(HowIGotHere howIGotHere, int count);
+    public abstract HeuristicsReason TooManyNeighbourConnections(HowIGotHere howIGotHere, int count);
+    public abstract HeuristicsReason TookTooLong(TramTime currentElapsed, HowIGotHere howIGotHere);
+    public abstract HeuristicsReason DoesNotOperateAtHour(TramTime currentElapsed, HowIGotHere howIGotHere, int hourAtNode);
+    public abstract HeuristicsReason AlreadyDeparted(TramTime tramTime, HowIGotHere howIGotHere);
+    public abstract HeuristicsReason Cached(HeuristicsReason contained, HowIGotHere howIGotHere);
+    public abstract HeuristicsReason HigherCost(HowIGotHere howIGotHere, TramDuration duration);
+    public abstract HeuristicsReason MoreChanges(HowIGotHere howIGotHere, int numberChanges);
+    public abstract HeuristicsReason ArrivalsLimit(HowIGotHere howIGotHere, int numberArrivals);
+    public abstract HeuristicsReason ArrivedMoreChanges(HowIGotHere howIGotHere, int numberChanges, TramDuration duration);
+    public abstract HeuristicsReason ArrivedSameChanges(HowIGotHere howIGotHere, int numberChanges, TramDuration duration);
+    public abstract HeuristicsReason ArrivedLater(HowIGotHere howIGotHere, TramDuration duration, int numberChanges);
+    public abstract HeuristicsReason PathToLong(HowIGotHere howIGotHere);
+    public abstract HeuristicsReason ReturnedToStart(HowIGotHere howIGotHere);
+    public abstract HeuristicsReason StationClosed(HowIGotHere howIGotHere, IdFor<Station> closed);
+    public abstract HeuristicsReason TransportModeWrong(HowIGotHere howIGotHere);
+    public abstract HeuristicsReason RouteNotToday(HowIGotHere howIGotHere, IdFor<Route> id);
+    public abstract HeuristicsReason CacheMiss(HowIGotHere howIGotHere);
+    public abstract HeuristicsReason SameTrip(IdFor<Trip> tripId, HowIGotHere howIGotHere);
+
+    // valid
+
+    public abstract HeuristicsReason IsValid(ReasonCode code, HowIGotHere howIGotHere);
+    public abstract HeuristicsReason Continue(HowIGotHere howIGotHere);
+    public abstract HeuristicsReason Arrived(HowIGotHere howIGotHere, TramDuration totalCostSoFar, int numberOfChanges);
+    public abstract HeuristicsReason NumChangesOK(ReasonCode code, HowIGotHere howIGotHere, int currentNumChanges);
+    public abstract HeuristicsReason TimeOK(ReasonCode code, HowIGotHere howIGotHere, TramTime tramTime);
+    public abstract HeuristicsReason HourOk(ReasonCode code, HowIGotHere howIGotHere, TramTime tramTime, int hour);
+    public abstract HeuristicsReason SeenGroup(ReasonCode code, HowIGotHere howIGotHere, IdFor<NPTGLocality> areaId);
+
+    private static class WithDiagnostics extends HeuristicsReasonFactory {
+
+        @Override
+        public HeuristicsReason AlreadySeenRouteStation(final HowIGotHere howIGotHere) {
+            return HeuristicsReasons.AlreadySeenRouteStation(howIGotHere);
+        }
+
+        @Override
+        public HeuristicsReason AlreadyBoardedAt(final HowIGotHere howIGotHere) {
+            return HeuristicsReasons.AlreadyBoardedAt(howIGotHere);
+        }
+
+        @Override
+        public HeuristicsReason SearchStopped(final HowIGotHere howIGotHere) {
+            return HeuristicsReasons.SearchStopped(howIGotHere);
+        }
+
+        @Override
+        public HeuristicsReason DoesNotRunOnQueryDate(final HowIGotHere howIGotHere, final IdFor<Service> nodeServiceId) {
+            return HeuristicsReasons.DoesNotRunOnQueryDate(howIGotHere, nodeServiceId);
+        }
+
+        @Override
+        public HeuristicsReason ServiceNotRunningAtTime(final HowIGotHere howIGotHere, final IdFor<Service> serviceId, final TramTime time) {
+            return HeuristicsReasons.ServiceNotRunningAtTime(howIGotHere, serviceId, time);
+        }
+
+        @Override
+        public HeuristicsReason StationNotReachable(final HowIGotHere howIGotHere, final ReasonCode code) {
+            return HeuristicsReasons.StationNotReachable(howIGotHere, code);
+        }
+
+        @Override
+        public HeuristicsReason DoesNotOperateOnTime(final TramTime currentElapsed, final HowIGotHere howIGotHere) {
+            return HeuristicsReasons.DoesNotOperateOnTime(currentElapsed, howIGotHere);
+        }
+
+        @Override
+        public HeuristicsReason TooManyChanges(final HowIGotHere howIGotHere, final int number) {
+            return HeuristicsReasons.TooManyChanges(howIGotHere, number);
+        }
+
+        @Override
+        public HeuristicsReason TooManyWalkingConnections(final HowIGotHere howIGotHere, final int count) {
+            return HeuristicsReasons.TooManyWalkingConnections(howIGotHere, count);
+        }
+
+        @Override
+        public HeuristicsReason TooManyNeighbourConnections(final HowIGotHere howIGotHere, final int count) {
+            return HeuristicsReasons.TooManyNeighbourConnections(howIGotHere, count);
+        }
+
+        @Override
+        public HeuristicsReason TookTooLong(final TramTime currentElapsed, final HowIGotHere howIGotHere) {
+            return HeuristicsReasons.TookTooLong(currentElapsed, howIGotHere);
+        }
+
+        @Override
+        public HeuristicsReason DoesNotOperateAtHour(final TramTime currentElapsed, final HowIGotHere howIGotHere, final int hourAtNode) {
+            return HeuristicsReasons.DoesNotOperateAtHour(currentElapsed, howIGotHere, hourAtNode);
+        }
+
+        @Override
+        public HeuristicsReason AlreadyDeparted(final TramTime tramTime, final HowIGotHere howIGotHere) {
+            return HeuristicsReasons.AlreadyDeparted(tramTime, howIGotHere);
+        }
+
+        @Override
+        public HeuristicsReason Cached(final HeuristicsReason contained, final HowIGotHere howIGotHere) {
+            return HeuristicsReasons.Cached(contained, howIGotHere);
+        }
+
+        @Override
+        public HeuristicsReason HigherCost(final HowIGotHere howIGotHere, final TramDuration duration) {
+            return HeuristicsReasons.HigherCost(howIGotHere, duration);
+        }
+
+        @Override
+        public HeuristicsReason MoreChanges(final HowIGotHere howIGotHere, final int numberChanges) {
+            return HeuristicsReasons.MoreChanges(howIGotHere, numberChanges);
+        }
+
+        @Override
+        public HeuristicsReason ArrivalsLimit(final HowIGotHere howIGotHere, final int numberArrivals) {
+            return HeuristicsReasons.ArrivalsLimit(howIGotHere, numberArrivals);
+        }
+
+        @Override
+        public HeuristicsReason ArrivedMoreChanges(final HowIGotHere howIGotHere, final int numberChanges, final TramDuration duration) {
+            return HeuristicsReasons.ArrivedMoreChanges(howIGotHere, numberChanges, duration);
+        }
+
+        @Override
+        public HeuristicsReason ArrivedSameChanges(final HowIGotHere howIGotHere, final int numberChanges, final TramDuration duration) {
+            return HeuristicsReasons.ArrivedSameChanges(howIGotHere, numberChanges, duration);
+        }
+
+        @Override
+        public HeuristicsReason ArrivedLater(final HowIGotHere howIGotHere, final TramDuration duration, final int numberChanges) {
+            return HeuristicsReasons.ArrivedLater(howIGotHere, duration, numberChanges);
+        }
+
+        @Override
+        public HeuristicsReason PathToLong(final HowIGotHere howIGotHere) {
+            return HeuristicsReasons.PathToLong(howIGotHere);
+        }
+
+        @Override
+        public HeuristicsReason ReturnedToStart(final HowIGotHere howIGotHere) {
+            return HeuristicsReasons.ReturnedToStart(howIGotHere);
+        }
+
+        @Override
+        public HeuristicsReason StationClosed(final HowIGotHere howIGotHere, final IdFor<Station> closed) {
+            return HeuristicsReasons.StationClosed(howIGotHere, closed);
+        }
+
+        @Override
+        public HeuristicsReason TransportModeWrong(final HowIGotHere howIGotHere) {
+            return HeuristicsReasons.TransportModeWrong(howIGotHere);
+        }
+
+        @Override
+        public HeuristicsReason RouteNotToday(final HowIGotHere howIGotHere, final IdFor<Route> id) {
+            return HeuristicsReasons.RouteNotToday(howIGotHere, id);
+        }
+
+        @Override
+        public HeuristicsReason CacheMiss(final HowIGotHere howIGotHere) {
+            return HeuristicsReasons.CacheMiss(howIGotHere);
+        }
+
+        @Override
+        public HeuristicsReason SameTrip(final IdFor<Trip> tripId, final HowIGotHere howIGotHere) {
+            return HeuristicsReasons.SameTrip(tripId, howIGotHere);
+        }
+
+        @Override
+        public HeuristicsReason IsValid(final ReasonCode code, final HowIGotHere howIGotHere) {
+            return HeuristicReasonsOK.IsValid(code, howIGotHere);
+        }
+
+        @Override
+        public HeuristicsReason Continue(final HowIGotHere howIGotHere) {
+            return HeuristicReasonsOK.Continue(howIGotHere);
+        }
+
+        @Override
+        public HeuristicsReason Arrived(final HowIGotHere howIGotHere, final TramDuration totalCostSoFar, final int numberOfChanges) {
+            return HeuristicReasonsOK.Arrived(howIGotHere, totalCostSoFar, numberOfChanges);
+        }
+
+        @Override
+        public HeuristicsReason NumChangesOK(final ReasonCode code, final HowIGotHere howIGotHere, final int currentNumChanges) {
+            return HeuristicReasonsOK.NumChangesOK(code, howIGotHere, currentNumChanges);
+        }
+
+        @Override
+        public HeuristicsReason TimeOK(final ReasonCode code, final HowIGotHere howIGotHere, final TramTime tramTime) {
+            return HeuristicReasonsOK.TimeOK(code, howIGotHere, tramTime);
+        }
+
+        @Override
+        public HeuristicsReason HourOk(final ReasonCode code, final HowIGotHere howIGotHere, final TramTime tramTime, final int hour) {
+            return HeuristicReasonsOK.HourOk(code, howIGotHere, tramTime, hour);
+        }
+
+        @Override
+        public HeuristicsReason SeenGroup(final ReasonCode code, final HowIGotHere howIGotHere, final IdFor<NPTGLocality> areaId) {
+            return HeuristicReasonsOK.SeenGroup(code, howIGotHere, areaId);
+        }
+    }
+
+    private static class CodeOnly extends HeuristicsReasonFactory {
+
+        private static HeuristicsReason invalid(final ReasonCode code) {
+            return CodeOnlyHeuristicReason.of(code, false);
+        }
+
+        private static HeuristicsReason valid(final ReasonCode code) {
+            return CodeOnlyHeuristicReason.of(code, true);
+        }
+
+        @Override
+        public HeuristicsReason AlreadySeenRouteStation(final HowIGotHere howIGotHere) {
+            return invalid(ReasonCode.AlreadySeenRouteStation);
+        }
+
+        @Override
+        public HeuristicsReason AlreadyBoardedAt(final HowIGotHere howIGotHere) {
+            return invalid(ReasonCode.AlreadyBoarded);
+        }
+
+        @Override
+        public HeuristicsReason SearchStopped(final HowIGotHere howIGotHere) {
+            return invalid(ReasonCode.SearchStopped);
+        }
+
+        @Override
+        public HeuristicsReason DoesNotRunOnQueryDate(final HowIGotHere howIGotHere, final IdFor<Service> nodeServiceId) {
+            return invalid(ReasonCode.NotOnQueryDate);
+        }
+
+        @Override
+        public HeuristicsReason ServiceNotRunningAtTime(final HowIGotHere howIGotHere, final IdFor<Service> serviceId, final TramTime time) {
+            return invalid(ReasonCode.ServiceNotRunningAtTime);
+        }
+
+        @Override
+        public HeuristicsReason StationNotReachable(final HowIGotHere howIGotHere, final ReasonCode code) {
+            return invalid(code);
+        }
+
+        @Override
+        public HeuristicsReason DoesNotOperateOnTime(final TramTime currentElapsed, final HowIGotHere howIGotHere) {
+            return invalid(ReasonCode.DoesNotOperateOnTime);
+        }
+
+        @Override
+        public HeuristicsReason TooManyChanges(final HowIGotHere howIGotHere, final int number) {
+            return invalid(ReasonCode.TooManyChanges);
+        }
+
+        @Override
+        public HeuristicsReason TooManyWalkingConnections(final HowIGotHere howIGotHere, final int count) {
+            return invalid(ReasonCode.TooManyWalkingConnections);
+        }
+
+        @Override
+        public HeuristicsReason TooManyNeighbourConnections(final HowIGotHere howIGotHere, final int count) {
+            return invalid(ReasonCode.TooManyNeighbourConnections);
+        }
+
+        @Override
+        public HeuristicsReason TookTooLong(final TramTime currentElapsed, final HowIGotHere howIGotHere) {
+            return invalid(ReasonCode.TookTooLong);
+        }
+
+        @Override
+        public HeuristicsReason DoesNotOperateAtHour(final TramTime currentElapsed, final HowIGotHere howIGotHere, final int hourAtNode) {
+            return invalid(ReasonCode.NotAtHour);
+        }
+
+        @Override
+        public HeuristicsReason AlreadyDeparted(final TramTime tramTime, final HowIGotHere howIGotHere) {
+            return invalid(ReasonCode.AlreadyDeparted);
+        }
+
+        @Override
+        public HeuristicsReason Cached(final HeuristicsReason contained, final HowIGotHere howIGotHere) {
+            return CodeOnlyHeuristicReason.of(CachedHeuristicReason.getReasonCodeForCached(contained.getReasonCode()),
+                    contained.isValid());
+        }
+
+        @Override
+        public HeuristicsReason HigherCost(final HowIGotHere howIGotHere, final TramDuration duration) {
+            return invalid(ReasonCode.HigherCost);
+        }
+
+        @Override
+        public HeuristicsReason MoreChanges(final HowIGotHere howIGotHere, final int numberChanges) {
+            return invalid(ReasonCode.MoreChanges);
+        }
+
+        @Override
+        public HeuristicsReason ArrivalsLimit(final HowIGotHere howIGotHere, final int numberArrivals) {
+            return invalid(ReasonCode.ArrivalsLimit);
+        }
+
+        @Override
+        public HeuristicsReason ArrivedMoreChanges(final HowIGotHere howIGotHere, final int numberChanges, final TramDuration duration) {
+            return invalid(ReasonCode.ArrivedMoreChanges);
+        }
+
+        @Override
+        public HeuristicsReason ArrivedSameChanges(final HowIGotHere howIGotHere, final int numberChanges, final TramDuration duration) {
+            return invalid(ReasonCode.ArrivedSameChanges);
+        }
+
+        @Override
+        public HeuristicsReason ArrivedLater(final HowIGotHere howIGotHere, final TramDuration duration, final int numberChanges) {
+            return invalid(ReasonCode.ArrivedLater);
+        }
+
+        @Override
+        public HeuristicsReason PathToLong(final HowIGotHere howIGotHere) {
+            return invalid(ReasonCode.PathTooLong);
+        }
+
+        @Override
+        public HeuristicsReason ReturnedToStart(final HowIGotHere howIGotHere) {
+            return invalid(ReasonCode.ReturnedToStart);
+        }
+
+        @Override
+        public HeuristicsReason StationClosed(final HowIGotHere howIGotHere, final IdFor<Station> closed) {
+            return invalid(ReasonCode.StationClosed);
+        }
+
+        @Override
+        public HeuristicsReason TransportModeWrong(final HowIGotHere howIGotHere) {
+            return invalid(ReasonCode.TransportModeWrong);
+        }
+
+        @Override
+        public HeuristicsReason RouteNotToday(final HowIGotHere howIGotHere, final IdFor<Route> id) {
+            return invalid(ReasonCode.RouteNotOnQueryDate);
+        }
+
+        @Override
+        public HeuristicsReason CacheMiss(final HowIGotHere howIGotHere) {
+            return valid(ReasonCode.PreviousCacheMiss);
+        }
+
+        @Override
+        public HeuristicsReason SameTrip(final IdFor<Trip> tripId, final HowIGotHere howIGotHere) {
+            return invalid(ReasonCode.SameTrip);
+        }
+
+        @Override
+        public HeuristicsReason IsValid(final ReasonCode code, final HowIGotHere howIGotHere) {
+            return valid(code);
+        }
+
+        @Override
+        public HeuristicsReason Continue(final HowIGotHere howIGotHere) {
+            return valid(ReasonCode.Continue);
+        }
+
+        @Override
+        public HeuristicsReason Arrived(final HowIGotHere howIGotHere, final TramDuration totalCostSoFar, final int numberOfChanges) {
+            return valid(ReasonCode.Arrived);
+        }
+
+        @Override
+        public HeuristicsReason NumChangesOK(final ReasonCode code, final HowIGotHere howIGotHere, final int currentNumChanges) {
+            return valid(code);
+        }
+
+        @Override
+        public HeuristicsReason TimeOK(final ReasonCode code, final HowIGotHere howIGotHere, final TramTime tramTime) {
+            return valid(code);
+        }
+
+        @Override
+        public HeuristicsReason HourOk(final ReasonCode code, final HowIGotHere howIGotHere, final TramTime tramTime, final int hour) {
+            return valid(code);
+        }
+
+        @Override
+        public HeuristicsReason SeenGroup(final ReasonCode code, final HowIGotHere howIGotHere, final IdFor<NPTGLocality> areaId) {
+            return valid(code);
+        }
+    }
+}
@@ -10,6 +10,9 @@ import com.tramchester.domain.time.TramTime;
 import com.tramchester.graph.core.GraphNodeId;
 import com.tramchester.graph.search.ValidHeuristicReason;
 
+/***
+ * Reasons including HowIGotHere, for when diagnostics are enabled, see HeuristicsReasonFactory
+ */
 public class HeuristicsReasons {
 
     private static class SameTrip extends HeuristicsReasonWithID<Trip> {
@@ -44,8 +44,10 @@ public class ServiceReasons {
     private final Map<GraphNodeId, AtomicInteger> nodeVisits; // count of visits to nodes
     private final AtomicInteger totalChecked = new AtomicInteger(0);
     private final boolean diagnosticsEnabled;
+    private final HeuristicsReasonFactory reasonFactory;
 
     private final AtomicBoolean success;
+    private final AtomicBoolean searchStopped;
 
     public ServiceReasons(final JourneyRequest journeyRequest, final TramTime queryTime, final ProvidesNow providesLocalNow,
                           final CreateJourneyDiagnostics failedJourneyDiagnostics) {
@@ -55,7 +57,9 @@ public class ServiceReasons {
         this.failedJourneyDiagnostics = failedJourneyDiagnostics;
         reasons = new ArrayList<>();
         success = new AtomicBoolean(false);
+        searchStopped = new AtomicBoolean(false);
         diagnosticsEnabled = journeyRequest.getDiagnosticsEnabled();
+        reasonFactory = HeuristicsReasonFactory.forDiagnostics(diagnosticsEnabled);
 
         reasonCodeStats = new EnumCounter<>(ReasonCode.class);
         stateStats = new EnumCounter<>(TraversalStateType.class);
@@ -69,13 +73,25 @@ public class ServiceReasons {
             journeyRequest.injectDiag(diagnostics);
         }
 
-        if (!success.get() || diagnosticsEnabled) {
+        if (searchStopped.get()) {
+            logger.warn("Search was stopped before completion at " + pathRequest.getActualQueryTime() + " changes " +
+                    pathRequest.getNumChanges() + " for " + journeyRequest);
+        }
+
+        if (!success.get() || diagnosticsEnabled || searchStopped.get()) {
             reportStats(txn, pathRequest);
         }
 
         reset();
     }
 
+    /***
+     * @return creates reasons with or without diagnostics, as for this request
+     */
+    public HeuristicsReasonFactory getReasonFactory() {
+        return reasonFactory;
+    }
+
     public void recordVisit(final HowIGotHere howIGotHere) {
         if (diagnosticsEnabled) {
             recordEndNodeVisit(howIGotHere);
@@ -105,6 +121,18 @@ public class ServiceReasons {
         return serviceReason;
     }
 
+    /***
+     * The search stopped before exploring all candidates, i.e. it timed out, so any results found are partial
+     */
+    public void recordSearchStopped() {
+        searchStopped.set(true);
+        incrementReasonCode(ReasonCode.SearchStopped);
+    }
+
+    public boolean getSearchStopped() {
+        return searchStopped.get();
+    }
+
     public void incrementTotalChecked() {
         totalChecked.incrementAndGet();
     }
@@ -262,6 +290,7 @@ public class ServiceReasons {
                 ", totalChecked=" + totalChecked +
                 ", diagnosticsEnabled=" + diagnosticsEnabled +
                 ", success=" + success +
+                ", searchStopped=" + searchStopped +
                 '}';
     }
 
@@ -15,6 +15,7 @@ import com.tramchester.graph.core.inMemory.SearchStateKey;
 import com.tramchester.graph.reference.GraphLabels;
 import com.tramchester.graph.reference.TransportRelationshipTypes;
 import com.tramchester.graph.search.JourneyState;
+import com.tramchester.graph.search.StationLowerBounds;
 import com.tramchester.graph.search.diagnostics.GraphEvaluationAction;
 import com.tramchester.graph.search.stateMachine.states.ImmutableTraversalState;
 import com.tramchester.graph.search.stateMachine.states.NotStartedState;
@@ -22,8 +23,10 @@ import com.tramchester.graph.search.stateMachine.states.TraversalStateFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import static com.tramchester.graph.reference.TransportRelationshipTypes.DIVERSION;
@@ -41,16 +44,23 @@ public class FindPathsForJourney {
     private final TramRouteEvaluator evaluator;
     private final TraversalStateFactory traversalStateFactory;
     private final long numberJourneys;
+    private final StationLowerBounds.ForDestinations lowerBounds;
+
+    // per search, node -> lower bound in seconds, NoStation where node has no station and so inherits from parent
+    private final Map<GraphNodeId, Long> nodeLowerBounds;
+    private static final long NoStation = -1;
 
     public FindPathsForJourney(final GraphTransaction txn, final GraphNode startNode, final TramchesterConfig config,
                                final TramRouteEvaluator evaluator, final TraversalStateFactory traversalStateFactory,
-                               long numberJourneys) {
+                               long numberJourneys, final StationLowerBounds.ForDestinations lowerBounds) {
         this.txn = (GraphTransactionInMemory) txn;
         this.startNode = startNode;
         this.depthFirst = config.getDepthFirst();
         this.evaluator = evaluator;
         this.traversalStateFactory = traversalStateFactory;
         this.numberJourneys = numberJourneys;
+        this.lowerBounds = lowerBounds;
+        this.nodeLowerBounds = new HashMap<>();
     }
 
     public Stream<GraphPath> findPaths(final TramTime actualQueryTime, final Running running) {
@@ -72,7 +82,11 @@ public class FindPathsForJourney {
         }
 
         final List<GraphPathInMemory> results = searchState.getFoundPaths();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Found " + results.size() + " paths, queue " + searchState.getQueueCounters());
+        }
         searchState.clear();
+        nodeLowerBounds.clear();
 
         // downcast
         return results.stream().map(item -> item);
@@ -90,8 +104,6 @@ public class FindPathsForJourney {
 
         final JourneyState existingState = searchState.getJourneyStateFor(stateKey);
 
-        final JourneyState graphStateForChildren = getNextState(existingPath, existingState, currentNode);
-
         final GraphEvaluationAction result = evaluator.evaluate(pathToCurrentNode, existingState);
 
         if (result==GraphEvaluationAction.EXCLUDE_AND_PRUNE) {
@@ -111,20 +123,27 @@ public class FindPathsForJourney {
         if (result==GraphEvaluationAction.INCLUDE_AND_PRUNE) {
             // have now added to reached dest if needed
             if (debugEnabled) {
-                logger.info("Include and prune");
+                logger.debug("Include and prune");
             }
             return;
         }
 
+        // only once known to be continuing, most nodes visited are pruned
+        final JourneyState graphStateForChildren = getNextState(existingPath, existingState, currentNode);
+
         final Stream<GraphRelationship> outgoing = expand(graphStateForChildren, currentNode);
         final TramDuration currentCostToNode = searchState.getCurrentCost(stateKey);
 
-        expandRelationshipsForNode(searchState, graphStateForChildren, outgoing, currentCostToNode, pathToCurrentNode);
+        expandRelationshipsForNode(searchState, graphStateForChildren, outgoing, currentCostToNode, pathToCurrentNode,
+                nodeSearchState.getLowerBound());
     }
 
     private void expandRelationshipsForNode(final PathSearchState searchState, final JourneyState journeyStateForChildren,
                                             final Stream<GraphRelationship> outgoing,
-                                            final TramDuration costToParentNode, final GraphPathInMemory pathToParentNode) {
+                                            final TramDuration costToParentNode, final GraphPathInMemory pathToParentNode,
+                                            final long parentLowerBound) {
+        final boolean aStar = lowerBounds.isEnabled();
+
         final List<NodeSearchState> updatedNodes = new LinkedList<>();
         final List<NodeSearchState> notVisitedYet = new LinkedList<>();
 
@@ -135,7 +154,7 @@ public class FindPathsForJourney {
             if (depthFirst) {
                 continuePath = pathToParentNode.duplicateWith(txn, graphRelationship);
             } else {
-                continuePath = pathToParentNode.duplicate();
+                continuePath = pathToParentNode;
             }
 
             final TramDuration relationshipCost = graphRelationship.getCost();
@@ -146,8 +165,14 @@ public class FindPathsForJourney {
 
             // prioritise those Towards Dest
             final boolean towardsDest = evaluator.matchesDestination(endNodeId);
-            final NodeSearchState nextSearchNodeState = NodeSearchState.createNodeSearchState(endStateKey, newCost,
-                    continuePath, towardsDest);
+            final NodeSearchState nextSearchNodeState;
+            if (aStar) {
+                final long lowerBound = towardsDest ? 0 : getLowerBound(endNodeId, parentLowerBound);
+                nextSearchNodeState = NodeSearchState.createAStarSearchState(endStateKey, newCost, continuePath,
+                        towardsDest, lowerBound);
+            } else {
+                nextSearchNodeState = NodeSearchState.createNodeSearchState(endStateKey, newCost, continuePath, towardsDest);
+            }
 
             if (alreadySeen) {
                 final TramDuration currentDurationForEnd = searchState.getCurrentCost(endStateKey);
@@ -177,6 +202,20 @@ public class FindPathsForJourney {
         });
     }
 
+    private long getLowerBound(final GraphNodeId nodeId, final long parentLowerBound) {
+        final long forNode = nodeLowerBounds.computeIfAbsent(nodeId, this::getLowerBoundForStation);
+        // nodes without a station, i.e. service, hour and minute nodes, are on the way from the parent's station
+        return forNode == NoStation ? parentLowerBound : forNode;
+    }
+
+    private long getLowerBoundForStation(final GraphNodeId nodeId) {
+        final GraphNode node = txn.getNodeById(nodeId);
+        if (node.hasStationId()) {
+            return lowerBounds.getSeconds(node.getStationId());
+        }
+        return NoStation;
+    }
+
     JourneyState getNextState(final GraphPath pathToHere, final JourneyState currentJourneyState, final GraphNode currentNode) {
 
         final ImmutableTraversalState currentTraversalState = currentJourneyState.getTraversalState();
@@ -12,21 +12,43 @@ public class NodeSearchState implements Comparable<NodeSearchState> {
     private final TramDuration duration;
     private final GraphPathInMemory pathToHere;
     private final boolean towardsDest;
+    private final long lowerBound;
+    private final long priority;
 
-    private NodeSearchState(SearchStateKey stateKey, TramDuration duration, GraphPathInMemory pathToHere, boolean towardsDest) {
+    private NodeSearchState(SearchStateKey stateKey, TramDuration duration, GraphPathInMemory pathToHere, boolean towardsDest,
+                            long lowerBound, long priority) {
         this.stateKey = stateKey;
         this.duration = duration;
-        this.pathToHere = pathToHere.duplicate();
+        // paths are immutable so can be shared
+        this.pathToHere = pathToHere;
         this.towardsDest = towardsDest; // used when we can id states that lead directly to a destination
+        this.lowerBound = lowerBound; // seconds, lower bound on remaining cost to a destination
+        this.priority = priority; // smallest first, single key so all states in a queue are ordered the same way
     }
 
+    /***
+     * State ordered depth first, longest duration comes first
+     */
     public static NodeSearchState createNodeSearchState(final SearchStateKey endStateKey, final TramDuration newCost,
                                                         final GraphPathInMemory continuePath, final boolean towardsDest) {
-        return new NodeSearchState(endStateKey, newCost, continuePath, towardsDest);
+        return new NodeSearchState(endStateKey, newCost, continuePath, towardsDest, 0, -newCost.toSeconds());
     }
 
+    /***
+     * State ordered by the cost so far plus the lower bound on the remaining cost
+     */
+    public static NodeSearchState createAStarSearchState(final SearchStateKey endStateKey, final TramDuration newCost,
+                                                         final GraphPathInMemory continuePath, final boolean towardsDest,
+                                                         final long lowerBound) {
+        return new NodeSearchState(endStateKey, newCost, continuePath, towardsDest, lowerBound,
+                newCost.toSeconds() + lowerBound);
+    }
+
+    /***
+     * Zero duration and heuristic, so the same key under either ordering
+     */
     public static NodeSearchState createInitialState(final SearchStateKey searchStateKey, final GraphPathInMemory pathToHere) {
-        return new NodeSearchState(searchStateKey, TramDuration.ZERO, pathToHere, false);
+        return new NodeSearchState(searchStateKey, TramDuration.ZERO, pathToHere, false, 0, 0);
     }
 
     @Override
@@ -41,8 +63,8 @@ public class NodeSearchState implements Comparable<NodeSearchState> {
         if (other.towardsDest) {
             return 1;
         }
-        // depth first - longest path comes first
-        return compareWith(other, (a, b) -> Long.compare(b, a));
+        // estimated total for A*, negated duration for depth first
+        return Long.compare(priority, other.priority);
     }
 
     private int compareWith(final NodeSearchState other, final BiFunction<Long, Long, Integer> comparison) {
@@ -83,6 +105,8 @@ public class NodeSearchState implements Comparable<NodeSearchState> {
         return "NodeSearchState{" +
                 "stateKey=" + stateKey +
                 ", duration=" + duration +
+                ", lowerBound=" + lowerBound +
+                ", priority=" + priority +
                 ", pathToHere=" + pathToHere +
                 '}';
     }
@@ -94,4 +118,12 @@ public class NodeSearchState implements Comparable<NodeSearchState> {
     public boolean getTowardsDest() {
         return towardsDest;
     }
+
+    public long getLowerBound() {
+        return lowerBound;
+    }
+
+    public long getEstimatedTotal() {
+        return duration.toSeconds() + lowerBound;
+    }
 }
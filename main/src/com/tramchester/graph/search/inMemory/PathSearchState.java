@@ -13,7 +13,7 @@ public class PathSearchState {
     private static final Logger logger = LoggerFactory.getLogger(PathSearchState.class);
 
     // remaining working
-    private final PriorityQueue<NodeSearchState> nodeQueue;
+    private final SearchStateQueue nodeQueue;
     // state
     private final Map<SearchStateKey, TramDuration> currentCost;
     private final Map<SearchStateKey, JourneyState> journeyStates;
@@ -23,7 +23,7 @@ public class PathSearchState {
 
     PathSearchState(final SearchStateKey searchStateKey, final GraphPathInMemory pathToHere, long numberJourneys) {
         this.numberJourneys = numberJourneys;
-        nodeQueue = new PriorityQueue<>();
+        nodeQueue = new SearchStateQueue();
         nodeQueue.add(NodeSearchState.createInitialState(searchStateKey, pathToHere));
 
         currentCost = new HashMap<>();
@@ -48,44 +48,27 @@ public class PathSearchState {
         return currentCost.getOrDefault(stateKey, FindPathsForJourney.NotVisitedDuration);
     }
 
+    // search state is confined to a single search, so no locking
+
     public void updateCost(final SearchStateKey stateKey, final TramDuration duration) {
-        synchronized (nodeQueue) {
-            currentCost.put(stateKey, duration);
-        }
+        currentCost.put(stateKey, duration);
     }
 
     public boolean hasSeen(final SearchStateKey stateKey) {
         // can this get out of sink with the nodeQueue? i.e. have a cost but not corresponding node in the queue?
-        synchronized (nodeQueue) {
-            return currentCost.containsKey(stateKey);
-        }
+        return currentCost.containsKey(stateKey);
     }
 
     void updateCostAndUpdateQueue(final NodeSearchState update) {
-        synchronized (nodeQueue) {
-            // clunky, relies on NodeSearchState defining equals to be on NodeId only
-            if (nodeQueue.contains(update)) {
-                nodeQueue.remove(update);
-                nodeQueue.add(update);
-            } else {
-                String message = "Node was not in the queue " + update.getStateKey() + " for " + update;
-                logger.error(message);
-                throw new RuntimeException(message);
-            }
-            currentCost.put(update.getStateKey(), update.getDuration());
-        }
+        // throws if not present
+        nodeQueue.update(update);
+        currentCost.put(update.getStateKey(), update.getDuration());
     }
 
     void addCostAndQueue(final NodeSearchState update) {
-        synchronized (nodeQueue) {
-            if (nodeQueue.contains(update)) {
-                String message = "Already in queue " + update.getStateKey();
-                logger.error(message);
-                throw new RuntimeException(message);
-            }
-            nodeQueue.add(update);
-            currentCost.put(update.getStateKey(), update.getDuration());
-        }
+        // throws if already present
+        nodeQueue.add(update);
+        currentCost.put(update.getStateKey(), update.getDuration());
     }
 
     public List<GraphPathInMemory> getFoundPaths() {
@@ -93,9 +76,11 @@ public class PathSearchState {
     }
 
     public void addFoundPath(final GraphPathInMemory path) {
-        synchronized (foundPaths) {
-            foundPaths.add(path);
-        }
+        foundPaths.add(path);
+    }
+
+    public SearchStateQueue.Counters getQueueCounters() {
+        return nodeQueue.getCounters();
     }
 
     @Override
@@ -125,11 +110,9 @@ public class PathSearchState {
             logger.warn("Queue was empty");
             return false;
         }
-        synchronized (foundPaths) {
-            if (foundPaths.size()>=numberJourneys) {
-                logger.info("Matched " + numberJourneys + " journeys");
-                return false;
-            }
+        if (foundPaths.size()>=numberJourneys) {
+            logger.info("Matched " + numberJourneys + " journeys");
+            return false;
         }
         return true;
     }
@@ -22,9 +22,12 @@ import java.util.Set;
 @LazySingleton
 public class RouteCalculatorForBoxesInMemory extends RouteCalculatorForBoxes {
 
+    private final StationLowerBounds stationLowerBounds;
+
     @Inject
-    public RouteCalculatorForBoxesInMemory(TramchesterConfig config, TransportData transportData, GraphDatabase graphDatabaseService, PathToStages pathToStages, ProvidesNow providesNow, MapPathToLocations mapPathToLocations, BetweenRoutesCostRepository routeToRouteCosts, ClosedStationsRepository closedStationsRepository, RunningRoutesAndServices runningRoutesAndService, RouteCostCalculator routeCostCalculator, StationAvailabilityRepository stationAvailabilityRepository, CreateJourneyDiagnostics failedJourneyDiagnostics, NumberOfNodesAndRelationshipsRepository countsNodes, InterchangeRepository interchangeRepository, CacheMetrics cacheMetrics, CreateQueryTimes createQueryTimes) {
-        super(config, transportData, graphDatabaseService, pathToStages, providesNow, mapPathToLocations, routeToRouteCosts, closedStationsRepository, runningRoutesAndService, routeCostCalculator, stationAvailabilityRepository, failedJourneyDiagnostics, countsNodes, interchangeRepository, cacheMetrics, createQueryTimes);
+    public RouteCalculatorForBoxesInMemory(TramchesterConfig config, TransportData transportData, GraphDatabase graphDatabaseService, PathToStages pathToStages, ProvidesNow providesNow, MapPathToLocations mapPathToLocations, BetweenRoutesCostRepository routeToRouteCosts, ClosedStationsRepository closedStationsRepository, RunningRoutesAndServices runningRoutesAndService, RouteCostCalculator routeCostCalculator, StationAvailabilityRepository stationAvailabilityRepository, CreateJourneyDiagnostics failedJourneyDiagnostics, NumberOfNodesAndRelationshipsRepository countsNodes, InterchangeRepository interchangeRepository, CacheMetrics cacheMetrics, CreateQueryTimes createQueryTimes, JourneySearchExecutor searchExecutor, SharedPreviousVisits sharedPreviousVisits, StationLowerBounds stationLowerBounds) {
+        super(config, transportData, graphDatabaseService, pathToStages, providesNow, mapPathToLocations, routeToRouteCosts, closedStationsRepository, runningRoutesAndService, routeCostCalculator, stationAvailabilityRepository, failedJourneyDiagnostics, countsNodes, interchangeRepository, cacheMetrics, createQueryTimes, searchExecutor, sharedPreviousVisits);
+        this.stationLowerBounds = stationLowerBounds;
     }
 
     @Override
@@ -33,6 +36,7 @@ public class RouteCalculatorForBoxesInMemory extends RouteCalculatorForBoxes {
         final LocationSet<Station> destinations = destinationBox.getStations();
         final Set<GraphNodeId> destinationNodeIds = getDestinationNodeIds(destinations);
 
-        return txn -> new TramNetworkTraverserInMemory(config, destinationNodeIds, txn, destinations);
+        final StationLowerBounds.ForDestinations lowerBounds = stationLowerBounds.getFor(destinations);
+        return txn -> new TramNetworkTraverserInMemory(config, destinationNodeIds, txn, destinations, lowerBounds);
     }
 }
@@ -20,16 +20,22 @@ import java.util.Set;
 @LazySingleton
 public class RouteCalculatorInMemory extends RouteCalculatorSupport implements TramRouteCalculator {
 
+    private final StationLowerBounds stationLowerBounds;
+
     @Inject
     public RouteCalculatorInMemory(PathToStages pathToStages, GraphDatabase graphDatabaseService, ProvidesNow providesNow,
                                    MapPathToLocations mapPathToLocations, StationRepository stationRepository, TramchesterConfig config,
                                    BetweenRoutesCostRepository routeToRouteCosts, CreateJourneyDiagnostics failedJourneyDiagnostics,
                                    StationAvailabilityRepository stationAvailabilityRepository, NumberOfNodesAndRelationshipsRepository countsNodes,
                                    ClosedStationsRepository closedStationsRepository, CacheMetrics cacheMetrics, InterchangeRepository interchangeRepository,
-                                   CreateQueryTimes createQueryTimes, RunningRoutesAndServices runningRoutesAndServices) {
+                                   CreateQueryTimes createQueryTimes, RunningRoutesAndServices runningRoutesAndServices,
+                                   JourneySearchExecutor searchExecutor, SharedPreviousVisits sharedPreviousVisits,
+                                   StationLowerBounds stationLowerBounds) {
         super(pathToStages, graphDatabaseService, providesNow, mapPathToLocations, stationRepository, config, routeToRouteCosts,
                 failedJourneyDiagnostics, stationAvailabilityRepository, countsNodes, closedStationsRepository,
-                cacheMetrics, interchangeRepository, createQueryTimes, runningRoutesAndServices);
+                cacheMetrics, interchangeRepository, createQueryTimes, runningRoutesAndServices, searchExecutor,
+                sharedPreviousVisits);
+        this.stationLowerBounds = stationLowerBounds;
     }
 
     @Override
@@ -41,6 +47,7 @@ public class RouteCalculatorInMemory extends RouteCalculatorSupport implements T
 
     @Override
     protected TramNetworkTraverserFactory getTraverserFactory(final LocationCollection destinations, final Set<GraphNodeId> destinationNodeIds) {
-        return txn -> new TramNetworkTraverserInMemory(config, destinationNodeIds, txn, destinations);
+        final StationLowerBounds.ForDestinations lowerBounds = stationLowerBounds.getFor(destinations);
+        return txn -> new TramNetworkTraverserInMemory(config, destinationNodeIds, txn, destinations, lowerBounds);
     }
 }
@@ -15,6 +15,7 @@ import com.tramchester.graph.core.GraphNode;
 import com.tramchester.graph.core.GraphTransaction;
 import com.tramchester.graph.graphbuild.StagedTransportGraphBuilder;
 import com.tramchester.graph.reference.TransportRelationshipTypes;
+import com.tramchester.graph.search.routes.StationCostMatrix;
 import com.tramchester.repository.RouteRepository;
 import jakarta.inject.Inject;
 import org.slf4j.Logger;
@@ -34,10 +35,13 @@ public class RouteCostCalculatorInMemory implements RouteCostCalculator {
     private static final Logger logger = LoggerFactory.getLogger(RouteCostCalculatorInMemory.class);
 
     private final RouteRepository routeRepository;
+    private final StationCostMatrix stationCostMatrix;
 
     @Inject
-    public RouteCostCalculatorInMemory(StagedTransportGraphBuilder.Ready ready, RouteRepository routeRepository) {
+    public RouteCostCalculatorInMemory(StagedTransportGraphBuilder.Ready ready, RouteRepository routeRepository,
+                                       StationCostMatrix stationCostMatrix) {
         this.routeRepository = routeRepository;
+        this.stationCostMatrix = stationCostMatrix;
     }
 
     @Override
@@ -62,6 +66,24 @@ public class RouteCostCalculatorInMemory implements RouteCostCalculator {
         return getCostBetween(txn, startStation, endStation, date, modes);
     }
 
+    @Override
+    public TramDuration getLeastCostBetween(GraphTransaction txn, Location<?> startStation, Location<?> endStation, TramDate date, ImmutableEnumSet<TransportMode> modes) throws InvalidDurationException {
+        if (stationCostMatrix.covers(startStation, endStation, modes)) {
+            return getPrecomputedCost(startStation, endStation, date);
+        }
+        return getCostBetween(txn, startStation, endStation, date, modes);
+    }
+
+    private TramDuration getPrecomputedCost(final Location<?> startStation, final Location<?> endStation, final TramDate date) throws InvalidDurationException {
+        final TramDuration cost = stationCostMatrix.getCost(startStation, endStation, date);
+        if (!cost.isValid()) {
+            final String message = format("No precomputed cost between %s and %s on %s", startStation.getId(), endStation.getId(), date);
+            logger.error(message);
+            throw new InvalidDurationException(message);
+        }
+        return cost;
+    }
+
     private TramDuration getCostBetween(final GraphTransaction txn, final Location<?> startLocation, final Location<?> endLocation,
                                     final TramDate date, final ImmutableEnumSet<TransportMode> modes) throws InvalidDurationException {
 
@@ -101,7 +123,7 @@ public class RouteCostCalculatorInMemory implements RouteCostCalculator {
             return false;
         };
 
-        final TramDuration result = findPathsForJourney.findShortestPathsTo(endNode, routeAvailableFilter);
+        final TramDuration result = findPathsForJourney.findLeastCostTo(endNode, routeAvailableFilter);
 
         if (result.equals(FindPathsForJourney.NotVisitedDuration)) {
             final String message = format("No (least cost) path found between node %s [%s] and node %s [%s]",
@@ -0,0 +1,189 @@
+package com.tramchester.graph.search.inMemory;
+
+import com.tramchester.graph.core.inMemory.SearchStateKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/***
+ * Binary heap of NodeSearchState with an index from SearchStateKey to heap position, so contains and update are
+ * O(1) and O(log n) instead of the linear scans of PriorityQueue. Not thread safe, each search owns its own queue.
+ */
+public class SearchStateQueue {
+    private static final Logger logger = LoggerFactory.getLogger(SearchStateQueue.class);
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private NodeSearchState[] heap;
+    private int size;
+    private final Map<SearchStateKey, Integer> positions;
+    private final Counters counters;
+
+    public SearchStateQueue() {
+        heap = new NodeSearchState[INITIAL_CAPACITY];
+        size = 0;
+        positions = new HashMap<>();
+        counters = new Counters();
+    }
+
+    public void add(final NodeSearchState state) {
+        final SearchStateKey key = state.getStateKey();
+        if (positions.containsKey(key)) {
+            String message = "Already in queue " + key;
+            logger.error(message);
+            throw new RuntimeException(message);
+        }
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        heap[size] = state;
+        positions.put(key, size);
+        siftUp(size++);
+
+        counters.adds++;
+        counters.maxSize = Math.max(counters.maxSize, size);
+    }
+
+    /***
+     * Replace the queued state with the same key, repositioning it for the new ordering
+     * @param state replacement state
+     */
+    public void update(final NodeSearchState state) {
+        final SearchStateKey key = state.getStateKey();
+        final Integer position = positions.get(key);
+        if (position == null) {
+            String message = "Node was not in the queue " + key + " for " + state;
+            logger.error(message);
+            throw new RuntimeException(message);
+        }
+        heap[position] = state;
+        // ordering is not purely on cost, see NodeSearchState.compareTo, so the entry may need to move either way
+        if (siftUp(position) == position) {
+            siftDown(position);
+        }
+        counters.updates++;
+    }
+
+    public NodeSearchState poll() {
+        if (size == 0) {
+            return null;
+        }
+        final NodeSearchState first = heap[0];
+        positions.remove(first.getStateKey());
+        final NodeSearchState last = heap[--size];
+        heap[size] = null;
+        if (size > 0) {
+            heap[0] = last;
+            positions.put(last.getStateKey(), 0);
+            siftDown(0);
+        }
+        counters.polls++;
+        return first;
+    }
+
+    public boolean contains(final SearchStateKey key) {
+        return positions.containsKey(key);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(heap, 0, size, null);
+        size = 0;
+        positions.clear();
+    }
+
+    public Counters getCounters() {
+        return counters;
+    }
+
+    private int siftUp(final int start) {
+        int position = start;
+        final NodeSearchState moving = heap[position];
+        while (position > 0) {
+            final int parent = (position - 1) >>> 1;
+            final NodeSearchState parentState = heap[parent];
+            if (moving.compareTo(parentState) >= 0) {
+                break;
+            }
+            place(parentState, position);
+            position = parent;
+        }
+        place(moving, position);
+        return position;
+    }
+
+    private void siftDown(final int start) {
+        int position = start;
+        final NodeSearchState moving = heap[position];
+        final int half = size >>> 1;
+        while (position < half) {
+            int child = (position << 1) + 1;
+            final int right = child + 1;
+            if (right < size && heap[right].compareTo(heap[child]) < 0) {
+                child = right;
+            }
+            if (moving.compareTo(heap[child]) <= 0) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+        place(moving, position);
+    }
+
+    private void place(final NodeSearchState state, final int position) {
+        heap[position] = state;
+        positions.put(state.getStateKey(), position);
+    }
+
+    @Override
+    public String toString() {
+        return "SearchStateQueue{" +
+                "size=" + size +
+                ", counters=" + counters +
+                '}';
+    }
+
+    public static class Counters {
+        private long adds;
+        private long updates;
+        private long polls;
+        private int maxSize;
+
+        public long getAdds() {
+            return adds;
+        }
+
+        public long getUpdates() {
+            return updates;
+        }
+
+        public long getPolls() {
+            return polls;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        @Override
+        public String toString() {
+            return "Counters{" +
+                    "adds=" + adds +
+                    ", updates=" + updates +
+                    ", polls=" + polls +
+                    ", maxSize=" + maxSize +
+                    '}';
+        }
+    }
+}
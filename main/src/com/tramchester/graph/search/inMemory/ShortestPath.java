@@ -3,6 +3,7 @@ package com.tramchester.graph.search.inMemory;
 import com.tramchester.domain.time.TramDuration;
 import com.tramchester.graph.core.*;
 import com.tramchester.graph.core.inMemory.GraphPathInMemory;
+import com.tramchester.graph.core.inMemory.NodeIdInMemory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -43,6 +44,39 @@ public class ShortestPath {
 
     }
 
+    /***
+     * Cost only version of findShortestPathsTo, searches out from both the start and the destination, following
+     * relationships backwards from the destination, and stops once the two searches can no longer find anything cheaper
+     * than the cheapest meeting point seen. No paths are created and costs are held as seconds by internal node id.
+     * @return least cost, or NotVisitedDuration if the destination cannot be reached
+     */
+    public TramDuration findLeastCostTo(final GraphNode destNode, final FindPathsForJourney.GraphRelationshipFilter filter) {
+        if (startNode.getId().equals(destNode.getId())) {
+            return TramDuration.ZERO;
+        }
+
+        final Frontier forwards = new Frontier(startNode.getId(), GraphDirection.Outgoing);
+        final Frontier backwards = new Frontier(destNode.getId(), GraphDirection.Incoming);
+
+        long leastCost = Long.MAX_VALUE;
+        while (forwards.hasNodes() && backwards.hasNodes()) {
+            if (forwards.peekCost() + backwards.peekCost() >= leastCost) {
+                break;
+            }
+            // expand the side with least to do
+            final boolean useForwards = forwards.size() <= backwards.size();
+            final Frontier expanding = useForwards ? forwards : backwards;
+            final Frontier other = useForwards ? backwards : forwards;
+            leastCost = Math.min(leastCost, expanding.expandNext(other, filter));
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("Settled " + forwards.settled + " forwards and " + backwards.settled + " backwards");
+        }
+
+        return leastCost == Long.MAX_VALUE ? NotVisitedDuration : TramDuration.ofSeconds(leastCost);
+    }
+
     private void visitNodeForShortestPath(final GraphNodeId currentNodeId, final SearchState searchState,
                                           final GraphPath incomingPath,
                                           final List<GraphPath> results, final GraphNodeId destNodeId,
@@ -80,6 +114,122 @@ public class ShortestPath {
         });
     }
 
+    /***
+     * One direction of findLeastCostTo, queue entries are left in place when a cheaper cost is found and skipped when
+     * they come off the queue
+     */
+    private class Frontier {
+        private final GraphDirection direction;
+        private final NodeCosts costs;
+        private final PriorityQueue<QueuedNode> queue;
+        private int settled;
+
+        private Frontier(final GraphNodeId begin, final GraphDirection direction) {
+            this.direction = direction;
+            costs = new NodeCosts();
+            queue = new PriorityQueue<>();
+            costs.set(begin, 0);
+            queue.add(new QueuedNode(begin, 0));
+            settled = 0;
+        }
+
+        boolean hasNodes() {
+            discardStale();
+            return !queue.isEmpty();
+        }
+
+        long peekCost() {
+            return queue.element().cost();
+        }
+
+        int size() {
+            return queue.size();
+        }
+
+        /***
+         * @return cheapest total cost via a node reached in this step that the other side has also reached
+         */
+        long expandNext(final Frontier other, final FindPathsForJourney.GraphRelationshipFilter filter) {
+            final QueuedNode next = queue.remove();
+            settled++;
+            final GraphNode node = txn.getNodeById(next.nodeId());
+
+            long leastCost = Long.MAX_VALUE;
+            final Iterator<GraphRelationship> relationships = node.getAllRelationships(txn, direction).
+                    filter(filter::include).
+                    iterator();
+            while (relationships.hasNext()) {
+                final GraphRelationship relationship = relationships.next();
+                final GraphNodeId reached = direction == GraphDirection.Outgoing ?
+                        relationship.getEndNodeId(txn) : relationship.getStartNodeId(txn);
+                final long cost = next.cost() + relationship.getCost().toSeconds();
+                if (cost < costs.get(reached)) {
+                    costs.set(reached, cost);
+                    queue.add(new QueuedNode(reached, cost));
+                    final long otherCost = other.costs.get(reached);
+                    if (otherCost != NodeCosts.UNREACHED) {
+                        leastCost = Math.min(leastCost, cost + otherCost);
+                    }
+                }
+            }
+            return leastCost;
+        }
+
+        private void discardStale() {
+            while (!queue.isEmpty() && queue.element().cost() > costs.get(queue.element().nodeId())) {
+                queue.remove();
+            }
+        }
+    }
+
+    /***
+     * Costs in seconds by internal node id, overlay nodes for walks have negative ids so are held separately
+     */
+    private static class NodeCosts {
+        private static final long UNREACHED = Long.MAX_VALUE;
+        private long[] costs;
+        private final Map<Integer, Long> overlayCosts;
+
+        private NodeCosts() {
+            costs = new long[1024];
+            Arrays.fill(costs, UNREACHED);
+            overlayCosts = new HashMap<>();
+        }
+
+        long get(final GraphNodeId nodeId) {
+            final int id = internalIdFor(nodeId);
+            if (id < 0) {
+                return overlayCosts.getOrDefault(id, UNREACHED);
+            }
+            return id < costs.length ? costs[id] : UNREACHED;
+        }
+
+        void set(final GraphNodeId nodeId, final long cost) {
+            final int id = internalIdFor(nodeId);
+            if (id < 0) {
+                overlayCosts.put(id, cost);
+                return;
+            }
+            if (id >= costs.length) {
+                final int previousLength = costs.length;
+                costs = Arrays.copyOf(costs, Math.max(id + 1, previousLength * 2));
+                Arrays.fill(costs, previousLength, costs.length, UNREACHED);
+            }
+            costs[id] = cost;
+        }
+
+        private static int internalIdFor(final GraphNodeId nodeId) {
+            return ((NodeIdInMemory) nodeId).getInternalId();
+        }
+    }
+
+    private record QueuedNode(GraphNodeId nodeId, long cost) implements Comparable<QueuedNode> {
+        @Override
+        public int compareTo(final QueuedNode other) {
+            return Long.compare(cost, other.cost);
+        }
+    }
+
     private static class SearchState {
         private final Map<GraphNodeId, TramDuration> currentCost;
         private final PriorityQueue<NodeSearchState> nodeQueue;
@@ -8,6 +8,7 @@ import com.tramchester.graph.core.*;
 import com.tramchester.graph.search.ArrivalHandler;
 import com.tramchester.graph.search.PathRequest;
 import com.tramchester.graph.search.PreviousVisits;
+import com.tramchester.graph.search.StationLowerBounds;
 import com.tramchester.graph.search.TramNetworkTraverser;
 import com.tramchester.graph.search.diagnostics.ServiceReasons;
 import com.tramchester.graph.search.stateMachine.TowardsDestination;
@@ -22,13 +23,16 @@ public class TramNetworkTraverserInMemory implements TramNetworkTraverser {
     private final Set<GraphNodeId> destinationNodeIds;
     private final GraphTransaction txn;
     private final LocationCollection destinations;
+    private final StationLowerBounds.ForDestinations lowerBounds;
 
     public TramNetworkTraverserInMemory(final TramchesterConfig config, final Set<GraphNodeId> destinationNodeIds,
-                                        final GraphTransaction txn, final LocationCollection destinations) {
+                                        final GraphTransaction txn, final LocationCollection destinations,
+                                        final StationLowerBounds.ForDestinations lowerBounds) {
         this.config = config;
         this.destinationNodeIds = destinationNodeIds;
         this.txn = txn;
         this.destinations = destinations;
+        this.lowerBounds = lowerBounds;
     }
 
     @Override
@@ -47,12 +51,16 @@ public class TramNetworkTraverserInMemory implements TramNetworkTraverser {
 
         final TraversalStateFactory traversalStateFactory = new TraversalStateFactory(builderParameters);
         final FindPathsForJourney searchAlgo = new FindPathsForJourney(txn, startNode, config, tramRouteEvaluator,
-                traversalStateFactory, pathRequest.getMaxNumberJourneys());
+                traversalStateFactory, pathRequest.getMaxNumberJourneys(), lowerBounds);
 
         final TramTime actualQueryTime = pathRequest.getActualQueryTime();
 
         Stream<GraphPath> results = searchAlgo.findPaths(actualQueryTime, running);
 
+        if (!running.isRunning()) {
+            reasons.recordSearchStopped();
+        }
+
         reasons.reportReasons(txn, pathRequest, destinations);
         previousVisits.reportStats();
 
@@ -0,0 +1,398 @@
+package com.tramchester.graph.search.raptor;
+
+import com.netflix.governator.guice.lazy.LazySingleton;
+import com.tramchester.domain.StationToStationConnection;
+import com.tramchester.domain.id.IdFor;
+import com.tramchester.domain.input.StopCall;
+import com.tramchester.domain.input.Trip;
+import com.tramchester.domain.places.Station;
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.domain.time.TramTime;
+import com.tramchester.graph.filters.GraphFilter;
+import com.tramchester.repository.InterchangeRepository;
+import com.tramchester.repository.NeighboursRepository;
+import com.tramchester.repository.StationRepository;
+import com.tramchester.repository.TripRepository;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/***
+ * Array backed view of the timetable for RouteCalculatorRaptor. Trips are grouped into patterns, trips of the same route
+ * that call at the same sequence of stations, with times held as minutes from midnight of the service date. Built on
+ * first use so there is no cost unless raptor searches are made.
+ */
+@LazySingleton
+public class RaptorIndex {
+    private static final Logger logger = LoggerFactory.getLogger(RaptorIndex.class);
+
+    static final int MINS_IN_DAY = TramTime.HOURS_IN_DAY * TramTime.MINS_IN_HOUR;
+
+    private final TripRepository tripRepository;
+    private final StationRepository stationRepository;
+    private final InterchangeRepository interchangeRepository;
+    private final NeighboursRepository neighboursRepository;
+    private final GraphFilter graphFilter;
+
+    private volatile Index index;
+
+    @Inject
+    public RaptorIndex(TripRepository tripRepository, StationRepository stationRepository, InterchangeRepository interchangeRepository,
+                       NeighboursRepository neighboursRepository, GraphFilter graphFilter) {
+        this.tripRepository = tripRepository;
+        this.stationRepository = stationRepository;
+        this.interchangeRepository = interchangeRepository;
+        this.neighboursRepository = neighboursRepository;
+        this.graphFilter = graphFilter;
+    }
+
+    @PreDestroy
+    public void stop() {
+        logger.info("stopping");
+        index = null;
+        logger.info("stopped");
+    }
+
+    public Index get() {
+        Index current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = build();
+                    index = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    public static int toMinutes(final TramTime time) {
+        final int minutes = (time.getHourOfDay() * TramTime.MINS_IN_HOUR) + time.getMinuteOfHour();
+        return time.isNextDay() ? minutes + MINS_IN_DAY : minutes;
+    }
+
+    public static TramTime toTramTime(final int minutes) {
+        return TramTime.of(0, 0).plusMinutes(minutes);
+    }
+
+    private static int toMinutesRoundedUp(final TramDuration duration) {
+        return (int) Math.ceilDiv(duration.toSeconds(), 60L);
+    }
+
+    private Index build() {
+        logger.info("Building index");
+
+        final List<Station> stations = stationRepository.getAllStationStream().
+                filter(graphFilter::shouldInclude).
+                toList();
+        final Map<IdFor<Station>, Integer> stationIndexes = new HashMap<>();
+        for (int i = 0; i < stations.size(); i++) {
+            stationIndexes.put(stations.get(i).getId(), i);
+        }
+
+        final Map<PatternKey, List<List<StopCall>>> tripsByPattern = new HashMap<>();
+        tripRepository.getTrips().stream().
+                filter(trip -> graphFilter.shouldIncludeRoute(trip.getRoute())).
+                forEach(trip -> {
+                    final List<StopCall> calls = trip.getStopCalls().stream().
+                            filter(StopCall::callsAtStation).
+                            filter(graphFilter::shouldInclude).
+                            filter(stopCall -> stationIndexes.containsKey(stopCall.getStationId())).
+                            toList();
+                    if (calls.size() > 1) {
+                        final int[] stops = calls.stream().mapToInt(call -> stationIndexes.get(call.getStationId())).toArray();
+                        tripsByPattern.computeIfAbsent(new PatternKey(trip, stops), k -> new ArrayList<>()).add(calls);
+                    }
+                });
+
+        final List<Pattern> patterns = new ArrayList<>(tripsByPattern.size());
+        tripsByPattern.forEach((key, trips) -> patterns.add(new Pattern(key.stops, trips)));
+
+        final List<List<int[]>> servingPatterns = new ArrayList<>(stations.size());
+        stations.forEach(station -> servingPatterns.add(new ArrayList<>()));
+        for (int patternIndex = 0; patternIndex < patterns.size(); patternIndex++) {
+            final int[] stops = patterns.get(patternIndex).stops;
+            for (int position = 0; position < stops.length; position++) {
+                servingPatterns.get(stops[position]).add(new int[]{patternIndex, position});
+            }
+        }
+
+        final int[][] walkTargets = new int[stations.size()][];
+        final int[][] walkMinutes = new int[stations.size()][];
+        final boolean[] interchanges = new boolean[stations.size()];
+        final int[] minChangeMinutes = new int[stations.size()];
+        for (int i = 0; i < stations.size(); i++) {
+            final Station station = stations.get(i);
+            interchanges[i] = interchangeRepository.isInterchange(station);
+            minChangeMinutes[i] = toMinutesRoundedUp(station.getMinChangeDuration());
+
+            final List<StationToStationConnection> links = neighboursRepository.isEnabled() ?
+                    neighboursRepository.getNeighbourLinksFor(station.getId()).stream().
+                            filter(link -> stationIndexes.containsKey(link.getEnd().getId())).
+                            toList() :
+                    Collections.emptyList();
+            walkTargets[i] = links.stream().mapToInt(link -> stationIndexes.get(link.getEnd().getId())).toArray();
+            walkMinutes[i] = links.stream().mapToInt(link -> toMinutesRoundedUp(link.getConnectionTime())).toArray();
+        }
+
+        // same links the other way round, for searches working back from the destination
+        final List<List<int[]>> inbound = new ArrayList<>(stations.size());
+        stations.forEach(station -> inbound.add(new ArrayList<>()));
+        for (int from = 0; from < stations.size(); from++) {
+            for (int i = 0; i < walkTargets[from].length; i++) {
+                inbound.get(walkTargets[from][i]).add(new int[]{from, walkMinutes[from][i]});
+            }
+        }
+        final int[][] walkSources = new int[stations.size()][];
+        final int[][] walkSourceMinutes = new int[stations.size()][];
+        for (int i = 0; i < stations.size(); i++) {
+            walkSources[i] = inbound.get(i).stream().mapToInt(pair -> pair[0]).toArray();
+            walkSourceMinutes[i] = inbound.get(i).stream().mapToInt(pair -> pair[1]).toArray();
+        }
+
+        final int[][] patternsForStation = new int[stations.size()][];
+        final int[][] positionsForStation = new int[stations.size()][];
+        for (int i = 0; i < stations.size(); i++) {
+            final List<int[]> serving = servingPatterns.get(i);
+            patternsForStation[i] = serving.stream().mapToInt(pair -> pair[0]).toArray();
+            positionsForStation[i] = serving.stream().mapToInt(pair -> pair[1]).toArray();
+        }
+
+        logger.info("Built index for " + stations.size() + " stations and " + patterns.size() + " patterns");
+        return new Index(stations, stationIndexes, patterns.toArray(new Pattern[0]), patternsForStation, positionsForStation,
+                walkTargets, walkMinutes, walkSources, walkSourceMinutes, interchanges, minChangeMinutes);
+    }
+
+    public static class Index {
+        private final List<Station> stations;
+        private final Map<IdFor<Station>, Integer> stationIndexes;
+        private final Pattern[] patterns;
+        private final int[][] patternsForStation;
+        private final int[][] positionsForStation;
+        private final int[][] walkTargets;
+        private final int[][] walkMinutes;
+        private final int[][] walkSources;
+        private final int[][] walkSourceMinutes;
+        private final boolean[] interchanges;
+        private final int[] minChangeMinutes;
+
+        private Index(List<Station> stations, Map<IdFor<Station>, Integer> stationIndexes, Pattern[] patterns,
+                      int[][] patternsForStation, int[][] positionsForStation, int[][] walkTargets, int[][] walkMinutes,
+                      int[][] walkSources, int[][] walkSourceMinutes, boolean[] interchanges, int[] minChangeMinutes) {
+            this.stations = stations;
+            this.stationIndexes = stationIndexes;
+            this.patterns = patterns;
+            this.patternsForStation = patternsForStation;
+            this.positionsForStation = positionsForStation;
+            this.walkTargets = walkTargets;
+            this.walkMinutes = walkMinutes;
+            this.walkSources = walkSources;
+            this.walkSourceMinutes = walkSourceMinutes;
+            this.interchanges = interchanges;
+            this.minChangeMinutes = minChangeMinutes;
+        }
+
+        public int numberOfStations() {
+            return stations.size();
+        }
+
+        public boolean hasStation(final IdFor<Station> stationId) {
+            return stationIndexes.containsKey(stationId);
+        }
+
+        public int indexOf(final IdFor<Station> stationId) {
+            return stationIndexes.get(stationId);
+        }
+
+        public Station getStation(final int stationIndex) {
+            return stations.get(stationIndex);
+        }
+
+        public Pattern getPattern(final int patternIndex) {
+            return patterns[patternIndex];
+        }
+
+        public int numberOfPatterns() {
+            return patterns.length;
+        }
+
+        public int[] patternsFor(final int stationIndex) {
+            return patternsForStation[stationIndex];
+        }
+
+        public int[] positionsFor(final int stationIndex) {
+            return positionsForStation[stationIndex];
+        }
+
+        public int[] walkTargets(final int stationIndex) {
+            return walkTargets[stationIndex];
+        }
+
+        public int[] walkMinutes(final int stationIndex) {
+            return walkMinutes[stationIndex];
+        }
+
+        public int[] walkSources(final int stationIndex) {
+            return walkSources[stationIndex];
+        }
+
+        public int[] walkSourceMinutes(final int stationIndex) {
+            return walkSourceMinutes[stationIndex];
+        }
+
+        public boolean isInterchange(final int stationIndex) {
+            return interchanges[stationIndex];
+        }
+
+        public int minChangeMinutes(final int stationIndex) {
+            return minChangeMinutes[stationIndex];
+        }
+    }
+
+    /***
+     * Trips of one route calling at the same sequence of stations, times indexed by [trip][position]. For each position
+     * trip indexes are also held in order of departure and of arrival there, indexed by [position][order], so the
+     * search can binary search for a trip rather than scan them all.
+     */
+    public static class Pattern {
+        private final int[] stops;
+        private final Trip[] trips;
+        private final StopCall[][] calls;
+        private final int[][] arrivals;
+        private final int[][] departures;
+        private final int[][] tripsByDeparture;
+        private final int[][] departuresInOrder;
+        private final int[][] tripsByArrival;
+        private final int[][] arrivalsInOrder;
+
+        private Pattern(final int[] stops, final List<List<StopCall>> tripCalls) {
+            this.stops = stops;
+            final int numberOfTrips = tripCalls.size();
+            trips = new Trip[numberOfTrips];
+            calls = new StopCall[numberOfTrips][];
+            arrivals = new int[numberOfTrips][stops.length];
+            departures = new int[numberOfTrips][stops.length];
+
+            final List<List<StopCall>> sorted = tripCalls.stream().
+                    sorted(Comparator.comparingInt(forTrip -> toMinutes(forTrip.getFirst().getDepartureTime()))).
+                    toList();
+            for (int tripIndex = 0; tripIndex < numberOfTrips; tripIndex++) {
+                final List<StopCall> forTrip = sorted.get(tripIndex);
+                trips[tripIndex] = forTrip.getFirst().getTrip();
+                calls[tripIndex] = forTrip.toArray(new StopCall[0]);
+                for (int position = 0; position < stops.length; position++) {
+                    final StopCall call = forTrip.get(position);
+                    arrivals[tripIndex][position] = toMinutes(call.getArrivalTime());
+                    departures[tripIndex][position] = toMinutes(call.getDepartureTime());
+                }
+            }
+
+            tripsByDeparture = new int[stops.length][];
+            departuresInOrder = new int[stops.length][];
+            tripsByArrival = new int[stops.length][];
+            arrivalsInOrder = new int[stops.length][];
+            for (int position = 0; position < stops.length; position++) {
+                tripsByDeparture[position] = inOrderOf(departures, position);
+                departuresInOrder[position] = timesFor(departures, tripsByDeparture[position], position);
+                tripsByArrival[position] = inOrderOf(arrivals, position);
+                arrivalsInOrder[position] = timesFor(arrivals, tripsByArrival[position], position);
+            }
+        }
+
+        private static int[] inOrderOf(final int[][] times, final int position) {
+            return IntStream.range(0, times.length).
+                    boxed().
+                    sorted(Comparator.comparingInt(tripIndex -> times[tripIndex][position])).
+                    mapToInt(Integer::intValue).
+                    toArray();
+        }
+
+        private static int[] timesFor(final int[][] times, final int[] tripOrder, final int position) {
+            final int[] result = new int[tripOrder.length];
+            for (int i = 0; i < tripOrder.length; i++) {
+                result[i] = times[tripOrder[i]][position];
+            }
+            return result;
+        }
+
+        public int numberOfStops() {
+            return stops.length;
+        }
+
+        public int stationAt(final int position) {
+            return stops[position];
+        }
+
+        public int numberOfTrips() {
+            return trips.length;
+        }
+
+        public Trip getTrip(final int tripIndex) {
+            return trips[tripIndex];
+        }
+
+        public StopCall getCall(final int tripIndex, final int position) {
+            return calls[tripIndex][position];
+        }
+
+        public int arrival(final int tripIndex, final int position) {
+            return arrivals[tripIndex][position];
+        }
+
+        public int departure(final int tripIndex, final int position) {
+            return departures[tripIndex][position];
+        }
+
+        /***
+         * @return trip indexes in order of departure from the position, see departuresInOrder
+         */
+        public int[] tripsByDeparture(final int position) {
+            return tripsByDeparture[position];
+        }
+
+        public int[] departuresInOrder(final int position) {
+            return departuresInOrder[position];
+        }
+
+        /***
+         * @return trip indexes in order of arrival at the position, see arrivalsInOrder
+         */
+        public int[] tripsByArrival(final int position) {
+            return tripsByArrival[position];
+        }
+
+        public int[] arrivalsInOrder(final int position) {
+            return arrivalsInOrder[position];
+        }
+    }
+
+    private static class PatternKey {
+        private final IdFor<?> routeId;
+        private final int[] stops;
+        private final int hashCode;
+
+        private PatternKey(final Trip trip, final int[] stops) {
+            this.routeId = trip.getRoute().getId();
+            this.stops = stops;
+            this.hashCode = 31 * routeId.hashCode() + Arrays.hashCode(stops);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            PatternKey that = (PatternKey) o;
+            return routeId.equals(that.routeId) && Arrays.equals(stops, that.stops);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.tramchester.graph.search.raptor;
+
+import com.tramchester.domain.input.Trip;
+import com.tramchester.repository.RunningRoutesAndServices;
+
+/***
+ * Which trips of each pattern can be taken for a date, using the same rules as the graph search, see
+ * RunningRoutesAndServices.FilterForDate: the service and route run on the date, or for times after midnight they run
+ * on the next day, otherwise they run on the previous day and into the date. Built per pattern the first time it is
+ * scanned, confined to one search so no locking.
+ */
+class RaptorRunningTrips {
+    private final RunningRoutesAndServices.FilterForDate filter;
+
+    // per pattern, null until the pattern is first scanned
+    private final boolean[][] sameDay;
+    private final boolean[][] nextDay;
+
+    RaptorRunningTrips(final RunningRoutesAndServices.FilterForDate filter, final int numberOfPatterns) {
+        this.filter = filter;
+        sameDay = new boolean[numberOfPatterns][];
+        nextDay = new boolean[numberOfPatterns][];
+    }
+
+    /***
+     * @param patternIndex index of the pattern
+     * @param pattern the pattern
+     * @param trip trip index within the pattern
+     * @param minutes time the trip is used at, minutes from midnight of the date
+     * @return true if the trip can be used at that time
+     */
+    boolean isRunning(final int patternIndex, final RaptorIndex.Pattern pattern, final int trip, final int minutes) {
+        if (sameDay[patternIndex] == null) {
+            populate(patternIndex, pattern);
+        }
+        return minutes >= RaptorIndex.MINS_IN_DAY ? nextDay[patternIndex][trip] : sameDay[patternIndex][trip];
+    }
+
+    private void populate(final int patternIndex, final RaptorIndex.Pattern pattern) {
+        final int numberOfTrips = pattern.numberOfTrips();
+        final boolean[] forSameDay = new boolean[numberOfTrips];
+        final boolean[] forNextDay = new boolean[numberOfTrips];
+        for (int trip = 0; trip < numberOfTrips; trip++) {
+            final Trip forTrip = pattern.getTrip(trip);
+            forSameDay[trip] = isRunning(forTrip, false);
+            forNextDay[trip] = isRunning(forTrip, true);
+        }
+        sameDay[patternIndex] = forSameDay;
+        nextDay[patternIndex] = forNextDay;
+    }
+
+    private boolean isRunning(final Trip trip, final boolean isNextDay) {
+        return filter.isServiceRunningByDate(trip.getService().getId(), isNextDay) &&
+                filter.isRouteRunning(trip.getRoute().getId(), isNextDay);
+    }
+}
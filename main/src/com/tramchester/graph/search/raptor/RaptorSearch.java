@@ -0,0 +1,656 @@
+package com.tramchester.graph.search.raptor;
+
+import com.tramchester.domain.collections.ImmutableEnumSet;
+import com.tramchester.domain.collections.Running;
+import com.tramchester.domain.input.StopCall;
+import com.tramchester.domain.reference.TransportMode;
+import com.tramchester.repository.RunningRoutesAndServices;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/***
+ * Round based search (RAPTOR) over the RaptorIndex, round k holds the earliest arrival at each station using k vehicles.
+ * A profile over a window of departure times (rRAPTOR) where departures are processed latest first and labels are kept
+ * between them, so an earlier departure only does work where it improves on a later one.
+ * Runs forwards from the origins, or for arrive by queries backwards from the destinations, see Direction, labels then
+ * hold the latest time to be at each station and still arrive in time. State is confined to one search so no locking.
+ */
+class RaptorSearch {
+    private static final Logger logger = LoggerFactory.getLogger(RaptorSearch.class);
+
+    static final int UNREACHED = Integer.MAX_VALUE;
+
+    private enum Kind {
+        None,
+        Start,
+        Vehicle,
+        Walk
+    }
+
+    /***
+     * Times within a search are minutes, as is for Forward, negated for Reverse so the same rules that find the
+     * earliest arrival find the latest departure. Boarding in a Reverse search is alighting on the journey itself, so
+     * patterns are scanned from their end towards their start, and change time is allowed for where the vehicle is
+     * caught rather than where it is left.
+     */
+    enum Direction {
+        Forward {
+            @Override
+            int time(final int minutes) {
+                return minutes;
+            }
+
+            @Override
+            int position(final RaptorIndex.Pattern pattern, final int scanIndex) {
+                return scanIndex;
+            }
+
+            @Override
+            int boardTime(final RaptorIndex.Pattern pattern, final int trip, final int position) {
+                return pattern.departure(trip, position);
+            }
+
+            @Override
+            int alightTime(final RaptorIndex.Pattern pattern, final int trip, final int position) {
+                return pattern.arrival(trip, position);
+            }
+
+            @Override
+            int boardChange(final RaptorIndex.Index index, final int station) {
+                return index.minChangeMinutes(station);
+            }
+
+            @Override
+            int alightChange(final RaptorIndex.Index index, final int station) {
+                return 0;
+            }
+
+            @Override
+            boolean canBoard(final StopCall call) {
+                return call.getPickupType().isPickup();
+            }
+
+            @Override
+            boolean canAlight(final StopCall call) {
+                return call.getDropoffType().isDropOff();
+            }
+
+            @Override
+            int[] walkStations(final RaptorIndex.Index index, final int station) {
+                return index.walkTargets(station);
+            }
+
+            @Override
+            int[] walkMinutes(final RaptorIndex.Index index, final int station) {
+                return index.walkMinutes(station);
+            }
+
+            @Override
+            Leg walk(final int from, final int to, final int fromTime, final int toTime) {
+                return Leg.walk(from, to, fromTime, toTime);
+            }
+
+            @Override
+            Leg vehicle(final RaptorIndex.Pattern pattern, final int patternIndex, final int trip, final int from, final int to,
+                        final int boardPosition, final int alightPosition) {
+                return Leg.vehicle(from, to, pattern.departure(trip, boardPosition), pattern.arrival(trip, alightPosition),
+                        patternIndex, trip, boardPosition, alightPosition);
+            }
+
+            @Override
+            List<Leg> inTravelOrder(final List<Leg> fromEnd) {
+                return fromEnd.reversed();
+            }
+
+            @Override
+            int findTrip(final RaptorRunningTrips runningTrips, final int patternIndex, final RaptorIndex.Pattern pattern,
+                         final int position, final int ready, final int latestBoarding) {
+                final int[] departures = pattern.departuresInOrder(position);
+                final int[] trips = pattern.tripsByDeparture(position);
+                for (int i = firstAtOrAfter(departures, ready); i < departures.length && departures[i] <= latestBoarding; i++) {
+                    final int trip = trips[i];
+                    if (runningTrips.isRunning(patternIndex, pattern, trip, departures[i]) &&
+                            canBoard(pattern.getCall(trip, position))) {
+                        return trip;
+                    }
+                }
+                return -1;
+            }
+        },
+        Reverse {
+            @Override
+            int time(final int minutes) {
+                return -minutes;
+            }
+
+            @Override
+            int position(final RaptorIndex.Pattern pattern, final int scanIndex) {
+                return pattern.numberOfStops() - 1 - scanIndex;
+            }
+
+            @Override
+            int boardTime(final RaptorIndex.Pattern pattern, final int trip, final int position) {
+                return -pattern.arrival(trip, position);
+            }
+
+            @Override
+            int alightTime(final RaptorIndex.Pattern pattern, final int trip, final int position) {
+                return -pattern.departure(trip, position);
+            }
+
+            @Override
+            int boardChange(final RaptorIndex.Index index, final int station) {
+                return 0;
+            }
+
+            @Override
+            int alightChange(final RaptorIndex.Index index, final int station) {
+                return index.minChangeMinutes(station);
+            }
+
+            @Override
+            boolean canBoard(final StopCall call) {
+                return call.getDropoffType().isDropOff();
+            }
+
+            @Override
+            boolean canAlight(final StopCall call) {
+                return call.getPickupType().isPickup();
+            }
+
+            @Override
+            int[] walkStations(final RaptorIndex.Index index, final int station) {
+                return index.walkSources(station);
+            }
+
+            @Override
+            int[] walkMinutes(final RaptorIndex.Index index, final int station) {
+                return index.walkSourceMinutes(station);
+            }
+
+            @Override
+            Leg walk(final int from, final int to, final int fromTime, final int toTime) {
+                return Leg.walk(to, from, -toTime, -fromTime);
+            }
+
+            @Override
+            Leg vehicle(final RaptorIndex.Pattern pattern, final int patternIndex, final int trip, final int from, final int to,
+                        final int boardPosition, final int alightPosition) {
+                return Leg.vehicle(to, from, pattern.departure(trip, alightPosition), pattern.arrival(trip, boardPosition),
+                        patternIndex, trip, alightPosition, boardPosition);
+            }
+
+            @Override
+            List<Leg> inTravelOrder(final List<Leg> fromEnd) {
+                return fromEnd;
+            }
+
+            @Override
+            int findTrip(final RaptorRunningTrips runningTrips, final int patternIndex, final RaptorIndex.Pattern pattern,
+                         final int position, final int ready, final int latestBoarding) {
+                final int[] arrivals = pattern.arrivalsInOrder(position);
+                final int[] trips = pattern.tripsByArrival(position);
+                final int neededBy = time(ready);
+                final int earliestArrival = time(latestBoarding);
+                for (int i = firstAtOrAfter(arrivals, neededBy + 1) - 1; i >= 0 && arrivals[i] >= earliestArrival; i--) {
+                    final int trip = trips[i];
+                    if (runningTrips.isRunning(patternIndex, pattern, trip, arrivals[i]) &&
+                            canBoard(pattern.getCall(trip, position))) {
+                        return trip;
+                    }
+                }
+                return -1;
+            }
+        };
+
+        /***
+         * converts minutes to a time within the search, and back again
+         */
+        abstract int time(int minutes);
+
+        /***
+         * position within the pattern for the scanIndex'th stop scanned, and back again
+         */
+        abstract int position(RaptorIndex.Pattern pattern, int scanIndex);
+
+        abstract int boardTime(RaptorIndex.Pattern pattern, int trip, int position);
+
+        abstract int alightTime(RaptorIndex.Pattern pattern, int trip, int position);
+
+        abstract int boardChange(RaptorIndex.Index index, int station);
+
+        abstract int alightChange(RaptorIndex.Index index, int station);
+
+        abstract boolean canBoard(StopCall call);
+
+        abstract boolean canAlight(StopCall call);
+
+        abstract int[] walkStations(RaptorIndex.Index index, int station);
+
+        abstract int[] walkMinutes(RaptorIndex.Index index, int station);
+
+        /***
+         * @param from station walked from within the search
+         * @param to station walked to within the search
+         * @param fromTime search time at from
+         * @param toTime search time at to
+         */
+        abstract Leg walk(int from, int to, int fromTime, int toTime);
+
+        /***
+         * @param from station boarded at within the search
+         * @param to station alighted at within the search
+         */
+        abstract Leg vehicle(RaptorIndex.Pattern pattern, int patternIndex, int trip, int from, int to, int boardPosition,
+                             int alightPosition);
+
+        /***
+         * @param fromEnd legs as found following labels back from the end of the search
+         */
+        abstract List<Leg> inTravelOrder(List<Leg> fromEnd);
+
+        /***
+         * Binary search of the trips at the position in order of board time, for the first running trip that can be
+         * boarded, so earliest board time within the search
+         * @param ready search time, earliest board time
+         * @param latestBoarding search time, latest board time
+         * @return trip index, or -1 if none
+         */
+        abstract int findTrip(RaptorRunningTrips runningTrips, int patternIndex, RaptorIndex.Pattern pattern, int position,
+                              int ready, int latestBoarding);
+
+        /***
+         * @return index of the first value at least the one given, or length if none
+         */
+        private static int firstAtOrAfter(final int[] sorted, final int value) {
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (sorted[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    private final Direction direction;
+    private final RaptorIndex.Index index;
+    private final RaptorRunningTrips runningTrips;
+    private final ImmutableEnumSet<TransportMode> modes;
+    private final boolean[] closed;
+    private final int maxRounds;
+
+    // [round][station], search times
+    private final int[][] arrivals;
+    private final Kind[][] kinds;
+    private final int[][] parentStation;
+    private final int[][] parentPattern;
+    private final int[][] parentTrip;
+    private final int[][] parentBoardPosition;
+    private final int[][] parentAlightPosition;
+    private final boolean[][] canChange;
+    private final int[][] updatedFor;
+
+    private final int[] best;
+
+    // reused between rounds, stations updated in the previous round and in this one
+    private boolean[] marked;
+    private boolean[] markedNext;
+    // reused between rounds, patterns to scan, and earliest scan index, see Direction.position, for each of those
+    private final int[] toScan;
+    private final int[] firstPosition;
+    // reused between rounds, stations to walk on from
+    private final int[] walkFrom;
+
+    // which departure time, within a profile search, labels are being updated for
+    private int departureIndex;
+
+    RaptorSearch(final Direction direction, final RaptorIndex.Index index, final RunningRoutesAndServices.FilterForDate filter,
+                 final ImmutableEnumSet<TransportMode> modes, final boolean[] closed, final int maxChanges) {
+        this.direction = direction;
+        this.index = index;
+        this.runningTrips = new RaptorRunningTrips(filter, index.numberOfPatterns());
+        this.modes = modes;
+        this.closed = closed;
+        this.maxRounds = maxChanges + 1;
+
+        final int numberOfStations = index.numberOfStations();
+        final int rounds = maxRounds + 1;
+        arrivals = new int[rounds][numberOfStations];
+        kinds = new Kind[rounds][numberOfStations];
+        parentStation = new int[rounds][numberOfStations];
+        parentPattern = new int[rounds][numberOfStations];
+        parentTrip = new int[rounds][numberOfStations];
+        parentBoardPosition = new int[rounds][numberOfStations];
+        parentAlightPosition = new int[rounds][numberOfStations];
+        canChange = new boolean[rounds][numberOfStations];
+        updatedFor = new int[rounds][numberOfStations];
+        best = new int[numberOfStations];
+
+        marked = new boolean[numberOfStations];
+        markedNext = new boolean[numberOfStations];
+        toScan = new int[index.numberOfPatterns()];
+        firstPosition = new int[index.numberOfPatterns()];
+        Arrays.fill(firstPosition, UNREACHED);
+        walkFrom = new int[numberOfStations];
+    }
+
+    /***
+     * Profile search, all journeys within the window that are not bettered by a journey leaving later, or arriving
+     * earlier for Reverse, or by one leaving at the same time using fewer vehicles
+     * @param origins station indexes the journeys start from
+     * @param destinations station indexes of the destinations
+     * @param windowStart minutes, Forward: earliest time at the origins, Reverse: earliest arrival by the last vehicle
+     * @param windowEnd minutes, Forward: latest departure for the first vehicle, Reverse: latest time at the destinations
+     * @param maxDuration minutes, longest journey from leaving the origin
+     * @param running stop early once no longer running
+     * @return journeys found for each time in the window, may contain duplicates
+     */
+    List<Legs> profile(final int[] origins, final int[] destinations, final int windowStart, final int windowEnd,
+                       final int maxDuration, final Running running) {
+        final boolean forward = direction == Direction.Forward;
+        final int[] starts = forward ? origins : destinations;
+        final int[] ends = forward ? destinations : origins;
+        final int earliest = forward ? windowStart : direction.time(windowEnd);
+        final int latestFirstBoarding = forward ? windowEnd : direction.time(windowStart);
+
+        reset();
+        final boolean[] isDestination = destinationsFlags(ends);
+
+        final int[] departures = departuresFrom(starts, earliest, latestFirstBoarding);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Profile search over " + departures.length + " departure times");
+        }
+
+        final List<Legs> results = new ArrayList<>();
+        for (int i = departures.length - 1; i >= 0 && running.isRunning(); i--) {
+            departureIndex = i;
+            final int departAt = departures[i];
+            runRounds(starts, departAt, latestFirstBoarding, departAt + maxDuration, isDestination, running);
+            results.addAll(extract(ends));
+        }
+        return results;
+    }
+
+    private boolean[] destinationsFlags(final int[] destinations) {
+        final boolean[] isDestination = new boolean[index.numberOfStations()];
+        for (final int destination : destinations) {
+            isDestination[destination] = true;
+        }
+        return isDestination;
+    }
+
+    /***
+     * Distinct search times to leave the starts to just catch a vehicle within the window, directly or after a walk
+     */
+    private int[] departuresFrom(final int[] starts, final int earliestDepart, final int latestFirstBoarding) {
+        final IntStream.Builder departures = IntStream.builder();
+        for (final int start : starts) {
+            if (closed[start]) {
+                continue;
+            }
+            addDepartures(departures, start, 0, earliestDepart, latestFirstBoarding);
+            final int[] targets = direction.walkStations(index, start);
+            final int[] minutes = direction.walkMinutes(index, start);
+            for (int i = 0; i < targets.length; i++) {
+                if (!closed[targets[i]]) {
+                    addDepartures(departures, targets[i], minutes[i], earliestDepart, latestFirstBoarding);
+                }
+            }
+        }
+        return departures.build().sorted().distinct().toArray();
+    }
+
+    private void addDepartures(final IntStream.Builder departures, final int station, final int walkMinutes,
+                               final int earliestDepart, final int latestFirstBoarding) {
+        final int[] patterns = index.patternsFor(station);
+        final int[] positions = index.positionsFor(station);
+        final int beforeBoarding = walkMinutes + direction.boardChange(index, station);
+        for (int i = 0; i < patterns.length; i++) {
+            final RaptorIndex.Pattern pattern = index.getPattern(patterns[i]);
+            if (!modes.contains(pattern.getTrip(0).getTransportMode())) {
+                continue;
+            }
+            final int position = positions[i];
+            for (int trip = 0; trip < pattern.numberOfTrips(); trip++) {
+                final int boardTime = direction.boardTime(pattern, trip, position);
+                final int leaveAt = boardTime - beforeBoarding;
+                if (leaveAt >= earliestDepart && boardTime <= latestFirstBoarding &&
+                        runningTrips.isRunning(patterns[i], pattern, trip, direction.time(boardTime)) &&
+                        direction.canBoard(pattern.getCall(trip, position))) {
+                    departures.add(leaveAt);
+                }
+            }
+        }
+    }
+
+    private void runRounds(final int[] starts, final int departAt, final int latestFirstBoarding, final int latestArrival,
+                           final boolean[] isDestination, final Running running) {
+        Arrays.fill(marked, false);
+        for (final int start : starts) {
+            if (closed[start]) {
+                continue;
+            }
+            arrivals[0][start] = departAt;
+            best[start] = Math.min(best[start], departAt);
+            kinds[0][start] = Kind.Start;
+            canChange[0][start] = true;
+            updatedFor[0][start] = departureIndex;
+            marked[start] = true;
+        }
+        relaxWalks(0, isDestination);
+
+        int bestAtDestination = latestArrival + 1;
+        for (int round = 1; round <= maxRounds && running.isRunning(); round++) {
+            final int latestBoarding = round == 1 ? latestFirstBoarding : UNREACHED;
+            scanPatterns(round, latestBoarding, Math.min(bestAtDestination, latestArrival + 1));
+            relaxWalks(round, isDestination);
+
+            boolean any = false;
+            for (int station = 0; station < marked.length; station++) {
+                if (marked[station]) {
+                    any = true;
+                    if (isDestination[station] && arrivals[round][station] < bestAtDestination) {
+                        bestAtDestination = arrivals[round][station];
+                    }
+                }
+            }
+            if (!any) {
+                break;
+            }
+        }
+    }
+
+    private void reset() {
+        for (int round = 0; round <= maxRounds; round++) {
+            Arrays.fill(arrivals[round], UNREACHED);
+            Arrays.fill(kinds[round], Kind.None);
+            Arrays.fill(canChange[round], false);
+            Arrays.fill(updatedFor[round], -1);
+        }
+        Arrays.fill(best, UNREACHED);
+    }
+
+    /***
+     * Scan patterns serving stations marked in the previous round, marked is then the stations updated by this round
+     */
+    private void scanPatterns(final int round, final int latestBoarding, final int arriveBefore) {
+        final int previous = round - 1;
+
+        int numberToScan = 0;
+        for (int station = 0; station < marked.length; station++) {
+            if (!marked[station] || !canChange[previous][station]) {
+                continue;
+            }
+            final int[] patterns = index.patternsFor(station);
+            final int[] positions = index.positionsFor(station);
+            for (int i = 0; i < patterns.length; i++) {
+                final int pattern = patterns[i];
+                if (firstPosition[pattern] == UNREACHED) {
+                    toScan[numberToScan++] = pattern;
+                }
+                final int scanIndex = direction.position(index.getPattern(pattern), positions[i]);
+                firstPosition[pattern] = Math.min(firstPosition[pattern], scanIndex);
+            }
+        }
+
+        Arrays.fill(markedNext, false);
+        for (int p = 0; p < numberToScan; p++) {
+            final int patternIndex = toScan[p];
+            final int startAt = firstPosition[patternIndex];
+            firstPosition[patternIndex] = UNREACHED;
+
+            final RaptorIndex.Pattern pattern = index.getPattern(patternIndex);
+            if (!modes.contains(pattern.getTrip(0).getTransportMode())) {
+                continue;
+            }
+
+            int trip = -1;
+            int boardPosition = -1;
+            int boardStation = -1;
+            for (int scanIndex = startAt; scanIndex < pattern.numberOfStops(); scanIndex++) {
+                final int position = direction.position(pattern, scanIndex);
+                final int station = pattern.stationAt(position);
+
+                if (trip >= 0 && !closed[station]) {
+                    final int arrival = direction.alightTime(pattern, trip, position) + direction.alightChange(index, station);
+                    final StopCall call = pattern.getCall(trip, position);
+                    if (arrival < arriveBefore && arrival < best[station] && direction.canAlight(call)) {
+                        arrivals[round][station] = arrival;
+                        best[station] = arrival;
+                        kinds[round][station] = Kind.Vehicle;
+                        parentStation[round][station] = boardStation;
+                        parentPattern[round][station] = patternIndex;
+                        parentTrip[round][station] = trip;
+                        parentBoardPosition[round][station] = boardPosition;
+                        parentAlightPosition[round][station] = position;
+                        canChange[round][station] = index.isInterchange(station);
+                        updatedFor[round][station] = departureIndex;
+                        markedNext[station] = true;
+                    }
+                }
+
+                final int arrivedPrevious = arrivals[previous][station];
+                if (arrivedPrevious != UNREACHED && canChange[previous][station] && !closed[station]) {
+                    final int ready = arrivedPrevious + direction.boardChange(index, station);
+                    if (trip < 0 || ready <= direction.boardTime(pattern, trip, position)) {
+                        final int earlier = direction.findTrip(runningTrips, patternIndex, pattern, position, ready, latestBoarding);
+                        if (earlier >= 0 && (trip < 0 ||
+                                direction.boardTime(pattern, earlier, position) < direction.boardTime(pattern, trip, position))) {
+                            trip = earlier;
+                            boardPosition = position;
+                            boardStation = station;
+                        }
+                    }
+                }
+            }
+        }
+
+        final boolean[] scanned = marked;
+        marked = markedNext;
+        markedNext = scanned;
+    }
+
+    private void relaxWalks(final int round, final boolean[] isDestination) {
+        int numberWalkFrom = 0;
+        for (int station = 0; station < marked.length; station++) {
+            // no need to walk on once at a destination
+            if (marked[station] && canChange[round][station] && !isDestination[station]) {
+                walkFrom[numberWalkFrom++] = station;
+            }
+        }
+        for (int w = 0; w < numberWalkFrom; w++) {
+            final int from = walkFrom[w];
+            final int[] targets = direction.walkStations(index, from);
+            final int[] minutes = direction.walkMinutes(index, from);
+            for (int i = 0; i < targets.length; i++) {
+                final int target = targets[i];
+                final int arrival = arrivals[round][from] + minutes[i];
+                if (!closed[target] && arrival < best[target]) {
+                    arrivals[round][target] = arrival;
+                    best[target] = arrival;
+                    kinds[round][target] = Kind.Walk;
+                    parentStation[round][target] = from;
+                    canChange[round][target] = true;
+                    updatedFor[round][target] = departureIndex;
+                    marked[target] = true;
+                }
+            }
+        }
+    }
+
+    private List<Legs> extract(final int[] destinations) {
+        final List<Legs> results = new ArrayList<>();
+        int bestSoFar = UNREACHED;
+        for (int round = 1; round <= maxRounds; round++) {
+            int bestStation = -1;
+            for (final int destination : destinations) {
+                if (arrivals[round][destination] < bestSoFar) {
+                    bestSoFar = arrivals[round][destination];
+                    bestStation = destination;
+                }
+            }
+            // labels kept from a later departure in a profile search have already been returned
+            if (bestStation >= 0 && updatedFor[round][bestStation] == departureIndex) {
+                results.add(reconstruct(round, bestStation));
+            }
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Found " + results.size() + " journeys");
+        }
+        return results;
+    }
+
+    private Legs reconstruct(final int finalRound, final int destination) {
+        final List<Leg> legs = new ArrayList<>();
+        int round = finalRound;
+        int station = destination;
+        while (kinds[round][station] != Kind.Start) {
+            final int from = parentStation[round][station];
+            switch (kinds[round][station]) {
+                case Walk -> legs.add(direction.walk(from, station, arrivals[round][from], arrivals[round][station]));
+                case Vehicle -> {
+                    final int pattern = parentPattern[round][station];
+                    legs.add(direction.vehicle(index.getPattern(pattern), pattern, parentTrip[round][station], from, station,
+                            parentBoardPosition[round][station], parentAlightPosition[round][station]));
+                    round = round - 1;
+                }
+                default -> throw new RuntimeException("Unexpected label " + kinds[round][station] + " for " +
+                        index.getStation(station).getId() + " in round " + round);
+            }
+            station = from;
+        }
+        return new Legs(direction.inTravelOrder(legs));
+    }
+
+    record Leg(int from, int to, int depart, int arrive, int pattern, int trip, int boardPosition, int alightPosition) {
+        static Leg walk(int from, int to, int depart, int arrive) {
+            return new Leg(from, to, depart, arrive, -1, -1, -1, -1);
+        }
+
+        static Leg vehicle(int from, int to, int depart, int arrive, int pattern, int trip, int boardPosition, int alightPosition) {
+            return new Leg(from, to, depart, arrive, pattern, trip, boardPosition, alightPosition);
+        }
+
+        boolean isWalk() {
+            return pattern < 0;
+        }
+    }
+
+    record Legs(List<Leg> legs) {
+        int depart() {
+            return legs.getFirst().depart();
+        }
+
+        int arrive() {
+            return legs.getLast().arrive();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.tramchester.graph.search.raptor;
+
+import com.netflix.governator.guice.lazy.LazySingleton;
+import com.tramchester.config.TramchesterConfig;
+import com.tramchester.domain.Journey;
+import com.tramchester.domain.JourneyRequest;
+import com.tramchester.domain.LocationCollection;
+import com.tramchester.domain.Platform;
+import com.tramchester.domain.closures.ClosedStation;
+import com.tramchester.domain.collections.Running;
+import com.tramchester.domain.input.StopCall;
+import com.tramchester.domain.input.Trip;
+import com.tramchester.domain.places.Location;
+import com.tramchester.domain.places.Station;
+import com.tramchester.domain.places.StationWalk;
+import com.tramchester.domain.presentation.TransportStage;
+import com.tramchester.domain.time.TimeRange;
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.domain.time.TramTime;
+import com.tramchester.domain.transportStages.ConnectingStage;
+import com.tramchester.domain.transportStages.VehicleStage;
+import com.tramchester.graph.core.GraphNode;
+import com.tramchester.graph.core.GraphTransaction;
+import com.tramchester.graph.search.RouteCalculatorArriveBy;
+import com.tramchester.graph.search.TramRouteCalculator;
+import com.tramchester.repository.ClosedStationsRepository;
+import com.tramchester.repository.RunningRoutesAndServices;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/***
+ * Journey planning directly on the timetable using a round based (RAPTOR) search over RaptorIndex, rather than
+ * traversing the graph. Station to station only, journeys with a walk at the start or end are passed on to the graph
+ * based calculator. Selected per request or by config, see JourneyRequest useRaptor
+ * A single profile search covers the same span of departures the graph search would make using separate query times,
+ * see CreateQueryTimes. Arrive by queries run the same profile search back from the destination, see
+ * RaptorSearch.Direction, rather than estimating a departure time and then searching forwards.
+ */
+@LazySingleton
+public class RouteCalculatorRaptor implements TramRouteCalculator {
+    private static final Logger logger = LoggerFactory.getLogger(RouteCalculatorRaptor.class);
+
+    private final RaptorIndex raptorIndex;
+    private final TramchesterConfig config;
+    private final ClosedStationsRepository closedStationsRepository;
+    private final RunningRoutesAndServices runningRoutesAndServices;
+    private final TramRouteCalculator graphCalculator;
+    private final RouteCalculatorArriveBy graphArriveByCalculator;
+
+    @Inject
+    public RouteCalculatorRaptor(RaptorIndex raptorIndex, TramchesterConfig config, ClosedStationsRepository closedStationsRepository,
+                                 RunningRoutesAndServices runningRoutesAndServices, TramRouteCalculator graphCalculator,
+                                 RouteCalculatorArriveBy graphArriveByCalculator) {
+        this.raptorIndex = raptorIndex;
+        this.config = config;
+        this.closedStationsRepository = closedStationsRepository;
+        this.runningRoutesAndServices = runningRoutesAndServices;
+        this.graphCalculator = graphCalculator;
+        this.graphArriveByCalculator = graphArriveByCalculator;
+    }
+
+    @Override
+    public Stream<Journey> calculateRoute(final GraphTransaction txn, final Location<?> start, final Location<?> destination,
+                                          final JourneyRequest journeyRequest, final Running running) {
+        final RaptorIndex.Index index = raptorIndex.get();
+
+        final int[] starts = stationIndexesFor(index, start);
+        final int[] destinations = stationIndexesFor(index, destination);
+        if (starts.length == 0 || destinations.length == 0) {
+            logger.warn("Unable to find stations in index for " + start.getId() + " or " + destination.getId() +
+                    ", using graph search");
+            return graphCalculator.calculateRoute(txn, start, destination, journeyRequest, running);
+        }
+
+        final TramDuration maxInitialWait = TramchesterConfig.getMaxInitialWaitFor(start, config);
+        final TimeRange timeRange = journeyRequest.getJourneyTimeRange(maxInitialWait);
+        final boolean[] closed = getClosed(index, journeyRequest, timeRange);
+
+        final TramTime queryTime = journeyRequest.getOriginalTime();
+        final int queryMinutes = RaptorIndex.toMinutes(queryTime);
+        final int spanOfQueryTimes = (config.getNumberQueries() - 1) * config.getQueryInterval();
+        final int latestFirstBoarding = queryMinutes + spanOfQueryTimes + (int) maxInitialWait.toMinutes();
+        final int maxDuration = (int) journeyRequest.getMaxJourneyDuration().toMinutes();
+
+        final RaptorSearch search = new RaptorSearch(RaptorSearch.Direction.Forward, index,
+                runningRoutesAndServices.getFor(journeyRequest), journeyRequest.getRequestedModes(), closed,
+                journeyRequest.getMaxChanges().get());
+
+        final List<RaptorSearch.Legs> results = search.profile(starts, destinations, queryMinutes, latestFirstBoarding,
+                maxDuration, running);
+
+        final List<RaptorSearch.Legs> found = results.stream().
+                distinct().
+                sorted(Comparator.comparingInt(RaptorSearch.Legs::depart).thenComparingInt(RaptorSearch.Legs::arrive)).
+                limit(journeyRequest.getMaxNumberOfJourneys()).
+                toList();
+
+        logger.info("Found " + found.size() + " journeys from " + start.getId() + " to " + destination.getId() +
+                " for " + journeyRequest);
+
+        final int requestedChanges = journeyRequest.getMaxChanges().get();
+        final List<Journey> journeys = new ArrayList<>(found.size());
+        for (int i = 0; i < found.size(); i++) {
+            journeys.add(createJourney(index, found.get(i), queryTime, requestedChanges, i));
+        }
+        journeys.sort(Comparator.comparing(Journey::getArrivalTime));
+        return journeys.stream();
+    }
+
+    /***
+     * Journeys leaving as late as possible while arriving by the query time, from one profile search back from the
+     * destination over arrivals between the earliest possible departure and the query time
+     */
+    public Stream<Journey> calculateRouteArriveBy(final GraphTransaction txn, final Location<?> start, final Location<?> destination,
+                                                  final JourneyRequest journeyRequest, final Running running) {
+        final RaptorIndex.Index index = raptorIndex.get();
+
+        final int[] origins = stationIndexesFor(index, start);
+        final int[] destinations = stationIndexesFor(index, destination);
+        if (origins.length == 0 || destinations.length == 0) {
+            logger.warn("Unable to find stations in index for " + start.getId() + " or " + destination.getId() +
+                    ", using graph search");
+            return graphArriveByCalculator.calculateRoute(txn, start, destination, journeyRequest, running);
+        }
+
+        final TramTime queryTime = journeyRequest.getOriginalTime();
+        final int arriveBy = RaptorIndex.toMinutes(queryTime);
+        final int maxDuration = (int) journeyRequest.getMaxJourneyDuration().toMinutes();
+        final int earliestDepart = Math.max(0, arriveBy - maxDuration);
+        final TimeRange timeRange = TimeRange.of(RaptorIndex.toTramTime(earliestDepart), queryTime);
+        final boolean[] closed = getClosed(index, journeyRequest, timeRange);
+
+        final RaptorSearch search = new RaptorSearch(RaptorSearch.Direction.Reverse, index,
+                runningRoutesAndServices.getFor(journeyRequest), journeyRequest.getRequestedModes(), closed,
+                journeyRequest.getMaxChanges().get());
+
+        final List<RaptorSearch.Legs> results = search.profile(origins, destinations, earliestDepart, arriveBy,
+                maxDuration, running);
+
+        final List<RaptorSearch.Legs> found = results.stream().
+                distinct().
+                sorted(Comparator.comparingInt(RaptorSearch.Legs::depart).reversed().
+                        thenComparingInt(RaptorSearch.Legs::arrive)).
+                limit(journeyRequest.getMaxNumberOfJourneys()).
+                toList();
+
+        logger.info("Found " + found.size() + " journeys from " + start.getId() + " to " + destination.getId() +
+                " arriving by " + queryTime + " for " + journeyRequest);
+
+        final int requestedChanges = journeyRequest.getMaxChanges().get();
+        final List<Journey> journeys = new ArrayList<>(found.size());
+        for (int i = 0; i < found.size(); i++) {
+            journeys.add(createJourney(index, found.get(i), queryTime, requestedChanges, i));
+        }
+        journeys.sort(Comparator.comparing(Journey::getArrivalTime).reversed());
+        return journeys.stream();
+    }
+
+    @Override
+    public Stream<Journey> calculateRouteWalkAtEnd(final GraphTransaction txn, final Location<?> start, final GraphNode destination,
+                                                   final LocationCollection destStations, final JourneyRequest journeyRequest,
+                                                   final int possibleMinChanges, final Running running) {
+        return graphCalculator.calculateRouteWalkAtEnd(txn, start, destination, destStations, journeyRequest, possibleMinChanges, running);
+    }
+
+    @Override
+    public Stream<Journey> calculateRouteWalkAtStart(final GraphTransaction txn, final Set<StationWalk> stationWalks,
+                                                     final GraphNode startOfWalkNode, final Location<?> destination,
+                                                     final JourneyRequest journeyRequest, final int possibleMinChanges,
+                                                     final Running running) {
+        return graphCalculator.calculateRouteWalkAtStart(txn, stationWalks, startOfWalkNode, destination, journeyRequest,
+                possibleMinChanges, running);
+    }
+
+    @Override
+    public Stream<Journey> calculateRouteWalkAtStartAndEnd(final GraphTransaction txn, final Set<StationWalk> stationWalks,
+                                                           final GraphNode startNode, final GraphNode endNode,
+                                                           final LocationCollection destinationStations,
+                                                           final JourneyRequest journeyRequest, final int possibleMinChanges,
+                                                           final Running running) {
+        return graphCalculator.calculateRouteWalkAtStartAndEnd(txn, stationWalks, startNode, endNode, destinationStations,
+                journeyRequest, possibleMinChanges, running);
+    }
+
+    private int[] stationIndexesFor(final RaptorIndex.Index index, final Location<?> location) {
+        final Stream<Station> stations = switch (location.getLocationType()) {
+            case Station -> Stream.of((Station) location);
+            case StationGroup -> location.getAllContained().stream();
+            case Platform -> Stream.of(((Platform) location).getStation());
+            case Postcode, MyLocation -> Stream.empty();
+        };
+        return stations.
+                filter(station -> index.hasStation(station.getId())).
+                mapToInt(station -> index.indexOf(station.getId())).
+                toArray();
+    }
+
+    private boolean[] getClosed(final RaptorIndex.Index index, final JourneyRequest journeyRequest, final TimeRange timeRange) {
+        final boolean[] closed = new boolean[index.numberOfStations()];
+        for (final ClosedStation closedStation : closedStationsRepository.getAnyWithClosure(journeyRequest.getDate())) {
+            final Station station = closedStation.getStation();
+            if (index.hasStation(station.getId()) &&
+                    closedStationsRepository.isClosed(station, journeyRequest.getDate(), timeRange)) {
+                closed[index.indexOf(station.getId())] = true;
+            }
+        }
+        return closed;
+    }
+
+    private Journey createJourney(final RaptorIndex.Index index, final RaptorSearch.Legs legs, final TramTime queryTime,
+                                  final int requestedChanges, final int journeyIndex) {
+        final List<TransportStage<?, ?>> stages = new ArrayList<>();
+        final List<Location<?>> path = new ArrayList<>();
+
+        path.add(index.getStation(legs.legs().getFirst().from()));
+        for (final RaptorSearch.Leg leg : legs.legs()) {
+            final Station from = index.getStation(leg.from());
+            final Station to = index.getStation(leg.to());
+            final TramTime depart = RaptorIndex.toTramTime(leg.depart());
+            final TramDuration cost = TramDuration.ofMinutes(leg.arrive() - leg.depart());
+            if (leg.isWalk()) {
+                stages.add(new ConnectingStage<>(from, to, cost, depart));
+            } else {
+                final RaptorIndex.Pattern pattern = index.getPattern(leg.pattern());
+                final Trip trip = pattern.getTrip(leg.trip());
+                final List<Integer> passed = new ArrayList<>();
+                for (int position = leg.boardPosition() + 1; position < leg.alightPosition(); position++) {
+                    final StopCall call = pattern.getCall(leg.trip(), position);
+                    passed.add(call.getGetSequenceNumber());
+                    path.add(call.getStation());
+                }
+                final VehicleStage vehicleStage = new VehicleStage(from, trip.getRoute(), trip.getTransportMode(), trip,
+                        depart, to, passed);
+                vehicleStage.setCost(cost);
+                final StopCall boardingCall = pattern.getCall(leg.trip(), leg.boardPosition());
+                if (from.hasPlatforms()) {
+                    vehicleStage.setBoardingPlatform(boardingCall.getPlatform());
+                }
+                stages.add(vehicleStage);
+            }
+            path.add(to);
+        }
+
+        final TramTime departTime = stages.getFirst().getFirstDepartureTime();
+        final TramTime arrivalTime = RaptorIndex.toTramTime(legs.arrive());
+        return new Journey(departTime, queryTime, arrivalTime, stages, path, requestedChanges, journeyIndex);
+    }
+}
@@ -1,6 +1,7 @@
 package com.tramchester.graph.search.routes;
 
 import com.netflix.governator.guice.lazy.LazySingleton;
+import com.tramchester.caching.BinaryCachesData;
 import com.tramchester.caching.ComponentThatCaches;
 import com.tramchester.caching.DataCache;
 import com.tramchester.caching.FileDataCache;
@@ -21,6 +22,9 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
@@ -81,6 +85,8 @@ public class RouteCostMatrix extends ComponentThatCaches<CostsPerDegreeData, Rou
             createCostMatrix(routeDateAndDayOverlap);
         } else {
             if (!super.loadFromCache(costsPerDegree)) {
+                // may be partly loaded from an invalid cache file
+                costsPerDegree.clear();
                 createCostMatrix(routeDateAndDayOverlap);
             }
         }
@@ -139,27 +145,22 @@ public class RouteCostMatrix extends ComponentThatCaches<CostsPerDegreeData, Rou
     // create a bitmask for route->route changes that are possible on a given date and transport mode
     public IndexedBitSet createOverlapMatrixFor(final TramDate date, final ImmutableEnumSet<TransportMode> requestedModes) {
 
-        final Set<Short> availableOnDate = new HashSet<>();
+        final SimpleBitmap availableOnDate = new BitmapAsLongArray(numRoutes);
         for (short index = 0; index < numRoutes; index++) {
             final Route route = routeIndex.getRouteFor(index);
             if (route.isAvailableOn(date) && requestedModes.contains(route.getTransportMode())) {
-                availableOnDate.add(index);
+                availableOnDate.set(index);
             }
         }
 
-        final IndexedBitSet result = IndexedBitSet.Square(numRoutes);
+        // every available route overlaps with every other, so the row for each available route is the same
+        final long numberAvailable = availableOnDate.cardinality();
+        final IndexedBitSet result = IndexedBitSet.Square(numRoutes, numberAvailable * numberAvailable);
         for (short firstRouteIndex = 0; firstRouteIndex < numRoutes; firstRouteIndex++) {
-            final SimpleBitmap row = SimpleBitmap.create(numRoutes);
-            if (availableOnDate.contains(firstRouteIndex)) {
-                for (short secondRouteIndex = 0; secondRouteIndex < numRoutes; secondRouteIndex++) {
-                    if (availableOnDate.contains(secondRouteIndex)) {
-                        row.set(secondRouteIndex);
-                    }
-                }
+            if (availableOnDate.get(firstRouteIndex)) {
+                result.insert(firstRouteIndex, availableOnDate);
             }
-            result.insert(firstRouteIndex, row);
         }
-        availableOnDate.clear();
 
         if (logger.isDebugEnabled()) {
             logger.debug(format("created overlap matrix for %s and modes %s with %s entries", date, requestedModes, result.numberOfBitsSet()));
@@ -203,9 +204,17 @@ public class RouteCostMatrix extends ComponentThatCaches<CostsPerDegreeData, Rou
 
         logger.info("Find costs between " + size + " routes (" + fullyConnected + ")");
 
+        // dense copies for the products, IndexedBitSet per degree is still what is kept and cached
+        final DenseBitMatrix dateOverlaps = new DenseBitMatrix(numRoutes, numRoutes);
+        for (short route = 0; route < numRoutes; route++) {
+            dateOverlaps.setRow(route, routeDateAndDayOverlap.overlapsFor(route).getBitSet());
+        }
+        DenseBitMatrix current = DenseBitMatrix.from(costsPerDegree.getDegree(1), numRoutes, numRoutes);
+        final DenseBitMatrix existing = DenseBitMatrix.from(costsPerDegree.getDegree(1), numRoutes, numRoutes);
+
         long previousTotal = 0;
         for (byte currentDegree = 1; currentDegree <= MAX_DEPTH; currentDegree++) {
-            addConnectionsFor(routeDateAndDayOverlap, currentDegree);
+            current = addConnectionsFor(current, dateOverlaps, existing, currentDegree);
             final long currentTotal = numberOfBitsSet();
             logger.info("Total number of connections " + currentTotal);
             if (currentTotal >= fullyConnected) {
@@ -231,38 +240,30 @@ public class RouteCostMatrix extends ComponentThatCaches<CostsPerDegreeData, Rou
     // based on the previous degree and connections, add further connections at current degree which are
     // enabled by the previous degree. For example if degree 1 has: R1->R2 at IntA and R2->R3 at IntB then
     // at degree 2 we have: R1->R3
-    // implementation uses a bitmap to do this computation quickly row by row
-    private void addConnectionsFor(final RouteDateAndDayOverlap routeDateAndDayOverlap, final byte currentDegree) {
+    // implementation is a boolean matrix product of the current degree with itself, a word at a time and in parallel
+    // over blocks of rows, see DenseBitMatrix
+    private DenseBitMatrix addConnectionsFor(final DenseBitMatrix currentMatrix, final DenseBitMatrix dateOverlaps,
+                                             final DenseBitMatrix existing, final byte currentDegree) {
         final Instant startTime = Instant.now();
         final int nextDegree = currentDegree + 1;
 
-        final ImmutableIndexedBitSet currentMatrix = costsPerDegree.getDegree(currentDegree);
         final IndexedBitSet newMatrix = costsPerDegree.getDegreeMutable(nextDegree);
 
-        for (short route = 0; route < numRoutes; route++) {
-            final SimpleBitmap resultForForRoute = SimpleBitmap.create(numRoutes);
-            final SimpleImmutableBitmap currentConnectionsForRoute = currentMatrix.getBitSetForRow(route);
-
-            currentConnectionsForRoute.getBitIndexes().forEach(connectedRoute -> {
-                // if current route is connected to another route, then for next degree include that other route's connections
-                final SimpleImmutableBitmap otherRoutesConnections = currentMatrix.getBitSetForRow(connectedRoute);
-                //otherRoutesConnections.applyOrTo(resultForForRoute);
-                resultForForRoute.or(otherRoutesConnections);
-            });
-
-            final RouteDateAndDayOverlap.RouteOverlaps dateOverlapMask = routeDateAndDayOverlap.overlapsFor(route);  // only those routes whose dates overlap
-            resultForForRoute.and(dateOverlapMask.getBitSet());
-
-            final SimpleImmutableBitmap allExistingConnectionsForRoute = getExistingBitSetsForRoute(route, currentDegree);
+        // if a route is connected to another route, then for next degree include that other route's connections
+        final DenseBitMatrix result = currentMatrix.multiply(currentMatrix);
+        // only those routes whose dates overlap
+        result.and(dateOverlaps);
+        // don't include any current connections for a route, existing holds all degrees up to current
+        result.andNot(existing);
+        existing.or(result);
 
-            resultForForRoute.andNot(allExistingConnectionsForRoute);
-            //allExistingConnectionsForRoute.applyAndNotTo(resultForForRoute);  // don't include any current connections for this route
-
-            newMatrix.insert(route, resultForForRoute);
+        for (short route = 0; route < numRoutes; route++) {
+            newMatrix.insert(route, result.getRowAsBitmap(route));
         }
 
         final long took = Duration.between(startTime, Instant.now()).toMillis();
         logger.info("Added " + newMatrix.numberOfBitsSet() + " connections for  degree " + nextDegree + " in " + took + " ms");
+        return result;
     }
 
     public SimpleImmutableBitmap getExistingBitSetsForRoute(final int routeIndex, final int startingDegree) {
@@ -294,7 +295,7 @@ public class RouteCostMatrix extends ComponentThatCaches<CostsPerDegreeData, Rou
     /***
      * encapsulate cost per degree to facilitate caching
      */
-    public class CostsPerDegree implements FileDataCache.CachesData<CostsPerDegreeData> {
+    public class CostsPerDegree implements BinaryCachesData<CostsPerDegreeData> {
 
         private final IndexedBitSet[] bitSets;
 
@@ -355,7 +356,38 @@ public class RouteCostMatrix extends ComponentThatCaches<CostsPerDegreeData, Rou
 
         @Override
         public String getFilename() {
-            return "costs_per_degree.csv";
+            return "costs_per_degree.bin";
+        }
+
+        @Override
+        public void writeTo(final DataOutput output) throws IOException {
+            output.writeInt(numRoutes);
+            output.writeInt(MAX_DEPTH);
+            for (int depth = 0; depth < MAX_DEPTH; depth++) {
+                bitSets[depth].writeTo(output);
+            }
+        }
+
+        @Override
+        public void readFrom(final ByteBuffer payload) throws FileDataCache.CacheLoadException {
+            final int savedNumRoutes = payload.getInt();
+            final int savedMaxDepth = payload.getInt();
+            if (savedNumRoutes != numRoutes || savedMaxDepth != MAX_DEPTH) {
+                final String message = format("Mismatch on cached routes %s and depth %s, expected %s and %s",
+                        savedNumRoutes, savedMaxDepth, numRoutes, MAX_DEPTH);
+                logger.error(message);
+                throw new FileDataCache.CacheLoadException(message);
+            }
+            try {
+                for (int depth = 0; depth < MAX_DEPTH; depth++) {
+                    bitSets[depth].readFrom(payload);
+                }
+            } catch (IOException exception) {
+                final String message = "Unable to read cached costs per degree";
+                logger.error(message, exception);
+                throw new FileDataCache.CacheLoadException(message);
+            }
+            logger.info("Loaded " + numberOfBitsSet() + " bits from cache");
         }
 
         @Override
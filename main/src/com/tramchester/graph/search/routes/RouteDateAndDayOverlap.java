@@ -40,7 +40,6 @@ public class RouteDateAndDayOverlap {
 
         for (short i = 0; i < numberOfRoutes; i++) {
             final Route from = index.getRouteFor(i);
-            final SimpleBitmap resultsForRoute = SimpleBitmap.create(numberOfRoutes);
             final int fromIndex = i;
             // thread safety: split into list and then application of list to bitset
             final List<Integer> toSet = IntStream.range(0, numberOfRoutes).
@@ -48,6 +47,8 @@ public class RouteDateAndDayOverlap {
                             filter(toIndex -> (fromIndex == toIndex) || from.isDateOverlap(index.getRouteFor((short) toIndex))).
                     boxed().toList();
             numberSet = numberSet + toSet.size();
+            // most routes overlap with most others, so usually dense
+            final SimpleBitmap resultsForRoute = SimpleBitmap.create(numberOfRoutes, toSet.size());
             toSet.forEach(resultsForRoute::set);
             overlapMasks[i] = resultsForRoute;
         }
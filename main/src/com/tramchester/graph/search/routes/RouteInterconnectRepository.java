@@ -1,6 +1,7 @@
 package com.tramchester.graph.search.routes;
 
 import com.netflix.governator.guice.lazy.LazySingleton;
+import com.tramchester.caching.BinaryCachesData;
 import com.tramchester.caching.ComponentThatCaches;
 import com.tramchester.caching.DataCache;
 import com.tramchester.caching.FileDataCache;
@@ -22,6 +23,9 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.text.MessageFormat;
 import java.time.Duration;
 import java.time.Instant;
@@ -79,9 +83,10 @@ public class RouteInterconnectRepository extends ComponentThatCaches<RoutePairIn
             createInterconnects(routeDateAndDayOverlap);
         }
         else {
-            if (cachePresent(interconnectsForDepth)) {
-                super.loadFromCache(interconnectsForDepth);
-            } else {
+            if (!super.loadFromCache(interconnectsForDepth)) {
+                // may be partly loaded from an invalid cache file
+                interconnectsForDepth.clear();
+                interconnectsForDepth.start(pairFactory, numRoutes);
                 createInterconnects(routeDateAndDayOverlap);
             }
         }
@@ -300,7 +305,7 @@ public class RouteInterconnectRepository extends ComponentThatCaches<RoutePairIn
         return new QueryPathsWithDepth.BothOf(pathA, pathB);
     }
 
-    public static class RouteInterconnects implements FileDataCache.CachesData<RoutePairInterconnectsData> {
+    public static class RouteInterconnects implements BinaryCachesData<RoutePairInterconnectsData> {
         private final List<RoutePairInterconnects> interconnectsForDepth;
         private final int maxDepth;
 
@@ -339,7 +344,35 @@ public class RouteInterconnectRepository extends ComponentThatCaches<RoutePairIn
 
         @Override
         public String getFilename() {
-            return "route_interconnects.json";
+            return "route_interconnects.bin";
+        }
+
+        @Override
+        public void writeTo(final DataOutput output) throws IOException {
+            output.writeInt(maxDepth);
+            for (int depth = 0; depth < maxDepth; depth++) {
+                interconnectsForDepth.get(depth).writeTo(output);
+            }
+        }
+
+        @Override
+        public void readFrom(final ByteBuffer payload) throws FileDataCache.CacheLoadException {
+            final int savedMaxDepth = payload.getInt();
+            if (savedMaxDepth != maxDepth) {
+                final String msg = "Mismatch on cached depth " + savedMaxDepth + ", expected " + maxDepth;
+                logger.error(msg);
+                throw new FileDataCache.CacheLoadException(msg);
+            }
+            try {
+                for (int depth = 0; depth < maxDepth; depth++) {
+                    interconnectsForDepth.get(depth).readFrom(payload);
+                }
+            }
+            catch (Exception e) {
+                String msg = "Load from binary cache failed";
+                logger.error(msg, e);
+                throw new FileDataCache.CacheLoadException(msg);
+            }
         }
 
         @Override
@@ -454,6 +487,55 @@ public class RouteInterconnectRepository extends ComponentThatCaches<RoutePairIn
             return new RoutePairInterconnectsData(depth, firstIndex, secondIndex, bitSet);
         }
 
+        /***
+         * number of routes, number of pairs, then for each pair the position and the words of its bitset
+         */
+        public void writeTo(final DataOutput output) throws IOException {
+            output.writeInt(numRoutes);
+            final List<Map.Entry<Integer, BitSet>> nonEmpty = bitSetForIndex.entrySet().stream().
+                    filter(entry -> !entry.getValue().isEmpty()).
+                    toList();
+            output.writeInt(nonEmpty.size());
+            for (final Map.Entry<Integer, BitSet> entry : nonEmpty) {
+                output.writeInt(entry.getKey());
+                final long[] words = entry.getValue().toLongArray();
+                output.writeInt(words.length);
+                for (final long word : words) {
+                    output.writeLong(word);
+                }
+            }
+        }
+
+        public void readFrom(final ByteBuffer payload) throws IOException {
+            final int savedNumRoutes = payload.getInt();
+            if (savedNumRoutes != numRoutes) {
+                throw new IOException("Mismatch on number of routes " + savedNumRoutes + ", expected " + numRoutes);
+            }
+            final int numberOfPairs = payload.getInt();
+            if (numberOfPairs < 0 || numberOfPairs > numRoutes * numRoutes) {
+                throw new IOException("Invalid number of pairs " + numberOfPairs + " for " + numRoutes + " routes");
+            }
+            for (int i = 0; i < numberOfPairs; i++) {
+                final int position = payload.getInt();
+                if (position < 0 || position >= numRoutes * numRoutes) {
+                    throw new IOException("Invalid position " + position + " for " + numRoutes + " routes");
+                }
+                final int numberOfWords = payload.getInt();
+                if (numberOfWords < 0 || numberOfWords > payload.remaining() / Long.BYTES) {
+                    throw new IOException("Invalid number of words " + numberOfWords + " at position " + position +
+                            ", remaining " + payload.remaining() + " bytes");
+                }
+                final long[] words = new long[numberOfWords];
+                for (int word = 0; word < words.length; word++) {
+                    words[word] = payload.getLong();
+                }
+                final short routeA = (short) (position / numRoutes);
+                final short routeB = (short) (position % numRoutes);
+                haveBitset[routeA][routeB] = true;
+                bitSetForIndex.put(position, BitSet.valueOf(words));
+            }
+        }
+
         public void insert(final RoutePairInterconnectsData item) {
             final short routeA = item.getRouteA();
             final short routeB = item.getRouteB();
@@ -0,0 +1,114 @@
+package com.tramchester.graph.search.routes;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.netflix.governator.guice.lazy.LazySingleton;
+import com.tramchester.config.TramchesterConfig;
+import com.tramchester.domain.collections.ImmutableEnumSet;
+import com.tramchester.domain.collections.ImmutableIndexedBitSet;
+import com.tramchester.domain.dates.TramDate;
+import com.tramchester.domain.reference.TransportMode;
+import com.tramchester.domain.time.ProvidesNow;
+import com.tramchester.metrics.CacheMetrics;
+import com.tramchester.repository.ReportsCacheStats;
+import jakarta.inject.Inject;
+import org.apache.commons.lang3.tuple.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.List;
+
+/***
+ * Bounded cache of RouteCostMatrix.createOverlapMatrixFor by date and requested modes, so number of changes
+ * calculations stop building a routes x routes bitset per query. Matrices for today and tomorrow, for all configured
+ * modes, are built at start and again when the day rolls over. Returned matrices are shared so only exposed as immutable.
+ */
+@LazySingleton
+public class RouteOverlapMatrices implements ReportsCacheStats {
+    private static final Logger logger = LoggerFactory.getLogger(RouteOverlapMatrices.class);
+
+    // a few dates for a few combinations of modes, each entry is a routes x routes bitset
+    private static final int MAX_ENTRIES = 16;
+
+    private final RouteCostMatrix routeCostMatrix;
+    private final TramchesterConfig config;
+    private final ProvidesNow providesNow;
+    private final CacheMetrics cacheMetrics;
+
+    private Cache<Key, ImmutableIndexedBitSet> matrices;
+    private volatile TramDate currentDay;
+
+    @Inject
+    public RouteOverlapMatrices(RouteCostMatrix routeCostMatrix, TramchesterConfig config, ProvidesNow providesNow,
+                                CacheMetrics cacheMetrics) {
+        this.routeCostMatrix = routeCostMatrix;
+        this.config = config;
+        this.providesNow = providesNow;
+        this.cacheMetrics = cacheMetrics;
+    }
+
+    @PostConstruct
+    public void start() {
+        logger.info("starting");
+        matrices = Caffeine.newBuilder().
+                maximumSize(MAX_ENTRIES).
+                recordStats().build();
+        currentDay = providesNow.getTramDate();
+        createFor(currentDay);
+        cacheMetrics.register(this);
+        logger.info("started");
+    }
+
+    @PreDestroy
+    public void stop() {
+        logger.info("stopping");
+        matrices.invalidateAll();
+        logger.info("stopped");
+    }
+
+    public ImmutableIndexedBitSet getFor(final TramDate date, final ImmutableEnumSet<TransportMode> modes) {
+        rollOverIfDayChanged();
+        return matrices.get(new Key(date, modes), key -> routeCostMatrix.createOverlapMatrixFor(key.date, key.modes));
+    }
+
+    private void rollOverIfDayChanged() {
+        final TramDate today = providesNow.getTramDate();
+        if (today.equals(currentDay)) {
+            return;
+        }
+        synchronized (this) {
+            if (today.equals(currentDay)) {
+                return;
+            }
+            matrices.asMap().keySet().removeIf(key -> key.date.isBefore(today));
+            logger.info("Day changed from " + currentDay + " to " + today);
+            currentDay = today;
+            createFor(today);
+        }
+    }
+
+    private void createFor(final TramDate today) {
+        final ImmutableEnumSet<TransportMode> modes = config.getTransportModesImmutable();
+        final TramDate tomorrow = today.plusDays(1);
+        matrices.get(new Key(today, modes), key -> routeCostMatrix.createOverlapMatrixFor(today, modes));
+        matrices.get(new Key(tomorrow, modes), key -> routeCostMatrix.createOverlapMatrixFor(tomorrow, modes));
+        logger.info("Created overlap matrices for " + today + " and " + tomorrow + " for modes " + modes);
+    }
+
+    public long size() {
+        return matrices.estimatedSize();
+    }
+
+    @Override
+    public List<Pair<String, CacheStats>> stats() {
+        return Collections.singletonList(Pair.of("routeOverlapMatrices", matrices.stats()));
+    }
+
+    private record Key(TramDate date, ImmutableEnumSet<TransportMode> modes) {
+
+    }
+}
@@ -12,12 +12,15 @@ import com.tramchester.domain.id.HasId;
 import com.tramchester.domain.id.IdFor;
 import com.tramchester.domain.places.InterchangeStation;
 import com.tramchester.domain.places.Location;
+import com.tramchester.domain.places.LocationId;
 import com.tramchester.domain.places.Station;
 import com.tramchester.domain.places.StationLocalityGroup;
 import com.tramchester.domain.reference.TransportMode;
 import com.tramchester.domain.time.TimeRange;
+import com.tramchester.domain.time.TramTime;
 import com.tramchester.graph.search.BetweenRoutesCostRepository;
 import com.tramchester.graph.search.LowestCostsForDestRoutes;
+import com.tramchester.metrics.CacheMetrics;
 import com.tramchester.repository.ClosedStationsRepository;
 import com.tramchester.repository.NeighboursRepository;
 import com.tramchester.repository.ReportsCacheStats;
@@ -33,51 +36,92 @@ import javax.annotation.PreDestroy;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static java.lang.String.format;
 
 @LazySingleton
-public class RouteToRouteCosts implements BetweenRoutesCostRepository {
+public class RouteToRouteCosts implements BetweenRoutesCostRepository, ReportsCacheStats {
     private static final Logger logger = LoggerFactory.getLogger(RouteToRouteCosts.class);
     private static final boolean DEBUG_ENABLED = logger.isDebugEnabled();
 
     public final static String INDEX_FILE = "route_index.json";
 
+    // popular origin/destination pairs for a few dates, values are small
+    private static final int MAX_MEMO_ENTRIES = 20000;
+
     private final NeighboursRepository neighboursRepository;
     private final StationAvailabilityRepository availabilityRepository;
     private final ClosedStationsRepository closedStationsRepository;
     private final RouteIndex index;
     private final RouteCostMatrix costs;
+    private final RouteOverlapMatrices overlapMatrices;
     private final RouteInterconnectRepository routeInterconnectRepository;
     private final RouteIndexPairFactory pairFactory;
+    private final CacheMetrics cacheMetrics;
+
+    private Cache<NumberOfChangesKey, Integer> numberOfChanges;
 
     @Inject
     public RouteToRouteCosts(NeighboursRepository neighboursRepository, StationAvailabilityRepository availabilityRepository,
                              ClosedStationsRepository closedStationsRepository, RouteIndex index, RouteCostMatrix costs,
-                             RouteInterconnectRepository routeInterconnectRepository,
-                             RouteIndexPairFactory pairFactory) {
+                             RouteOverlapMatrices overlapMatrices, RouteInterconnectRepository routeInterconnectRepository,
+                             RouteIndexPairFactory pairFactory, CacheMetrics cacheMetrics) {
         this.neighboursRepository = neighboursRepository;
         this.availabilityRepository = availabilityRepository;
         this.closedStationsRepository = closedStationsRepository;
         this.index = index;
         this.costs = costs;
+        this.overlapMatrices = overlapMatrices;
         this.routeInterconnectRepository = routeInterconnectRepository;
 
         this.pairFactory = pairFactory;
+        this.cacheMetrics = cacheMetrics;
     }
 
     @PostConstruct
     public void start() {
+        logger.info("starting");
+        numberOfChanges = Caffeine.newBuilder().
+                maximumSize(MAX_MEMO_ENTRIES).
+                recordStats().build();
+        cacheMetrics.register(this);
         logger.info("started");
     }
 
     @PreDestroy
     public void stop() {
+        logger.info("stopping");
+        numberOfChanges.invalidateAll();
         logger.info("stopped");
     }
 
+    @Override
+    public List<Pair<String, CacheStats>> stats() {
+        return Collections.singletonList(Pair.of("routeToRouteNumberOfChanges", numberOfChanges.stats()));
+    }
+
+    /***
+     * Number of changes only depends on the locations, date, time range and modes, so results are shared between
+     * queries, i.e. the same origin and destination requested many times during the peak or each box in a grid search.
+     * Each way of computing it, see Variant, gets its own entries as they can give different results for the same locations
+     * The exact time range is part of the key, so only queries with identical ranges share entries, i.e. repeats of the
+     * same query time, widening it to a bucket could change which stations and routes count as available.
+     */
+    private int memoised(final Variant variant, final Stream<Location<?>> starts, final Stream<Location<?>> destinations,
+                         final TramDate date, final TimeRange timeRange, final ImmutableEnumSet<TransportMode> modes,
+                         final Supplier<Integer> compute) {
+        final NumberOfChangesKey key = new NumberOfChangesKey(variant, idsFor(starts), idsFor(destinations), date,
+                timeRange.allDay(), timeRange.getStart(), timeRange.getEnd(), modes);
+        return numberOfChanges.get(key, unused -> compute.get());
+    }
+
+    private static Set<LocationId<?>> idsFor(final Stream<Location<?>> locations) {
+        return locations.<LocationId<?>>map(Location::getLocationId).collect(Collectors.toUnmodifiableSet());
+    }
+
     @NotNull
     private static StationAvailabilityFacade getAvailabilityFacade(final StationAvailabilityRepository availabilityRepository,
                                                                    final TramDate date, final TimeRange timeRange,
@@ -87,7 +131,7 @@ public class RouteToRouteCosts implements BetweenRoutesCostRepository {
 
     private int getNumberChangesFor(final RoutePair routePair, final TramDate date,
                                     final StationAvailabilityFacade changeStationOperating,
-                                    final IndexedBitSet dateAndModeOverlaps) {
+                                    final ImmutableIndexedBitSet dateAndModeOverlaps) {
         if (routePair.areSame()) {
             return 0;
         }
@@ -115,7 +159,7 @@ public class RouteToRouteCosts implements BetweenRoutesCostRepository {
     }
 
     private int getDepth(final RouteIndexPair routePair, final StationAvailabilityFacade changeStationOperating,
-                         final IndexedBitSet dateAndModeOverlaps) {
+                         final ImmutableIndexedBitSet dateAndModeOverlaps) {
 
         // need to account for route availability and modes when getting the depth
 
@@ -162,6 +206,13 @@ public class RouteToRouteCosts implements BetweenRoutesCostRepository {
     public int getPossibleMinChanges(final LocationSet<Station> starts, final LocationSet<Station> destinations,
                                      final TramDate date, final TimeRange timeRange,
                                      final ImmutableEnumSet<TransportMode> requestedModes) {
+        return memoised(Variant.SetsMinChanges, starts.locationStream(), destinations.locationStream(), date, timeRange,
+                requestedModes, () -> computePossibleMinChanges(starts, destinations, date, timeRange, requestedModes));
+    }
+
+    private int computePossibleMinChanges(final LocationSet<Station> starts, final LocationSet<Station> destinations,
+                                          final TramDate date, final TimeRange timeRange,
+                                          final ImmutableEnumSet<TransportMode> requestedModes) {
 
         if (neighboursRepository.areNeighbours(starts, destinations)) {
             logger.info("Found Neighbours for " + HasId.asIds(starts) + " and " + HasId.asIds(destinations));
@@ -199,7 +250,13 @@ public class RouteToRouteCosts implements BetweenRoutesCostRepository {
                                   final JourneyRequest journeyRequest, TimeRange timeRange) {
         final TramDate date = journeyRequest.getDate();
         final ImmutableEnumSet<TransportMode> requestedModes = journeyRequest.getRequestedModes();
+        return memoised(Variant.LocationToSet, Stream.of(start), destinations.locationStream(), date, timeRange,
+                requestedModes, () -> computeNumberOfChanges(start, destinations, date, timeRange, requestedModes));
+    }
 
+    private int computeNumberOfChanges(final Location<?> start, final LocationSet<Station> destinations,
+                                       final TramDate date, final TimeRange timeRange,
+                                       final ImmutableEnumSet<TransportMode> requestedModes) {
         final Set<Route> pickupRoutes = availabilityRepository.getPickupRoutesFor(start, date, timeRange, requestedModes);
         final Set<Route> dropoffRoutes = availabilityRepository.getDropoffRoutesFor(destinations, date, timeRange, requestedModes);
 
@@ -215,7 +272,13 @@ public class RouteToRouteCosts implements BetweenRoutesCostRepository {
                                   final JourneyRequest journeyRequest, TimeRange timeRange) {
         final TramDate date = journeyRequest.getDate();
         final ImmutableEnumSet<TransportMode> requestedModes = journeyRequest.getRequestedModes();
+        return memoised(Variant.SetToLocation, starts.locationStream(), Stream.of(destination), date, timeRange,
+                requestedModes, () -> computeNumberOfChanges(starts, destination, date, timeRange, requestedModes));
+    }
 
+    private int computeNumberOfChanges(final LocationSet<Station> starts, final Location<?> destination,
+                                       final TramDate date, final TimeRange timeRange,
+                                       final ImmutableEnumSet<TransportMode> requestedModes) {
         final Set<Route> pickupRoutes = availabilityRepository.getPickupRoutesFor(starts, date, timeRange, requestedModes);
         final Set<Route> dropoffRoutes = availabilityRepository.getDropoffRoutesFor(destination, date, timeRange, requestedModes);
 
@@ -228,6 +291,13 @@ public class RouteToRouteCosts implements BetweenRoutesCostRepository {
 
     private int getPossibleMinChanges(final Location<?> startLocation, final Location<?> destLocation,
                                       final ImmutableEnumSet<TransportMode> requestedModes, final TramDate date, final TimeRange timeRange) {
+        return memoised(Variant.LocationsMinChanges, Stream.of(startLocation), Stream.of(destLocation), date, timeRange,
+                requestedModes, () -> computePossibleMinChanges(startLocation, destLocation, requestedModes, date, timeRange));
+    }
+
+    private int computePossibleMinChanges(final Location<?> startLocation, final Location<?> destLocation,
+                                          final ImmutableEnumSet<TransportMode> requestedModes, final TramDate date,
+                                          final TimeRange timeRange) {
 
         // TODO requested modes is problematic when we have an interchange station that has multiple modes?
 
@@ -326,7 +396,7 @@ public class RouteToRouteCosts implements BetweenRoutesCostRepository {
                     HasId.asIds(startRoutes), HasId.asIds(destinationRoutes), date));
         }
 
-        final IndexedBitSet dateAndModeOverlaps = costs.createOverlapMatrixFor(date, requestedModes);
+        final ImmutableIndexedBitSet dateAndModeOverlaps = overlapMatrices.getFor(date, requestedModes);
 
         final Set<RoutePair> routePairs = getRoutePairs(startRoutes, destinationRoutes);
 
@@ -394,7 +464,7 @@ public class RouteToRouteCosts implements BetweenRoutesCostRepository {
         private final Set<Short> destinationIndexs;
         private final Map<Short, DateRange> destinationRouteDateRange;
         private final StationAvailabilityFacade changeStationOperating;
-        private final IndexedBitSet dateOverlaps;
+        private final ImmutableIndexedBitSet dateOverlaps;
 
         private final ConcurrentMap<Short, Integer> cache;
 
@@ -415,7 +485,7 @@ public class RouteToRouteCosts implements BetweenRoutesCostRepository {
             });
 
             changeStationOperating = getAvailabilityFacade(availabilityRepository, date, time, requestedModes);
-            dateOverlaps = ((RouteToRouteCosts) routeToRouteCosts).costs.createOverlapMatrixFor(date, requestedModes);
+            dateOverlaps = this.routeToRouteCosts.overlapMatrices.getFor(date, requestedModes);
 
             cache = new ConcurrentHashMap<>();
         }
@@ -534,4 +604,19 @@ public class RouteToRouteCosts implements BetweenRoutesCostRepository {
         }
     }
 
+    // which calculation a memoised number of changes came from, they differ on neighbours and closures
+    private enum Variant {
+        SetsMinChanges,
+        LocationsMinChanges,
+        LocationToSet,
+        SetToLocation
+    }
+
+    // start and end of the range are copied in, as TimeRange can be updated once the key is in the cache
+    private record NumberOfChangesKey(Variant variant, Set<LocationId<?>> starts, Set<LocationId<?>> destinations,
+                                      TramDate date, boolean allDay, TramTime start, TramTime end,
+                                      ImmutableEnumSet<TransportMode> modes) {
+
+    }
+
 }
@@ -0,0 +1,345 @@
+package com.tramchester.graph.search.routes;
+
+import com.netflix.governator.guice.lazy.LazySingleton;
+import com.tramchester.caching.ComponentThatCaches;
+import com.tramchester.caching.DataCache;
+import com.tramchester.caching.FileDataCache;
+import com.tramchester.config.TramchesterConfig;
+import com.tramchester.dataexport.HasDataSaver;
+import com.tramchester.dataimport.data.StationCostsData;
+import com.tramchester.domain.Service;
+import com.tramchester.domain.StationToStationConnection;
+import com.tramchester.domain.collections.ImmutableEnumSet;
+import com.tramchester.domain.dates.TramDate;
+import com.tramchester.domain.id.IdFor;
+import com.tramchester.domain.input.StopCall;
+import com.tramchester.domain.input.Trip;
+import com.tramchester.domain.places.Location;
+import com.tramchester.domain.places.LocationType;
+import com.tramchester.domain.places.Station;
+import com.tramchester.domain.reference.TransportMode;
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.domain.time.TramTime;
+import com.tramchester.graph.filters.GraphFilterActive;
+import com.tramchester.metrics.Timing;
+import com.tramchester.repository.NeighboursRepository;
+import com.tramchester.repository.StationRepository;
+import com.tramchester.repository.TripRepository;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.DayOfWeek;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.tramchester.domain.DataSourceID.openRailData;
+import static com.tramchester.domain.DataSourceID.tfgm;
+
+/***
+ * Least in vehicle cost in minutes between every pair of stations, per type of day, so cost estimates are an array
+ * read rather than a graph search. Built from consecutive stop calls of trips running on that type of day plus
+ * neighbour walks, so is a lower bound on the cost of a journey. Only enabled by config as size grows with the square
+ * of the number of stations, intended for tram and tram plus train.
+ */
+@LazySingleton
+public class StationCostMatrix extends ComponentThatCaches<StationCostsData, StationCostMatrix.Costs> {
+    private static final Logger logger = LoggerFactory.getLogger(StationCostMatrix.class);
+
+    // minutes held as chars
+    private static final char UNREACHABLE = Character.MAX_VALUE;
+
+    public enum DayType {
+        Weekday,
+        Saturday,
+        Sunday;
+
+        public static DayType of(final TramDate date) {
+            final DayOfWeek dayOfWeek = date.getDayOfWeek();
+            return switch (dayOfWeek) {
+                case SATURDAY -> Saturday;
+                case SUNDAY -> Sunday;
+                default -> Weekday;
+            };
+        }
+    }
+
+    private final TramchesterConfig config;
+    private final StationRepository stationRepository;
+    private final TripRepository tripRepository;
+    private final NeighboursRepository neighboursRepository;
+    private final GraphFilterActive graphFilter;
+
+    private final Map<IdFor<Station>, Integer> stationIndexes;
+    private final Set<TransportMode> modesCovered;
+    private Costs costs;
+
+    @Inject
+    public StationCostMatrix(TramchesterConfig config, StationRepository stationRepository, TripRepository tripRepository,
+                             NeighboursRepository neighboursRepository, DataCache dataCache, GraphFilterActive graphFilter) {
+        super(dataCache, StationCostsData.class, ImmutableEnumSet.of(tfgm, openRailData));
+        this.config = config;
+        this.stationRepository = stationRepository;
+        this.tripRepository = tripRepository;
+        this.neighboursRepository = neighboursRepository;
+        this.graphFilter = graphFilter;
+        stationIndexes = new HashMap<>();
+        modesCovered = EnumSet.noneOf(TransportMode.class);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.getStationCostMatrix()) {
+            logger.info("Not enabled");
+            return;
+        }
+        logger.info("start");
+
+        // order by id so indexes are stable between runs that use the same data
+        final List<Station> stations = stationRepository.getAllStationStream().
+                sorted(Comparator.comparing(station -> station.getId().getGraphId())).
+                toList();
+        for (int i = 0; i < stations.size(); i++) {
+            stationIndexes.put(stations.get(i).getId(), i);
+        }
+        tripRepository.getTrips().forEach(trip -> modesCovered.add(trip.getTransportMode()));
+
+        costs = new Costs(stations.size());
+        if (graphFilter.isActive()) {
+            logger.warn("Filtering is enabled, skipping all caching");
+            createCosts(stations);
+        } else {
+            if (!super.loadFromCache(costs)) {
+                createCosts(stations);
+            }
+        }
+
+        logger.info("started for " + stations.size() + " stations and modes " + modesCovered);
+    }
+
+    @PreDestroy
+    public void stop() {
+        logger.info("stop");
+        if (costs != null) {
+            if (!graphFilter.isActive()) {
+                super.saveCacheIfNeeded(costs);
+            }
+            costs = null;
+        }
+        stationIndexes.clear();
+        logger.info("stopped");
+    }
+
+    public boolean isEnabled() {
+        return costs != null;
+    }
+
+    /***
+     * @return true if both are stations in the matrix and the requested modes include all of those in the matrix, costs
+     * for fewer modes could be higher
+     */
+    public boolean covers(final Location<?> start, final Location<?> end, final ImmutableEnumSet<TransportMode> modes) {
+        if (costs == null) {
+            return false;
+        }
+        if (start.getLocationType() != LocationType.Station || end.getLocationType() != LocationType.Station) {
+            return false;
+        }
+        if (!modesCovered.stream().allMatch(modes::contains)) {
+            return false;
+        }
+        return stationIndexes.containsKey(start.getId()) && stationIndexes.containsKey(end.getId());
+    }
+
+    /***
+     * Only valid where covers is true. A lower bound for the date, built from every service running on any date of
+     * the same type of day and ignoring closures, so not filtered by the routes running on the date itself
+     * @return least cost, or TramDuration.getInvalid() if no path between the stations on that type of day
+     */
+    public TramDuration getCost(final Location<?> start, final Location<?> end, final TramDate date) {
+        final int startIndex = stationIndexes.get(start.getId());
+        final int endIndex = stationIndexes.get(end.getId());
+        final char minutes = costs.get(DayType.of(date), startIndex, endIndex);
+        if (minutes == UNREACHABLE) {
+            return TramDuration.getInvalid();
+        }
+        return TramDuration.ofMinutes(minutes);
+    }
+
+    private void createCosts(final List<Station> stations) {
+        final Map<Service, EnumSet<DayType>> dayTypesForService = new HashMap<>();
+        for (final DayType dayType : DayType.values()) {
+            try (Timing ignored = new Timing(logger, "station costs for " + dayType)) {
+                final List<Map<Integer, Integer>> links = createLinks(stations.size(), dayType, dayTypesForService);
+                IntStream.range(0, stations.size()).parallel().
+                        forEach(start -> costs.setRow(dayType, start, leastCostsFrom(start, links)));
+            }
+        }
+    }
+
+    /***
+     * station index -> next station index -> least minutes
+     */
+    private List<Map<Integer, Integer>> createLinks(final int numberOfStations, final DayType dayType,
+                                                    final Map<Service, EnumSet<DayType>> dayTypesForService) {
+        final List<Map<Integer, Integer>> links = new ArrayList<>(numberOfStations);
+        for (int i = 0; i < numberOfStations; i++) {
+            links.add(new HashMap<>());
+        }
+
+        for (final Trip trip : tripRepository.getTrips()) {
+            final Service service = trip.getService();
+            final EnumSet<DayType> dayTypes = dayTypesForService.computeIfAbsent(service, this::getDayTypes);
+            if (!dayTypes.contains(dayType)) {
+                continue;
+            }
+            StopCall previous = null;
+            for (final StopCall stopCall : trip.getStopCalls().stream().filter(StopCall::callsAtStation).toList()) {
+                if (previous != null && stationIndexes.containsKey(previous.getStationId()) &&
+                        stationIndexes.containsKey(stopCall.getStationId())) {
+                    final TramTime depart = previous.getDepartureTime();
+                    final TramTime arrive = stopCall.getArrivalTime();
+                    if (!arrive.isBefore(depart)) {
+                        addLink(links, previous.getStationId(), stopCall.getStationId(),
+                                (int) TramTime.difference(depart, arrive).toMinutes());
+                    }
+                }
+                previous = stopCall;
+            }
+        }
+
+        if (neighboursRepository.isEnabled()) {
+            stationIndexes.keySet().forEach(stationId -> neighboursRepository.getNeighbourLinksFor(stationId).stream().
+                    filter(link -> stationIndexes.containsKey(link.getEnd().getId())).
+                    forEach(link -> addLink(links, stationId, link.getEnd().getId(), toMinutesRoundedUp(link))));
+        }
+        return links;
+    }
+
+    private void addLink(final List<Map<Integer, Integer>> links, final IdFor<Station> from, final IdFor<Station> to, final int minutes) {
+        links.get(stationIndexes.get(from)).merge(stationIndexes.get(to), minutes, Math::min);
+    }
+
+    private static int toMinutesRoundedUp(final StationToStationConnection link) {
+        return (int) Math.ceilDiv(link.getConnectionTime().toSeconds(), 60L);
+    }
+
+    private EnumSet<DayType> getDayTypes(final Service service) {
+        final EnumSet<DayType> result = EnumSet.noneOf(DayType.class);
+        if (!service.hasCalendar()) {
+            return result;
+        }
+        final Iterator<TramDate> dates = service.getCalendar().getDateRange().stream().iterator();
+        while (dates.hasNext() && result.size() < DayType.values().length) {
+            final TramDate date = dates.next();
+            if (service.getCalendar().operatesOn(date)) {
+                result.add(DayType.of(date));
+            }
+        }
+        return result;
+    }
+
+    private char[] leastCostsFrom(final int start, final List<Map<Integer, Integer>> links) {
+        final int[] minutes = new int[links.size()];
+        Arrays.fill(minutes, Integer.MAX_VALUE);
+        minutes[start] = 0;
+
+        final PriorityQueue<int[]> queue = new PriorityQueue<>(Comparator.comparingInt(entry -> entry[1]));
+        queue.add(new int[]{start, 0});
+        while (!queue.isEmpty()) {
+            final int[] next = queue.remove();
+            final int station = next[0];
+            if (next[1] > minutes[station]) {
+                continue;
+            }
+            links.get(station).forEach((to, cost) -> {
+                final int total = minutes[station] + cost;
+                if (total < minutes[to]) {
+                    minutes[to] = total;
+                    queue.add(new int[]{to, total});
+                }
+            });
+        }
+
+        final char[] row = new char[minutes.length];
+        for (int i = 0; i < minutes.length; i++) {
+            row[i] = minutes[i] >= UNREACHABLE ? UNREACHABLE : (char) minutes[i];
+        }
+        return row;
+    }
+
+    /***
+     * encapsulate costs to facilitate caching
+     */
+    public class Costs implements FileDataCache.CachesData<StationCostsData> {
+        private final int numberOfStations;
+        // day type -> start station * numberOfStations + end station
+        private final char[][] minutes;
+
+        private Costs(final int numberOfStations) {
+            this.numberOfStations = numberOfStations;
+            minutes = new char[DayType.values().length][numberOfStations * numberOfStations];
+        }
+
+        char get(final DayType dayType, final int start, final int end) {
+            return minutes[dayType.ordinal()][(start * numberOfStations) + end];
+        }
+
+        void setRow(final DayType dayType, final int start, final char[] row) {
+            System.arraycopy(row, 0, minutes[dayType.ordinal()], start * numberOfStations, numberOfStations);
+        }
+
+        @Override
+        public void cacheTo(final HasDataSaver<StationCostsData> hasDataSaver) {
+            try (HasDataSaver.ClosableDataSaver<StationCostsData> saver = hasDataSaver.get()) {
+                for (final DayType dayType : DayType.values()) {
+                    final char[] forDayType = minutes[dayType.ordinal()];
+                    for (int start = 0; start < numberOfStations; start++) {
+                        final int offset = start * numberOfStations;
+                        final List<Integer> row = IntStream.range(0, numberOfStations).
+                                mapToObj(end -> (int) forDayType[offset + end]).
+                                toList();
+                        saver.write(new StationCostsData(dayType.name(), start, row));
+                    }
+                }
+            } catch (Exception e) {
+                logger.error("Exception while writing cache", e);
+            }
+        }
+
+        @Override
+        public String getFilename() {
+            return "station_costs.csv";
+        }
+
+        @Override
+        public void loadFrom(final Stream<StationCostsData> stream) {
+            final AtomicInteger counter = new AtomicInteger(0);
+            stream.forEach(item -> {
+                counter.getAndIncrement();
+                final DayType dayType = DayType.valueOf(item.getDayType());
+                final List<Integer> row = item.getCosts();
+                if (row.size() != numberOfStations) {
+                    final String message = "Cached row size " + row.size() + " does not match number of stations " + numberOfStations;
+                    logger.error(message);
+                    throw new RuntimeException(message);
+                }
+                final char[] values = new char[numberOfStations];
+                for (int end = 0; end < numberOfStations; end++) {
+                    values[end] = (char) row.get(end).intValue();
+                }
+                setRow(dayType, item.getStationIndex(), values);
+            });
+            logger.info("Loaded " + counter.get() + " items from cache");
+        }
+
+        @Override
+        public Class<StationCostsData> getDataType() {
+            return StationCostsData.class;
+        }
+    }
+}
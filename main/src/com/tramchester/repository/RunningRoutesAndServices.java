@@ -1,36 +1,55 @@
 package com.tramchester.repository;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.netflix.governator.guice.lazy.LazySingleton;
 import com.tramchester.domain.CoreDomain;
 import com.tramchester.domain.JourneyRequest;
 import com.tramchester.domain.Route;
 import com.tramchester.domain.Service;
+import com.tramchester.domain.collections.BitmapAsRoaringBitmap;
 import com.tramchester.domain.collections.ImmutableEnumSet;
 import com.tramchester.domain.dates.TramDate;
 import com.tramchester.domain.id.HasId;
 import com.tramchester.domain.id.IdFor;
-import com.tramchester.domain.id.IdMap;
 import com.tramchester.domain.reference.TransportMode;
 import com.tramchester.domain.time.*;
 import jakarta.inject.Inject;
-import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
-import java.util.stream.Stream;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiPredicate;
+
+/***
+ * Which routes and services are running for a date. Routes and services for a set of modes are given a dense index,
+ * the running ones for each date are held as bitmaps over that index, built the first time a date is needed and then
+ * cached for a bounded number of recently used dates, so getFor only looks up existing bitmaps for those dates.
+ */
 @LazySingleton
 public class RunningRoutesAndServices {
     private static final Logger logger = LoggerFactory.getLogger(RunningRoutesAndServices.class);
 
+    // a month of dates, so requests for days over the coming weeks, each also needing the day before and after, are
+    // still served from the cache, each entry is a bitmap over at most a few thousand services or routes so little
+    // memory, while a miss means testing every service or route against the date
+    private static final int MAX_CACHED_DATES = 31;
+
     private final ServiceRepository serviceRepository;
     private final RouteRepository routeRepository;
+    private final ConcurrentMap<ImmutableEnumSet<TransportMode>, ServicesAndRoutesIndex> indexForModes;
 
     @Inject
     public RunningRoutesAndServices(ServiceRepository serviceRepository, RouteRepository routeRepository) {
         this.serviceRepository = serviceRepository;
         this.routeRepository = routeRepository;
+        indexForModes = new ConcurrentHashMap<>();
     }
 
     public FilterForDate getFor(final JourneyRequest journeyRequest) {
@@ -38,80 +57,172 @@ public class RunningRoutesAndServices {
     }
 
     public FilterForDate getFor(final TramDate date, final ImmutableEnumSet<TransportMode> modes) {
-        final Set<Service> servicesForMode = serviceRepository.getServices(modes);
-        final Set<Route> routesForMode = routeRepository.getRoutes(modes);
+        final ServicesAndRoutesIndex index = indexForModes.computeIfAbsent(modes, this::createIndexFor);
 
-        final IdMap<Service> serviceIds = getServicesFor(date, servicesForMode);
-        final IdMap<Route> routeIds = getRoutesFor(date, routesForMode);
+        final DateIndex<Service> services = index.services;
+        final DateIndex<Route> routes = index.routes;
 
         final TramDate nextDay = date.plusDays(1);
-        final IdMap<Service> runningServicesNextDay = getServicesFor(nextDay, servicesForMode);
-        final IdMap<Route> runningRoutesNextDay = getRoutesFor(nextDay, routesForMode);
-
         final TramDate previousDay = date.minusDays(1);
-        final IdMap<Service> previousDaySvcs = servicesIntoNextDay(previousDay, servicesForMode);
-        final IdMap<Route> previousDayRoutes = routesIntoNextDayFor(previousDay, routesForMode);
 
-        return new FilterForDate(date, serviceIds, routeIds, runningServicesNextDay, runningRoutesNextDay,
-                previousDaySvcs, previousDayRoutes);
+        return new FilterForDate(date, services, routes,
+                services.runningOn(date), routes.runningOn(date),
+                services.runningOn(nextDay), routes.runningOn(nextDay),
+                services.runningIntoNextDay(previousDay), routes.runningIntoNextDay(previousDay));
     }
 
-    private IdMap<Route> routesIntoNextDayFor(final TramDate date, final Set<Route> routes) {
-        final Stream<Route> onDate = routes.stream().filter(route -> route.isAvailableOn(date));
-        return intoNextDay(onDate);
-    }
+    private ServicesAndRoutesIndex createIndexFor(final ImmutableEnumSet<TransportMode> modes) {
+        final Set<Service> servicesForMode = serviceRepository.getServices(modes);
+        final Set<Route> routesForMode = routeRepository.getRoutes(modes);
 
-    private IdMap<Service> servicesIntoNextDay(final TramDate date, final Set<Service> services) {
-        final Stream<Service> onDate = services.stream().filter(service -> service.getCalendar().operatesOn(date));
-        return intoNextDay(onDate);
-    }
+        logger.info("Index " + servicesForMode.size() + " services and " + routesForMode.size() + " routes for " + modes);
 
-    private <T extends HasId<T> & CoreDomain & CrossesDay> IdMap<T> intoNextDay(final Stream<T> items) {
-        return items.
-                filter(CrossesDay::intoNextDay).
-                collect(IdMap.collector());
+        final DateIndex<Service> services = new DateIndex<>("services", servicesForMode,
+                (service, date) -> service.getCalendar().operatesOn(date));
+        final DateIndex<Route> routes = new DateIndex<>("routes", routesForMode, Route::isAvailableOn);
+        return new ServicesAndRoutesIndex(services, routes);
     }
 
-    @NotNull
-    private IdMap<Route> getRoutesFor(final TramDate date, final Set<Route> routes) {
-        final IdMap<Route> onDate = routes.stream().
-                filter(route -> route.isAvailableOn(date)).
-                collect(IdMap.collector());
-        if (onDate.isEmpty()) {
-            logger.warn("No running routes found on " + date);
-        } else {
-            logger.info("Found " + onDate.size() + " running routes for " + date);
-        }
-        return onDate;
+    private record ServicesAndRoutesIndex(DateIndex<Service> services, DateIndex<Route> routes) {
     }
 
-    @NotNull
-    private IdMap<Service> getServicesFor(final TramDate date, final Set<Service> services) {
-        final IdMap<Service> onDate = services.stream().
-                filter(service -> service.getCalendar().operatesOn(date)).
-                collect(IdMap.collector());
-        if (onDate.isEmpty()) {
-            logger.warn("No running services found on " + date);
-        } else {
-            logger.info("Found " + onDate.size() + " running services for " + date);
-        }
-        return onDate;
+    /***
+     * Dense index over a fixed set of items, with bitmaps of those running on a date keyed by that index
+     * @param <T> Service or Route
+     */
+    private static class DateIndex<T extends HasId<T> & CoreDomain & CrossesDay> {
+        private final String name;
+        private final List<T> items;
+        private final IdPositions<T> positions;
+        private final BiPredicate<T, TramDate> runsOn;
+
+        private final Cache<TramDate, BitmapAsRoaringBitmap> runningOnDate;
+        private final Cache<TramDate, BitmapAsRoaringBitmap> runningOnDateIntoNextDay;
+
+        private DateIndex(final String name, final Set<T> source, final BiPredicate<T, TramDate> runsOn) {
+            this.name = name;
+            this.runsOn = runsOn;
+            items = new ArrayList<>(source);
+            positions = new IdPositions<>(items);
+            runningOnDate = createDateCache();
+            runningOnDateIntoNextDay = createDateCache();
+        }
+
+        private static Cache<TramDate, BitmapAsRoaringBitmap> createDateCache() {
+            return Caffeine.newBuilder().maximumSize(MAX_CACHED_DATES).expireAfterAccess(Duration.ofHours(1)).build();
+        }
+
+        int positionOf(final IdFor<T> id) {
+            return positions.positionOf(id);
+        }
+
+        T get(final int position) {
+            return items.get(position);
+        }
+
+        BitmapAsRoaringBitmap runningOn(final TramDate date) {
+            return runningOnDate.get(date, this::createRunningOn);
+        }
+
+        BitmapAsRoaringBitmap runningIntoNextDay(final TramDate date) {
+            return runningOnDateIntoNextDay.get(date, this::createRunningIntoNextDay);
+        }
+
+        private BitmapAsRoaringBitmap createRunningOn(final TramDate date) {
+            final BitmapAsRoaringBitmap bitmap = new BitmapAsRoaringBitmap(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                if (runsOn.test(items.get(i), date)) {
+                    bitmap.set(i);
+                }
+            }
+            if (bitmap.isEmpty()) {
+                logger.warn("No running " + name + " found on " + date);
+            } else {
+                logger.info("Found " + bitmap.cardinality() + " running " + name + " for " + date);
+            }
+            return bitmap;
+        }
+
+        private BitmapAsRoaringBitmap createRunningIntoNextDay(final TramDate date) {
+            final BitmapAsRoaringBitmap bitmap = new BitmapAsRoaringBitmap(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                final T item = items.get(i);
+                if (runsOn.test(item, date) && item.intoNextDay()) {
+                    bitmap.set(i);
+                }
+            }
+            return bitmap;
+        }
     }
 
+    /***
+     * Position of each id within a fixed list, open addressing over the hash codes of the ids held in primitive
+     * arrays, so a lookup is a probe of an int array and an equals only on a matching hash, no boxing or entry objects
+     * @param <T> Service or Route
+     */
+    private static class IdPositions<T extends HasId<T> & CoreDomain> {
+        private static final int EMPTY = -1;
+
+        private final int mask;
+        private final int[] hashes;
+        private final int[] positions;
+        private final List<T> items;
+
+        private IdPositions(final List<T> items) {
+            this.items = items;
+            // at most half full so probe sequences stay short
+            final int capacity = Integer.highestOneBit(Math.max(1, items.size()) * 2) << 1;
+            mask = capacity - 1;
+            hashes = new int[capacity];
+            positions = new int[capacity];
+            Arrays.fill(positions, EMPTY);
+            for (int position = 0; position < items.size(); position++) {
+                final int hash = items.get(position).getId().hashCode();
+                int slot = slotFor(hash);
+                while (positions[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                hashes[slot] = hash;
+                positions[slot] = position;
+            }
+        }
+
+        private int slotFor(final int hash) {
+            // spread the high bits, as for HashMap
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+
+        int positionOf(final IdFor<T> id) {
+            final int hash = id.hashCode();
+            int slot = slotFor(hash);
+            while (positions[slot] != EMPTY) {
+                if (hashes[slot] == hash && items.get(positions[slot]).getId().equals(id)) {
+                    return positions[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            return EMPTY;
+        }
+    }
 
     public static class FilterForDate {
         private final TramDate date;
-        private final IdMap<Service> servicesPreviousDay;
-        private final IdMap<Route> routesPreviousDay;
-        private final IdMap<Service> servicesToday;
-        private final IdMap<Route> routesToday;
-        private final IdMap<Service> servicesNextDay;
-        private final IdMap<Route> routesNextDay;
-
-        private FilterForDate(TramDate date, IdMap<Service> servicesToday, IdMap<Route> routesToday,
-                              IdMap<Service> servicesNextDay, IdMap<Route> routesNextDay,
-                              IdMap<Service> servicesPreviousDay, IdMap<Route> routesPreviousDay) {
+        private final DateIndex<Service> services;
+        private final DateIndex<Route> routes;
+        private final BitmapAsRoaringBitmap servicesPreviousDay;
+        private final BitmapAsRoaringBitmap routesPreviousDay;
+        private final BitmapAsRoaringBitmap servicesToday;
+        private final BitmapAsRoaringBitmap routesToday;
+        private final BitmapAsRoaringBitmap servicesNextDay;
+        private final BitmapAsRoaringBitmap routesNextDay;
+
+        private FilterForDate(TramDate date, DateIndex<Service> services, DateIndex<Route> routes,
+                              BitmapAsRoaringBitmap servicesToday, BitmapAsRoaringBitmap routesToday,
+                              BitmapAsRoaringBitmap servicesNextDay, BitmapAsRoaringBitmap routesNextDay,
+                              BitmapAsRoaringBitmap servicesPreviousDay, BitmapAsRoaringBitmap routesPreviousDay) {
             this.date = date;
+            this.services = services;
+            this.routes = routes;
             this.servicesToday = servicesToday;
             this.routesToday = routesToday;
             this.servicesNextDay = servicesNextDay;
@@ -121,26 +232,36 @@ public class RunningRoutesAndServices {
         }
 
         public boolean isServiceRunningByDate(IdFor<Service> serviceId, boolean nextDay) {
-            if (servicesToday.hasId(serviceId)) {
+            final int position = services.positionOf(serviceId);
+            if (position < 0) {
+                return false;
+            }
+
+            if (servicesToday.get(position)) {
                 return true;
             }
 
             if (nextDay) {
-                return servicesNextDay.hasId(serviceId);
+                return servicesNextDay.get(position);
             } else {
-                return servicesPreviousDay.hasId(serviceId);
+                return servicesPreviousDay.get(position);
             }
         }
 
         public boolean isRouteRunning(IdFor<Route> routeId, boolean nextDay) {
-            if (routesToday.hasId(routeId)) {
+            final int position = routes.positionOf(routeId);
+            if (position < 0) {
+                return false;
+            }
+
+            if (routesToday.get(position)) {
                 return true;
             }
 
             if (nextDay) {
-                return routesNextDay.hasId(routeId);
+                return routesNextDay.get(position);
             } else {
-                return routesPreviousDay.hasId(routeId);
+                return routesPreviousDay.get(position);
             }
         }
 
@@ -148,20 +269,25 @@ public class RunningRoutesAndServices {
         public String toString() {
             return "FilterForDate{" +
                     "date=" + date +
-                    ", servicesPreviousDay=" + servicesPreviousDay.size() +
-                    ", routesPreviousDay=" + routesPreviousDay.size() +
-                    ", servicesToday=" + servicesToday.size() +
-                    ", routesToday=" + routesToday.size() +
-                    ", servicesNextDay=" + servicesNextDay.size() +
-                    ", routesNextDay=" + routesNextDay.size() +
+                    ", servicesPreviousDay=" + servicesPreviousDay.cardinality() +
+                    ", routesPreviousDay=" + routesPreviousDay.cardinality() +
+                    ", servicesToday=" + servicesToday.cardinality() +
+                    ", routesToday=" + routesToday.cardinality() +
+                    ", servicesNextDay=" + servicesNextDay.cardinality() +
+                    ", routesNextDay=" + routesNextDay.cardinality() +
                     '}';
         }
 
         public boolean isServiceRunningByTime(final IdFor<Service> serviceId, final TramTime time, final int maxWait) {
+            final int position = services.positionOf(serviceId);
+            if (position < 0) {
+                return false;
+            }
+
+            final Service service = services.get(position);
 
-            if (servicesToday.hasId(serviceId)) {
-                final Service todaySvc = servicesToday.get(serviceId);
-                if (serviceOperatingWithin(todaySvc, time, maxWait)) {
+            if (servicesToday.get(position)) {
+                if (serviceOperatingWithin(service, time, maxWait)) {
                     return true;
                 }
             }
@@ -170,18 +296,16 @@ public class RunningRoutesAndServices {
             final int minuteOfHour = time.getMinuteOfHour();
 
             if (time.isNextDay()) {
-                if (servicesNextDay.hasId(serviceId)) {
+                if (servicesNextDay.get(position)) {
                     // remove next day offset to get time for the following day
                     final TramTime timeForNextDay = TramTime.of(hourOfDay, minuteOfHour);
-                    final Service nextDaySvc = servicesNextDay.get(serviceId);
-                    return serviceOperatingWithin(nextDaySvc, timeForNextDay, maxWait);
+                    return serviceOperatingWithin(service, timeForNextDay, maxWait);
                 }
             } else {
-                if (servicesPreviousDay.hasId(serviceId)) {
+                if (servicesPreviousDay.get(position)) {
                     // use next day time, do any of previous days services run into today
                     final TramTime timeForPreviousDay = TramTime.nextDay(hourOfDay, minuteOfHour);
-                    final Service previousDayService = servicesPreviousDay.get(serviceId);
-                    return serviceOperatingWithin(previousDayService, timeForPreviousDay, maxWait);
+                    return serviceOperatingWithin(service, timeForPreviousDay, maxWait);
                 }
             }
 
@@ -103,7 +103,7 @@ public class JourneyPlannerResource extends UsesRecentCookie implements APIResou
             journeyRequest.setDiag(true);
         }
 
-        try(final MutableGraphTransaction tx = graphDatabase.beginTxMutable() ) {
+        try(final MutableGraphTransaction tx = graphDatabase.beginTxOverlay() ) {
 
             final TramDate queryTramDate = query.getTramDate();
             final Stream<Journey> journeyStream = getJourneyStream(tx, start, dest, journeyRequest);
@@ -125,6 +125,10 @@ public class JourneyPlannerResource extends UsesRecentCookie implements APIResou
 
             // TODO likely this will only remain for the diag API, with streamed for the production one
             final JourneyPlanRepresentation planRepresentation = new JourneyPlanRepresentation(filtered);
+            if (journeyRequest.wasCutShort()) {
+                logger.warn(format("Search for %s to %s stopped by deadline, returning partial results", start.getId(), dest.getId()));
+                planRepresentation.setPartial(true);
+            }
 
             if (diagnostics) {
                 if (journeyRequest.hasReceivedDiagnostics()) {
@@ -192,7 +196,7 @@ public class JourneyPlannerResource extends UsesRecentCookie implements APIResou
         final Location<?> start = locationRepository.getLocation(query.getStartType(), query.getStartId());
         final Location<?> dest = locationRepository.getLocation(query.getDestType(), query.getDestId());
 
-        final MutableGraphTransaction tx =  graphDatabase.beginTxMutable();
+        final MutableGraphTransaction tx =  graphDatabase.beginTxOverlay();
 
         try {
             final TramDate date = query.getTramDate();
@@ -0,0 +1,143 @@
+package com.tramchester.integration.graph.inMemory;
+
+import com.tramchester.ComponentsBuilder;
+import com.tramchester.GuiceContainerDependencies;
+import com.tramchester.config.GraphDBConfig;
+import com.tramchester.domain.collections.ImmutableEnumSet;
+import com.tramchester.graph.core.GraphDatabase;
+import com.tramchester.graph.core.GraphDirection;
+import com.tramchester.graph.core.GraphNode;
+import com.tramchester.graph.core.GraphTransaction;
+import com.tramchester.graph.graphbuild.StagedTransportGraphBuilder;
+import com.tramchester.graph.reference.GraphLabel;
+import com.tramchester.graph.reference.TransportRelationshipTypes;
+import com.tramchester.integration.testSupport.tram.IntegrationTramTestConfig;
+import com.tramchester.testSupport.GraphDBType;
+import com.tramchester.testSupport.TestEnv;
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Disabled("Performance testing only")
+class FrozenGraphReadScalingTest {
+    private static final Logger logger = LoggerFactory.getLogger(FrozenGraphReadScalingTest.class);
+
+    private static final int ITERATIONS_PER_THREAD = 50;
+
+    private static GuiceContainerDependencies componentContainer;
+    private GraphDatabase graphDatabase;
+
+    @BeforeAll
+    static void onceBeforeAnyTestsRun() {
+        componentContainer = new ComponentsBuilder().create(new FrozenConfig(), TestEnv.NoopRegisterMetrics());
+        componentContainer.initialise();
+
+        StagedTransportGraphBuilder builder = componentContainer.get(StagedTransportGraphBuilder.class);
+        builder.getReady();
+    }
+
+    @AfterAll
+    static void OnceAfterAllTestsAreFinished() {
+        componentContainer.close();
+    }
+
+    @BeforeEach
+    void beforeEachTestRuns() {
+        graphDatabase = componentContainer.get(GraphDatabase.class);
+    }
+
+    @Test
+    void shouldScaleReadThroughputWithThreads() throws ExecutionException, InterruptedException {
+        final int maxThreads = Math.min(8, Runtime.getRuntime().availableProcessors());
+
+        // warm up
+        throughputFor(maxThreads);
+
+        final double single = throughputFor(1);
+        logger.info("1 thread " + single + " reads/sec");
+
+        for (int threads = 2; threads <= maxThreads; threads = threads * 2) {
+            final double throughput = throughputFor(threads);
+            final double speedUp = throughput / single;
+            logger.info(threads + " threads " + throughput + " reads/sec, speed up " + speedUp);
+            assertTrue(speedUp > threads * 0.7, "Speed up only " + speedUp + " for " + threads + " threads");
+        }
+    }
+
+    private double throughputFor(final int threads) throws InterruptedException, ExecutionException {
+        final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            final long start = System.nanoTime();
+            final List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executorService.submit(this::readWorkload));
+            }
+            long reads = 0;
+            for (Future<Long> future : futures) {
+                reads = reads + future.get();
+            }
+            final double seconds = (System.nanoTime() - start) / 1_000_000_000D;
+            return reads / seconds;
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    private long readWorkload() {
+        final ImmutableEnumSet<TransportRelationshipTypes> all = ImmutableEnumSet.allOf(TransportRelationshipTypes.class);
+        long reads = 0;
+        for (int i = 0; i < ITERATIONS_PER_THREAD; i++) {
+            try (GraphTransaction txn = graphDatabase.beginTx()) {
+                final List<GraphNode> nodes = txn.findNodes(GraphLabel.ROUTE_STATION).toList();
+                for (GraphNode node : nodes) {
+                    reads = reads + node.getRelationships(txn, GraphDirection.Outgoing, all).
+                            map(relationship -> relationship.getEndNode(txn)).
+                            count();
+                }
+            }
+        }
+        return reads;
+    }
+
+    private static class FrozenConfig extends IntegrationTramTestConfig {
+        public FrozenConfig() {
+            super(GraphDBType.InMemory);
+        }
+
+        @Override
+        public GraphDBConfig getGraphDBConfig() {
+            final GraphDBConfig graphDBConfig = super.getGraphDBConfig();
+            return new GraphDBConfig() {
+                @Override
+                public Path getDbPath() {
+                    return graphDBConfig.getDbPath();
+                }
+
+                @Override
+                public Boolean enableDiagnostics() {
+                    return false;
+                }
+
+                @Override
+                public Boolean enableCompactGraph() {
+                    return true;
+                }
+
+                @Override
+                public Boolean enableMappedGraph() {
+                    return false;
+                }
+            };
+        }
+    }
+}
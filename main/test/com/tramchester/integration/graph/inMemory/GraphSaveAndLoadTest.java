@@ -44,6 +44,7 @@ public class GraphSaveAndLoadTest {
     private GraphPersistence graphPersistence;
     private static Path relationshipsFilename;
     private static Path nodesFilename;
+    private static Path snapshotFilename;
 
     @BeforeAll
     static void onceBeforeAnyTestsRun() {
@@ -56,6 +57,7 @@ public class GraphSaveAndLoadTest {
 
         relationshipsFilename = GRAPH_PATH.resolve(GraphPersistence.RELATIONSHIPS_FILENAME);
         nodesFilename = GRAPH_PATH.resolve(GraphPersistence.NODES_FILENAME);
+        snapshotFilename = GRAPH_PATH.resolve(GraphPersistence.SNAPSHOT_FILENAME);
     }
 
     @AfterAll
@@ -63,6 +65,7 @@ public class GraphSaveAndLoadTest {
         componentContainer.close();
         Files.deleteIfExists(relationshipsFilename);
         Files.deleteIfExists(nodesFilename);
+        Files.deleteIfExists(snapshotFilename);
         Files.deleteIfExists(GRAPH_PATH);
     }
 
@@ -72,6 +75,7 @@ public class GraphSaveAndLoadTest {
 
         Files.deleteIfExists(relationshipsFilename);
         Files.deleteIfExists(nodesFilename);
+        Files.deleteIfExists(snapshotFilename);
         Files.deleteIfExists(GRAPH_PATH);
     }
 
@@ -79,6 +83,7 @@ public class GraphSaveAndLoadTest {
     void onceAfterEachTestRuns() throws IOException {
         Files.deleteIfExists(relationshipsFilename);
         Files.deleteIfExists(nodesFilename);
+        Files.deleteIfExists(snapshotFilename);
         Files.deleteIfExists(GRAPH_PATH);
     }
 
@@ -282,6 +287,16 @@ public class GraphSaveAndLoadTest {
                 public Boolean enableDiagnostics() {
                     return false;
                 }
+
+                @Override
+                public Boolean enableCompactGraph() {
+                    return false;
+                }
+
+                @Override
+                public Boolean enableMappedGraph() {
+                    return false;
+                }
             };
         }
     }
@@ -0,0 +1,92 @@
+package com.tramchester.integration.graph.inMemory;
+
+import com.tramchester.ComponentContainer;
+import com.tramchester.ComponentsBuilder;
+import com.tramchester.config.TramchesterConfig;
+import com.tramchester.domain.Journey;
+import com.tramchester.domain.JourneyRequest;
+import com.tramchester.domain.dates.TramDate;
+import com.tramchester.domain.reference.TransportMode;
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.domain.time.TramTime;
+import com.tramchester.graph.core.GraphDatabase;
+import com.tramchester.graph.core.GraphTransaction;
+import com.tramchester.integration.testSupport.RouteCalculatorTestFacade;
+import com.tramchester.integration.testSupport.tram.IntegrationTramTestConfig;
+import com.tramchester.testSupport.GraphDBType;
+import com.tramchester.testSupport.TestEnv;
+import com.tramchester.testSupport.reference.TramStations;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static com.tramchester.integration.graph.RouteCalculatorTest.TXN_TIMEOUT;
+import static com.tramchester.testSupport.reference.TramStations.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/***
+ * Ordering the search by the A* estimate changes the order nodes are visited in, it should not change the best
+ * journeys found
+ */
+class RouteCalculatorAStarTest {
+
+    private static final List<List<TramStations>> pairs = List.of(
+            List.of(Altrincham, Ashton),
+            List.of(Bury, EastDidsbury),
+            List.of(TraffordCentre, Shudehill),
+            List.of(ManAirport, Victoria));
+
+    private static final List<TramTime> times = List.of(TramTime.of(8, 15), TramTime.of(17, 45), TramTime.of(23, 30));
+
+    private final TramDate when = TestEnv.testDay();
+
+    @Test
+    void shouldFindSameEarliestArrivalsWithAndWithoutAStar() {
+        final Map<String, Optional<TramTime>> withoutAStar = earliestArrivalsFor(new AStarConfig(false));
+        final Map<String, Optional<TramTime>> withAStar = earliestArrivalsFor(new AStarConfig(true));
+
+        assertFalse(withoutAStar.values().stream().allMatch(Optional::isEmpty));
+        assertEquals(withoutAStar.keySet(), withAStar.keySet());
+        withoutAStar.forEach((query, arrival) -> assertEquals(arrival, withAStar.get(query), "Mismatch for " + query));
+    }
+
+    private Map<String, Optional<TramTime>> earliestArrivalsFor(final TramchesterConfig config) {
+        final ComponentContainer componentContainer = new ComponentsBuilder().create(config, TestEnv.NoopRegisterMetrics());
+        componentContainer.initialise();
+        try {
+            final GraphDatabase database = componentContainer.get(GraphDatabase.class);
+            final Map<String, Optional<TramTime>> results = new HashMap<>();
+            try (GraphTransaction txn = database.beginTx(TXN_TIMEOUT, TimeUnit.SECONDS)) {
+                final RouteCalculatorTestFacade calculator = new RouteCalculatorTestFacade(componentContainer, txn);
+                for (final List<TramStations> pair : pairs) {
+                    for (final TramTime time : times) {
+                        final JourneyRequest journeyRequest = new JourneyRequest(when, time, false, 3,
+                                TramDuration.ofMinutes(config.getMaxJourneyDuration()), 3, TransportMode.TramsOnly);
+                        final List<Journey> journeys = calculator.calculateRouteAsList(pair.get(0), pair.get(1), journeyRequest);
+                        results.put(pair.get(0) + " to " + pair.get(1) + " at " + time,
+                                journeys.stream().map(Journey::getArrivalTime).min(TramTime::compareTo));
+                    }
+                }
+            }
+            return results;
+        } finally {
+            componentContainer.close();
+        }
+    }
+
+    private static class AStarConfig extends IntegrationTramTestConfig {
+        private final boolean aStar;
+
+        public AStarConfig(boolean aStar) {
+            super(GraphDBType.InMemory, Caching.Enabled);
+            this.aStar = aStar;
+        }
+
+        @Override
+        public boolean getAStarSearch() {
+            return aStar;
+        }
+    }
+}
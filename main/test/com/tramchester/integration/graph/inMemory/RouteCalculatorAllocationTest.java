@@ -0,0 +1,110 @@
+package com.tramchester.integration.graph.inMemory;
+
+import com.tramchester.ComponentContainer;
+import com.tramchester.ComponentsBuilder;
+import com.tramchester.config.TramchesterConfig;
+import com.tramchester.domain.JourneyRequest;
+import com.tramchester.domain.dates.TramDate;
+import com.tramchester.domain.reference.TransportMode;
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.domain.time.TramTime;
+import com.tramchester.graph.core.GraphDatabase;
+import com.tramchester.graph.core.GraphTransaction;
+import com.tramchester.integration.testSupport.RouteCalculatorTestFacade;
+import com.tramchester.integration.testSupport.tram.IntegrationTramTestConfig;
+import com.tramchester.testSupport.GraphDBType;
+import com.tramchester.testSupport.TestEnv;
+import org.junit.jupiter.api.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static com.tramchester.integration.graph.RouteCalculatorTest.TXN_TIMEOUT;
+import static com.tramchester.testSupport.reference.TramStations.Altrincham;
+import static com.tramchester.testSupport.reference.TramStations.Ashton;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Disabled("Performance testing only")
+class RouteCalculatorAllocationTest {
+    private static final Logger logger = LoggerFactory.getLogger(RouteCalculatorAllocationTest.class);
+
+    private static final int ITERATIONS = 20;
+
+    // upper bound for a single Altrincham to Ashton search with diagnostics off, catches regressions in the
+    // allocation free path independently of how much the diagnostics path allocates
+    private static final long MAX_BYTES_PER_SEARCH = 32L * 1024 * 1024;
+
+    private static ComponentContainer componentContainer;
+    private static TramchesterConfig config;
+    private static GraphDatabase database;
+
+    private final TramDate when = TestEnv.testDay();
+    private GraphTransaction txn;
+    private RouteCalculatorTestFacade calculator;
+
+    @BeforeAll
+    static void onceBeforeAnyTestsRun() {
+        config = new IntegrationTramTestConfig(GraphDBType.InMemory, IntegrationTramTestConfig.Caching.Enabled);
+        componentContainer = new ComponentsBuilder().create(config, TestEnv.NoopRegisterMetrics());
+        componentContainer.initialise();
+        database = componentContainer.get(GraphDatabase.class);
+    }
+
+    @AfterAll
+    static void OnceAfterAllTestsAreFinished() {
+        componentContainer.close();
+    }
+
+    @BeforeEach
+    void beforeEachTestRuns() {
+        txn = database.beginTx(TXN_TIMEOUT, TimeUnit.SECONDS);
+        calculator = new RouteCalculatorTestFacade(componentContainer, txn);
+    }
+
+    @AfterEach
+    void afterEachTestRuns() {
+        txn.close();
+    }
+
+    @Test
+    void shouldAllocateLessWhenDiagnosticsDisabled() {
+        // warm up
+        bytesPerJourneyFor(false);
+        bytesPerJourneyFor(true);
+
+        final long withoutDiag = bytesPerJourneyFor(false);
+        final long withDiag = bytesPerJourneyFor(true);
+
+        logger.info("Allocated per search, diagnostics off " + withoutDiag + " bytes, on " + withDiag + " bytes");
+        assertTrue(withoutDiag < withDiag, "Expected fewer bytes without diagnostics " + withoutDiag + " vs " + withDiag);
+    }
+
+    @Test
+    void shouldStayWithinAllocationBoundWhenDiagnosticsDisabled() {
+        // warm up
+        bytesPerJourneyFor(false);
+
+        final long withoutDiag = bytesPerJourneyFor(false);
+
+        logger.info("Allocated per search, diagnostics off " + withoutDiag + " bytes, limit " + MAX_BYTES_PER_SEARCH);
+        assertTrue(withoutDiag < MAX_BYTES_PER_SEARCH, "Allocated " + withoutDiag + " bytes per search, limit " + MAX_BYTES_PER_SEARCH);
+    }
+
+    private long bytesPerJourneyFor(final boolean diagnostics) {
+        final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().threadId();
+
+        final long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            final JourneyRequest journeyRequest = new JourneyRequest(when, TramTime.of(17, 45), false, 1,
+                    TramDuration.ofMinutes(config.getMaxJourneyDuration()), 3, TransportMode.TramsOnly);
+            journeyRequest.setDiag(diagnostics);
+            calculator.calculateRouteAsList(Altrincham, Ashton, journeyRequest);
+        }
+        final long after = threadMXBean.getThreadAllocatedBytes(threadId);
+
+        return (after - before) / ITERATIONS;
+    }
+}
@@ -0,0 +1,111 @@
+package com.tramchester.integration.graph.inMemory;
+
+import com.tramchester.ComponentContainer;
+import com.tramchester.ComponentsBuilder;
+import com.tramchester.config.TramchesterConfig;
+import com.tramchester.domain.Journey;
+import com.tramchester.domain.JourneyRequest;
+import com.tramchester.domain.dates.TramDate;
+import com.tramchester.domain.places.Station;
+import com.tramchester.domain.reference.TransportMode;
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.domain.time.TramTime;
+import com.tramchester.graph.core.GraphDatabase;
+import com.tramchester.graph.core.GraphTransaction;
+import com.tramchester.graph.search.TramRouteCalculator;
+import com.tramchester.graph.search.raptor.RouteCalculatorRaptor;
+import com.tramchester.integration.testSupport.tram.IntegrationTramTestConfig;
+import com.tramchester.repository.StationRepository;
+import com.tramchester.testSupport.GraphDBType;
+import com.tramchester.testSupport.TestEnv;
+import com.tramchester.testSupport.reference.TramStations;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.tramchester.integration.graph.RouteCalculatorTest.TXN_TIMEOUT;
+import static com.tramchester.testSupport.reference.TramStations.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/***
+ * The raptor search should find the same earliest arrivals as the in memory graph search, including around midnight
+ * where services from the previous day and the next day are used
+ */
+class RouteCalculatorRaptorParityTest {
+
+    private static final List<List<TramStations>> pairs = List.of(
+            List.of(Altrincham, Ashton),
+            List.of(NavigationRoad, TraffordBar),
+            List.of(Bury, EastDidsbury),
+            List.of(Eccles, Piccadilly),
+            List.of(TraffordCentre, Shudehill),
+            List.of(ManAirport, Victoria));
+
+    private static final List<TramTime> times = List.of(TramTime.of(0, 5), TramTime.of(8, 15),
+            TramTime.of(17, 45), TramTime.of(23, 30));
+
+    private static ComponentContainer componentContainer;
+    private static TramchesterConfig config;
+    private static GraphDatabase database;
+
+    private final TramDate when = TestEnv.testDay();
+    private GraphTransaction txn;
+    private TramRouteCalculator graphCalculator;
+    private RouteCalculatorRaptor raptorCalculator;
+    private StationRepository stationRepository;
+
+    @BeforeAll
+    static void onceBeforeAnyTestsRun() {
+        config = new IntegrationTramTestConfig(GraphDBType.InMemory, IntegrationTramTestConfig.Caching.Enabled);
+        componentContainer = new ComponentsBuilder().create(config, TestEnv.NoopRegisterMetrics());
+        componentContainer.initialise();
+        database = componentContainer.get(GraphDatabase.class);
+    }
+
+    @AfterAll
+    static void OnceAfterAllTestsAreFinished() {
+        componentContainer.close();
+    }
+
+    @BeforeEach
+    void beforeEachTestRuns() {
+        txn = database.beginTx(TXN_TIMEOUT, TimeUnit.SECONDS);
+        graphCalculator = componentContainer.get(TramRouteCalculator.class);
+        raptorCalculator = componentContainer.get(RouteCalculatorRaptor.class);
+        stationRepository = componentContainer.get(StationRepository.class);
+    }
+
+    @AfterEach
+    void afterEachTestRuns() {
+        txn.close();
+    }
+
+    @Test
+    void shouldHaveSameEarliestArrivalAsGraphSearch() {
+        for (final List<TramStations> pair : pairs) {
+            final Station start = pair.get(0).from(stationRepository);
+            final Station dest = pair.get(1).from(stationRepository);
+            for (final TramTime time : times) {
+                final JourneyRequest journeyRequest = new JourneyRequest(when, time, false, 3,
+                        TramDuration.ofMinutes(config.getMaxJourneyDuration()), 3, TransportMode.TramsOnly);
+
+                final Optional<TramTime> viaGraph = earliestArrival(graphCalculator.calculateRoute(txn, start, dest,
+                        journeyRequest, () -> true));
+                final Optional<TramTime> viaRaptor = earliestArrival(raptorCalculator.calculateRoute(txn, start, dest,
+                        journeyRequest, () -> true));
+
+                assertEquals(viaGraph, viaRaptor, "Mismatch from " + start.getId() + " to " + dest.getId() +
+                        " for " + journeyRequest);
+            }
+        }
+    }
+
+    private Optional<TramTime> earliestArrival(final Stream<Journey> journeys) {
+        try (journeys) {
+            return journeys.map(Journey::getArrivalTime).min(TramTime::compareTo);
+        }
+    }
+}
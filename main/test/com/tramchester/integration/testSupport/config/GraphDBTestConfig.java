@@ -44,6 +44,16 @@ public class GraphDBTestConfig implements GraphDBConfig {
         return false;
     }
 
+    @Override
+    public Boolean enableCompactGraph() {
+        return false;
+    }
+
+    @Override
+    public Boolean enableMappedGraph() {
+        return false;
+    }
+
     private Path createGraphDatabasePath(final TestGroupType group) {
         final Set<DataSourceID> sourcesFromConfig = config.getRemoteSources().stream().
                 map(RemoteDataSourceConfig::getDataSourceId).
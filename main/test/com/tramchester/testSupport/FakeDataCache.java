@@ -21,8 +21,9 @@ public class FakeDataCache implements DataCache {
         }
 
         @Override
-        public <CACHETYPE extends CachableData, T extends FileDataCache.CachesData<CACHETYPE>> void loadInto(T cachesData, Class<CACHETYPE> theClass) {
+        public <CACHETYPE extends CachableData, T extends FileDataCache.CachesData<CACHETYPE>> boolean loadInto(T cachesData, Class<CACHETYPE> theClass) {
             // no op
+            return true;
         }
 
         @Override
@@ -37,7 +37,7 @@ public class InMemoryDataCache implements DataCache {
 
     @SuppressWarnings("unchecked")
     @Override
-    public <CACHETYPE extends CachableData, T extends FileDataCache.CachesData<CACHETYPE>> void loadInto(T cachesData, Class<CACHETYPE> dataClass) {
+    public <CACHETYPE extends CachableData, T extends FileDataCache.CachesData<CACHETYPE>> boolean loadInto(T cachesData, Class<CACHETYPE> dataClass) {
 
         if (!has(cachesData)) {
             throw new RuntimeException("No data for type " + dataClass);
@@ -50,6 +50,7 @@ public class InMemoryDataCache implements DataCache {
         } catch (FileDataCache.CacheLoadException e) {
             throw new RuntimeException("Failed",e);
         }
+        return true;
     }
 
     @Override
@@ -0,0 +1,124 @@
+package com.tramchester.unit.caching;
+
+import com.tramchester.caching.BinaryCacheFile;
+import com.tramchester.caching.BinaryCachesData;
+import com.tramchester.caching.FileDataCache;
+import com.tramchester.dataexport.HasDataSaver;
+import com.tramchester.dataimport.data.RouteIndexData;
+import com.tramchester.domain.collections.IndexedBitSet;
+import com.tramchester.testSupport.TestEnv;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryCacheFileTest {
+
+    private static final Path cacheFolder = TestEnv.CACHE_DIR.resolve("BinaryCacheFileTest");
+    private static final int SIZE = 100;
+
+    private Path path;
+
+    @BeforeEach
+    void onceBeforeEachTestRuns() throws IOException {
+        Files.createDirectories(cacheFolder);
+        path = cacheFolder.resolve("bitset.bin");
+        Files.deleteIfExists(path);
+    }
+
+    @AfterEach
+    void onceAfterEachTestRuns() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    void shouldRoundTripBitSet() throws IOException, FileDataCache.CacheLoadException {
+        IndexedBitSet original = IndexedBitSet.Square(SIZE);
+        original.set(0, 0);
+        original.set(42, 17);
+        original.set(SIZE - 1, SIZE - 1);
+
+        BinaryCacheFile.write(path, new TestBinaryData(original));
+
+        TestBinaryData loaded = new TestBinaryData(IndexedBitSet.Square(SIZE));
+        BinaryCacheFile.read(path, loaded);
+
+        assertEquals(original, loaded.bitSet);
+    }
+
+    @Test
+    void shouldRejectCorruptedPayload() throws IOException {
+        IndexedBitSet original = IndexedBitSet.Square(SIZE);
+        original.set(5, 6);
+        BinaryCacheFile.write(path, new TestBinaryData(original));
+
+        byte[] contents = Files.readAllBytes(path);
+        // last byte of the payload, just before the trailer of two longs
+        int index = contents.length - (2 * Long.BYTES) - 1;
+        contents[index] = (byte) ~contents[index];
+        Files.write(path, contents);
+
+        assertThrows(IOException.class, () -> BinaryCacheFile.read(path, new TestBinaryData(IndexedBitSet.Square(SIZE))));
+    }
+
+    @Test
+    void shouldRejectTruncatedFile() throws IOException {
+        BinaryCacheFile.write(path, new TestBinaryData(IndexedBitSet.Square(SIZE)));
+
+        byte[] contents = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(contents, contents.length - 3));
+
+        assertThrows(IOException.class, () -> BinaryCacheFile.read(path, new TestBinaryData(IndexedBitSet.Square(SIZE))));
+    }
+
+    private static class TestBinaryData implements BinaryCachesData<RouteIndexData> {
+        private final IndexedBitSet bitSet;
+
+        private TestBinaryData(IndexedBitSet bitSet) {
+            this.bitSet = bitSet;
+        }
+
+        @Override
+        public void writeTo(DataOutput output) throws IOException {
+            bitSet.writeTo(output);
+        }
+
+        @Override
+        public void readFrom(ByteBuffer payload) throws FileDataCache.CacheLoadException {
+            try {
+                bitSet.readFrom(payload);
+            } catch (IOException exception) {
+                throw new FileDataCache.CacheLoadException(exception.getMessage());
+            }
+        }
+
+        @Override
+        public void cacheTo(HasDataSaver<RouteIndexData> saver) {
+            throw new RuntimeException("Not used");
+        }
+
+        @Override
+        public String getFilename() {
+            return "bitset.bin";
+        }
+
+        @Override
+        public void loadFrom(Stream<RouteIndexData> stream) {
+            throw new RuntimeException("Not used");
+        }
+
+        @Override
+        public Class<RouteIndexData> getDataType() {
+            return RouteIndexData.class;
+        }
+    }
+}
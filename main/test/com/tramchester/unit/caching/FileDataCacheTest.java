@@ -1,5 +1,6 @@
 package com.tramchester.unit.caching;
 
+import com.tramchester.caching.BinaryCachesData;
 import com.tramchester.caching.CachableData;
 import com.tramchester.caching.FileDataCache;
 import com.tramchester.caching.LoaderSaverFactory;
@@ -24,6 +25,10 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -117,6 +122,34 @@ public class FileDataCacheTest extends EasyMockSupport  {
         validateCacheClassToDisk(toSave, toLoad, CostsPerDegreeData.class, items);
     }
 
+    @Test
+    void shouldRemoveInvalidBinaryCacheFileSoItIsRebuilt() throws IOException {
+        EasyMock.expect(remoteDataRefreshed.refreshed(tfgm)).andStubReturn(false);
+
+        replayAll();
+
+        dataCache.start();
+        dataCache.register(RouteIndexData.class, ImmutableEnumSet.of(tfgm));
+
+        final TestBinaryData toSave = new TestBinaryData(42);
+        dataCache.save(toSave, RouteIndexData.class);
+        assertTrue(dataCache.has(toSave));
+
+        final TestBinaryData loaded = new TestBinaryData(0);
+        assertTrue(dataCache.loadInto(loaded, RouteIndexData.class));
+        assertEquals(42, loaded.value);
+
+        // e.g. from an older format version
+        final Path filePath = cacheFolder.resolve(toSave.getFilename());
+        Files.write(filePath, new byte[]{1, 2, 3, 4});
+
+        assertFalse(dataCache.loadInto(new TestBinaryData(0), RouteIndexData.class));
+        assertFalse(Files.exists(filePath));
+        assertFalse(dataCache.has(toSave));
+
+        verifyAll();
+    }
+
     @NotNull
     private List<Short> asShorts(int...values) {
         return Arrays.stream(values).boxed().map(Integer::shortValue).
@@ -297,6 +330,44 @@ public class FileDataCacheTest extends EasyMockSupport  {
     }
 
 
+    private static class TestBinaryData implements BinaryCachesData<RouteIndexData> {
+        private int value;
+
+        private TestBinaryData(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public void writeTo(DataOutput output) throws IOException {
+            output.writeInt(value);
+        }
+
+        @Override
+        public void readFrom(ByteBuffer payload) {
+            value = payload.getInt();
+        }
+
+        @Override
+        public void cacheTo(HasDataSaver<RouteIndexData> saver) {
+            throw new RuntimeException("Not used");
+        }
+
+        @Override
+        public String getFilename() {
+            return "testBinaryData.bin";
+        }
+
+        @Override
+        public void loadFrom(Stream<RouteIndexData> stream) {
+            throw new RuntimeException("Not used");
+        }
+
+        @Override
+        public Class<RouteIndexData> getDataType() {
+            return RouteIndexData.class;
+        }
+    }
+
     private static class LocalTestConfig extends TestConfig {
         private final Path cacheFolder;
 
@@ -0,0 +1,73 @@
+package com.tramchester.unit.caching;
+
+import com.tramchester.caching.FileDataCache;
+import com.tramchester.dataimport.data.RoutePairInterconnectsData;
+import com.tramchester.graph.search.routes.RouteInterconnectRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RouteInterconnectsBinaryTest {
+
+    private static final int MAX_DEPTH = 2;
+    private static final int NUM_ROUTES = 10;
+
+    private RouteInterconnectRepository.RouteInterconnects interconnects;
+
+    @BeforeEach
+    void onceBeforeEachTestRuns() throws FileDataCache.CacheLoadException {
+        interconnects = new RouteInterconnectRepository.RouteInterconnects(MAX_DEPTH);
+        interconnects.start(null, NUM_ROUTES);
+
+        // more words than fit in a signed short
+        BitSet large = new BitSet();
+        large.set(0);
+        large.set((Short.MAX_VALUE + 10) * Long.SIZE);
+
+        BitSet small = new BitSet();
+        small.set(3);
+
+        interconnects.loadFrom(Stream.of(new RoutePairInterconnectsData(0, (short) 1, (short) 2, large),
+                new RoutePairInterconnectsData(1, (short) 4, (short) 7, small)));
+    }
+
+    @Test
+    void shouldRoundTripLargeBitSets() throws IOException, FileDataCache.CacheLoadException {
+        byte[] written = write(interconnects);
+
+        RouteInterconnectRepository.RouteInterconnects loaded = new RouteInterconnectRepository.RouteInterconnects(MAX_DEPTH);
+        loaded.start(null, NUM_ROUTES);
+        loaded.readFrom(ByteBuffer.wrap(written));
+
+        assertArrayEquals(written, write(loaded));
+    }
+
+    @Test
+    void shouldRejectTruncatedPayload() throws IOException {
+        byte[] written = write(interconnects);
+
+        RouteInterconnectRepository.RouteInterconnects loaded = new RouteInterconnectRepository.RouteInterconnects(MAX_DEPTH);
+        loaded.start(null, NUM_ROUTES);
+
+        assertThrows(FileDataCache.CacheLoadException.class,
+                () -> loaded.readFrom(ByteBuffer.wrap(Arrays.copyOf(written, written.length - Long.BYTES))));
+    }
+
+    private byte[] write(RouteInterconnectRepository.RouteInterconnects toWrite) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            toWrite.writeTo(output);
+        }
+        return bytes.toByteArray();
+    }
+}
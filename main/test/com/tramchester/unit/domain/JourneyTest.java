@@ -63,6 +63,7 @@ class JourneyTest {
         assertTrue(journey.isDirect());
         assertFalse(journey.firstStageIsWalk());
         assertEquals(journeyIndex, journey.getJourneyIndex());
+        assertEquals(0, journey.getNumberChanges());
 
         assertEquals(Altrincham.getId(), journey.getBeginning().getId());
     }
@@ -164,6 +165,7 @@ class JourneyTest {
 
         assertFalse(journey.isDirect());
         assertEquals(Bury.getId(), journey.getBeginning().getId());
+        assertEquals(1, journey.getNumberChanges());
     }
 
     @Test
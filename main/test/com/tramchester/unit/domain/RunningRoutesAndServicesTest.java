@@ -228,6 +228,38 @@ public class RunningRoutesAndServicesTest extends EasyMockSupport {
         assertTrue(filter.isServiceRunningByDate(serviceBId, true));
     }
 
+    @Test
+    void shouldOnlyCheckCalendarsOnceForSameDateAndModes() {
+        EasyMock.expect(calendarA.operatesOn(date)).andReturn(true);
+        EasyMock.expect(calendarA.operatesOn(nextDay)).andReturn(false);
+        EasyMock.expect(calendarA.operatesOn(previousDate)).andReturn(false);
+        EasyMock.expect(calendarB.operatesOn(date)).andReturn(false);
+        EasyMock.expect(calendarB.operatesOn(nextDay)).andReturn(true);
+        EasyMock.expect(calendarB.operatesOn(previousDate)).andReturn(false);
+
+        EasyMock.expect(routeA.isAvailableOn(date)).andReturn(true);
+        EasyMock.expect(routeA.isAvailableOn(nextDay)).andReturn(false);
+        EasyMock.expect(routeA.isAvailableOn(previousDate)).andReturn(false);
+        EasyMock.expect(routeB.isAvailableOn(date)).andReturn(false);
+        EasyMock.expect(routeB.isAvailableOn(nextDay)).andReturn(false);
+        EasyMock.expect(routeB.isAvailableOn(previousDate)).andReturn(false);
+
+        replayAll();
+        RunningRoutesAndServices.FilterForDate first = runningRoutesAndServices.getFor(date, modes);
+        RunningRoutesAndServices.FilterForDate second = runningRoutesAndServices.getFor(date, modes);
+        verifyAll();
+
+        for (RunningRoutesAndServices.FilterForDate filter : Arrays.asList(first, second)) {
+            assertTrue(filter.isServiceRunningByDate(serviceAId, false));
+            assertFalse(filter.isServiceRunningByDate(serviceBId, false));
+            assertTrue(filter.isServiceRunningByDate(serviceBId, true));
+            assertTrue(filter.isRouteRunning(routeAId, false));
+            assertFalse(filter.isRouteRunning(routeBId, true));
+        }
+
+        assertFalse(first.isServiceRunningByDate(Service.createId("unknownService"), false));
+    }
+
     private void setRouteAvailableExpectations(Route route, boolean yesterday, boolean today, boolean tomorrow) {
         EasyMock.expect(route.isAvailableOn(previousDate)).andStubReturn(yesterday);
         EasyMock.expect(route.isAvailableOn(date)).andStubReturn(today);
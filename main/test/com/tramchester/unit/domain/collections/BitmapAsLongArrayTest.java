@@ -0,0 +1,220 @@
+package com.tramchester.unit.domain.collections;
+
+import com.tramchester.domain.collections.BitmapAsLongArray;
+import com.tramchester.domain.collections.BitmapAsRoaringBitmap;
+import com.tramchester.domain.collections.SimpleBitmap;
+import com.tramchester.domain.collections.SimpleImmutableBitmap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitmapAsLongArrayTest {
+
+    // spans more than one word
+    public static final int SIZE = 150;
+    private BitmapAsLongArray simpleBitmap;
+
+    @BeforeEach
+    public void onceBeforeEachTestRuns() {
+        simpleBitmap = new BitmapAsLongArray(SIZE);
+    }
+
+    // See also BitmapAsRoaringBitmapTest
+
+    @Test
+    void shouldAllBeUnsetOnCreation() {
+        for (int i = 0; i < SIZE; i++) {
+            assertFalse(simpleBitmap.get(i));
+        }
+        assertTrue(simpleBitmap.isEmpty());
+    }
+
+    @Test
+    void shouldHaveSize() {
+        assertEquals(SIZE, simpleBitmap.size());
+    }
+
+    @Test
+    void shouldSetBits() {
+        for (int i = 0; i < SIZE; i++) {
+            simpleBitmap.set(i);
+            assertTrue(simpleBitmap.get(i));
+            assertEquals(1, simpleBitmap.cardinality());
+            simpleBitmap.set(i, false);
+            assertFalse(simpleBitmap.get(i));
+        }
+        assertThrows(RuntimeException.class, () -> simpleBitmap.set(SIZE));
+    }
+
+    @Test
+    void shouldSetAllAcrossWords() {
+        simpleBitmap.setAll(60, 130);
+        assertEquals(70, simpleBitmap.cardinality());
+        assertFalse(simpleBitmap.get(59));
+        assertTrue(simpleBitmap.get(60));
+        assertTrue(simpleBitmap.get(129));
+        assertFalse(simpleBitmap.get(130));
+
+        simpleBitmap.setAll(64, 128, false);
+        assertEquals(6, simpleBitmap.cardinality());
+
+        simpleBitmap.setAll(0, SIZE);
+        assertEquals(SIZE, simpleBitmap.cardinality());
+    }
+
+    @Test
+    void shouldOrAndAndNot() {
+        SimpleBitmap other = simpleBitmap.createCopy();
+        simpleBitmap.set(1);
+        simpleBitmap.set(70);
+        other.set(70);
+        other.set(140);
+
+        SimpleBitmap forOr = simpleBitmap.createCopy();
+        forOr.or(other);
+        assertEquals(List.of(1, 70, 140), indexes(forOr));
+
+        SimpleBitmap forAnd = simpleBitmap.createCopy();
+        forAnd.and(other);
+        assertEquals(List.of(70), indexes(forAnd));
+
+        SimpleBitmap forAndNot = simpleBitmap.createCopy();
+        forAndNot.andNot(other);
+        assertEquals(List.of(1), indexes(forAndNot));
+    }
+
+    @Test
+    void shouldInteroperateWithRoaringBitmap() {
+        BitmapAsRoaringBitmap roaring = new BitmapAsRoaringBitmap(SIZE);
+        roaring.set(3);
+        roaring.set(100);
+        simpleBitmap.set(100);
+        simpleBitmap.set(149);
+
+        SimpleBitmap longArray = simpleBitmap.createCopy();
+        longArray.or(roaring);
+        assertEquals(List.of(3, 100, 149), indexes(longArray));
+
+        BitmapAsRoaringBitmap roaringCopy = roaring.createCopy();
+        roaringCopy.and(simpleBitmap);
+        assertEquals(List.of(100), indexes(roaringCopy));
+
+        roaring.andNot(simpleBitmap);
+        assertEquals(List.of(3), indexes(roaring));
+    }
+
+    @Test
+    void shouldAndWithRoaringBitmapAcrossWords() {
+        BitmapAsRoaringBitmap roaring = new BitmapAsRoaringBitmap(SIZE);
+        roaring.set(2);
+        roaring.set(70);
+        roaring.set(149);
+        simpleBitmap.set(1);
+        simpleBitmap.set(2);
+        simpleBitmap.set(64);
+        simpleBitmap.set(70);
+        simpleBitmap.set(130);
+        simpleBitmap.set(149);
+
+        SimpleBitmap forAnd = simpleBitmap.createCopy();
+        forAnd.and(roaring);
+        assertEquals(List.of(2, 70, 149), indexes(forAnd));
+
+        SimpleBitmap forAndNot = simpleBitmap.createCopy();
+        forAndNot.andNot(roaring);
+        assertEquals(List.of(1, 64, 130), indexes(forAndNot));
+
+        SimpleBitmap withNone = simpleBitmap.createCopy();
+        withNone.and(new BitmapAsRoaringBitmap(SIZE));
+        assertTrue(withNone.isEmpty());
+    }
+
+    @Test
+    void shouldOrAtOffsetAcrossWords() {
+        BitmapAsLongArray other = new BitmapAsLongArray(70);
+        other.set(0);
+        other.set(63);
+        other.set(69);
+
+        simpleBitmap.orAtOffset(10, other);
+        assertEquals(List.of(10, 73, 79), indexes(simpleBitmap));
+
+        BitmapAsRoaringBitmap roaring = new BitmapAsRoaringBitmap(SIZE);
+        roaring.orAtOffset(10, other);
+        assertEquals(List.of(10, 73, 79), indexes(roaring));
+    }
+
+    @Test
+    void shouldRoundTripViaRoaringForm() throws IOException {
+        simpleBitmap.set(0);
+        simpleBitmap.set(64);
+        simpleBitmap.set(149);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            simpleBitmap.writeTo(output);
+        }
+
+        BitmapAsRoaringBitmap asRoaring = new BitmapAsRoaringBitmap(SIZE);
+        asRoaring.readFrom(ByteBuffer.wrap(bytes.toByteArray()));
+        assertEquals(List.of(0, 64, 149), indexes(asRoaring));
+
+        BitmapAsLongArray asLongArray = new BitmapAsLongArray(SIZE);
+        asLongArray.readFrom(ByteBuffer.wrap(bytes.toByteArray()));
+        assertEquals(simpleBitmap, asLongArray);
+    }
+
+    @Test
+    void shouldGetSubsetAcrossWords() {
+        simpleBitmap.set(1);
+        simpleBitmap.set(62);
+        simpleBitmap.set(65);
+        simpleBitmap.set(130);
+        SimpleImmutableBitmap submap = simpleBitmap.getSubmap(60, 129);
+
+        assertEquals(70, submap.size());
+        assertEquals(2, submap.cardinality(), submap.toString());
+        assertTrue(submap.get(2));
+        assertTrue(submap.get(5));
+        assertEquals(List.of(2, 5), indexes(submap));
+    }
+
+    @Test
+    void shouldInsert() {
+        BitmapAsLongArray other = new BitmapAsLongArray(3);
+        other.set(0);
+        other.set(2);
+        simpleBitmap.set(64);
+        simpleBitmap.set(65);
+
+        simpleBitmap.insert(63, other);
+
+        assertEquals(List.of(63, 65), indexes(simpleBitmap));
+    }
+
+    @Test
+    void shouldHaveArrayOfSetBits() {
+        simpleBitmap.set(0);
+        simpleBitmap.set(64);
+        simpleBitmap.set(149);
+
+        assertArrayEquals(new int[]{0, 64, 149}, simpleBitmap.toArray());
+    }
+
+    @Test
+    void shouldCreateBasedOnDensity() {
+        assertInstanceOf(BitmapAsLongArray.class, SimpleBitmap.create(1000, 500));
+        assertInstanceOf(BitmapAsRoaringBitmap.class, SimpleBitmap.create(1000, 10));
+    }
+
+    private List<Integer> indexes(SimpleImmutableBitmap bitmap) {
+        return bitmap.getBitIndexes().map(Short::intValue).sorted().toList();
+    }
+}
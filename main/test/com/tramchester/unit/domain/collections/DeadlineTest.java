@@ -0,0 +1,52 @@
+package com.tramchester.unit.domain.collections;
+
+import com.tramchester.domain.collections.Deadline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeadlineTest {
+
+    private AtomicLong clock;
+    private AtomicInteger expiredCount;
+
+    @BeforeEach
+    void onceBeforeEachTestRuns() {
+        clock = new AtomicLong(Long.MAX_VALUE - TimeUnit.MILLISECONDS.toNanos(50));
+        expiredCount = new AtomicInteger(0);
+    }
+
+    @Test
+    void shouldRunUntilDeadlineEvenIfClockWraps() {
+        Deadline deadline = new Deadline(100, clock::get, expiredCount::incrementAndGet);
+
+        assertTrue(deadline.isRunning());
+        assertFalse(deadline.hasExpired());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(99));
+        assertTrue(deadline.isRunning());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertFalse(deadline.isRunning());
+        assertTrue(deadline.hasExpired());
+        assertEquals(1, expiredCount.get());
+    }
+
+    @Test
+    void shouldOnlyNotifyExpiredOnce() {
+        Deadline deadline = new Deadline(10, clock::get, expiredCount::incrementAndGet);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(20));
+
+        assertFalse(deadline.isRunning());
+        assertFalse(deadline.isRunning());
+        assertFalse(deadline.isRunning());
+
+        assertEquals(1, expiredCount.get());
+    }
+}
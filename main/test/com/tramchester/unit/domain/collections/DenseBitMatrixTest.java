@@ -0,0 +1,118 @@
+package com.tramchester.unit.domain.collections;
+
+import com.tramchester.domain.collections.DenseBitMatrix;
+import com.tramchester.domain.collections.IndexedBitSet;
+import com.tramchester.domain.collections.SimpleBitmap;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DenseBitMatrixTest {
+
+    @Test
+    void shouldSetAndGetAcrossWordBoundaries() {
+        DenseBitMatrix matrix = new DenseBitMatrix(3, 130);
+
+        matrix.set(0, 0);
+        matrix.set(1, 63);
+        matrix.set(1, 64);
+        matrix.set(2, 129);
+
+        assertTrue(matrix.isSet(0, 0));
+        assertTrue(matrix.isSet(1, 63));
+        assertTrue(matrix.isSet(1, 64));
+        assertTrue(matrix.isSet(2, 129));
+        assertFalse(matrix.isSet(0, 64));
+        assertFalse(matrix.isSet(2, 1));
+        assertEquals(4, matrix.cardinality());
+
+        assertThrows(RuntimeException.class, () -> matrix.set(3, 0));
+        assertThrows(RuntimeException.class, () -> matrix.set(0, 130));
+    }
+
+    @Test
+    void shouldConvertRowsToAndFromIndexedBitSet() {
+        IndexedBitSet bits = IndexedBitSet.Square(70);
+        bits.set(0, 1);
+        bits.set(0, 69);
+        bits.set(5, 64);
+
+        DenseBitMatrix matrix = DenseBitMatrix.from(bits, 70, 70);
+        assertEquals(3, matrix.cardinality());
+        assertTrue(matrix.isSet(0, 69));
+        assertTrue(matrix.isSet(5, 64));
+
+        SimpleBitmap row = matrix.getRowAsBitmap(0);
+        assertEquals(70, row.size());
+        assertEquals(2, row.cardinality());
+        assertTrue(row.get(1));
+        assertTrue(row.get(69));
+    }
+
+    @Test
+    void shouldApplyRowWiseOperations() {
+        DenseBitMatrix matrix = new DenseBitMatrix(2, 2);
+        matrix.set(0, 0);
+        matrix.set(0, 1);
+        matrix.set(1, 1);
+
+        DenseBitMatrix mask = new DenseBitMatrix(2, 2);
+        mask.set(0, 1);
+        mask.set(1, 0);
+
+        matrix.and(mask);
+        assertEquals(1, matrix.cardinality());
+        assertTrue(matrix.isSet(0, 1));
+
+        matrix.or(mask);
+        assertTrue(matrix.isSet(1, 0));
+
+        matrix.andNot(mask);
+        assertEquals(0, matrix.cardinality());
+    }
+
+    @Test
+    void shouldMultiply() {
+        // 0->1, 1->2, 2->0
+        DenseBitMatrix matrix = new DenseBitMatrix(3, 3);
+        matrix.set(0, 1);
+        matrix.set(1, 2);
+        matrix.set(2, 0);
+
+        DenseBitMatrix result = matrix.multiply(matrix);
+
+        assertEquals(3, result.cardinality());
+        assertTrue(result.isSet(0, 2));
+        assertTrue(result.isSet(1, 0));
+        assertTrue(result.isSet(2, 1));
+    }
+
+    @Test
+    void shouldMatchBitByBitProductWhenLargerThanOneBlock() {
+        int size = 300;
+        Random random = new Random(42);
+        IndexedBitSet bits = IndexedBitSet.Square(size);
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                if (random.nextInt(100) < 2) {
+                    bits.set(row, column);
+                }
+            }
+        }
+
+        DenseBitMatrix matrix = DenseBitMatrix.from(bits, size, size);
+        DenseBitMatrix result = matrix.multiply(matrix);
+
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                boolean expected = false;
+                for (int via = 0; via < size && !expected; via++) {
+                    expected = bits.isSet(row, via) && bits.isSet(via, column);
+                }
+                assertEquals(expected, result.isSet(row, column), "mismatch at " + row + "," + column);
+            }
+        }
+    }
+}
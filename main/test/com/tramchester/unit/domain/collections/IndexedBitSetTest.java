@@ -128,6 +128,38 @@ public class IndexedBitSetTest {
         assertTrue(bits.isSet(0,0));
     }
 
+    @Test
+    void shouldHaveSameResultsWhenDense() {
+        IndexedBitSet sparse = new IndexedBitSet(3,70);
+        IndexedBitSet dense = new IndexedBitSet(3,70, 3*70);
+
+        SimpleBitmap row = SimpleBitmap.create(70, 70);
+        row.set(0);
+        row.set(65);
+        row.set(69);
+        sparse.insert(1, row);
+        dense.insert(1, row);
+        sparse.set(2, 65);
+        dense.set(2, 65);
+
+        SimpleBitmap mask = SimpleBitmap.create(70);
+        mask.set(65);
+        mask.set(69);
+        sparse.applyAndToRow(1, mask);
+        dense.applyAndToRow(1, mask);
+
+        assertEquals(sparse.getPairs().collect(Collectors.toSet()), dense.getPairs().collect(Collectors.toSet()));
+        assertEquals(3, dense.numberOfBitsSet());
+
+        IndexedBitSet rowAndColumn = dense.getCopyOfRowAndColumn(1, 65);
+        assertEquals(3, rowAndColumn.numberOfBitsSet(), rowAndColumn.toString());
+
+        IndexedBitSet result = IndexedBitSet.and(sparse, dense);
+        assertEquals(3, result.numberOfBitsSet());
+        assertTrue(result.isSet(1, 69));
+        assertTrue(result.isSet(2, 65));
+    }
+
     @Test
     void shouldInsertBits() {
         IndexedBitSet bits = new IndexedBitSet(3,4);
@@ -102,6 +102,18 @@ public class JourneyQueryDTOTest {
         assertFalse(result.getDiagnosticsEnabled());
     }
 
+    @Test
+    void shouldConvertToJourneyRequestWithRaptor() {
+        JourneyQueryDTO dto = new JourneyQueryDTO(LocalDate.of(2022, 11, 15),
+                LocalTime.of(13,56), LocationType.Station, new IdForDTO("startId"),
+                LocationType.Station, new IdForDTO("destId"), false, 2, null);
+
+        assertFalse(JourneyQueryDTO.toJourneyRequest(config, dto).useRaptor(config));
+
+        dto.setRaptor(true);
+        assertTrue(JourneyQueryDTO.toJourneyRequest(config, dto).useRaptor(config));
+    }
+
     @Test
     void shouldConvertToJourneyRequestLateNightIntoNextDay() {
         TramTime afterMidnight = TramTime.nextDay(0,14);
@@ -247,4 +247,40 @@ class JourneyStateTest extends EasyMockSupport {
         assertEquals(1, newStateB.getNumberChanges());
     }
 
+    @Test
+    void shouldNotSeeUpdatesFromCopiesOrOriginal() throws TramchesterException {
+        JourneyState original = new JourneyState(queryTime, traversalState);
+        IdFor<Trip> tripId1 = MutableTrip.createId("trip1");
+        IdFor<Trip> tripId2 = MutableTrip.createId("trip2");
+        IdFor<Trip> tripId3 = MutableTrip.createId("trip3");
+
+        original.board(TransportMode.Tram, node, true);
+        original.recordTimeAtMinuteNode(TramTime.of(9,30), TramDuration.ofMinutes(10));
+        original.beginTrip(tripId1);
+        original.leave(TransportMode.Tram, TramDuration.ofMinutes(25), node);
+
+        JourneyState copyA = JourneyState.fromPrevious(original);
+        JourneyState copyB = JourneyState.fromPrevious(original);
+
+        copyA.board(TransportMode.Tram, node, true);
+        copyA.recordTimeAtMinuteNode(TramTime.of(9,50), TramDuration.ofMinutes(25));
+        copyA.beginTrip(tripId2);
+        copyA.leave(TransportMode.Tram, TramDuration.ofMinutes(35), node);
+
+        assertTrue(copyA.alreadyDeparted(tripId1));
+        assertTrue(copyA.alreadyDeparted(tripId2));
+        assertFalse(original.alreadyDeparted(tripId2));
+        assertFalse(copyB.alreadyDeparted(tripId2));
+
+        original.board(TransportMode.Tram, node, true);
+        original.recordTimeAtMinuteNode(TramTime.of(9,50), TramDuration.ofMinutes(25));
+        original.beginTrip(tripId3);
+        original.leave(TransportMode.Tram, TramDuration.ofMinutes(35), node);
+
+        assertTrue(original.alreadyDeparted(tripId3));
+        assertFalse(copyA.alreadyDeparted(tripId3));
+        assertFalse(copyB.alreadyDeparted(tripId3));
+        assertTrue(copyB.alreadyDeparted(tripId1));
+    }
+
 }
@@ -62,7 +62,7 @@ class RouteCalculatorArriveByTest extends EasyMockSupport {
         ImmutableEnumSet<TransportMode> modes = TransportMode.TramsOnly;
 
         TramDuration duration = TramDuration.ofMinutes(15);
-        EasyMock.expect(costCalculator.getAverageCostBetween(txn, start, destinationId, localDate, modes)).andReturn(duration);
+        EasyMock.expect(costCalculator.getLeastCostBetween(txn, start, destinationId, localDate, modes)).andReturn(duration);
         TramTime requiredDepartTime = arriveByTime.minusMinutes(costBetweenStartDest).minusMinutes(17); // 17 = 34/2
 
         JourneyRequest.MaxNumberOfChanges maxChanges = JourneyRequest.MaxNumberOfChanges.of(2);
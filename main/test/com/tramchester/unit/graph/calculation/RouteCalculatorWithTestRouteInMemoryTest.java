@@ -127,6 +127,27 @@ class RouteCalculatorWithTestRouteInMemoryTest {
 
     }
 
+    @Test
+    void shouldFindLeastCostSearchingFromBothEnds() {
+
+        GraphNode beginNode = txn.findNode(transportData.getFirst());
+        GraphNode destNode = txn.findNode(transportData.getLast());
+        GraphNode otherNode = txn.findNode(transportData.getFifthStation());
+
+        final FindPathsForJourney.GraphRelationshipFilter filter = relationship ->
+                RouteCostCalculator.costApproxTypes.contains(relationship.getType());
+
+        ShortestPath shortestPath = new ShortestPath(txn, beginNode);
+
+        assertEquals(TramDuration.ofMinutes(41), shortestPath.findLeastCostTo(destNode, filter));
+        assertEquals(shortestPath.findShortestPathsTo(otherNode, filter), shortestPath.findLeastCostTo(otherNode, filter));
+        assertEquals(TramDuration.ZERO, shortestPath.findLeastCostTo(beginNode, filter));
+
+        ShortestPath wrongWay = new ShortestPath(txn, destNode);
+        assertEquals(FindPathsForJourney.NotVisitedDuration, wrongWay.findLeastCostTo(beginNode, filter));
+
+    }
+
     @Test
     void shouldDoInMemoryRouteCalcSimple() {
         TramRouteCalculator tramRouteCalculator = componentContainer.get(TramRouteCalculator.class);
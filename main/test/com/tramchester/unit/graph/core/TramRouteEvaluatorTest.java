@@ -52,6 +52,7 @@ import static com.tramchester.graph.search.diagnostics.ReasonCode.*;
 import static com.tramchester.testSupport.reference.TramStations.ExchangeSquare;
 import static com.tramchester.testSupport.reference.TramStations.Shudehill;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 class TramRouteEvaluatorTest extends EasyMockSupport {
 
@@ -113,6 +114,8 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
         JourneyRequest journeyRequest = new JourneyRequest(
                 UpcomingDates.nextSaturday(), queryTime, false,
                 config.getMaxNumberChanges(), TramDuration.ofMinutes(config.getMaxJourneyDuration()), maxNumberOfJourneys, TransportMode.TramsOnly);
+        // HowIGotHere is only created when diagnostics are enabled
+        journeyRequest.setDiag(true);
         reasons = new ServiceReasons(journeyRequest, queryTime, providesNow, failedJourneyDiagnostics);
 
         serviceHeuristics = createMock(ServiceHeuristics.class);
@@ -155,6 +158,12 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
 
     @NotNull
     private TramRouteEvaluator getEvaluatorForTest(GraphNodeId destinationNodeId, final boolean isRunning) {
+        return getEvaluatorForTest(destinationNodeId, isRunning, reasons);
+    }
+
+    @NotNull
+    private TramRouteEvaluator getEvaluatorForTest(GraphNodeId destinationNodeId, final boolean isRunning,
+                                                   final ServiceReasons reasons) {
         Set<GraphNodeId> destinationNodeIds = new HashSet<>();
         destinationNodeIds.add(destinationNodeId);
 
@@ -219,7 +228,7 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
         final GraphLabels labels = GraphLabels.forTesting(HOUR.singleton());
         EasyMock.expect(node.getLabels()).andReturn(labels);
 
-        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere)).
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere.getEndNodeId(), howIGotHere)).
                 andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
 
         EasyMock.expect(arrivalHandler.checkDuration(journeyState)).andReturn(ArrivalHandler.Outcome.Better);
@@ -279,7 +288,7 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
         final GraphLabels labels = GraphLabels.forTesting(HOUR.singleton());
         EasyMock.expect(node.getLabels()).andReturn(labels);
 
-        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere.getEndNodeId(), howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
 
         EasyMock.expect(arrivalHandler.checkDuration(journeyState)).andReturn(ArrivalHandler.Outcome.Worse);
         arrivalHandler.recordArrival(journeyState);
@@ -314,7 +323,7 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
         final GraphLabels labels = GraphLabels.forTesting(HOUR.singleton());
         EasyMock.expect(node.getLabels()).andReturn(labels);
 
-        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere.getEndNodeId(), howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
 
         EasyMock.expect(arrivalHandler.checkDuration(journeyState)).andReturn(ArrivalHandler.Outcome.Worse);
         arrivalHandler.recordArrival(journeyState);
@@ -345,7 +354,7 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
         EasyMock.expect(node.getLabels()).andReturn(labels);
 
         HeuristicsReason cacheHit = HeuristicsReasons.DoesNotOperateAtHour(time, howIGotHere, 8);
-        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere)).andReturn(cacheHit);
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere.getEndNodeId(), howIGotHere)).andReturn(cacheHit);
         EasyMock.expect(providesNow.getInstant()).andStubReturn(Instant.now());
 
         replayAll();
@@ -367,7 +376,7 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
         EasyMock.expect(node.getLabels()).andReturn(labels);
 
         HeuristicsReason cacheHit = HeuristicsReasons.DoesNotOperateOnTime(time, howIGotHere);
-        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere)).andReturn(cacheHit);
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere.getEndNodeId(), howIGotHere)).andReturn(cacheHit);
 
         EasyMock.expect(providesNow.getInstant()).andStubReturn(Instant.now());
 
@@ -393,7 +402,7 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
         final GraphLabels labels = GraphLabels.forTesting(HOUR.singleton());
         EasyMock.expect(node.getLabels()).andReturn(labels);
 
-        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere)).
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere.getEndNodeId(), howIGotHere)).
                 andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
 
         EasyMock.expect(path.length()).andReturn(201);
@@ -439,7 +448,7 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
         EasyMock.expect(serviceHeuristics.checkServiceDateAndTime(node, howIGotHere, reasons, time, 13)).
                 andReturn(HeuristicsReasons.DoesNotRunOnQueryDate(howIGotHere, serviceId));
 
-        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere.getEndNodeId(), howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
 
         previousSuccessfulVisit.cacheVisitIfUseful(HeuristicsReasons.DoesNotRunOnQueryDate(howIGotHere, serviceId), node, journeyState, labels);
         EasyMock.expectLastCall();
@@ -485,7 +494,7 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
         EasyMock.expect(serviceHeuristics.checkStationOpen(node, howIGotHere, reasons)).
                 andReturn(HeuristicsReasons.StationClosed(howIGotHere, Shudehill.getId()));
 
-        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere.getEndNodeId(), howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
         previousSuccessfulVisit.cacheVisitIfUseful(HeuristicsReasons.StationClosed(howIGotHere, Shudehill.getId()), node, journeyState, labels);
         EasyMock.expectLastCall();
         EasyMock.expect(providesNow.getInstant()).andStubReturn(Instant.now());
@@ -548,7 +557,7 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
                 andReturn(createValidReason(StationOpen));
         EasyMock.expect(providesNow.getInstant()).andStubReturn(Instant.now());
 
-        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere)).
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere.getEndNodeId(), howIGotHere)).
                 andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
         previousSuccessfulVisit.cacheVisitIfUseful(createValidReason(Continue), node, journeyState, labels);
         EasyMock.expectLastCall();
@@ -586,7 +595,7 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
         EasyMock.expect(node.getLabels()).andReturn(labels);
 
 
-        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere)).
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere.getEndNodeId(), howIGotHere)).
                 andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
         previousSuccessfulVisit.cacheVisitIfUseful(createValidReason(Continue), node, journeyState, labels);
         EasyMock.expectLastCall();
@@ -627,7 +636,7 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
         final GraphLabels labels = GraphLabels.forTesting(ROUTE_STATION.singleton());
         EasyMock.expect(node.getLabels()).andReturn(labels);
 
-        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere.getEndNodeId(), howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
         previousSuccessfulVisit.cacheVisitIfUseful(HeuristicsReasons.TookTooLong(time, howIGotHere), node, journeyState, labels);
         EasyMock.expectLastCall();
         EasyMock.expect(providesNow.getInstant()).andStubReturn(Instant.now());
@@ -655,7 +664,7 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
 
         final GraphLabels labels = GraphLabels.forTesting(HOUR.singleton());
 
-        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere)).
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere.getEndNodeId(), howIGotHere)).
                 andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
 
         EasyMock.expect(node.getLabels()).andReturn(labels);
@@ -693,7 +702,7 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
         EasyMock.expect(arrivalHandler.overArrivalsLimit(journeyState)).andReturn(false);
         EasyMock.expect(arrivalHandler.alreadyMoreChanges(journeyState, 0)).andReturn(false);
 
-        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere.getEndNodeId(), howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
         previousSuccessfulVisit.cacheVisitIfUseful(HeuristicsReasons.TooManyChanges(howIGotHere, 5), node, journeyState, labels);
         EasyMock.expectLastCall();
         EasyMock.expect(providesNow.getInstant()).andStubReturn(Instant.now());
@@ -732,7 +741,7 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
         EasyMock.expect(serviceHeuristics.interestedInHour(howIGotHere, time, reasons, maxInitialWaitMins, node)).
                 andReturn(HeuristicsReasons.DoesNotOperateAtHour(time, howIGotHere, 8));
 
-        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere.getEndNodeId(), howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
         previousSuccessfulVisit.cacheVisitIfUseful(HeuristicsReasons.DoesNotOperateAtHour(time, howIGotHere, 8), node, journeyState, labels);
         EasyMock.expectLastCall();
         EasyMock.expect(providesNow.getInstant()).andStubReturn(Instant.now());
@@ -778,7 +787,7 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
         EasyMock.expect(serviceHeuristics.checkTime(howIGotHere, node, time, reasons, config.getMaxWait())).
                 andReturn(HeuristicsReasons.DoesNotOperateOnTime(time, howIGotHere));
 
-        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere.getEndNodeId(), howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
         previousSuccessfulVisit.cacheVisitIfUseful(HeuristicsReasons.DoesNotOperateOnTime(time, howIGotHere), node, journeyState, labels);
         EasyMock.expectLastCall();
         EasyMock.expect(providesNow.getInstant()).andStubReturn(Instant.now());
@@ -826,7 +835,7 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
         EasyMock.expect(serviceHeuristics.checkNotBeenOnTripBefore(howIGotHere, node, journeyState, reasons)).
                 andReturn(HeuristicsReasons.SameTrip(tripId, howIGotHere));
 
-        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere.getEndNodeId(), howIGotHere)).andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
         previousSuccessfulVisit.cacheVisitIfUseful(HeuristicsReasons.SameTrip(tripId, howIGotHere), node, journeyState, labels);
         EasyMock.expectLastCall();
         EasyMock.expect(providesNow.getInstant()).andStubReturn(Instant.now());
@@ -858,11 +867,12 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
 
         final GraphLabels labels = GraphLabels.forTesting(GROUPED.singleton());
         EasyMock.expect(node.getLabels()).andReturn(labels);
+        EasyMock.expect(node.getAreaId()).andReturn(NPTGLocality.createId("area"));
 
         EasyMock.expect(serviceHeuristics.journeyDurationUnderLimit(TramDuration.ZERO,howIGotHere, reasons)).
                 andReturn(createValidReason(DurationOk));
 
-        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere)).
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, howIGotHere.getEndNodeId(), howIGotHere)).
                 andReturn(HeuristicsReasons.CacheMiss(howIGotHere));
         previousSuccessfulVisit.cacheVisitIfUseful(createValidReason(Continue), node, journeyState, labels);
         EasyMock.expectLastCall();
@@ -875,6 +885,77 @@ class TramRouteEvaluatorTest extends EasyMockSupport {
         verifyAll();
     }
 
+    @Test
+    void shouldUseSharedReasonsWhenDiagnosticsDisabled() {
+        ServiceReasons noDiagReasons = createReasonsWithoutDiagnostics();
+        GraphNodeId nodeId = howIGotHere.getEndNodeId();
+
+        EasyMock.reset(path);
+        EasyMock.expect(path.getEndNode(txn)).andReturn(node);
+        EasyMock.expect(path.length()).andReturn(201);
+        EasyMock.expect(serviceHeuristics.getMaxPathLength()).andStubReturn(200);
+
+        TramTime time = TramTime.of(8, 15);
+        NotStartedState traversalState = getNotStartedState(startNodeId);
+        final JourneyState journeyState = new JourneyState(time, traversalState);
+
+        expectContinueForArrivalHandler(journeyState);
+
+        final GraphLabels labels = GraphLabels.forTesting(HOUR.singleton());
+        EasyMock.expect(node.getLabels()).andReturn(labels);
+
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, nodeId, null)).
+                andReturn(noDiagReasons.getReasonFactory().CacheMiss(null));
+
+        HeuristicsReason pathTooLong = noDiagReasons.getReasonFactory().PathToLong(null);
+        assertSame(pathTooLong, CodeOnlyHeuristicReason.of(PathTooLong, false));
+        previousSuccessfulVisit.cacheVisitIfUseful(pathTooLong, node, journeyState, labels);
+        EasyMock.expectLastCall();
+        EasyMock.expect(providesNow.getInstant()).andStubReturn(Instant.now());
+
+        replayAll();
+        TramRouteEvaluator evaluator = getEvaluatorForTest(destinationNodeId, true, noDiagReasons);
+        GraphEvaluationAction result = evaluator.evaluate(path, journeyState);
+        assertEquals(EXCLUDE_AND_PRUNE, result);
+        verifyAll();
+    }
+
+    @Test
+    void shouldUseSharedReasonForCachedWhenDiagnosticsDisabled() {
+        ServiceReasons noDiagReasons = createReasonsWithoutDiagnostics();
+        GraphNodeId nodeId = howIGotHere.getEndNodeId();
+
+        EasyMock.reset(path);
+        EasyMock.expect(path.getEndNode(txn)).andReturn(node);
+
+        TramTime time = TramTime.of(8, 15);
+        NotStartedState traversalState = getNotStartedState(startNodeId);
+        final JourneyState journeyState = new JourneyState(time, traversalState);
+
+        final GraphLabels labels = GraphLabels.forTesting(HOUR.singleton());
+        EasyMock.expect(node.getLabels()).andReturn(labels);
+
+        HeuristicsReason cacheHit = noDiagReasons.getReasonFactory().DoesNotOperateAtHour(time, null, 8);
+        EasyMock.expect(previousSuccessfulVisit.getPreviousResult(journeyState, labels, nodeId, null)).andReturn(cacheHit);
+        EasyMock.expect(providesNow.getInstant()).andStubReturn(Instant.now());
+
+        replayAll();
+        TramRouteEvaluator evaluator = getEvaluatorForTest(destinationNodeId, true, noDiagReasons);
+        GraphEvaluationAction result = evaluator.evaluate(path, journeyState);
+        assertEquals(EXCLUDE_AND_PRUNE, result);
+        verifyAll();
+
+        assertSame(CodeOnlyHeuristicReason.of(CachedNotAtHour, false), noDiagReasons.getReasonFactory().Cached(cacheHit, null));
+    }
+
+    private ServiceReasons createReasonsWithoutDiagnostics() {
+        JourneyRequest journeyRequest = new JourneyRequest(
+                UpcomingDates.nextSaturday(), queryTime, false,
+                config.getMaxNumberChanges(), TramDuration.ofMinutes(config.getMaxJourneyDuration()), 2, TransportMode.TramsOnly);
+        CreateJourneyDiagnostics failedJourneyDiagnostics = createMock(CreateJourneyDiagnostics.class);
+        return new ServiceReasons(journeyRequest, queryTime, providesNow, failedJourneyDiagnostics);
+    }
+
     @NotNull
     private HeuristicsReason createValidReason(ReasonCode reasonCode) {
         return HeuristicReasonsOK.IsValid(reasonCode, howIGotHere);
@@ -0,0 +1,108 @@
+package com.tramchester.unit.graph.inMemory;
+
+import com.tramchester.domain.collections.ImmutableEnumSet;
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.graph.core.GraphEntity;
+import com.tramchester.graph.core.GraphId;
+import com.tramchester.graph.core.GraphNode;
+import com.tramchester.graph.core.GraphTransaction;
+import com.tramchester.graph.core.inMemory.*;
+import com.tramchester.graph.reference.GraphLabel;
+import com.tramchester.graph.reference.GraphLabels;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.tramchester.graph.reference.TransportRelationshipTypes.BOARD;
+import static com.tramchester.graph.reference.TransportRelationshipTypes.TRAM_GOES_TO;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GraphPathInMemoryTest {
+
+    private final GraphTransaction txn = null; // not used by in memory entities
+    private GraphNodeInMemory nodeA;
+    private GraphNodeInMemory nodeB;
+    private GraphNodeInMemory nodeC;
+    private GraphRelationshipInMemory fromAtoB;
+    private GraphRelationshipInMemory fromBtoC;
+
+    @BeforeEach
+    void onceBeforeEachTestRuns() {
+        nodeA = createNode(1);
+        nodeB = createNode(2);
+        nodeC = createNode(3);
+
+        fromAtoB = new GraphRelationshipInMemory(BOARD, new RelationshipIdInMemory(10), nodeA.getId(), nodeB.getId(), false);
+        fromAtoB.setCost(TramDuration.ofMinutes(3));
+        fromBtoC = new GraphRelationshipInMemory(TRAM_GOES_TO, new RelationshipIdInMemory(11), nodeB.getId(), nodeC.getId(), false);
+        fromBtoC.setCost(TramDuration.ofMinutes(7));
+    }
+
+    @Test
+    void shouldExtendWithoutChangingOriginal() {
+        GraphPathInMemory start = new GraphPathInMemory().duplicateWith(txn, nodeA);
+        GraphPathInMemory toB = start.duplicateWith(txn, fromAtoB).duplicateWith(txn, nodeB);
+
+        assertEquals(1, start.length());
+        assertEquals(3, toB.length());
+
+        assertEquals(nodeA, start.getEndNode(txn));
+        assertEquals(nodeB, toB.getEndNode(txn));
+        assertEquals(nodeA, toB.getStartNode(txn));
+        assertEquals(fromAtoB, toB.getLastRelationship(txn));
+        assertEquals(nodeA.getId(), toB.getPreviousNodeId(txn));
+
+        List<GraphEntity<? extends GraphId>> entities = new ArrayList<>();
+        toB.getEntities(txn).forEach(entities::add);
+        assertEquals(List.of(nodeA, fromAtoB, nodeB), entities);
+
+        List<GraphNode> nodes = new ArrayList<>();
+        toB.getNodes(txn).forEach(nodes::add);
+        assertEquals(List.of(nodeA, nodeB), nodes);
+    }
+
+    @Test
+    void shouldAccumulateTotalCost() {
+        GraphPathInMemory start = new GraphPathInMemory().duplicateWith(txn, nodeA);
+        GraphPathInMemory toB = start.duplicateWith(txn, fromAtoB).duplicateWith(txn, nodeB);
+        GraphPathInMemory toC = toB.duplicateWith(txn, fromBtoC).duplicateWith(txn, nodeC);
+
+        assertEquals(TramDuration.ofSeconds(Integer.MAX_VALUE), start.getTotalCost());
+        assertEquals(TramDuration.ofMinutes(10), toC.getTotalCost());
+        assertEquals(TramDuration.ofMinutes(3), toB.getTotalCost());
+    }
+
+    @Test
+    void shouldHaveEqualityAndHashOnIdsAlongPath() {
+        GraphPathInMemory pathA = new GraphPathInMemory().duplicateWith(txn, nodeA).
+                duplicateWith(txn, fromAtoB).duplicateWith(txn, nodeB);
+        GraphPathInMemory pathB = new GraphPathInMemory().duplicateWith(txn, nodeA).
+                duplicateWith(txn, fromAtoB).duplicateWith(txn, nodeB);
+
+        assertEquals(pathA, pathB);
+        assertEquals(pathA.hashCode(), pathB.hashCode());
+        assertEquals(pathA.getEntitiesIds(), pathB.getEntitiesIds());
+        assertEquals(pathA, pathA.duplicate());
+
+        GraphPathInMemory different = new GraphPathInMemory().duplicateWith(txn, nodeB);
+        assertNotEquals(pathA, different);
+
+        SearchStateKey keyA = SearchStateKey.create(pathA, nodeC.getId());
+        SearchStateKey keyB = SearchStateKey.create(pathB, nodeC.getId());
+        assertEquals(keyA, keyB);
+        assertEquals(keyA.hashCode(), keyB.hashCode());
+    }
+
+    @Test
+    void shouldCheckConsistencyWhenAddingRelationship() {
+        GraphPathInMemory start = new GraphPathInMemory().duplicateWith(txn, nodeA);
+        assertThrows(RuntimeException.class, () -> start.duplicateWith(txn, fromBtoC));
+        assertThrows(RuntimeException.class, () -> new GraphPathInMemory().duplicateWith(txn, fromAtoB));
+    }
+
+    private static GraphNodeInMemory createNode(final int id) {
+        return new GraphNodeInMemory(new NodeIdInMemory(id), GraphLabels.forTesting(ImmutableEnumSet.of(GraphLabel.STATION)), false);
+    }
+}
@@ -9,6 +9,8 @@ import com.tramchester.domain.time.ProvidesLocalNow;
 import com.tramchester.domain.time.TramTime;
 import com.tramchester.graph.core.inMemory.*;
 import com.tramchester.graph.core.inMemory.persist.GraphPersistence;
+import com.tramchester.graph.core.inMemory.persist.GraphSnapshot;
+import com.tramchester.graph.core.inMemory.persist.SnapshotFile;
 import com.tramchester.graph.reference.GraphLabel;
 import com.tramchester.graph.reference.GraphLabels;
 import com.tramchester.graph.reference.GraphLabelsFactory;
@@ -18,12 +20,16 @@ import org.easymock.EasyMockSupport;
 import org.junit.jupiter.api.*;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.attribute.FileTime;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Stream;
+import java.util.zip.CRC32;
 
 import static com.tramchester.domain.reference.TransportMode.Tram;
 import static com.tramchester.graph.reference.TransportRelationshipTypes.BOARD;
@@ -34,6 +40,7 @@ public class GraphPersistenceTest extends EasyMockSupport {
     private static final Path GRAPH_PATH = Path.of("testData/GraphSaveAndLoadTest/graph");
     private Path relationshipsFilename;
     private Path nodesFilename;
+    private Path snapshotFilename;
     private GraphPersistence graphPersistence;
     private NodesAndEdges nodesAndEdges;
     private Platform buryPlatform;
@@ -55,6 +62,7 @@ public class GraphPersistenceTest extends EasyMockSupport {
     public void onceBeforeEachTestRuns() throws IOException {
         relationshipsFilename = GRAPH_PATH.resolve(GraphPersistence.RELATIONSHIPS_FILENAME);
         nodesFilename = GRAPH_PATH.resolve(GraphPersistence.NODES_FILENAME);
+        snapshotFilename = GRAPH_PATH.resolve(GraphPersistence.SNAPSHOT_FILENAME);
 
         time = TramTime.of(13, 44);
         date = TramDate.of(2026, 12, 21);
@@ -63,6 +71,7 @@ public class GraphPersistenceTest extends EasyMockSupport {
 
         Files.deleteIfExists(relationshipsFilename);
         Files.deleteIfExists(nodesFilename);
+        Files.deleteIfExists(snapshotFilename);
 
         GetsFileModTime getFileModeTime = new GetsFileModTime();
         ProvidesLocalNow providesLocalNow =  new ProvidesLocalNow();
@@ -96,6 +105,7 @@ public class GraphPersistenceTest extends EasyMockSupport {
     public void onceAfterEachTestRuns() throws IOException {
         Files.deleteIfExists(relationshipsFilename);
         Files.deleteIfExists(nodesFilename);
+        Files.deleteIfExists(snapshotFilename);
     }
 
     @Test
@@ -115,6 +125,7 @@ public class GraphPersistenceTest extends EasyMockSupport {
         assertTrue(saved);
         assertTrue(Files.exists(nodesFilename),"missing nodes");
         assertTrue(Files.exists(relationshipsFilename), "missing relationships");
+        assertTrue(Files.exists(snapshotFilename), "missing snapshot");
 
         FileTime modTime = Files.getLastModifiedTime(GRAPH_PATH);
 
@@ -202,4 +213,162 @@ public class GraphPersistenceTest extends EasyMockSupport {
 
         assertEquals(1, result.getNumberOf(BOARD));
     }
+
+    @Test
+    void shouldSaveAndLoadGraphFromSnapshotOnly() throws IOException {
+        GraphInMemoryServiceManager serviceManager = createMock(GraphInMemoryServiceManager.class);
+        GraphCore graphCode = createMock(GraphCore.class);
+
+        EasyMock.expect(graphCode.findNodesImmutable(GraphLabel.VERSION)).andReturn(Stream.of(versionNode));
+        EasyMock.expect(serviceManager.getGraphCore()).andReturn(graphCode);
+        EasyMock.expect(graphCode.getNodesAndEdges()).andReturn(nodesAndEdges);
+
+        GraphIdFactory idFactory = new GraphIdFactory();
+        GraphLabelsFactory graphLabelsFactory = new GraphLabelsFactory();
+
+        replayAll();
+        graphPersistence.save(GRAPH_PATH, serviceManager);
+        verifyAll();
+
+        // make sure json is not used
+        Files.delete(relationshipsFilename);
+        Files.delete(nodesFilename);
+
+        assertTrue(graphPersistence.filesExistIn(GRAPH_PATH));
+
+        GraphCore result = graphPersistence.loadDBFrom(GRAPH_PATH, idFactory, graphLabelsFactory);
+
+        List<GraphNodeInMemory> stations = result.findNodesMutable(GraphLabel.STATION).toList();
+        assertEquals(1, stations.size());
+        assertEquals(Tram, stations.getFirst().getTransportMode());
+
+        List<GraphNodeInMemory> platforms = result.findNodesMutable(GraphLabel.PLATFORM).toList();
+        assertEquals(1, platforms.size());
+        assertEquals(buryPlatform.getId(), platforms.getFirst().getPlatformId());
+
+        List<GraphNodeInMemory> versions = result.findNodesMutable(GraphLabel.VERSION).toList();
+        assertEquals(1, versions.size());
+        GraphNodeInMemory loadedVersion = versions.getFirst();
+        assertEquals(time, loadedVersion.getTime());
+        assertEquals(date, loadedVersion.getStartDate());
+
+        assertEquals(1, result.getNumberOf(BOARD));
+    }
+
+    @Test
+    void shouldFailToLoadCorruptSnapshotWithoutJson() throws IOException {
+        GraphInMemoryServiceManager serviceManager = createMock(GraphInMemoryServiceManager.class);
+        GraphCore graphCode = createMock(GraphCore.class);
+
+        EasyMock.expect(graphCode.findNodesImmutable(GraphLabel.VERSION)).andReturn(Stream.of(versionNode));
+        EasyMock.expect(serviceManager.getGraphCore()).andReturn(graphCode);
+        EasyMock.expect(graphCode.getNodesAndEdges()).andReturn(nodesAndEdges);
+
+        replayAll();
+        graphPersistence.save(GRAPH_PATH, serviceManager);
+        verifyAll();
+
+        Files.delete(relationshipsFilename);
+        Files.delete(nodesFilename);
+
+        byte[] contents = Files.readAllBytes(snapshotFilename);
+        contents[contents.length / 2] = (byte) (contents[contents.length / 2] ^ 0xFF);
+        Files.write(snapshotFilename, contents);
+
+        assertThrows(RuntimeException.class, () -> graphPersistence.loadDBFrom(GRAPH_PATH, new GraphIdFactory(), new GraphLabelsFactory()));
+    }
+
+    @Test
+    void shouldSaveJsonWhenSnapshotCannotBeSaved() throws IOException {
+        GraphInMemoryServiceManager serviceManager = createMock(GraphInMemoryServiceManager.class);
+        GraphCore graphCode = createMock(GraphCore.class);
+
+        EasyMock.expect(graphCode.findNodesImmutable(GraphLabel.VERSION)).andReturn(Stream.of(versionNode));
+        EasyMock.expect(serviceManager.getGraphCore()).andReturn(graphCode);
+        EasyMock.expect(graphCode.getNodesAndEdges()).andReturn(nodesAndEdges);
+
+        // snapshot cannot be written over a directory
+        Files.createDirectories(snapshotFilename);
+
+        replayAll();
+        assertTrue(graphPersistence.save(GRAPH_PATH, serviceManager));
+        verifyAll();
+
+        assertFalse(Files.exists(snapshotFilename));
+        assertTrue(Files.exists(relationshipsFilename));
+        assertTrue(Files.exists(nodesFilename));
+
+        GraphCore result = graphPersistence.loadDBFrom(GRAPH_PATH, new GraphIdFactory(), new GraphLabelsFactory());
+        assertEquals(1, result.findNodesMutable(GraphLabel.STATION).count());
+    }
+
+    @Test
+    void shouldFallbackToJsonWhenSnapshotHasUnknownName() throws IOException {
+        GraphInMemoryServiceManager serviceManager = createMock(GraphInMemoryServiceManager.class);
+        GraphCore graphCode = createMock(GraphCore.class);
+
+        EasyMock.expect(graphCode.findNodesImmutable(GraphLabel.VERSION)).andReturn(Stream.of(versionNode));
+        EasyMock.expect(serviceManager.getGraphCore()).andReturn(graphCode);
+        EasyMock.expect(graphCode.getNodesAndEdges()).andReturn(nodesAndEdges);
+
+        replayAll();
+        graphPersistence.save(GRAPH_PATH, serviceManager);
+        verifyAll();
+
+        // as if the label was renamed since the snapshot was saved, checksums updated so only the name is wrong
+        byte[] contents = Files.readAllBytes(snapshotFilename);
+        ByteBuffer buffer = ByteBuffer.wrap(contents);
+        int trailerStart = contents.length - (3 * Long.BYTES);
+        int indexStart = (2 * Integer.BYTES) + (int) buffer.getLong(trailerStart);
+
+        byte[] name = GraphLabel.STATION.name().getBytes(StandardCharsets.UTF_8);
+        int position = indexOf(contents, name, indexStart);
+        assertTrue(position > 0, "label name not found");
+        contents[position] = 'X';
+
+        CRC32 crc = new CRC32();
+        crc.update(contents, indexStart, trailerStart - indexStart);
+        buffer.putLong(trailerStart + (2 * Long.BYTES), crc.getValue());
+        Files.write(snapshotFilename, contents);
+
+        GraphCore result = graphPersistence.loadDBFrom(GRAPH_PATH, new GraphIdFactory(), new GraphLabelsFactory());
+        assertEquals(1, result.findNodesMutable(GraphLabel.STATION).count());
+
+        assertTrue(graphPersistence.openSnapshot(GRAPH_PATH).isEmpty());
+    }
+
+    @Test
+    void shouldReplaceSnapshotWithoutDisturbingExistingMapping() throws IOException {
+        Files.createDirectories(GRAPH_PATH);
+        GraphSnapshot snapshot = new GraphSnapshot();
+        snapshot.save(snapshotFilename, nodesAndEdges);
+
+        SnapshotFile mapped = SnapshotFile.open(snapshotFilename);
+        int numberOfNodes = mapped.getNumberOfNodes();
+
+        GraphNodeInMemory extra = new GraphNodeInMemory(new NodeIdInMemory(4), GraphLabels.forTesting(ImmutableEnumSet.of(GraphLabel.STATION)),
+                false);
+        extra.setTransportMode(Tram);
+        nodesAndEdges.addNode(extra.getId(), extra);
+        snapshot.save(snapshotFilename, nodesAndEdges);
+
+        // original mapping still intact
+        mapped.verifyProperties();
+        assertEquals(Tram, mapped.decodeNode(0, new GraphLabelsFactory()).getTransportMode());
+
+        assertEquals(numberOfNodes + 1, SnapshotFile.open(snapshotFilename).getNumberOfNodes());
+
+        try (Stream<Path> files = Files.list(GRAPH_PATH)) {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString().endsWith(".tmp")));
+        }
+    }
+
+    private static int indexOf(byte[] contents, byte[] target, int from) {
+        for (int i = from; i <= contents.length - target.length; i++) {
+            if (Arrays.equals(contents, i, i + target.length, target, 0, target.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
 }
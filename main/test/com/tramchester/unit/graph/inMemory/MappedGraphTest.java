@@ -0,0 +1,127 @@
+package com.tramchester.unit.graph.inMemory;
+
+import com.tramchester.domain.Platform;
+import com.tramchester.domain.collections.ImmutableEnumSet;
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.graph.GraphPropertyKey;
+import com.tramchester.graph.core.GraphDirection;
+import com.tramchester.graph.core.GraphNode;
+import com.tramchester.graph.core.GraphRelationship;
+import com.tramchester.graph.core.inMemory.*;
+import com.tramchester.graph.core.inMemory.persist.GraphSnapshot;
+import com.tramchester.graph.core.inMemory.persist.SnapshotFile;
+import com.tramchester.graph.reference.GraphLabel;
+import com.tramchester.graph.reference.GraphLabels;
+import com.tramchester.graph.reference.GraphLabelsFactory;
+import com.tramchester.testSupport.TestEnv;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.tramchester.domain.reference.TransportMode.Tram;
+import static com.tramchester.graph.reference.TransportRelationshipTypes.*;
+import static com.tramchester.testSupport.reference.TramStations.Bury;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedGraphTest {
+    private static final Path SNAPSHOT_PATH = Path.of("testData/MappedGraphTest.snapshot");
+
+    private MappedGraph mappedGraph;
+    private Platform buryPlatform;
+    private GraphNodeInMemory station;
+    private GraphNodeInMemory platform;
+    private GraphRelationshipInMemory board;
+
+    @BeforeEach
+    void onceBeforeEachTestRuns() throws IOException {
+        Files.createDirectories(SNAPSHOT_PATH.getParent());
+        buryPlatform = TestEnv.createPlatformFor(Bury.fake(), "42");
+
+        NodesAndEdges nodesAndEdges = new NodesAndEdges();
+
+        station = new GraphNodeInMemory(new NodeIdInMemory(7), GraphLabels.forTesting(ImmutableEnumSet.of(GraphLabel.STATION)), false);
+        station.setTransportMode(Tram);
+        station.set(buryPlatform.getStation());
+        nodesAndEdges.addNode(station.getId(), station);
+
+        platform = new GraphNodeInMemory(new NodeIdInMemory(3), GraphLabels.forTesting(ImmutableEnumSet.of(GraphLabel.PLATFORM)), false);
+        platform.setPlatformNumber(buryPlatform);
+        platform.set(buryPlatform);
+        nodesAndEdges.addNode(platform.getId(), platform);
+
+        board = new GraphRelationshipInMemory(BOARD, new RelationshipIdInMemory(5), station.getId(), platform.getId(), false);
+        board.setCost(TramDuration.ofMinutes(2));
+        nodesAndEdges.putRelationship(board.getId(), board);
+
+        GraphRelationshipInMemory leave = new GraphRelationshipInMemory(LEAVE_PLATFORM, new RelationshipIdInMemory(2),
+                platform.getId(), station.getId(), false);
+        nodesAndEdges.putRelationship(leave.getId(), leave);
+
+        new GraphSnapshot().save(SNAPSHOT_PATH, nodesAndEdges);
+
+        mappedGraph = MappedGraph.createFrom(SnapshotFile.open(SNAPSHOT_PATH), new GraphLabelsFactory());
+    }
+
+    @AfterEach
+    void onceAfterEachTestRuns() throws IOException {
+        Files.deleteIfExists(SNAPSHOT_PATH);
+    }
+
+    @Test
+    void shouldHaveStructureFromSnapshot() {
+        assertEquals(2, mappedGraph.getNumberOfNodes());
+        assertEquals(2, mappedGraph.getNumberOfRelationships());
+        assertEquals(1, mappedGraph.getNumberOf(BOARD));
+        assertEquals(1, mappedGraph.getNumberOf(LEAVE_PLATFORM));
+        assertEquals(0, mappedGraph.getNumberOf(DEPART));
+        assertTrue(mappedGraph.isImmutable());
+    }
+
+    @Test
+    void shouldDecodeNodesOnDemand() {
+        List<GraphNode> stations = mappedGraph.findNodesImmutable(GraphLabel.STATION).toList();
+        assertEquals(1, stations.size());
+        GraphNode found = stations.getFirst();
+        assertEquals(station.getId(), found.getId());
+        assertEquals(Tram, found.getTransportMode());
+
+        GraphNode byId = mappedGraph.getNodeImmutable(platform.getId());
+        assertNotNull(byId);
+        assertEquals(buryPlatform.getId(), byId.getPlatformId());
+
+        assertNull(mappedGraph.getNodeImmutable(new NodeIdInMemory(42)));
+    }
+
+    @Test
+    void shouldFindNodesByProperty() {
+        List<GraphNode> found = mappedGraph.findNodesImmutable(GraphLabel.PLATFORM, GraphPropertyKey.PLATFORM_ID,
+                buryPlatform.getId().getGraphId()).toList();
+        assertEquals(1, found.size());
+        assertEquals(platform.getId(), found.getFirst().getId());
+
+        assertTrue(mappedGraph.findNodesImmutable(GraphLabel.STATION, GraphPropertyKey.PLATFORM_ID,
+                buryPlatform.getId().getGraphId()).findAny().isEmpty());
+    }
+
+    @Test
+    void shouldFindRelationships() {
+        List<GraphRelationship> outbound = mappedGraph.findRelationshipsImmutableFor(station.getId(), GraphDirection.Outgoing).toList();
+        assertEquals(1, outbound.size());
+        GraphRelationship relationship = outbound.getFirst();
+        assertEquals(board.getId(), relationship.getId());
+        assertEquals(TramDuration.ofMinutes(2), relationship.getCost());
+
+        List<GraphRelationship> inbound = mappedGraph.findRelationshipsImmutableFor(station.getId(), GraphDirection.Incoming,
+                ImmutableEnumSet.of(LEAVE_PLATFORM)).toList();
+        assertEquals(1, inbound.size());
+
+        assertEquals(2, mappedGraph.findRelationshipsImmutableFor(platform.getId(), GraphDirection.Both).count());
+        assertEquals(1, mappedGraph.findRelationships(BOARD).count());
+        assertEquals(board.getId(), mappedGraph.getRelationship(board.getId()).getId());
+    }
+}
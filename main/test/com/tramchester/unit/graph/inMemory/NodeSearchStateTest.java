@@ -154,6 +154,80 @@ public class NodeSearchStateTest extends EasyMockSupport {
         assertEquals(stateA, thrid);
     }
 
+    @Test
+    void shouldOrderOnEstimatedTotalForAStar() {
+        GraphPathInMemory path = createMockPathOfLength(8);
+
+        replayAll();
+        NodeSearchState stateA = NodeSearchState.createAStarSearchState(getStateKey(1), TramDuration.ofMinutes(8), path, false, 600);
+        NodeSearchState stateB = NodeSearchState.createAStarSearchState(getStateKey(2), TramDuration.ofMinutes(2), path, false, 1200);
+        NodeSearchState stateC = NodeSearchState.createAStarSearchState(getStateKey(3), TramDuration.ofMinutes(11), path, false, 0);
+
+        PriorityQueue<NodeSearchState> queue = new PriorityQueue<>();
+        queue.add(stateA);
+        queue.add(stateB);
+        queue.add(stateC);
+
+        NodeSearchState first = queue.poll();
+        NodeSearchState second = queue.poll();
+        NodeSearchState third = queue.poll();
+
+        verifyAll();
+
+        assertEquals(stateC, first);
+        assertEquals(stateA, second);
+        assertEquals(stateB, third);
+    }
+
+    @Test
+    void shouldJumpQueueForAStar() {
+        GraphPathInMemory path = createMockPathOfLength(8);
+
+        replayAll();
+        NodeSearchState stateA = NodeSearchState.createAStarSearchState(getStateKey(1), TramDuration.ofMinutes(1), path, false, 0);
+        NodeSearchState stateB = NodeSearchState.createAStarSearchState(getStateKey(2), TramDuration.ofMinutes(30), path, true, 0);
+
+        PriorityQueue<NodeSearchState> queue = new PriorityQueue<>();
+        queue.add(stateA);
+        queue.add(stateB);
+
+        NodeSearchState first = queue.poll();
+        NodeSearchState second = queue.poll();
+
+        verifyAll();
+
+        assertEquals(stateB, first);
+        assertEquals(stateA, second);
+    }
+
+    @Test
+    void shouldOrderInitialStateWithAStarStatesOnSameKey() {
+        GraphPathInMemory path = createMockPathOfLength(8);
+
+        replayAll();
+        NodeSearchState initial = NodeSearchState.createInitialState(getStateKey(1), path);
+        NodeSearchState stateA = NodeSearchState.createAStarSearchState(getStateKey(2), TramDuration.ofMinutes(1), path, false, 60);
+        NodeSearchState stateB = NodeSearchState.createAStarSearchState(getStateKey(3), TramDuration.ofSeconds(30), path, false, 0);
+
+        PriorityQueue<NodeSearchState> queue = new PriorityQueue<>();
+        queue.add(stateA);
+        queue.add(initial);
+        queue.add(stateB);
+
+        NodeSearchState first = queue.poll();
+        NodeSearchState second = queue.poll();
+        NodeSearchState third = queue.poll();
+
+        verifyAll();
+
+        assertEquals(initial, first);
+        assertEquals(stateB, second);
+        assertEquals(stateA, third);
+
+        assertEquals(-1, initial.compareTo(stateB));
+        assertEquals(1, stateB.compareTo(initial));
+    }
+
     private GraphPathInMemory createMockPathOfLength(final int len) {
         GraphPathInMemory path = createMock(GraphPathInMemory.class);
         EasyMock.expect(path.length()).andStubReturn(len);
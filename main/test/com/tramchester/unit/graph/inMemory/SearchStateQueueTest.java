@@ -0,0 +1,114 @@
+package com.tramchester.unit.graph.inMemory;
+
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.graph.core.inMemory.GraphIdListInMem;
+import com.tramchester.graph.core.inMemory.GraphPathInMemory;
+import com.tramchester.graph.core.inMemory.NodeIdInMemory;
+import com.tramchester.graph.core.inMemory.SearchStateKey;
+import com.tramchester.graph.search.inMemory.NodeSearchState;
+import com.tramchester.graph.search.inMemory.SearchStateQueue;
+import org.easymock.EasyMock;
+import org.easymock.EasyMockSupport;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchStateQueueTest extends EasyMockSupport {
+
+    private SearchStateQueue queue;
+    private GraphPathInMemory path;
+
+    @BeforeEach
+    void onceBeforeEachTestRuns() {
+        queue = new SearchStateQueue();
+        path = createMock(GraphPathInMemory.class);
+        EasyMock.expect(path.duplicate()).andStubReturn(path);
+    }
+
+    @Test
+    void shouldOrderSameAsNodeSearchState() {
+        replayAll();
+        NodeSearchState stateA = createState(1, 8, false);
+        NodeSearchState stateB = createState(2, 2, false);
+        NodeSearchState stateC = createState(3, 11, false);
+        NodeSearchState stateD = createState(4, 5, true);
+
+        queue.add(stateA);
+        queue.add(stateB);
+        queue.add(stateC);
+        queue.add(stateD);
+        verifyAll();
+
+        assertEquals(4, queue.size());
+        assertEquals(stateD, queue.poll());
+        assertEquals(stateC, queue.poll());
+        assertEquals(stateA, queue.poll());
+        assertEquals(stateB, queue.poll());
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void shouldUpdateInPlace() {
+        replayAll();
+        queue.add(createState(1, 8, false));
+        queue.add(createState(2, 2, false));
+        queue.add(createState(3, 11, false));
+
+        // moves to front
+        NodeSearchState updatedB = createState(2, 20, false);
+        queue.update(updatedB);
+        // moves to back
+        NodeSearchState updatedC = createState(3, 1, false);
+        queue.update(updatedC);
+        verifyAll();
+
+        assertEquals(3, queue.size());
+        NodeSearchState first = queue.poll();
+        assertEquals(updatedB, first);
+        assertEquals(TramDuration.ofMinutes(20), first.getDuration());
+        assertEquals(getStateKey(1), queue.poll().getStateKey());
+        NodeSearchState last = queue.poll();
+        assertEquals(TramDuration.ofMinutes(1), last.getDuration());
+    }
+
+    @Test
+    void shouldTrackContainsAndCounters() {
+        replayAll();
+        queue.add(createState(1, 8, false));
+        queue.add(createState(2, 2, false));
+        queue.update(createState(1, 3, false));
+        NodeSearchState polled = queue.poll();
+        verifyAll();
+
+        // longest duration first
+        assertEquals(getStateKey(1), polled.getStateKey());
+        assertFalse(queue.contains(getStateKey(1)));
+        assertTrue(queue.contains(getStateKey(2)));
+
+        SearchStateQueue.Counters counters = queue.getCounters();
+        assertEquals(2, counters.getAdds());
+        assertEquals(1, counters.getUpdates());
+        assertEquals(1, counters.getPolls());
+        assertEquals(2, counters.getMaxSize());
+    }
+
+    @Test
+    void shouldThrowOnDuplicateAddOrMissingUpdate() {
+        replayAll();
+        queue.add(createState(1, 8, false));
+        assertThrows(RuntimeException.class, () -> queue.add(createState(1, 5, false)));
+        assertThrows(RuntimeException.class, () -> queue.update(createState(2, 5, false)));
+        verifyAll();
+    }
+
+    private NodeSearchState createState(final int id, final int minutes, final boolean towardsDest) {
+        return NodeSearchState.createNodeSearchState(getStateKey(id), TramDuration.ofMinutes(minutes), path, towardsDest);
+    }
+
+    private static @NotNull SearchStateKey getStateKey(final int id) {
+        return new SearchStateKey(new NodeIdInMemory(id), new GraphIdListInMem());
+    }
+}
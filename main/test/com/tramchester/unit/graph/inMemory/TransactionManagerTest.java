@@ -12,6 +12,7 @@ import com.tramchester.graph.core.*;
 import com.tramchester.graph.core.inMemory.*;
 import com.tramchester.graph.core.inMemory.persist.GraphPersistence;
 import com.tramchester.graph.databaseManagement.GraphDatabaseStoredVersions;
+import com.tramchester.graph.reference.GraphLabel;
 import com.tramchester.graph.reference.GraphLabelsFactory;
 import com.tramchester.graph.reference.TransportRelationshipTypes;
 import com.tramchester.repository.DataSourceRepository;
@@ -27,6 +28,8 @@ import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static com.tramchester.graph.core.GraphDirection.*;
 import static com.tramchester.graph.reference.GraphLabel.*;
@@ -625,4 +628,335 @@ public class TransactionManagerTest extends EasyMockSupport {
         }
     }
 
+    @Test
+    void shouldFindNodesByDomainItemAcrossCommits() {
+        Station victoria = Victoria.fake();
+        Station bury = Bury.fake();
+
+        GraphNodeId id;
+        try (MutableGraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), false)) {
+            MutableGraphNode node = txn.createNode(victoria.getNodeLabel());
+            node.set(victoria);
+            id = node.getId();
+            txn.commit();
+        }
+
+        try (MutableGraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), false)) {
+            GraphNode found = txn.findNode(victoria);
+            assertNotNull(found);
+            assertEquals(id, found.getId());
+
+            MutableGraphNode node = txn.getNodeByIdMutable(id);
+            node.set(bury);
+            txn.commit();
+        }
+
+        try (GraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), true)) {
+            assertNull(txn.findNode(victoria));
+            GraphNode found = txn.findNode(bury);
+            assertNotNull(found);
+            assertEquals(id, found.getId());
+        }
+
+        try (MutableGraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), false)) {
+            txn.getNodeByIdMutable(id).delete(txn);
+            txn.commit();
+        }
+
+        try (GraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), true)) {
+            assertNull(txn.findNode(bury));
+            assertFalse(txn.hasAnyMatching(bury.getNodeLabel(), bury.getProp(), bury.getId().getGraphId()));
+        }
+    }
+
+    @Test
+    void shouldFindNodesByDomainItemAfterNodeHeldByCoreUpdated() {
+        Station victoria = Victoria.fake();
+        Station bury = Bury.fake();
+
+        GraphCore graphCore = serviceManager.getGraphCore();
+        GraphNodeInMemory node = graphCore.createNode(ImmutableEnumSet.of(victoria.getNodeLabel()));
+        node.set(victoria);
+
+        assertEquals(List.of(node.getId()), findIds(graphCore, victoria.getNodeLabel(), victoria));
+
+        node.set(bury);
+
+        assertTrue(findIds(graphCore, victoria.getNodeLabel(), victoria).isEmpty());
+        assertEquals(List.of(node.getId()), findIds(graphCore, bury.getNodeLabel(), bury));
+        assertTrue(findIds(graphCore, TRAIN, bury).isEmpty());
+
+        try (MutableGraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), false)) {
+            txn.getNodeByIdMutable(node.getId()).addLabel(txn, TRAIN);
+            txn.commit();
+        }
+
+        assertEquals(List.of(node.getId()), findIds(graphCore, TRAIN, bury));
+        assertEquals(List.of(node.getId()), findIds(graphCore, bury.getNodeLabel(), bury));
+    }
+
+    private static List<GraphNodeId> findIds(GraphCore graphCore, GraphLabel label, Station station) {
+        return graphCore.findNodesImmutable(label, station.getProp(), station.getId().getGraphId()).
+                map(GraphNode::getId).
+                toList();
+    }
+
+    @Test
+    void shouldQueryRelationshipsOnceFrozen() {
+        GraphNodeId startId;
+        GraphNodeId endId;
+        GraphRelationshipId relationshipAId;
+        GraphRelationshipId relationshipBId;
+
+        try (MutableGraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), false)) {
+            MutableGraphNode start = txn.createNode(FERRY);
+            MutableGraphNode end = txn.createNode(TRAIN);
+
+            relationshipAId = start.createRelationshipTo(txn, end, FERRY_GOES_TO).getId();
+            relationshipBId = end.createRelationshipTo(txn, start, TRAIN_GOES_TO).getId();
+            startId = start.getId();
+            endId = end.getId();
+            txn.commit();
+        }
+
+        transactionManager.freeze();
+        assertTrue(transactionManager.isFrozen());
+
+        try (GraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), true)) {
+            GraphNode start = txn.getNodeById(startId);
+            GraphNode end = txn.getNodeById(endId);
+
+            assertEquals(1, txn.findNodes(FERRY).count());
+            assertEquals(1, txn.numberOf(FERRY_GOES_TO));
+
+            assertTrue(start.hasRelationship(txn, Outgoing, FERRY_GOES_TO));
+            assertTrue(end.hasRelationship(txn, Incoming, FERRY_GOES_TO));
+            assertFalse(start.hasRelationship(txn, Outgoing, TRAIN_GOES_TO));
+
+            GraphRelationship singleOutgoing = start.getSingleRelationship(txn, FERRY_GOES_TO, Outgoing);
+            assertEquals(relationshipAId, singleOutgoing.getId());
+            assertEquals(endId, singleOutgoing.getEndNodeId(txn));
+
+            List<GraphRelationship> atStart = start.getRelationships(txn, Both, ImmutableEnumSet.of(FERRY_GOES_TO, TRAIN_GOES_TO)).toList();
+            assertEquals(2, atStart.size());
+
+            assertEquals(relationshipBId, txn.getRelationshipById(relationshipBId).getId());
+        }
+    }
+
+    @Test
+    void shouldRebuildFrozenAfterCommit() {
+        try (MutableGraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), false)) {
+            txn.createNode(FERRY);
+            txn.commit();
+        }
+
+        transactionManager.freeze();
+        assertTrue(transactionManager.isFrozen());
+
+        // graph core is released once frozen, rebuilt here from the compact graph
+        try (MutableGraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), false)) {
+            assertEquals(1, txn.findNodes(FERRY).count());
+            txn.createNode(FERRY);
+            txn.commit();
+        }
+
+        assertFalse(transactionManager.isFrozen());
+
+        try (GraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), true)) {
+            assertTrue(transactionManager.isFrozen());
+            assertEquals(2, txn.findNodes(FERRY).count());
+        }
+
+        assertEquals(2, serviceManager.getGraphCore().findNodesImmutable(FERRY).count());
+    }
+
+    @Test
+    void shouldNotSeeUpdatesAfterThawFromFrozenTransaction() {
+        final GraphNodeId id;
+        try (MutableGraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), false)) {
+            id = txn.createNode(FERRY).getId();
+            txn.commit();
+        }
+
+        transactionManager.freeze();
+
+        try (GraphTransaction frozen = transactionManager.createTransaction(Duration.ofMinutes(1), true)) {
+            final GraphNode before = frozen.getNodeById(id);
+
+            // graph core is rebuilt from the compact graph, so must not share nodes with it
+            try (MutableGraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), false)) {
+                txn.getNodeByIdMutable(id).addLabel(txn, TRAIN);
+                txn.commit();
+            }
+
+            assertFalse(before.getLabels().contains(TRAIN));
+            assertFalse(frozen.getNodeById(id).getLabels().contains(TRAIN));
+            assertEquals(0, frozen.findNodes(TRAIN).count());
+        }
+
+        try (GraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), true)) {
+            assertTrue(txn.getNodeById(id).getLabels().contains(TRAIN));
+        }
+    }
+
+    @Test
+    void shouldNotRebuildFrozenWhileMutableTransactionOpen() {
+        try (MutableGraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), false)) {
+            txn.createNode(FERRY);
+            txn.commit();
+        }
+        transactionManager.freeze();
+
+        try (MutableGraphTransaction first = transactionManager.createTransaction(Duration.ofMinutes(1), false)) {
+            try (MutableGraphTransaction second = transactionManager.createTransaction(Duration.ofMinutes(1), false)) {
+                second.createNode(FERRY);
+                second.commit();
+            }
+
+            try (GraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), true)) {
+                assertFalse(transactionManager.isFrozen());
+                assertEquals(2, txn.findNodes(FERRY).count());
+            }
+
+            first.createNode(FERRY);
+            first.commit();
+        }
+
+        try (GraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), true)) {
+            assertTrue(transactionManager.isFrozen());
+            assertEquals(3, txn.findNodes(FERRY).count());
+        }
+    }
+
+    @Test
+    void shouldReadFrozenGraphWithoutTakingLocks() throws InterruptedException {
+        GraphNodeId startId;
+        try (MutableGraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), false)) {
+            MutableGraphNode start = txn.createNode(FERRY);
+            start.createRelationshipTo(txn, txn.createNode(TRAIN), FERRY_GOES_TO);
+            startId = start.getId();
+            txn.commit();
+        }
+
+        transactionManager.freeze();
+
+        final GraphCore graphCore = serviceManager.getGraphCore();
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        // hold the transaction manager and graph core monitors while reading
+        Thread holder = new Thread(() -> {
+            synchronized (transactionManager) {
+                synchronized (graphCore.getNodesAndEdges()) {
+                    locked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }
+        });
+        holder.start();
+
+        try {
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                try (GraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), true)) {
+                    assertTrue(transactionManager.isFrozen());
+                    assertEquals(1, txn.findNodes(FERRY).count());
+                    GraphNode start = txn.getNodeById(startId);
+                    assertTrue(start.hasRelationship(txn, Outgoing, FERRY_GOES_TO));
+                }
+            });
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+    }
+
+    @Test
+    void shouldOnlySeeOverlayChangesWithinTransaction() {
+        GraphNodeId stationId = createCommittedStationNode();
+
+        checkOverlay(stationId);
+    }
+
+    @Test
+    void shouldOnlySeeOverlayChangesWithinTransactionOnceFrozen() {
+        GraphNodeId stationId = createCommittedStationNode();
+        transactionManager.freeze();
+
+        checkOverlay(stationId);
+    }
+
+    @Test
+    void shouldNotModifyOrCommitViaOverlay() {
+        GraphNodeId stationId = createCommittedStationNode();
+
+        try (MutableGraphTransaction txn = transactionManager.createOverlayTransaction()) {
+            assertFalse(txn.isImmutable());
+            assertTrue(txn.asImmutable().isImmutable());
+            assertThrows(RuntimeException.class, () -> txn.getNodeByIdMutable(stationId));
+            assertThrows(RuntimeException.class, txn::commit);
+
+            // base nodes are copied into the overlay, changes only visible within it
+            MutableGraphNode station = txn.findNodesMutable(TRAIN).findFirst().orElseThrow();
+            station.setHourProp(7);
+            assertSame(station, txn.getNodeById(stationId));
+        }
+
+        try (GraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), true)) {
+            GraphNodeInMemory committed = (GraphNodeInMemory) txn.getNodeById(stationId);
+            assertFalse(committed.hasProperty(GraphPropertyKey.HOUR));
+        }
+    }
+
+    private GraphNodeId createCommittedStationNode() {
+        try (MutableGraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), false)) {
+            MutableGraphNode node = txn.createNode(TRAIN);
+            GraphNodeId id = node.getId();
+            txn.commit();
+            return id;
+        }
+    }
+
+    private void checkOverlay(GraphNodeId stationId) {
+        try (MutableGraphTransaction txn = transactionManager.createOverlayTransaction()) {
+            MutableGraphNode station = txn.findNodesMutable(TRAIN).findFirst().orElseThrow();
+            assertEquals(stationId, station.getId());
+
+            MutableGraphNode walk = txn.createNode(QUERY_NODE);
+            MutableGraphRelationship relationship = walk.createRelationshipTo(txn, station, WALKS_TO_STATION);
+
+            assertEquals(1, txn.findNodes(QUERY_NODE).count());
+            assertEquals(1, txn.numberOf(WALKS_TO_STATION));
+            assertEquals(walk.getId(), txn.getNodeById(walk.getId()).getId());
+            assertEquals(relationship.getId(), txn.getRelationshipById(relationship.getId()).getId());
+
+            GraphNode stationNode = txn.getNodeById(stationId);
+            assertTrue(stationNode.hasRelationship(txn, Incoming, WALKS_TO_STATION));
+            assertEquals(stationId, walk.getSingleRelationship(txn, WALKS_TO_STATION, Outgoing).getEndNodeId(txn));
+
+            try (MutableGraphTransaction other = transactionManager.createOverlayTransaction()) {
+                assertEquals(0, other.findNodes(QUERY_NODE).count());
+                assertFalse(other.getNodeById(stationId).hasRelationship(other, Incoming, WALKS_TO_STATION));
+            }
+
+            relationship.delete(txn);
+            walk.delete(txn);
+
+            assertEquals(0, txn.findNodes(QUERY_NODE).count());
+            assertFalse(stationNode.hasRelationship(txn, Incoming, WALKS_TO_STATION));
+        }
+
+        try (GraphTransaction txn = transactionManager.createTransaction(Duration.ofMinutes(1), true)) {
+            assertEquals(0, txn.findNodes(QUERY_NODE).count());
+            assertEquals(0, txn.numberOf(WALKS_TO_STATION));
+            assertEquals(1, txn.findNodes(TRAIN).count());
+        }
+    }
+
 }
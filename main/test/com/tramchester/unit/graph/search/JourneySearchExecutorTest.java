@@ -0,0 +1,145 @@
+package com.tramchester.unit.graph.search;
+
+import com.tramchester.config.TramchesterConfig;
+import com.tramchester.domain.collections.Running;
+import com.tramchester.graph.search.JourneySearchExecutor;
+import org.easymock.EasyMock;
+import org.easymock.EasyMockSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JourneySearchExecutorTest extends EasyMockSupport {
+
+    private JourneySearchExecutor executor;
+
+    @BeforeEach
+    void onceBeforeEachTestRuns() {
+        TramchesterConfig config = createMock(TramchesterConfig.class);
+        EasyMock.expect(config.getSearchThreads()).andReturn(4);
+        EasyMock.expect(config.getSearchParallelism()).andReturn(2);
+
+        replayAll();
+        executor = new JourneySearchExecutor(config);
+        executor.start();
+        verifyAll();
+    }
+
+    @AfterEach
+    void onceAfterEachTestRuns() {
+        executor.stop();
+    }
+
+    @Test
+    void shouldReturnResultsInCompletionOrder() throws InterruptedException {
+        assertTrue(executor.isEnabled());
+
+        CountDownLatch firstCanFinish = new CountDownLatch(1);
+
+        Function<Running, List<Integer>> slow = running -> {
+            try {
+                assertTrue(firstCanFinish.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return List.of(1);
+        };
+        Function<Running, List<Integer>> fast = running -> {
+            firstCanFinish.countDown();
+            return List.of(2, 3);
+        };
+
+        List<Integer> results = executor.inCompletionOrder(Stream.of(slow, fast), () -> true).
+                flatMap(List::stream).toList();
+
+        assertEquals(List.of(2, 3, 1), results);
+    }
+
+    @Test
+    void shouldLimitSearchesInFlight() {
+        AtomicInteger current = new AtomicInteger(0);
+        AtomicInteger max = new AtomicInteger(0);
+
+        Function<Running, List<Integer>> search = running -> {
+            int now = current.incrementAndGet();
+            max.accumulateAndGet(now, Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            current.decrementAndGet();
+            return List.of(now);
+        };
+
+        long count = executor.inCompletionOrder(Stream.of(search, search, search, search, search, search), () -> true).count();
+
+        assertEquals(6, count);
+        assertTrue(max.get() <= 2, "max in flight was " + max.get());
+    }
+
+    @Test
+    void shouldNotSubmitWhenNotRunning() {
+        AtomicInteger invoked = new AtomicInteger(0);
+
+        Function<Running, List<Integer>> search = searchRunning -> {
+            invoked.incrementAndGet();
+            return List.of(1);
+        };
+
+        long count = executor.inCompletionOrder(Stream.of(search, search), () -> false).count();
+
+        assertEquals(0, count);
+        assertEquals(0, invoked.get());
+    }
+
+    @Test
+    void shouldPassOnRunningStateWhenClosed() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+
+        Function<Running, List<Integer>> search = searchRunning -> {
+            started.countDown();
+            while (searchRunning.isRunning()) {
+                Thread.onSpinWait();
+            }
+            stopped.countDown();
+            return List.of(1);
+        };
+
+        Stream<List<Integer>> results = executor.inCompletionOrder(Stream.of(search), () -> true);
+        Thread consumer = new Thread(() -> results.findFirst());
+        consumer.setDaemon(true);
+        consumer.start();
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        results.close();
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldNotBeEnabledWithoutThreads() {
+        resetAll();
+        TramchesterConfig config = createMock(TramchesterConfig.class);
+        EasyMock.expect(config.getSearchThreads()).andReturn(0);
+        EasyMock.expect(config.getSearchParallelism()).andReturn(2);
+        replayAll();
+
+        JourneySearchExecutor disabled = new JourneySearchExecutor(config);
+        disabled.start();
+        verifyAll();
+
+        assertFalse(disabled.isEnabled());
+        assertThrows(RuntimeException.class, () -> disabled.inCompletionOrder(Stream.empty(), () -> true));
+        disabled.stop();
+    }
+}
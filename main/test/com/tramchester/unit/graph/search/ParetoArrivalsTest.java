@@ -0,0 +1,88 @@
+package com.tramchester.unit.graph.search;
+
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.domain.time.TramTime;
+import com.tramchester.graph.caches.ParetoArrivals;
+import com.tramchester.graph.search.ArrivalHandler;
+import com.tramchester.graph.search.ImmutableJourneyState;
+import org.easymock.EasyMock;
+import org.easymock.EasyMockSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParetoArrivalsTest extends EasyMockSupport {
+
+    private ParetoArrivals arrivals;
+    private TramTime boardTime;
+
+    @BeforeEach
+    void onceBeforeEachTestRuns() {
+        arrivals = new ParetoArrivals(2);
+        boardTime = TramTime.of(9, 15);
+    }
+
+    @Test
+    void shouldKeepArrivalsTradingTimeAgainstChanges() {
+        ImmutableJourneyState quickWithChange = createState(boardTime, 20, 1, 0);
+        ImmutableJourneyState slowDirect = createState(boardTime, 30, 0, 0);
+        ImmutableJourneyState slowWithChange = createState(boardTime, 31, 1, 0);
+
+        replayAll();
+        assertEquals(ArrivalHandler.Outcome.Better, arrivals.checkDuration(quickWithChange));
+        arrivals.setLowestCost(quickWithChange);
+
+        assertEquals(ArrivalHandler.Outcome.Better, arrivals.checkDuration(slowDirect));
+        arrivals.setLowestCost(slowDirect);
+
+        assertEquals(ArrivalHandler.Outcome.Worse, arrivals.checkDuration(slowWithChange));
+        assertEquals(ArrivalHandler.Outcome.Same, arrivals.checkDuration(quickWithChange));
+        verifyAll();
+    }
+
+    @Test
+    void shouldPruneOnceNoLongerAbleToJoinFront() {
+        ImmutableJourneyState arrived = createState(boardTime, 20, 1, 0);
+        ImmutableJourneyState fewerChanges = createState(boardTime, 25, 0, 0);
+        ImmutableJourneyState sameChangesLonger = createState(boardTime, 25, 1, 0);
+        ImmutableJourneyState moreWalksLonger = createState(boardTime, 25, 1, 1);
+        ImmutableJourneyState otherBoardTime = createState(boardTime.plusMinutes(10), 25, 1, 0);
+
+        replayAll();
+        arrivals.setLowestCost(arrived);
+
+        assertFalse(arrivals.alreadyLonger(fewerChanges));
+        assertTrue(arrivals.alreadyLonger(sameChangesLonger));
+        assertTrue(arrivals.alreadyLonger(moreWalksLonger));
+        assertFalse(arrivals.alreadyLonger(otherBoardTime));
+        assertFalse(arrivals.alreadyMoreChanges(fewerChanges, 3));
+        verifyAll();
+    }
+
+    @Test
+    void shouldDropArrivalsBetteredByNewOne() {
+        ImmutableJourneyState withWalk = createState(boardTime, 20, 1, 1);
+        ImmutableJourneyState noWalk = createState(boardTime, 20, 1, 0);
+        ImmutableJourneyState check = createState(boardTime, 21, 1, 1);
+
+        replayAll();
+        arrivals.setLowestCost(withWalk);
+        assertEquals(ArrivalHandler.Outcome.Better, arrivals.checkDuration(noWalk));
+        arrivals.setLowestCost(noWalk);
+
+        assertEquals(ArrivalHandler.Outcome.Worse, arrivals.checkDuration(check));
+        assertEquals(ArrivalHandler.Outcome.Worse, arrivals.checkDuration(withWalk));
+        verifyAll();
+    }
+
+    private ImmutableJourneyState createState(TramTime firstBoard, int minutes, int changes, int walks) {
+        ImmutableJourneyState journeyState = createMock(ImmutableJourneyState.class);
+        EasyMock.expect(journeyState.getFirstBoardTime()).andStubReturn(firstBoard);
+        EasyMock.expect(journeyState.getTotalDurationSoFar()).andStubReturn(TramDuration.ofMinutes(minutes));
+        EasyMock.expect(journeyState.getNumberChanges()).andStubReturn(changes);
+        EasyMock.expect(journeyState.getNumberWalkingConnections()).andStubReturn(walks);
+        EasyMock.expect(journeyState.getNumberNeighbourConnections()).andStubReturn(0);
+        return journeyState;
+    }
+}
@@ -0,0 +1,106 @@
+package com.tramchester.unit.graph.search;
+
+import com.tramchester.config.TramchesterConfig;
+import com.tramchester.domain.collections.ImmutableEnumSet;
+import com.tramchester.domain.collections.IndexedBitSet;
+import com.tramchester.domain.dates.TramDate;
+import com.tramchester.domain.reference.TransportMode;
+import com.tramchester.domain.time.ProvidesNow;
+import com.tramchester.graph.search.routes.RouteCostMatrix;
+import com.tramchester.graph.search.routes.RouteOverlapMatrices;
+import com.tramchester.metrics.CacheMetrics;
+import com.tramchester.testSupport.TestEnv;
+import org.easymock.EasyMock;
+import org.easymock.EasyMockSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RouteOverlapMatricesTest extends EasyMockSupport {
+
+    private RouteOverlapMatrices overlapMatrices;
+    private RouteCostMatrix routeCostMatrix;
+    private ProvidesNow providesNow;
+    private TramDate today;
+    private ImmutableEnumSet<TransportMode> modes;
+
+    @BeforeEach
+    void onceBeforeEachTestRuns() {
+        today = TestEnv.testDay();
+        modes = TransportMode.TramsOnly;
+
+        routeCostMatrix = createMock(RouteCostMatrix.class);
+        providesNow = createMock(ProvidesNow.class);
+
+        TramchesterConfig config = createMock(TramchesterConfig.class);
+        EasyMock.expect(config.getTransportModesImmutable()).andStubReturn(modes);
+
+        CacheMetrics cacheMetrics = new CacheMetrics(TestEnv.NoopRegisterMetrics());
+        overlapMatrices = new RouteOverlapMatrices(routeCostMatrix, config, providesNow, cacheMetrics);
+    }
+
+    @AfterEach
+    void onceAfterEachTestRuns() {
+        overlapMatrices.stop();
+    }
+
+    @Test
+    void shouldCreateForTodayAndTomorrowAtStartAndReuse() {
+        IndexedBitSet forToday = IndexedBitSet.Square(3);
+        IndexedBitSet forTomorrow = IndexedBitSet.Square(3);
+
+        EasyMock.expect(providesNow.getTramDate()).andStubReturn(today);
+        EasyMock.expect(routeCostMatrix.createOverlapMatrixFor(today, modes)).andReturn(forToday).once();
+        EasyMock.expect(routeCostMatrix.createOverlapMatrixFor(today.plusDays(1), modes)).andReturn(forTomorrow).once();
+
+        replayAll();
+        overlapMatrices.start();
+        assertSame(forToday, overlapMatrices.getFor(today, modes));
+        assertSame(forToday, overlapMatrices.getFor(today, modes));
+        assertSame(forTomorrow, overlapMatrices.getFor(today.plusDays(1), modes));
+        verifyAll();
+
+        assertEquals(2, overlapMatrices.size());
+    }
+
+    @Test
+    void shouldCreateOnDemandForOtherDatesAndModes() {
+        ImmutableEnumSet<TransportMode> allModes = ImmutableEnumSet.allOf(TransportMode.class);
+        IndexedBitSet forAllModes = IndexedBitSet.Square(3);
+
+        EasyMock.expect(providesNow.getTramDate()).andStubReturn(today);
+        EasyMock.expect(routeCostMatrix.createOverlapMatrixFor(EasyMock.anyObject(TramDate.class), EasyMock.eq(modes))).
+                andReturn(IndexedBitSet.Square(3)).times(2);
+        EasyMock.expect(routeCostMatrix.createOverlapMatrixFor(today, allModes)).andReturn(forAllModes).once();
+
+        replayAll();
+        overlapMatrices.start();
+        assertSame(forAllModes, overlapMatrices.getFor(today, allModes));
+        assertSame(forAllModes, overlapMatrices.getFor(today, allModes));
+        verifyAll();
+    }
+
+    @Test
+    void shouldDropPreviousDatesAndCreateForNewDayOnRollover() {
+        TramDate tomorrow = today.plusDays(1);
+        TramDate dayAfter = today.plusDays(2);
+
+        EasyMock.expect(providesNow.getTramDate()).andReturn(today).once();
+        EasyMock.expect(providesNow.getTramDate()).andStubReturn(tomorrow);
+        EasyMock.expect(routeCostMatrix.createOverlapMatrixFor(today, modes)).andReturn(IndexedBitSet.Square(3)).once();
+        EasyMock.expect(routeCostMatrix.createOverlapMatrixFor(tomorrow, modes)).andReturn(IndexedBitSet.Square(3)).once();
+        EasyMock.expect(routeCostMatrix.createOverlapMatrixFor(dayAfter, modes)).andReturn(IndexedBitSet.Square(3)).once();
+
+        replayAll();
+        overlapMatrices.start();
+        assertEquals(2, overlapMatrices.size());
+
+        overlapMatrices.getFor(tomorrow, modes);
+        verifyAll();
+
+        // today dropped, tomorrow kept, day after created
+        assertEquals(2, overlapMatrices.size());
+    }
+}
@@ -0,0 +1,161 @@
+package com.tramchester.unit.graph.search;
+
+import com.tramchester.domain.JourneyRequest;
+import com.tramchester.domain.LocationSet;
+import com.tramchester.domain.collections.ImmutableEnumSet;
+import com.tramchester.domain.collections.RouteIndexPairFactory;
+import com.tramchester.domain.dates.TramDate;
+import com.tramchester.domain.places.Station;
+import com.tramchester.domain.reference.TransportMode;
+import com.tramchester.domain.time.TimeRange;
+import com.tramchester.domain.time.TimeRangePartial;
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.domain.time.TramTime;
+import com.tramchester.graph.search.routes.*;
+import com.tramchester.metrics.CacheMetrics;
+import com.tramchester.repository.ClosedStationsRepository;
+import com.tramchester.repository.NeighboursRepository;
+import com.tramchester.repository.StationAvailabilityRepository;
+import com.tramchester.testSupport.TestEnv;
+import com.tramchester.testSupport.reference.TramStations;
+import org.easymock.EasyMock;
+import org.easymock.EasyMockSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RouteToRouteCostsMemoTest extends EasyMockSupport {
+
+    private RouteToRouteCosts routeToRouteCosts;
+    private NeighboursRepository neighboursRepository;
+    private StationAvailabilityRepository availabilityRepository;
+    private ClosedStationsRepository closedStationsRepository;
+    private TramDate date;
+    private TimeRange timeRange;
+    private ImmutableEnumSet<TransportMode> modes;
+
+    @BeforeEach
+    void onceBeforeEachTestRuns() {
+        date = TestEnv.testDay();
+        timeRange = TimeRangePartial.of(TramTime.of(8, 0), TramTime.of(9, 0));
+        modes = TransportMode.TramsOnly;
+
+        neighboursRepository = createMock(NeighboursRepository.class);
+        availabilityRepository = createMock(StationAvailabilityRepository.class);
+        closedStationsRepository = createMock(ClosedStationsRepository.class);
+
+        CacheMetrics cacheMetrics = new CacheMetrics(TestEnv.NoopRegisterMetrics());
+        routeToRouteCosts = new RouteToRouteCosts(neighboursRepository, availabilityRepository,
+                closedStationsRepository, createMock(RouteIndex.class), createMock(RouteCostMatrix.class),
+                createMock(RouteOverlapMatrices.class), createMock(RouteInterconnectRepository.class),
+                createMock(RouteIndexPairFactory.class), cacheMetrics);
+        routeToRouteCosts.start();
+    }
+
+    @AfterEach
+    void onceAfterEachTestRuns() {
+        routeToRouteCosts.stop();
+    }
+
+    @Test
+    void shouldReuseResultForSameLocationsDateTimeAndModes() {
+        EasyMock.expect(neighboursRepository.areNeighbours(EasyMock.<LocationSet<Station>>anyObject(),
+                EasyMock.<LocationSet<Station>>anyObject())).andReturn(true).once();
+
+        replayAll();
+        assertEquals(0, routeToRouteCosts.getPossibleMinChanges(starts(), destinations(), date, timeRange, modes));
+        assertEquals(0, routeToRouteCosts.getPossibleMinChanges(starts(), destinations(), date, timeRange, modes));
+        verifyAll();
+
+        assertEquals(1, routeToRouteCosts.stats().getFirst().getRight().hitCount());
+    }
+
+    @Test
+    void shouldComputeAgainForDifferentTimeRangeOrDate() {
+        EasyMock.expect(neighboursRepository.areNeighbours(EasyMock.<LocationSet<Station>>anyObject(),
+                EasyMock.<LocationSet<Station>>anyObject())).andReturn(true).times(3);
+
+        TimeRange laterRange = TimeRangePartial.of(TramTime.of(17, 0), TramTime.of(18, 0));
+
+        replayAll();
+        routeToRouteCosts.getPossibleMinChanges(starts(), destinations(), date, timeRange, modes);
+        routeToRouteCosts.getPossibleMinChanges(starts(), destinations(), date, laterRange, modes);
+        routeToRouteCosts.getPossibleMinChanges(starts(), destinations(), date.plusDays(1), timeRange, modes);
+        verifyAll();
+    }
+
+    @Test
+    void shouldComputeAgainWhenTimeRangeUpdatedAfterUse() {
+        EasyMock.expect(neighboursRepository.areNeighbours(EasyMock.<LocationSet<Station>>anyObject(),
+                EasyMock.<LocationSet<Station>>anyObject())).andReturn(true).times(2);
+
+        replayAll();
+        routeToRouteCosts.getPossibleMinChanges(starts(), destinations(), date, timeRange, modes);
+        timeRange.updateToInclude(TramTime.of(10, 0));
+        routeToRouteCosts.getPossibleMinChanges(starts(), destinations(), date, timeRange, modes);
+        verifyAll();
+
+        assertEquals(0, routeToRouteCosts.stats().getFirst().getRight().hitCount());
+    }
+
+    @Test
+    void shouldNotShareResultBetweenSetsAndLocationsForSameStations() {
+        expectSetsAreNeighbours();
+        expectLocationsHaveNoRoutes();
+
+        replayAll();
+        assertEquals(0, routeToRouteCosts.getPossibleMinChanges(singleStart(), destinations(), date, timeRange, modes));
+        assertEquals(Integer.MAX_VALUE, routeToRouteCosts.getNumberOfChanges(TramStations.Altrincham.fake(),
+                TramStations.Bury.fake(), journeyRequest(), timeRange));
+        verifyAll();
+    }
+
+    @Test
+    void shouldNotShareResultBetweenLocationsAndSetsForSameStations() {
+        expectLocationsHaveNoRoutes();
+        expectSetsAreNeighbours();
+
+        replayAll();
+        assertEquals(Integer.MAX_VALUE, routeToRouteCosts.getNumberOfChanges(TramStations.Altrincham.fake(),
+                TramStations.Bury.fake(), journeyRequest(), timeRange));
+        assertEquals(0, routeToRouteCosts.getPossibleMinChanges(singleStart(), destinations(), date, timeRange, modes));
+        verifyAll();
+    }
+
+    private void expectSetsAreNeighbours() {
+        EasyMock.expect(neighboursRepository.areNeighbours(EasyMock.<LocationSet<Station>>anyObject(),
+                EasyMock.<LocationSet<Station>>anyObject())).andReturn(true).once();
+    }
+
+    private void expectLocationsHaveNoRoutes() {
+        EasyMock.expect(neighboursRepository.areNeighbours(TramStations.Altrincham.fake(), TramStations.Bury.fake())).
+                andReturn(false).once();
+        EasyMock.expect(closedStationsRepository.isClosed(EasyMock.anyObject(), EasyMock.eq(date))).
+                andReturn(false).times(2);
+        EasyMock.expect(availabilityRepository.getPickupRoutesFor(TramStations.Altrincham.fake(), date, timeRange, modes)).
+                andReturn(Collections.emptySet()).once();
+        EasyMock.expect(availabilityRepository.getDropoffRoutesFor(TramStations.Bury.fake(), date, timeRange, modes)).
+                andReturn(Collections.emptySet()).once();
+    }
+
+    private JourneyRequest journeyRequest() {
+        return new JourneyRequest(date, TramTime.of(8, 15), false, 3, TramDuration.ofMinutes(120), 1, modes);
+    }
+
+    private LocationSet<Station> singleStart() {
+        return LocationSet.of(List.of(TramStations.Altrincham.fake()));
+    }
+
+    private LocationSet<Station> starts() {
+        return LocationSet.of(List.of(TramStations.Altrincham.fake(), TramStations.NavigationRoad.fake()));
+    }
+
+    private LocationSet<Station> destinations() {
+        return LocationSet.of(List.of(TramStations.Bury.fake()));
+    }
+}
@@ -0,0 +1,60 @@
+package com.tramchester.unit.graph.search;
+
+import com.tramchester.config.TramchesterConfig;
+import com.tramchester.domain.JourneyRequest;
+import com.tramchester.domain.collections.Running;
+import com.tramchester.domain.reference.TransportMode;
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.domain.time.TramTime;
+import com.tramchester.graph.search.SearchDeadlines;
+import com.tramchester.testSupport.TestEnv;
+import org.easymock.EasyMock;
+import org.easymock.EasyMockSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchDeadlinesTest extends EasyMockSupport {
+
+    private TramchesterConfig config;
+    private JourneyRequest journeyRequest;
+
+    @BeforeEach
+    void onceBeforeEachTestRuns() {
+        config = createMock(TramchesterConfig.class);
+        journeyRequest = new JourneyRequest(TestEnv.testDay(), TramTime.of(8, 0), false, 1,
+                TramDuration.ofMinutes(120), 3, TransportMode.TramsOnly);
+    }
+
+    @Test
+    void shouldNotStopSearchUnlessEnabled() throws InterruptedException {
+        EasyMock.expect(config.getSearchDeadline()).andReturn(false);
+
+        replayAll();
+        SearchDeadlines searchDeadlines = new SearchDeadlines(config);
+        Running running = searchDeadlines.start(journeyRequest);
+        Thread.sleep(5);
+        verifyAll();
+
+        assertTrue(running.isRunning());
+        assertFalse(journeyRequest.wasCutShort());
+        assertEquals(0, searchDeadlines.getTimedOut());
+    }
+
+    @Test
+    void shouldStopSearchAndMarkRequestWhenEnabled() throws InterruptedException {
+        EasyMock.expect(config.getSearchDeadline()).andReturn(true);
+        EasyMock.expect(config.getCalcTimeoutMillis()).andReturn(1L);
+
+        replayAll();
+        SearchDeadlines searchDeadlines = new SearchDeadlines(config);
+        Running running = searchDeadlines.start(journeyRequest);
+        Thread.sleep(5);
+        verifyAll();
+
+        assertFalse(running.isRunning());
+        assertTrue(journeyRequest.wasCutShort());
+        assertEquals(1, searchDeadlines.getTimedOut());
+    }
+}
@@ -0,0 +1,127 @@
+package com.tramchester.unit.graph.search;
+
+import com.tramchester.domain.collections.ImmutableEnumSet;
+import com.tramchester.domain.dates.TramDate;
+import com.tramchester.domain.reference.TransportMode;
+import com.tramchester.domain.time.ProvidesNow;
+import com.tramchester.domain.time.TramTime;
+import com.tramchester.graph.core.GraphNode;
+import com.tramchester.graph.core.GraphNodeId;
+import com.tramchester.graph.core.inMemory.NodeIdInMemory;
+import com.tramchester.graph.reference.GraphLabel;
+import com.tramchester.graph.reference.GraphLabels;
+import com.tramchester.graph.search.ImmutableJourneyState;
+import com.tramchester.graph.search.NumberOfNodesAndRelationshipsRepository;
+import com.tramchester.graph.search.PreviousVisits;
+import com.tramchester.graph.search.SharedPreviousVisits;
+import com.tramchester.graph.search.diagnostics.HeuristicsReason;
+import com.tramchester.graph.search.diagnostics.HeuristicsReasonFactory;
+import com.tramchester.graph.search.diagnostics.ReasonCode;
+import com.tramchester.metrics.CacheMetrics;
+import com.tramchester.testSupport.TestEnv;
+import org.easymock.EasyMock;
+import org.easymock.EasyMockSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SharedPreviousVisitsTest extends EasyMockSupport {
+
+    private SharedPreviousVisits sharedPreviousVisits;
+    private NumberOfNodesAndRelationshipsRepository countsNodes;
+    private ProvidesNow providesNow;
+    private TramDate today;
+    private GraphNodeId nodeId;
+
+    @BeforeEach
+    void onceBeforeEachTestRuns() {
+        today = TestEnv.testDay();
+        nodeId = new NodeIdInMemory(42);
+
+        countsNodes = createMock(NumberOfNodesAndRelationshipsRepository.class);
+        EasyMock.expect(countsNodes.numberOf(EasyMock.anyObject(GraphLabel.class))).andStubReturn(100L);
+
+        providesNow = createMock(ProvidesNow.class);
+
+        CacheMetrics cacheMetrics = new CacheMetrics(TestEnv.NoopRegisterMetrics());
+        sharedPreviousVisits = new SharedPreviousVisits(countsNodes, providesNow, cacheMetrics);
+    }
+
+    @AfterEach
+    void onceAfterEachTestRuns() {
+        sharedPreviousVisits.stop();
+    }
+
+    @Test
+    void shouldScopeVerdictsByDateAndModes() {
+        EasyMock.expect(providesNow.getTramDate()).andStubReturn(today);
+
+        replayAll();
+        sharedPreviousVisits.start();
+
+        SharedPreviousVisits.ForDateAndModes forToday = sharedPreviousVisits.getFor(today, TransportMode.TramsOnly);
+        forToday.put(nodeId, ReasonCode.NotOnQueryDate);
+
+        assertEquals(ReasonCode.NotOnQueryDate, sharedPreviousVisits.getFor(today, TransportMode.TramsOnly).getIfPresent(nodeId));
+        assertNull(sharedPreviousVisits.getFor(today.plusDays(1), TransportMode.TramsOnly).getIfPresent(nodeId));
+        assertNull(sharedPreviousVisits.getFor(today, ImmutableEnumSet.allOf(TransportMode.class)).getIfPresent(nodeId));
+        verifyAll();
+    }
+
+    @Test
+    void shouldEvictPreviousDatesWhenDayChanges() {
+        TramDate tomorrow = today.plusDays(1);
+
+        EasyMock.expect(providesNow.getTramDate()).andReturn(today).times(3);
+        EasyMock.expect(providesNow.getTramDate()).andStubReturn(tomorrow);
+
+        replayAll();
+        sharedPreviousVisits.start();
+
+        sharedPreviousVisits.getFor(today, TransportMode.TramsOnly).put(nodeId, ReasonCode.NotOnQueryDate);
+        sharedPreviousVisits.getFor(tomorrow, TransportMode.TramsOnly).put(nodeId, ReasonCode.RouteNotOnQueryDate);
+
+        assertNull(sharedPreviousVisits.getFor(today, TransportMode.TramsOnly).getIfPresent(nodeId));
+        assertEquals(ReasonCode.RouteNotOnQueryDate, sharedPreviousVisits.getFor(tomorrow, TransportMode.TramsOnly).getIfPresent(nodeId));
+        verifyAll();
+    }
+
+    @Test
+    void shouldReuseServiceNotOnDateAcrossRequests() {
+        EasyMock.expect(providesNow.getTramDate()).andStubReturn(today);
+
+        GraphNode node = createMock(GraphNode.class);
+        EasyMock.expect(node.getId()).andStubReturn(nodeId);
+
+        ImmutableJourneyState journeyState = createMock(ImmutableJourneyState.class);
+        EasyMock.expect(journeyState.getJourneyClock()).andStubReturn(TramTime.of(10, 15));
+
+        ImmutableJourneyState nextDayState = createMock(ImmutableJourneyState.class);
+        EasyMock.expect(nextDayState.getJourneyClock()).andStubReturn(TramTime.nextDay(0, 15));
+
+        GraphLabels labels = GraphLabels.forTesting(GraphLabel.SERVICE.singleton());
+        HeuristicsReason notOnDate = HeuristicsReasonFactory.forDiagnostics(false).DoesNotRunOnQueryDate(null, null);
+
+        replayAll();
+        sharedPreviousVisits.start();
+
+        PreviousVisits firstRequest = createPreviousVisits();
+        firstRequest.cacheVisitIfUseful(notOnDate, node, journeyState, labels);
+
+        PreviousVisits secondRequest = createPreviousVisits();
+        HeuristicsReason result = secondRequest.getPreviousResult(journeyState, labels, nodeId, null);
+        assertEquals(ReasonCode.NotOnQueryDate, result.getReasonCode());
+        assertFalse(result.isValid());
+
+        HeuristicsReason nextDay = secondRequest.getPreviousResult(nextDayState, labels, nodeId, null);
+        assertEquals(ReasonCode.PreviousCacheMiss, nextDay.getReasonCode());
+        verifyAll();
+    }
+
+    private PreviousVisits createPreviousVisits() {
+        return new PreviousVisits(false, countsNodes, sharedPreviousVisits.getFor(today, TransportMode.TramsOnly),
+                HeuristicsReasonFactory.forDiagnostics(false));
+    }
+}
@@ -0,0 +1,115 @@
+package com.tramchester.unit.graph.search;
+
+import com.tramchester.caching.DataCache;
+import com.tramchester.config.TramchesterConfig;
+import com.tramchester.dataimport.data.StationCostsData;
+import com.tramchester.domain.dates.TramDate;
+import com.tramchester.domain.reference.TransportMode;
+import com.tramchester.domain.time.ProvidesLocalNow;
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.graph.filters.GraphFilterActive;
+import com.tramchester.graph.search.routes.StationCostMatrix;
+import com.tramchester.repository.NeighboursRepository;
+import com.tramchester.testSupport.reference.TramTransportDataForTestFactory;
+import org.easymock.EasyMock;
+import org.easymock.EasyMockSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static com.tramchester.testSupport.TestEnv.assertMinutesEquals;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StationCostMatrixTest extends EasyMockSupport {
+
+    private TramTransportDataForTestFactory dataFactory;
+    private TramTransportDataForTestFactory.TramTransportDataForTest transportData;
+    private TramchesterConfig config;
+    private StationCostMatrix stationCostMatrix;
+    private TramDate monday;
+
+    @BeforeEach
+    void onceBeforeEachTestRuns() {
+        dataFactory = new TramTransportDataForTestFactory(new ProvidesLocalNow());
+        dataFactory.start();
+        transportData = dataFactory.getTestData();
+        monday = TramTransportDataForTestFactory.getValidDate();
+
+        config = createMock(TramchesterConfig.class);
+        NeighboursRepository neighboursRepository = createMock(NeighboursRepository.class);
+        EasyMock.expect(neighboursRepository.isEnabled()).andStubReturn(false);
+
+        DataCache dataCache = createMock(DataCache.class);
+        dataCache.register(EasyMock.eq(StationCostsData.class), EasyMock.anyObject());
+        EasyMock.expectLastCall();
+
+        replayAll();
+        // filter active so no caching
+        stationCostMatrix = new StationCostMatrix(config, transportData, transportData, neighboursRepository, dataCache,
+                new GraphFilterActive(true));
+        verifyAll();
+        resetAll();
+        EasyMock.expect(neighboursRepository.isEnabled()).andStubReturn(false);
+    }
+
+    @AfterEach
+    void onceAfterEachTestRuns() {
+        stationCostMatrix.stop();
+        dataFactory.stop();
+    }
+
+    @Test
+    void shouldHaveLeastCostsBetweenStations() {
+        EasyMock.expect(config.getStationCostMatrix()).andReturn(true);
+
+        replayAll();
+        stationCostMatrix.start();
+        verifyAll();
+
+        assertTrue(stationCostMatrix.isEnabled());
+        assertMinutesEquals(0, stationCostMatrix.getCost(transportData.getFirst(), transportData.getFirst(), monday));
+        assertMinutesEquals(11, stationCostMatrix.getCost(transportData.getFirst(), transportData.getSecond(), monday));
+        assertMinutesEquals(40, stationCostMatrix.getCost(transportData.getFirst(), transportData.getLast(), monday));
+        assertMinutesEquals(11 + 9 + 4, stationCostMatrix.getCost(transportData.getFirst(), transportData.getFifthStation(), monday));
+
+        // wrong direction
+        assertFalse(stationCostMatrix.getCost(transportData.getSecond(), transportData.getFirst(), monday).isValid());
+    }
+
+    @Test
+    void shouldHaveNoCostsOnDayTypeWithoutServices() {
+        EasyMock.expect(config.getStationCostMatrix()).andReturn(true);
+
+        replayAll();
+        stationCostMatrix.start();
+        verifyAll();
+
+        TramDate saturday = monday.plusDays(5);
+        assertEquals(StationCostMatrix.DayType.Saturday, StationCostMatrix.DayType.of(saturday));
+        assertFalse(stationCostMatrix.getCost(transportData.getFirst(), transportData.getSecond(), saturday).isValid());
+    }
+
+    @Test
+    void shouldOnlyCoverRequestsForAllModesInMatrix() {
+        EasyMock.expect(config.getStationCostMatrix()).andReturn(true);
+
+        replayAll();
+        stationCostMatrix.start();
+        verifyAll();
+
+        assertTrue(stationCostMatrix.covers(transportData.getFirst(), transportData.getLast(), TransportMode.TramsOnly));
+        assertFalse(stationCostMatrix.covers(transportData.getFirst(), transportData.getLast(), TransportMode.Bus.singleton()));
+    }
+
+    @Test
+    void shouldNotCoverAnythingWhenDisabled() {
+        EasyMock.expect(config.getStationCostMatrix()).andReturn(false);
+
+        replayAll();
+        stationCostMatrix.start();
+        verifyAll();
+
+        assertFalse(stationCostMatrix.isEnabled());
+        assertFalse(stationCostMatrix.covers(transportData.getFirst(), transportData.getLast(), TransportMode.TramsOnly));
+    }
+}
@@ -0,0 +1,155 @@
+package com.tramchester.unit.graph.search;
+
+import com.tramchester.config.GTFSSourceConfig;
+import com.tramchester.config.TramchesterConfig;
+import com.tramchester.domain.DataSourceID;
+import com.tramchester.domain.LocationSet;
+import com.tramchester.domain.closures.ClosedStation;
+import com.tramchester.domain.dates.DateRange;
+import com.tramchester.domain.places.Station;
+import com.tramchester.domain.time.ProvidesLocalNow;
+import com.tramchester.graph.filters.GraphFilterActive;
+import com.tramchester.graph.search.StationLowerBounds;
+import com.tramchester.metrics.CacheMetrics;
+import com.tramchester.repository.ClosedStationsRepository;
+import com.tramchester.repository.NeighboursRepository;
+import com.tramchester.repository.TemporaryStationWalksRepository;
+import com.tramchester.testSupport.TestEnv;
+import com.tramchester.testSupport.reference.TramTransportDataForTestFactory;
+import org.easymock.EasyMock;
+import org.easymock.EasyMockSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StationLowerBoundsTest extends EasyMockSupport {
+
+    private TramTransportDataForTestFactory dataFactory;
+    private TramTransportDataForTestFactory.TramTransportDataForTest transportData;
+    private TramchesterConfig config;
+    private NeighboursRepository neighboursRepository;
+    private ClosedStationsRepository closedStationsRepository;
+    private StationLowerBounds stationLowerBounds;
+
+    @BeforeEach
+    void onceBeforeEachTestRuns() {
+        dataFactory = new TramTransportDataForTestFactory(new ProvidesLocalNow());
+        dataFactory.start();
+        transportData = dataFactory.getTestData();
+
+        config = createMock(TramchesterConfig.class);
+        neighboursRepository = createMock(NeighboursRepository.class);
+        EasyMock.expect(neighboursRepository.isEnabled()).andStubReturn(false);
+
+        GTFSSourceConfig sourceConfig = createMock(GTFSSourceConfig.class);
+        EasyMock.expect(sourceConfig.getDataSourceId()).andStubReturn(DataSourceID.tfgm);
+        EasyMock.expect(config.getGtfsSourceConfig()).andStubReturn(List.of(sourceConfig));
+
+        closedStationsRepository = createMock(ClosedStationsRepository.class);
+        TemporaryStationWalksRepository temporaryStationWalksRepository = createMock(TemporaryStationWalksRepository.class);
+        EasyMock.expect(temporaryStationWalksRepository.getTemporaryWalksFor(DataSourceID.tfgm)).andStubReturn(Collections.emptySet());
+
+        CacheMetrics cacheMetrics = new CacheMetrics(TestEnv.NoopRegisterMetrics());
+        stationLowerBounds = new StationLowerBounds(config, transportData, neighboursRepository, closedStationsRepository,
+                temporaryStationWalksRepository, new GraphFilterActive(false), cacheMetrics);
+    }
+
+    @AfterEach
+    void onceAfterEachTestRuns() {
+        stationLowerBounds.stop();
+        dataFactory.stop();
+    }
+
+    @Test
+    void shouldHaveMinimumTimesToDestination() {
+        EasyMock.expect(config.getAStarSearch()).andReturn(true);
+        EasyMock.expect(closedStationsRepository.getClosedStationsFor(DataSourceID.tfgm)).andReturn(Collections.emptySet());
+
+        replayAll();
+        stationLowerBounds.start();
+        StationLowerBounds.ForDestinations forDestinations = stationLowerBounds.getFor(locations(transportData.getLast()));
+        verifyAll();
+
+        assertTrue(forDestinations.isEnabled());
+        assertEquals(0, forDestinations.getSeconds(transportData.getLast().getId()));
+        assertEquals(20 * 60, forDestinations.getSeconds(transportData.getInterchange().getId()));
+        assertEquals(29 * 60, forDestinations.getSeconds(transportData.getSecond().getId()));
+        assertEquals(40 * 60, forDestinations.getSeconds(transportData.getFirst().getId()));
+
+        // only reached from the interchange, no way back towards the destination
+        assertEquals(StationLowerBounds.UNREACHABLE, forDestinations.getSeconds(transportData.getFifthStation().getId()));
+    }
+
+    @Test
+    void shouldUseNearestOfMultipleDestinations() {
+        EasyMock.expect(config.getAStarSearch()).andReturn(true);
+        EasyMock.expect(closedStationsRepository.getClosedStationsFor(DataSourceID.tfgm)).andReturn(Collections.emptySet());
+
+        replayAll();
+        stationLowerBounds.start();
+        StationLowerBounds.ForDestinations forDestinations = stationLowerBounds.getFor(locations(transportData.getLast(),
+                transportData.getSecond()));
+        verifyAll();
+
+        assertEquals(0, forDestinations.getSeconds(transportData.getLast().getId()));
+        assertEquals(0, forDestinations.getSeconds(transportData.getSecond().getId()));
+        assertEquals(11 * 60, forDestinations.getSeconds(transportData.getFirst().getId()));
+    }
+
+    @Test
+    void shouldReuseBoundsForSameDestinations() {
+        EasyMock.expect(config.getAStarSearch()).andReturn(true);
+        EasyMock.expect(closedStationsRepository.getClosedStationsFor(DataSourceID.tfgm)).andReturn(Collections.emptySet());
+
+        replayAll();
+        stationLowerBounds.start();
+        StationLowerBounds.ForDestinations first = stationLowerBounds.getFor(locations(transportData.getLast()));
+        StationLowerBounds.ForDestinations second = stationLowerBounds.getFor(locations(transportData.getLast()));
+        verifyAll();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void shouldIncludeDiversionsForClosedStations() {
+        EasyMock.expect(config.getAStarSearch()).andReturn(true);
+
+        ClosedStation closedStation = new ClosedStation(transportData.getInterchange(),
+                DateRange.of(TestEnv.testDay(), TestEnv.testDay()),
+                Collections.emptySet(), Set.of(transportData.getFifthStation()));
+        EasyMock.expect(closedStationsRepository.getClosedStationsFor(DataSourceID.tfgm)).andReturn(Set.of(closedStation));
+
+        replayAll();
+        stationLowerBounds.start();
+        StationLowerBounds.ForDestinations forDestinations = stationLowerBounds.getFor(locations(transportData.getLast()));
+        verifyAll();
+
+        // otherwise unreachable, diversion back to the interchange costs nothing in the bound
+        assertEquals(20 * 60, forDestinations.getSeconds(transportData.getFifthStation().getId()));
+        assertEquals(20 * 60, forDestinations.getSeconds(transportData.getInterchange().getId()));
+    }
+
+    @Test
+    void shouldBeDisabledWhenAStarSearchOff() {
+        EasyMock.expect(config.getAStarSearch()).andReturn(false);
+
+        replayAll();
+        stationLowerBounds.start();
+        StationLowerBounds.ForDestinations forDestinations = stationLowerBounds.getFor(locations(transportData.getLast()));
+        verifyAll();
+
+        assertFalse(forDestinations.isEnabled());
+        assertEquals(0, forDestinations.getSeconds(transportData.getFirst().getId()));
+    }
+
+    private LocationSet<Station> locations(Station... stations) {
+        return LocationSet.of(Arrays.asList(stations));
+    }
+}
@@ -0,0 +1,253 @@
+package com.tramchester.unit.graph.search.raptor;
+
+import com.tramchester.config.TramchesterConfig;
+import com.tramchester.domain.DataSourceID;
+import com.tramchester.domain.Journey;
+import com.tramchester.domain.JourneyRequest;
+import com.tramchester.domain.dates.TramDate;
+import com.tramchester.domain.places.Location;
+import com.tramchester.domain.places.MyLocation;
+import com.tramchester.domain.places.Station;
+import com.tramchester.domain.presentation.LatLong;
+import com.tramchester.domain.presentation.TransportStage;
+import com.tramchester.domain.reference.TransportMode;
+import com.tramchester.domain.time.ProvidesLocalNow;
+import com.tramchester.domain.time.TramDuration;
+import com.tramchester.domain.time.TramTime;
+import com.tramchester.graph.filters.IncludeAllFilter;
+import com.tramchester.graph.search.RouteCalculatorArriveBy;
+import com.tramchester.graph.search.TramRouteCalculator;
+import com.tramchester.graph.search.raptor.RaptorIndex;
+import com.tramchester.graph.search.raptor.RouteCalculatorRaptor;
+import com.tramchester.repository.ClosedStationsRepository;
+import com.tramchester.repository.InterchangeRepository;
+import com.tramchester.repository.NeighboursRepository;
+import com.tramchester.repository.RunningRoutesAndServices;
+import com.tramchester.testSupport.reference.KnownTramRoute;
+import com.tramchester.testSupport.reference.TramTransportDataForTestFactory;
+import org.easymock.EasyMock;
+import org.easymock.EasyMockSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.tramchester.testSupport.TestEnv.assertMinutesEquals;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RouteCalculatorRaptorTest extends EasyMockSupport {
+
+    private TramTransportDataForTestFactory dataFactory;
+    private TramTransportDataForTestFactory.TramTransportDataForTest transportData;
+    private RaptorIndex raptorIndex;
+    private RouteCalculatorRaptor calculator;
+    private TramDate queryDate;
+    private RouteCalculatorArriveBy graphArriveByCalculator;
+
+    @BeforeEach
+    void onceBeforeEachTestRuns() {
+        dataFactory = new TramTransportDataForTestFactory(new ProvidesLocalNow());
+        dataFactory.start();
+        transportData = dataFactory.getTestData();
+        queryDate = TramTransportDataForTestFactory.startDate;
+
+        TramchesterConfig config = createMock(TramchesterConfig.class);
+        EasyMock.expect(config.getInitialMaxWaitFor(EasyMock.anyObject(DataSourceID.class))).andStubReturn(TramDuration.ofMinutes(25));
+        EasyMock.expect(config.getNumberQueries()).andStubReturn(4);
+        EasyMock.expect(config.getQueryInterval()).andStubReturn(20);
+
+        InterchangeRepository interchangeRepository = createMock(InterchangeRepository.class);
+        EasyMock.expect(interchangeRepository.isInterchange(EasyMock.anyObject())).andStubAnswer(() -> {
+            final Location<?> location = (Location<?>) EasyMock.getCurrentArguments()[0];
+            return location.getId().equals(transportData.getInterchange().getId());
+        });
+
+        NeighboursRepository neighboursRepository = createMock(NeighboursRepository.class);
+        EasyMock.expect(neighboursRepository.isEnabled()).andStubReturn(false);
+
+        ClosedStationsRepository closedStationsRepository = createMock(ClosedStationsRepository.class);
+        EasyMock.expect(closedStationsRepository.getAnyWithClosure(EasyMock.anyObject())).andStubReturn(Collections.emptySet());
+
+        TramRouteCalculator graphCalculator = createMock(TramRouteCalculator.class);
+        graphArriveByCalculator = createMock(RouteCalculatorArriveBy.class);
+
+        raptorIndex = new RaptorIndex(transportData, transportData, interchangeRepository, neighboursRepository,
+                new IncludeAllFilter());
+        calculator = new RouteCalculatorRaptor(raptorIndex, config, closedStationsRepository,
+                new RunningRoutesAndServices(transportData, transportData), graphCalculator, graphArriveByCalculator);
+    }
+
+    @AfterEach
+    void onceAfterEachTestRuns() {
+        raptorIndex.stop();
+        dataFactory.stop();
+    }
+
+    @Test
+    void shouldHaveSimpleJourney() {
+        replayAll();
+        List<Journey> journeys = calculate(transportData.getFirst(), transportData.getSecond(), TramTime.of(7, 57));
+        verifyAll();
+
+        assertEquals(1, journeys.size(), journeys.toString());
+        Journey journey = journeys.getFirst();
+        assertEquals(1, journey.getStages().size());
+
+        final TransportStage<?, ?> stage = journey.getStages().getFirst();
+        assertEquals(transportData.getFirst(), stage.getFirstStation());
+        assertEquals(transportData.getSecond(), stage.getLastStation());
+        assertEquals(0, stage.getPassedStopsCount());
+        assertEquals(KnownTramRoute.getRed(TramTransportDataForTestFactory.routeDate).shortName(), stage.getRoute().getShortName());
+        assertMinutesEquals(11, stage.getDuration());
+        assertEquals(TramTime.of(8, 0), stage.getFirstDepartureTime());
+        assertTrue(stage.hasBoardingPlatform());
+
+        assertEquals(TramTime.of(8, 0), journey.getDepartTime());
+        assertEquals(TramTime.of(8, 11), journey.getArrivalTime());
+    }
+
+    @Test
+    void shouldHaveJourneyWithChangeAtInterchange() {
+        replayAll();
+        List<Journey> journeys = calculate(transportData.getFirst(), transportData.getFifthStation(), TramTime.of(7, 57));
+        verifyAll();
+
+        assertEquals(1, journeys.size(), journeys.toString());
+        Journey journey = journeys.getFirst();
+        assertEquals(2, journey.getStages().size());
+
+        final TransportStage<?, ?> firstStage = journey.getStages().get(0);
+        final TransportStage<?, ?> secondStage = journey.getStages().get(1);
+
+        assertEquals(1, firstStage.getPassedStopsCount());
+        assertMinutesEquals(11 + 9, firstStage.getDuration());
+        assertEquals(transportData.getInterchange(), firstStage.getLastStation());
+
+        assertEquals(0, secondStage.getPassedStopsCount());
+        assertMinutesEquals(4, secondStage.getDuration());
+        assertEquals(transportData.getInterchange(), secondStage.getFirstStation());
+
+        List<Station> expectedPath = Arrays.asList(transportData.getFirst(), transportData.getSecond(),
+                transportData.getInterchange(), transportData.getFifthStation());
+        assertEquals(expectedPath, journey.getPath());
+    }
+
+    @Test
+    void shouldHaveNoJourneyInWrongDirection() {
+        replayAll();
+        List<Journey> journeys = calculate(transportData.getSecond(), transportData.getFirst(), TramTime.of(7, 57));
+        verifyAll();
+
+        assertTrue(journeys.isEmpty());
+    }
+
+    @Test
+    void shouldHaveNoJourneyAfterLastTrip() {
+        replayAll();
+        List<Journey> journeys = calculate(transportData.getFirst(), transportData.getInterchange(), TramTime.of(10, 0));
+        verifyAll();
+
+        assertTrue(journeys.isEmpty());
+    }
+
+    @Test
+    void shouldFindDeparturesAcrossWindowInOneSearch() {
+        replayAll();
+        List<Journey> journeys = calculate(transportData.getInterchange(), transportData.getFourthStation(), TramTime.of(8, 25));
+        verifyAll();
+
+        // last query time 08:25 + 3*20, plus max wait of 25 minutes, covers all three trips
+        assertEquals(3, journeys.size(), journeys.toString());
+        List<TramTime> departs = journeys.stream().map(Journey::getDepartTime).toList();
+        assertEquals(Arrays.asList(TramTime.of(8, 31), TramTime.of(9, 15), TramTime.of(9, 25)), departs);
+        journeys.forEach(journey -> assertEquals(1, journey.getStages().size()));
+    }
+
+    @Test
+    void shouldHaveSimpleJourneyArriveBy() {
+        replayAll();
+        List<Journey> journeys = calculateArriveBy(transportData.getFirst(), transportData.getSecond(), TramTime.of(8, 15));
+        verifyAll();
+
+        assertEquals(1, journeys.size(), journeys.toString());
+        Journey journey = journeys.getFirst();
+        assertEquals(1, journey.getStages().size());
+        assertEquals(TramTime.of(8, 0), journey.getDepartTime());
+        assertEquals(TramTime.of(8, 11), journey.getArrivalTime());
+        assertEquals(TramTime.of(8, 15), journey.getQueryTime());
+    }
+
+    @Test
+    void shouldHaveJourneyWithChangeAtInterchangeArriveBy() {
+        replayAll();
+        List<Journey> journeys = calculateArriveBy(transportData.getFirst(), transportData.getFifthStation(), TramTime.of(8, 40));
+        verifyAll();
+
+        assertEquals(1, journeys.size(), journeys.toString());
+        Journey journey = journeys.getFirst();
+        assertEquals(2, journey.getStages().size());
+        assertEquals(TramTime.of(8, 0), journey.getDepartTime());
+        assertEquals(transportData.getInterchange(), journey.getStages().get(1).getFirstStation());
+    }
+
+    @Test
+    void shouldFindLatestDeparturesArrivingBy() {
+        replayAll();
+        List<Journey> journeys = calculateArriveBy(transportData.getInterchange(), transportData.getFourthStation(), TramTime.of(9, 20));
+        verifyAll();
+
+        // trip leaving at 09:25 arrives too late
+        assertEquals(2, journeys.size(), journeys.toString());
+        assertEquals(TramTime.of(9, 15), journeys.get(0).getDepartTime());
+        assertEquals(TramTime.of(8, 31), journeys.get(1).getDepartTime());
+    }
+
+    @Test
+    void shouldHaveNoJourneyArrivingBeforeFirstTrip() {
+        replayAll();
+        List<Journey> journeys = calculateArriveBy(transportData.getFirst(), transportData.getSecond(), TramTime.of(8, 10));
+        verifyAll();
+
+        assertTrue(journeys.isEmpty());
+    }
+
+    @Test
+    void shouldUseGraphArriveByWhenNotStationToStation() {
+        final MyLocation start = new MyLocation(new LatLong(53.38, -2.34));
+        final Station dest = transportData.getSecond();
+
+        EasyMock.expect(graphArriveByCalculator.calculateRoute(EasyMock.isNull(), EasyMock.eq(start), EasyMock.eq(dest),
+                EasyMock.anyObject(JourneyRequest.class), EasyMock.anyObject())).andReturn(Stream.empty());
+
+        replayAll();
+        JourneyRequest journeyRequest = new JourneyRequest(queryDate, TramTime.of(8, 15), true, 1,
+                TramDuration.ofMinutes(120), 3, TransportMode.TramsOnly);
+        List<Journey> journeys = calculator.calculateRouteArriveBy(null, start, dest, journeyRequest, () -> true).toList();
+        verifyAll();
+
+        assertTrue(journeys.isEmpty());
+    }
+
+    @Test
+    void shouldConvertMinutesAndTimes() {
+        assertEquals(TramTime.of(8, 26), RaptorIndex.toTramTime(RaptorIndex.toMinutes(TramTime.of(8, 26))));
+        assertEquals(TramTime.nextDay(0, 14), RaptorIndex.toTramTime(RaptorIndex.toMinutes(TramTime.nextDay(0, 14))));
+        assertTrue(RaptorIndex.toMinutes(TramTime.nextDay(0, 14)) > RaptorIndex.toMinutes(TramTime.of(23, 50)));
+    }
+
+    private List<Journey> calculate(Station start, Station dest, TramTime time) {
+        JourneyRequest journeyRequest = new JourneyRequest(queryDate, time, false, 1,
+                TramDuration.ofMinutes(120), 3, TransportMode.TramsOnly);
+        return calculator.calculateRoute(null, start, dest, journeyRequest, () -> true).toList();
+    }
+
+    private List<Journey> calculateArriveBy(Station start, Station dest, TramTime time) {
+        JourneyRequest journeyRequest = new JourneyRequest(queryDate, time, true, 1,
+                TramDuration.ofMinutes(120), 3, TransportMode.TramsOnly);
+        return calculator.calculateRouteArriveBy(null, start, dest, journeyRequest, () -> true).toList();
+    }
+}